@@ -0,0 +1,187 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.stanissudo.jycs_crafters.database.FleetSort;
+import com.stanissudo.jycs_crafters.database.FuelEntryDAO;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.VehicleDAO;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+import com.stanissudo.jycs_crafters.database.entities.VehicleStats;
+import com.stanissudo.jycs_crafters.database.pojos.CarCostStats;
+import com.stanissudo.jycs_crafters.database.pojos.CarDistanceStats;
+import com.stanissudo.jycs_crafters.database.pojos.CarEconomyStats;
+import com.stanissudo.jycs_crafters.database.pojos.FleetSummary;
+import com.stanissudo.jycs_crafters.database.pojos.VehicleSummary;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks that the fleet overview's rollup-only query gives every vehicle of a user the same numbers
+ * as the per-car stats queries, including cars with an empty log, leaves out other users' cars, and
+ * that the rollup's last fill-up and MPG totals follow every kind of fuel log write.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FleetSummaryTest {
+
+    // Makes LiveData observeForever run synchronously
+    @Rule public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 8, 0);
+
+    private FuelTrackAppDatabase db;
+    private VehicleDAO vehicleDAO;
+    private FuelEntryDAO fuelDAO;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        vehicleDAO = db.vehicleDAO();
+        fuelDAO = db.fuelEntryDAO();
+        ParentRows.addUsers(db, 1, 2);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void matchesPerCarStats() {
+        int civic = (int) vehicleDAO.insert(new Vehicle(1, "Civic", "Honda", "Civic", 2018));
+        int truck = (int) vehicleDAO.insert(new Vehicle(1, "Truck", "Ford", "F-150", 2015));
+        fuelDAO.insertRecord(new FuelEntry(civic, 1000, 3.459, 10.0, T0));
+        fuelDAO.insertRecord(new FuelEntry(civic, 1320, 3.599, 9.5, T0.plusDays(7)));
+        fuelDAO.insertRecord(new FuelEntry(civic, 1650, 3.389, 11.2, T0.plusDays(15)));
+        fuelDAO.insertRecord(new FuelEntry(truck, 52000, 3.899, 20.0, T0.plusDays(2)));
+        fuelDAO.insertRecord(new FuelEntry(truck, 52310, 3.799, 19.4, T0.plusDays(9)));
+
+        FleetSummary fleet = new FleetSummary(vehicleDAO.getFleetSummariesNow(1));
+
+        assertEquals(2, fleet.size());
+        for (int id : new int[]{civic, truck}) {
+            assertCostEquals(read(fuelDAO.getCostStatsForVehicle(id)), fleet.costStats(id));
+            assertDistanceEquals(read(fuelDAO.getDistanceStatsForVehicle(id)), fleet.distanceStats(id));
+            CarEconomyStats economy = read(fuelDAO.getEconomyStatsForVehicle(id));
+            assertEquals(economy.averageMpgMilli(), fleet.get(id).averageMpgMilli());
+        }
+        assertEquals(EpochTime.toEpochMillis(T0.plusDays(15)), (long) fleet.get(civic).lastFillUpMillis);
+        assertEquals("Civic", fleet.get(civic).name);
+    }
+
+    @Test
+    public void emptyLogAndOtherUsers() {
+        int empty = (int) vehicleDAO.insert(new Vehicle(1, "New", "Kia", "Soul", 2024));
+        int other = (int) vehicleDAO.insert(new Vehicle(2, "Theirs", "Mazda", "3", 2020));
+        fuelDAO.insertRecord(new FuelEntry(other, 100, 3.5, 10.0, T0));
+
+        List<VehicleSummary> rows = vehicleDAO.getFleetSummariesNow(1);
+
+        assertEquals(1, rows.size());
+        VehicleSummary row = rows.get(0);
+        assertEquals(empty, row.vehicleId);
+        assertEquals(0, row.fillUpsCount);
+        assertEquals(0, row.distance());
+        assertNull(row.lastFillUpMillis);
+        assertNull(row.averageMpgMilli());
+        assertNull(new FleetSummary(rows).costStats(empty));
+        assertNull(new FleetSummary(rows).get(other));
+    }
+
+    @Test
+    public void liveSummaryFollowsWritesAndSorts() {
+        int a = (int) vehicleDAO.insert(new Vehicle(1, "A", "Honda", "Fit", 2012));
+        int b = (int) vehicleDAO.insert(new Vehicle(1, "B", "Toyota", "Yaris", 2014));
+        fuelDAO.insertRecord(new FuelEntry(a, 1000, 3.5, 10.0, T0));
+        LiveData<List<VehicleSummary>> live = vehicleDAO.getFleetSummaries(1);
+        assertEquals(1, read(live).stream().filter(s -> s.vehicleId == a).findFirst().get().fillUpsCount);
+
+        fuelDAO.insertRecord(new FuelEntry(b, 2000, 3.5, 30.0, T0.plusDays(1)));
+        FleetSummary fleet = new FleetSummary(read(live));
+
+        List<VehicleSummary> byCost = fleet.sorted(FleetSort.TOTAL_COST, false);
+        assertEquals(b, byCost.get(0).vehicleId);
+        assertEquals(a, fleet.sorted(FleetSort.TOTAL_COST, true).get(0).vehicleId);
+        assertEquals(a, fleet.sorted(FleetSort.NAME, false).get(0).vehicleId);
+    }
+
+    @Test
+    public void rollupFollowsEditsDeletesAndBatches() {
+        int car = (int) vehicleDAO.insert(new Vehicle(1, "Civic", "Honda", "Civic", 2018));
+        fuelDAO.insertRecord(new FuelEntry(car, 1000, 3.5, 10.0, T0));
+        fuelDAO.insertRecord(new FuelEntry(car, 1300, 3.5, 10.0, T0.plusDays(7)));
+        assertRollupMatchesLog(car);
+
+        // One backdated row, one at the end.
+        fuelDAO.insertRecords(Arrays.asList(
+                new FuelEntry(car, 1150, 3.5, 5.0, T0.plusDays(3)),
+                new FuelEntry(car, 1600, 3.5, 12.0, T0.plusDays(14))));
+        assertRollupMatchesLog(car);
+
+        FuelEntry edited = fuelDAO.getFirstEntriesPage(car, 2).get(1);
+        edited.setGallons(8.0);
+        edited.setOdometer(1350);
+        fuelDAO.updateRecord(edited);
+        assertRollupMatchesLog(car);
+
+        fuelDAO.deleteRecordById(fuelDAO.getFirstEntriesPage(car, 1).get(0).getLogID());
+        assertRollupMatchesLog(car);
+        assertEquals(EpochTime.toEpochMillis(T0.plusDays(7)), (long) fuelDAO.getVehicleStats(car).getLastFillUpMillis());
+    }
+
+    /** The rollup's incremental totals equal a fresh aggregate of the log. */
+    private void assertRollupMatchesLog(int car) {
+        CarEconomyStats economy = read(fuelDAO.getEconomyStatsForVehicle(car));
+        VehicleStats s = fuelDAO.getVehicleStats(car);
+        assertEquals(economy.measuredDistance, s.getMeasuredDistance());
+        assertEquals(economy.measuredGallonsMilli, s.getMeasuredGallonsMilli());
+        long newest = fuelDAO.getFirstEntriesPage(car, 1).get(0).getLogDateMillis();
+        assertEquals(newest, (long) s.getLastFillUpMillis());
+    }
+
+    private static void assertCostEquals(CarCostStats expected, CarCostStats actual) {
+        assertNotNull(actual);
+        assertEquals(expected.fillUpsCount, actual.fillUpsCount);
+        assertEquals(expected.totalCostCents, actual.totalCostCents);
+        assertEquals(expected.avgPriceTenthCents, actual.avgPriceTenthCents);
+        assertEquals(expected.avgCostPerFillUpCents, actual.avgCostPerFillUpCents);
+    }
+
+    private static void assertDistanceEquals(CarDistanceStats expected, CarDistanceStats actual) {
+        assertNotNull(actual);
+        assertEquals(expected.lastOdometer, actual.lastOdometer);
+        assertEquals(expected.totalDistance, actual.totalDistance);
+        assertEquals(expected.avgDistancePerFillUp, actual.avgDistancePerFillUp, 0.0);
+    }
+
+    private static <T> T read(LiveData<T> liveData) {
+        final Object[] box = new Object[1];
+        Observer<T> obs = v -> box[0] = v;
+        liveData.observeForever(obs);
+        liveData.removeObserver(obs);
+        @SuppressWarnings("unchecked") T value = (T) box[0];
+        return value;
+    }
+}
@@ -0,0 +1,234 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.stanissudo.jycs_crafters.database.FuelEntryDAO;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.pojos.CarEconomyStats;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks that the stored distance and MPG of each entry follow inserts in and out of date order,
+ * edits that move an entry, and deletes, always matching a full recompute of the car's log, and
+ * that the economy card aggregates them.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FuelEconomyTest {
+
+    // Makes LiveData observeForever run synchronously
+    @Rule public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 8, 0);
+
+    private FuelTrackAppDatabase db;
+    private FuelEntryDAO dao;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        dao = db.fuelEntryDAO();
+        ParentRows.addCars(db, 1, 2, 4);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void firstEntryHasNoEconomy() {
+        dao.insertRecord(new FuelEntry(1, 1000, 3.5, 10.0, T0));
+        FuelEntry only = dao.getFirstEntriesPage(1, 1).get(0);
+        assertNull(only.getDistanceSincePrev());
+        assertNull(only.getMpgMilli());
+    }
+
+    @Test
+    public void insertsInDateOrder() {
+        dao.insertRecord(new FuelEntry(1, 1000, 3.5, 10.0, T0));
+        dao.insertRecord(new FuelEntry(1, 1300, 3.5, 10.0, T0.plusDays(7)));
+
+        FuelEntry second = dao.getFirstEntriesPage(1, 1).get(0);
+        assertEquals(300, (int) second.getDistanceSincePrev());
+        assertEquals(30_000L, (long) second.getMpgMilli());
+        assertStoredMatchesRecompute(1);
+    }
+
+    @Test
+    public void backdatedInsertFixesItsSuccessor() {
+        dao.insertRecord(new FuelEntry(1, 1000, 3.5, 10.0, T0));
+        dao.insertRecord(new FuelEntry(1, 1600, 3.5, 12.0, T0.plusDays(14)));
+        // Lands between the two, so the later one now measures from it.
+        dao.insertRecord(new FuelEntry(1, 1250, 3.5, 8.0, T0.plusDays(7)));
+
+        List<FuelEntry> newestFirst = dao.getFirstEntriesPage(1, 3);
+        assertEquals(350, (int) newestFirst.get(0).getDistanceSincePrev());
+        assertEquals(29_167L, (long) newestFirst.get(0).getMpgMilli());
+        assertEquals(250, (int) newestFirst.get(1).getDistanceSincePrev());
+        assertEquals(31_250L, (long) newestFirst.get(1).getMpgMilli());
+        assertNull(newestFirst.get(2).getDistanceSincePrev());
+        assertStoredMatchesRecompute(1);
+    }
+
+    @Test
+    public void editThatMovesAnEntryFixesOldAndNewNeighbors() {
+        dao.insertRecord(new FuelEntry(1, 1000, 3.5, 10.0, T0));
+        dao.insertRecord(new FuelEntry(1, 1200, 3.5, 10.0, T0.plusDays(7)));
+        dao.insertRecord(new FuelEntry(1, 1500, 3.5, 10.0, T0.plusDays(14)));
+        dao.insertRecord(new FuelEntry(1, 1900, 3.5, 10.0, T0.plusDays(21)));
+
+        // Move the second entry after the last one.
+        FuelEntry moved = dao.getFirstEntriesPage(1, 4).get(2);
+        moved.setLogDate(T0.plusDays(28));
+        moved.setOdometer(2100);
+        dao.updateRecord(moved);
+        assertStoredMatchesRecompute(1);
+
+        // Change only the fuel; the successor's distance must not move.
+        FuelEntry fuel = dao.getFirstEntriesPage(1, 4).get(2);
+        fuel.setGallons(0);
+        dao.updateRecord(fuel);
+        FuelEntry edited = dao.getEntryById(fuel.getLogID());
+        assertNotNull(edited.getDistanceSincePrev());
+        assertNull("No fuel, no MPG", edited.getMpgMilli());
+        assertStoredMatchesRecompute(1);
+    }
+
+    @Test
+    public void deleteFixesTheSuccessor() {
+        dao.insertRecord(new FuelEntry(1, 1000, 3.5, 10.0, T0));
+        dao.insertRecord(new FuelEntry(1, 1200, 3.5, 10.0, T0.plusDays(7)));
+        dao.insertRecord(new FuelEntry(1, 1500, 3.5, 10.0, T0.plusDays(14)));
+
+        dao.deleteRecordById(dao.getFirstEntriesPage(1, 3).get(1).getLogID());
+        assertEquals(500, (int) dao.getFirstEntriesPage(1, 1).get(0).getDistanceSincePrev());
+
+        dao.deleteRecordById(dao.getFirstEntriesPage(1, 2).get(1).getLogID());
+        assertNull("Now the car's first entry", dao.getFirstEntriesPage(1, 1).get(0).getDistanceSincePrev());
+        assertStoredMatchesRecompute(1);
+    }
+
+    @Test
+    public void batchInsertMatchesRecomputeAndLeavesOtherCarsAlone() {
+        dao.insertRecord(new FuelEntry(2, 500, 3.5, 10.0, T0));
+        dao.insertRecord(new FuelEntry(2, 800, 3.5, 10.0, T0.plusDays(3)));
+        // Shuffled, and interleaved with an entry already in the log.
+        dao.insertRecord(new FuelEntry(1, 1400, 3.5, 10.0, T0.plusDays(10)));
+        dao.insertRecords(Arrays.asList(
+                new FuelEntry(1, 1700, 3.5, 9.0, T0.plusDays(15)),
+                new FuelEntry(1, 1000, 3.5, 11.0, T0),
+                new FuelEntry(1, 1200, 3.5, 7.5, T0.plusDays(5))));
+
+        assertStoredMatchesRecompute(1);
+        assertStoredMatchesRecompute(2);
+        assertEquals(300, (int) dao.getFirstEntriesPage(2, 1).get(0).getDistanceSincePrev());
+    }
+
+    @Test
+    public void appendedBatchOnlyWalksFromItsEarliestRow() {
+        dao.insertRecord(new FuelEntry(1, 1000, 3.5, 10.0, T0));
+        dao.insertRecord(new FuelEntry(1, 1300, 3.5, 10.0, T0.plusDays(7)));
+        dao.insertRecord(new FuelEntry(1, 1500, 3.5, 8.0, T0.plusDays(14)));
+        // A wrong value the batch must not touch: a full re-walk would fix it.
+        long planted = dao.getFirstEntriesPage(1, 2).get(1).getLogID();
+        dao.setEconomy(planted, 1, 1L);
+
+        dao.insertRecords(Arrays.asList(
+                new FuelEntry(1, 1900, 3.5, 10.0, T0.plusDays(21)),
+                new FuelEntry(1, 2100, 3.5, 8.0, T0.plusDays(28))));
+
+        assertEquals(1, (int) dao.getEntryById(planted).getDistanceSincePrev());
+        List<FuelEntry> newestFirst = dao.getFirstEntriesPage(1, 2);
+        assertEquals(200, (int) newestFirst.get(0).getDistanceSincePrev());
+        // The batch's first row is measured from the newest entry already in the log.
+        assertEquals(400, (int) newestFirst.get(1).getDistanceSincePrev());
+        assertEquals(40_000L, (long) newestFirst.get(1).getMpgMilli());
+    }
+
+    @Test
+    public void backfillWalksEveryCarOnce() {
+        dao.insertRecord(new FuelEntry(1, 1000, 3.5, 10.0, T0));
+        dao.insertRecord(new FuelEntry(1, 1300, 3.5, 10.0, T0.plusDays(7)));
+        dao.insertRecord(new FuelEntry(4, 100, 3.5, 10.0, T0));
+        dao.insertRecord(new FuelEntry(4, 400, 3.5, 10.0, T0.plusDays(7)));
+        // As right after the 7 -> 8 migration: columns present but empty.
+        db.getOpenHelper().getWritableDatabase().execSQL("UPDATE " + FuelTrackAppDatabase.FUEL_LOG_TABLE
+                + " SET DistanceSincePrev = NULL, MpgMilli = NULL");
+
+        List<Integer> visited = new ArrayList<>();
+        Integer car = dao.getNextLoggedCarId(0);
+        while (car != null) {
+            visited.add(car);
+            assertEquals(1, dao.recomputeEconomyForCar(car));
+            car = dao.getNextLoggedCarId(car);
+        }
+
+        assertEquals(Arrays.asList(1, 4), visited);
+        assertEquals(0, dao.recomputeEconomyForCar(1));
+        assertEquals(300, (int) dao.getFirstEntriesPage(4, 1).get(0).getDistanceSincePrev());
+    }
+
+    @Test
+    public void economyStatsAggregateStoredValues() {
+        assertEquals(0, read(dao.getEconomyStatsForVehicle(1)).measuredFillUps);
+
+        dao.insertRecord(new FuelEntry(1, 1000, 3.5, 10.0, T0));
+        dao.insertRecord(new FuelEntry(1, 1300, 3.5, 10.0, T0.plusDays(7)));  // 30 MPG
+        dao.insertRecord(new FuelEntry(1, 1500, 3.5, 8.0, T0.plusDays(14)));  // 25 MPG
+
+        CarEconomyStats s = read(dao.getEconomyStatsForVehicle(1));
+        assertEquals(2, s.measuredFillUps);
+        assertEquals(500, s.measuredDistance);
+        assertEquals(18_000, s.measuredGallonsMilli);
+        assertEquals(27_778L, (long) s.averageMpgMilli());
+        assertEquals(30_000L, (long) s.bestMpgMilli);
+        assertEquals(25_000L, (long) s.worstMpgMilli);
+        assertEquals(25_000L, (long) s.lastMpgMilli);
+    }
+
+    /** Every stored value equals what a fresh walk of the car's log computes. */
+    private void assertStoredMatchesRecompute(int carId) {
+        List<FuelEntry> newestFirst = dao.getFirstEntriesPage(carId, Integer.MAX_VALUE);
+        for (int i = 0; i < newestFirst.size(); i++) {
+            FuelEntry stored = newestFirst.get(i);
+            FuelEntry expected = dao.getEntryById(stored.getLogID());
+            Integer prev = i + 1 < newestFirst.size() ? newestFirst.get(i + 1).getOdometer() : null;
+            expected.applyEconomy(prev);
+            assertEquals("LogID " + stored.getLogID(), expected.getDistanceSincePrev(), stored.getDistanceSincePrev());
+            assertEquals("LogID " + stored.getLogID(), expected.getMpgMilli(), stored.getMpgMilli());
+        }
+        assertEquals("Incremental upkeep left stale rows", 0, dao.recomputeEconomyForCar(carId));
+    }
+
+    private static <T> T read(LiveData<T> liveData) {
+        List<T> box = new ArrayList<>();
+        Observer<T> obs = box::add;
+        liveData.observeForever(obs);
+        liveData.removeObserver(obs);
+        assertFalse("LiveData did not emit", box.isEmpty());
+        return box.get(box.size() - 1);
+    }
+}
@@ -0,0 +1,170 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.stanissudo.jycs_crafters.database.FuelEntryDAO;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.transfer.FuelEntryCsvImporter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Validation rules of {@link FuelEntryCsvImporter}, plus a 1M-row import that reports rows/sec.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FuelEntryCsvImporterTest {
+
+    private static final String BENCH_DB = "import-benchmark.db";
+
+    private Context ctx;
+    private FuelTrackAppDatabase db;
+    private FuelEntryDAO dao;
+
+    @Before
+    public void setUp() {
+        ctx = ApplicationProvider.getApplicationContext();
+        ctx.deleteDatabase(BENCH_DB);
+        // File-backed so the benchmark pays for real journal writes.
+        db = Room.databaseBuilder(ctx, FuelTrackAppDatabase.class, BENCH_DB)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        dao = db.fuelEntryDAO();
+        ParentRows.addCars(db, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        ctx.deleteDatabase(BENCH_DB);
+    }
+
+    @Test
+    public void rejectsRowsThatBreakOdometerOrder() {
+        dao.insertRecord(new FuelEntry(1, 500, 3.0, 10.0, LocalDateTime.of(2025, 1, 1, 8, 0)));
+
+        String csv = "CarID,logDate,Odometer,Gallons,PricePerGallon\n" +
+                "1,2025-01-02T08:00,600,10,3.10\n" +   // ok
+                "1,2025-01-03T08:00,550,10,3.10\n" +   // odometer went down
+                "1,2024-12-31T08:00,700,10,3.10\n" +   // older than the last accepted row
+                "2,2025-01-01T08:00,100,8,2.90\n" +    // ok, other car
+                "2,not-a-date,200,8,2.90\n" +          // malformed
+                "42,2025-01-01T08:00,100,8,2.90\n" +   // no such vehicle
+                "1,2025-01-04T08:00,650,10,3.20\n";    // ok
+
+        FuelEntryCsvImporter.Progress p = new FuelEntryCsvImporter(dao, 2).importFrom(new StringReader(csv));
+
+        assertTrue(p.finished);
+        assertNull(p.failure);
+        assertEquals(3, p.imported);
+        assertEquals(4, p.rejected);
+        assertEquals(4, p.errors.size());
+        assertEquals(3, dao.getVehicleStats(1).getFillUpsCount());
+        assertEquals(650, (int) dao.getVehicleStats(1).getMaxOdometer());
+        assertEquals(1, dao.getVehicleStats(2).getFillUpsCount());
+    }
+
+    @Test
+    public void databaseErrorEndsTheImportWithAFailure() {
+        db.getOpenHelper().getWritableDatabase().execSQL("CREATE TRIGGER fail_insert BEFORE INSERT ON "
+                + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHEN NEW.Odometer = 300 BEGIN SELECT RAISE(ABORT, 'disk on fire'); END");
+        String csv = "CarID,logDate,Odometer,Gallons,PricePerGallon\n" +
+                "1,2025-01-01T08:00,100,10,3.10\n" +
+                "1,2025-01-02T08:00,200,10,3.10\n" +  // first batch, committed
+                "1,2025-01-03T08:00,300,10,3.10\n" +  // second batch, rolled back
+                "1,2025-01-04T08:00,400,10,3.10\n" +
+                "1,2025-01-05T08:00,500,10,3.10\n";
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            FuelEntryCsvImporter.Progress p = new FuelEntryCsvImporter(dao, 2, writer).importFrom(new StringReader(csv));
+
+            assertTrue(p.finished);
+            assertNotNull(p.failure);
+            assertTrue(p.failure, p.failure.contains("disk on fire"));
+            assertEquals(2, p.imported);
+            assertEquals(2, dao.getVehicleStats(1).getFillUpsCount());
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    @LargeTest
+    public void importsOneMillionRows() {
+        final int rows = 1_000_000;
+        long start = System.nanoTime();
+        FuelEntryCsvImporter.Progress p = new FuelEntryCsvImporter(dao, FuelEntryCsvImporter.DEFAULT_BATCH_SIZE)
+                .importFrom(new GeneratedCsv(rows, 10));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double rowsPerSec = rows / seconds;
+
+        assertNull(p.failure);
+        assertEquals(rows, p.imported);
+        assertEquals(0, p.rejected);
+        assertEquals(rows / 10, dao.getVehicleStats(3).getFillUpsCount());
+
+        String summary = String.format(Locale.US, "Imported %d rows in %.1fs (%.0f rows/sec)", rows, seconds, rowsPerSec);
+        Log.i(MainActivity.TAG, summary);
+        Bundle results = new Bundle();
+        results.putDouble("import_rows_per_sec", rowsPerSec);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+    }
+
+    /**
+     * Produces a CSV with {@code rows} data lines spread round-robin over {@code cars} cars,
+     * one line at a time, so the benchmark input never sits in memory as a whole.
+     */
+    private static final class GeneratedCsv extends Reader {
+        private final int rows;
+        private final int cars;
+        private final LocalDateTime base = LocalDateTime.of(2000, 1, 1, 0, 0);
+        private String current = "CarID,logDate,Odometer,Gallons,PricePerGallon,TotalCost\n";
+        private int pos;
+        private int next;
+
+        GeneratedCsv(int rows, int cars) {
+            this.rows = rows;
+            this.cars = cars;
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len) {
+            if (pos == current.length()) {
+                if (next == rows) return -1;
+                int car = next % cars + 1;
+                int seq = next / cars;
+                current = car + "," + base.plusHours(seq) + "," + (seq * 300 + car) + ",10.5,3.499,36.74\n";
+                pos = 0;
+                next++;
+            }
+            int n = Math.min(len, current.length() - pos);
+            current.getChars(pos, pos + n, buf, off);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.stanissudo.jycs_crafters.database.FuelEntryDAO;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Maps 100k fuel log rows out of a cursor, once the way the old type converter did (a
+ * {@code LocalDateTime} through {@code ZoneId.systemDefault()} per row) and once by keeping the
+ * epoch millis, and reports the median of each through the instrumentation status. Also times
+ * Room's own mapping of the same rows, which now takes the epoch-millis path.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class FuelEntryCursorMappingBenchmarkTest {
+
+    private static final int CAR_ID = 1;
+    private static final int ROWS = 100_000;
+    private static final int RUNS = 5;
+    private static final String SELECT_ALL = "SELECT * FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE
+            + " WHERE CarID = ? ORDER BY logDate DESC, LogID DESC";
+
+    private FuelTrackAppDatabase db;
+    private FuelEntryDAO dao;
+    // Keeps the legacy conversions reachable so ART cannot drop them.
+    private LocalDateTime legacySink;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        dao = db.fuelEntryDAO();
+        ParentRows.addCars(db, CAR_ID);
+
+        // A fill-up roughly every nine hours, so the rows cross several DST transitions.
+        LocalDateTime base = LocalDateTime.of(2000, 1, 1, 8, 0);
+        List<FuelEntry> batch = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(new FuelEntry(CAR_ID, i * 25, 3.5, 10.0, base.plusMinutes(i * 547L)));
+        }
+        dao.insertRecords(batch);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void mapHundredThousandRows() {
+        long legacy = medianMillis(() -> mapRows(true));
+        long epoch = medianMillis(() -> mapRows(false));
+        long room = medianMillis(() -> dao.getFirstEntriesPage(CAR_ID, ROWS).size());
+
+        Log.i(MainActivity.TAG, String.format(Locale.US,
+                "Map %d rows: legacy=%dms epochMillis=%dms room=%dms", ROWS, legacy, epoch, room));
+        Bundle results = new Bundle();
+        results.putLong("map_legacy_ms", legacy);
+        results.putLong("map_epoch_ms", epoch);
+        results.putLong("map_room_ms", room);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+    }
+
+    @Test
+    public void bothMappingsAgree() {
+        List<FuelEntry> fromRoom = dao.getFirstEntriesPage(CAR_ID, 1_000);
+        for (FuelEntry e : fromRoom) {
+            LocalDateTime legacy = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(e.getLogDateMillis()), ZoneId.systemDefault());
+            assertEquals(legacy, e.getLogDate());
+            assertEquals(e.getLogDateMillis(), EpochTime.toEpochMillis(legacy));
+        }
+    }
+
+    /** Walks the cursor and builds an entity per row; returns the row count. */
+    private int mapRows(boolean legacyDates) {
+        int n = 0;
+        try (Cursor c = db.query(SELECT_ALL, new Object[]{CAR_ID})) {
+            int id = c.getColumnIndexOrThrow("LogID");
+            int car = c.getColumnIndexOrThrow("CarID");
+            int date = c.getColumnIndexOrThrow("logDate");
+            int odo = c.getColumnIndexOrThrow("Odometer");
+            int gallons = c.getColumnIndexOrThrow("GallonsMilli");
+            int price = c.getColumnIndexOrThrow("PriceTenthCents");
+            int total = c.getColumnIndexOrThrow("TotalCostCents");
+            while (c.moveToNext()) {
+                FuelEntry e = new FuelEntry();
+                e.setLogID(c.getLong(id));
+                e.setCarID(c.getInt(car));
+                long millis = c.getLong(date);
+                if (legacyDates) {
+                    // The old entity held this LocalDateTime as its field.
+                    legacySink = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+                }
+                e.setLogDateMillis(millis);
+                e.setOdometer(c.getInt(odo));
+                e.setGallonsMilli(c.getLong(gallons));
+                e.setPriceTenthCents(c.getLong(price));
+                e.setTotalCostCents(c.getLong(total));
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private interface Run {
+        int rows();
+    }
+
+    private static long medianMillis(Run run) {
+        run.rows(); // warm-up
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = SystemClock.elapsedRealtime();
+            assertEquals(ROWS, run.rows());
+            samples[i] = SystemClock.elapsedRealtime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+}
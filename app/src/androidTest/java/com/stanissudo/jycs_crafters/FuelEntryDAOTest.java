@@ -15,6 +15,7 @@ import androidx.test.platform.app.InstrumentationRegistry;
 import com.stanissudo.jycs_crafters.database.FuelEntryDAO;
 import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
 import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.pojos.FuelEntrySaveResult;
 
 import org.junit.After;
 import org.junit.Before;
@@ -43,6 +44,7 @@ public class FuelEntryDAOTest {
                 .allowMainThreadQueries() // OK for tests
                 .build();
         dao = db.fuelEntryDAO();
+        ParentRows.addCars(db, 99);
     }
 
     @After
@@ -154,4 +156,41 @@ public class FuelEntryDAOTest {
         assertEquals(1, after.size());
         assertNotEquals(deleteId, after.get(0).getLogID());
     }
+
+    @Test
+    public void validateAndSaveRejectsOdometerOutsideNeighbours() {
+        LocalDateTime t1 = LocalDateTime.of(2025, 1, 1, 8, 0);
+        LocalDateTime t3 = LocalDateTime.of(2025, 1, 3, 8, 0);
+        assertTrue(dao.validateAndSave(entry(99, t1, 10000, 10.0, 5.00, 50.0)).saved);
+        assertTrue(dao.validateAndSave(entry(99, t3, 10200, 10.0, 5.00, 50.0)).saved);
+
+        // Between the two by date, but not by odometer: nothing is written.
+        FuelEntrySaveResult r = dao.validateAndSave(entry(99, t1.plusDays(1), 10300, 10.0, 5.00, 50.0));
+        assertFalse(r.saved);
+        assertEquals(Integer.valueOf(10000), r.prev);
+        assertEquals(Integer.valueOf(10200), r.next);
+        assertEquals(2, getOrAwaitValue(dao.getEntriesForCar(99)).size());
+
+        assertTrue(dao.validateAndSave(entry(99, t1.plusDays(1), 10100, 10.0, 5.00, 50.0)).saved);
+        assertEquals(3, getOrAwaitValue(dao.getEntriesForCar(99)).size());
+    }
+
+    @Test
+    public void validateAndSaveUpdatesExistingEntryIgnoringItself() {
+        LocalDateTime t1 = LocalDateTime.of(2025, 1, 1, 8, 0);
+        dao.validateAndSave(entry(99, t1, 10000, 10.0, 5.00, 50.0));
+        dao.validateAndSave(entry(99, t1.plusDays(2), 10200, 10.0, 5.00, 50.0));
+
+        FuelEntry newest = getOrAwaitValue(dao.getEntriesForCar(99)).get(0);
+        newest.setOdometer(10150);
+        assertTrue(dao.validateAndSave(newest).saved);
+        assertEquals(10150, (int) getOrAwaitValue(dao.getRecordById((int) newest.getLogID())).getOdometer());
+
+        newest.setOdometer(9000);
+        FuelEntrySaveResult r = dao.validateAndSave(newest);
+        assertFalse(r.saved);
+        assertEquals(Integer.valueOf(10000), r.prev);
+        assertNull(r.next);
+        assertEquals(10150, (int) getOrAwaitValue(dao.getRecordById((int) newest.getLogID())).getOdometer());
+    }
 }
@@ -0,0 +1,121 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.stanissudo.jycs_crafters.database.FuelEntryDAO;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.transfer.FuelEntryCsvImporter;
+import com.stanissudo.jycs_crafters.transfer.FuelEntryExporter;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cursor-driven export: both formats, cancellation, and a CSV round trip through the importer.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FuelEntryExporterTest {
+
+    private static final int ROWS = 1_000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    private FuelTrackAppDatabase db;
+    private FuelEntryDAO dao;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        dao = db.fuelEntryDAO();
+        ParentRows.addCars(db, 5);
+        db.runInTransaction(() -> {
+            for (int i = 0; i < ROWS; i++) {
+                dao.insertRecord(new FuelEntry(5, 1000 + i * 250, 3.25, 11.5, BASE.plusDays(i)));
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private String export(FuelEntryExporter.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Cursor cursor = dao.cursorForCar(5)) {
+            long rows = new FuelEntryExporter().export(cursor, out, format, () -> false);
+            assertEquals(ROWS, rows);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void writesNdjsonOneObjectPerLine() throws IOException, JSONException {
+        String[] lines = export(FuelEntryExporter.Format.NDJSON).split("\n");
+        assertEquals(ROWS, lines.length);
+
+        JSONObject first = new JSONObject(lines[0]);
+        assertEquals(5, first.getInt("CarID"));
+        assertEquals(1000, first.getInt("Odometer"));
+        assertEquals(BASE.toString(), first.getString("logDate"));
+        // 11.5 gal at $3.25 is $37.375, stored to the cent.
+        assertEquals("37.38", first.get("TotalCost").toString());
+        assertEquals("3.25", first.get("PricePerGallon").toString());
+    }
+
+    @Test
+    public void csvRoundTripsThroughImporter() throws IOException {
+        String csv = export(FuelEntryExporter.Format.CSV);
+
+        Context ctx = ApplicationProvider.getApplicationContext();
+        FuelTrackAppDatabase copy = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        try {
+            FuelEntryCsvImporter.Progress p =
+                    new FuelEntryCsvImporter(copy.fuelEntryDAO(), 100).importFrom(new StringReader(csv));
+            assertEquals(ROWS, p.imported);
+            assertEquals(0, p.rejected);
+            assertEquals(dao.getVehicleStats(5).getTotalCostCents(),
+                    copy.fuelEntryDAO().getVehicleStats(5).getTotalCostCents());
+        } finally {
+            copy.close();
+        }
+    }
+
+    @Test
+    public void stopsWhenCancelled() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int[] polls = {0};
+        try (Cursor cursor = dao.cursorForAllCars()) {
+            new FuelEntryExporter().export(cursor, out, FuelEntryExporter.Format.CSV, () -> ++polls[0] > 1);
+            fail("Expected the export to be cancelled");
+        } catch (CancellationException expected) {
+            // Header plus the rows written before the second poll.
+            String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+            assertTrue(lines.length > 1);
+            assertTrue(lines.length < ROWS);
+        }
+    }
+}
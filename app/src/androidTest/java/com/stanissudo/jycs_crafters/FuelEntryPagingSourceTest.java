@@ -0,0 +1,130 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+
+import androidx.paging.PagingSource;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import com.stanissudo.jycs_crafters.database.FuelEntryDAO;
+import com.stanissudo.jycs_crafters.database.FuelEntryPagingSource;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import kotlin.coroutines.EmptyCoroutineContext;
+import kotlinx.coroutines.BuildersKt;
+
+/**
+ * Walks a 100k-row fuel log through {@link FuelEntryPagingSource} one window at a time and checks
+ * that ordering is strict, nothing is skipped, and the heap does not grow with the history size.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class FuelEntryPagingSourceTest {
+
+    private static final int CAR_ID = 7;
+    private static final int ROWS = 100_000;
+    private static final int PAGE = 50;
+
+    private FuelTrackAppDatabase db;
+    private FuelEntryDAO dao;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        dao = db.fuelEntryDAO();
+        ParentRows.addCars(db, CAR_ID);
+
+        // Pairs of rows share a timestamp so the LogID tie-breaker is exercised too.
+        LocalDateTime base = LocalDateTime.of(2000, 1, 1, 0, 0);
+        db.runInTransaction(() -> {
+            for (int i = 0; i < ROWS; i++) {
+                dao.insertRecord(new FuelEntry(CAR_ID, i, 3.5, 10.0, base.plusMinutes(i / 2)));
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private static PagingSource.LoadResult.Page<FuelEntryPagingSource.Key, FuelEntry> load(
+            FuelEntryPagingSource source,
+            PagingSource.LoadParams<FuelEntryPagingSource.Key> params) throws InterruptedException {
+        PagingSource.LoadResult<FuelEntryPagingSource.Key, FuelEntry> result =
+                BuildersKt.<PagingSource.LoadResult<FuelEntryPagingSource.Key, FuelEntry>>runBlocking(
+                        EmptyCoroutineContext.INSTANCE, (scope, cont) -> source.load(params, cont));
+        assertTrue("Unexpected load result: " + result, result instanceof PagingSource.LoadResult.Page);
+        return (PagingSource.LoadResult.Page<FuelEntryPagingSource.Key, FuelEntry>) result;
+    }
+
+    @Test
+    public void walksWholeLogInBoundedWindows() throws InterruptedException {
+        FuelEntryPagingSource source = new FuelEntryPagingSource(db, dao, CAR_ID);
+
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = rt.totalMemory() - rt.freeMemory();
+
+        PagingSource.LoadResult.Page<FuelEntryPagingSource.Key, FuelEntry> page =
+                load(source, new PagingSource.LoadParams.Refresh<>(null, PAGE, false));
+        assertNull(page.getPrevKey());
+
+        int seen = 0;
+        int lastOdometer = Integer.MAX_VALUE;
+        while (true) {
+            List<FuelEntry> data = page.getData();
+            assertTrue(data.size() <= PAGE);
+            for (FuelEntry e : data) {
+                // Odometer grows with insertion order, so newest-first means strictly decreasing.
+                assertTrue(e.getOdometer() < lastOdometer);
+                lastOdometer = e.getOdometer();
+            }
+            seen += data.size();
+            if (page.getNextKey() == null) break;
+            page = load(source, new PagingSource.LoadParams.Append<>(page.getNextKey(), PAGE, false));
+        }
+
+        assertEquals(ROWS, seen);
+        assertEquals(0, lastOdometer);
+
+        // Only one window is alive at a time, so the walk should not leave the heap much larger.
+        System.gc();
+        long heapAfter = rt.totalMemory() - rt.freeMemory();
+        assertTrue("Heap grew by " + (heapAfter - heapBefore) + " bytes",
+                heapAfter - heapBefore < 8L * 1024 * 1024);
+    }
+
+    @Test
+    public void prependLoadsNewerRowsInDisplayOrder() throws InterruptedException {
+        FuelEntryPagingSource source = new FuelEntryPagingSource(db, dao, CAR_ID);
+
+        PagingSource.LoadResult.Page<FuelEntryPagingSource.Key, FuelEntry> first =
+                load(source, new PagingSource.LoadParams.Refresh<>(null, PAGE, false));
+        PagingSource.LoadResult.Page<FuelEntryPagingSource.Key, FuelEntry> second =
+                load(source, new PagingSource.LoadParams.Append<>(first.getNextKey(), PAGE, false));
+        PagingSource.LoadResult.Page<FuelEntryPagingSource.Key, FuelEntry> back =
+                load(source, new PagingSource.LoadParams.Prepend<>(second.getPrevKey(), PAGE, false));
+
+        assertEquals(first.getData().size(), back.getData().size());
+        for (int i = 0; i < first.getData().size(); i++) {
+            assertEquals(first.getData().get(i).getLogID(), back.getData().get(i).getLogID());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.stanissudo.jycs_crafters.database.FuelEntryDAO;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs every {@link FuelEntryDAO} read, update and delete through EXPLAIN QUERY PLAN and fails
+ * if SQLite plans a full table scan or a temporary sort. Only statements without a WHERE clause
+ * may walk a whole index. The SQL is captured from Room's query callback, so the check follows
+ * the generated statements rather than a hand-copied list.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FuelEntryQueryPlanTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    /** SQL + bind args of every statement Room ran against the fuel log. */
+    private static final class Captured {
+        final String sql;
+        final Object[] args;
+
+        Captured(String sql, List<Object> args) {
+            this.sql = sql;
+            this.args = args.toArray();
+        }
+    }
+
+    private final List<Captured> captured = Collections.synchronizedList(new ArrayList<>());
+    private FuelTrackAppDatabase db;
+    private FuelEntryDAO dao;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .setQueryCallback((sql, args) -> {
+                    String head = sql.trim().toUpperCase(Locale.ROOT);
+                    boolean touchesLog = sql.contains(FuelTrackAppDatabase.FUEL_LOG_TABLE)
+                            || sql.contains(FuelTrackAppDatabase.VEHICLE_STATS_TABLE)
+                            || sql.contains(FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE);
+                    if (touchesLog && (head.startsWith("SELECT") || head.startsWith("DELETE")
+                            || head.startsWith("UPDATE"))) {
+                        captured.add(new Captured(sql, args));
+                    }
+                }, Runnable::run)
+                .build();
+        dao = db.fuelEntryDAO();
+        ParentRows.addCars(db, 1);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    /** Subscribes once so Room actually runs the LiveData query. */
+    private static <T> void touch(LiveData<T> liveData) {
+        Observer<T> obs = t -> { };
+        liveData.observeForever(obs);
+        liveData.removeObserver(obs);
+    }
+
+    @Test
+    public void everyFuelLogQueryUsesAnIndex() {
+        LocalDateTime now = LocalDateTime.of(2025, 8, 1, 12, 0);
+        dao.insertRecord(new FuelEntry(1, 1000, 3.5, 10.0, now));
+        long nowMillis = EpochTime.toEpochMillis(now);
+        captured.clear();
+
+        touch(dao.getEntriesForCar(1));
+        touch(dao.getRecordById(1));
+        touch(dao.getCostStatsForVehicle(1));
+        touch(dao.getDistanceStatsForVehicle(1));
+        dao.getFirstEntriesPage(1, 30);
+        dao.getEntriesPageAfter(1, nowMillis, 1, 30);
+        dao.getEntriesPageBefore(1, nowMillis, 1, 30);
+        dao.getPreviousOdometer(1, 1, nowMillis);
+        dao.getNextOdometer(1, 1, nowMillis);
+        dao.getVehicleStats(1);
+        int month = EpochTime.epochMonth(nowMillis);
+        touch(dao.getMonthStatsInRange(1, month - 11, month));
+        dao.getMonthStats(1, month);
+        dao.cursorForCar(1).close();
+        dao.cursorForAllCars().close();
+        dao.odometerCursorForCar(1).close();
+        dao.cursorForCarFrom(1, nowMillis).close();
+        dao.getEntriesByIds(Arrays.asList(1L, 2L));
+        touch(dao.getEconomyStatsForVehicle(1));
+        touch(db.vehicleDAO().getFleetSummaries(1));
+        dao.getNextLoggedCarId(0);
+        dao.recomputeEconomyForCar(1);
+        FuelEntry edited = dao.getEntryById(1);
+        edited.setOdometer(1100);
+        dao.updateRecord(edited);
+        dao.deleteRecordById(1);
+
+        assertFalse("No fuel log statements were captured", captured.isEmpty());
+
+        List<String> failures = new ArrayList<>();
+        synchronized (captured) {
+            for (Captured c : captured) {
+                // Whole-log reads (exports) legitimately walk an index end to end.
+                boolean wholeLog = !c.sql.toUpperCase(Locale.ROOT).contains("WHERE");
+                for (String step : explain(c)) {
+                    String upper = step.toUpperCase(Locale.ROOT);
+                    boolean scan = upper.startsWith("SCAN") && !upper.contains("CONSTANT ROW")
+                            && !(wholeLog && upper.contains("USING"));
+                    if (scan || upper.contains("TEMP B-TREE")) {
+                        failures.add(c.sql + "\n    -> " + step);
+                    }
+                }
+            }
+        }
+        assertTrue("Queries without a usable index:\n" + String.join("\n", failures), failures.isEmpty());
+    }
+
+    private List<String> explain(Captured c) {
+        List<String> steps = new ArrayList<>();
+        try (Cursor cursor = db.getOpenHelper().getReadableDatabase()
+                .query("EXPLAIN QUERY PLAN " + c.sql, c.args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                steps.add(cursor.getString(detail));
+            }
+        }
+        return steps;
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Tests for the batched, resumable legacy password migration.
+ *
+ * - Walks the user table in id order, one page per batch.
+ * - Re-hashes only plaintext passwords and leaves existing hashes alone.
+ * - Resumes from the last id of an interrupted run without revisiting earlier users.
+ */
+
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.LegacyPasswordMigration;
+import com.stanissudo.jycs_crafters.database.UserDAO;
+import com.stanissudo.jycs_crafters.database.entities.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(AndroidJUnit4.class)
+public class LegacyPasswordMigrationTest {
+
+    private static final int USERS = 1_000;
+
+    private FuelTrackAppDatabase db;
+    private UserDAO dao;
+    private final AtomicInteger hashed = new AtomicInteger();
+    private LegacyPasswordMigration migration;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        dao = db.userDAO();
+        db.runInTransaction(() -> {
+            for (int i = 0; i < USERS; i++) {
+                // Every other user already has a "hash".
+                dao.insert(new User("user" + i, i % 2 == 0 ? "plain" + i : "hashed:" + i));
+            }
+        });
+        migration = new LegacyPasswordMigration(dao,
+                pw -> pw.startsWith("hashed:"),
+                pw -> {
+                    hashed.incrementAndGet();
+                    return "hashed:" + pw;
+                });
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void rehashesOnlyPlaintextInBatches() {
+        int lastId = 0;
+        int batches = 0;
+        while ((lastId = migration.runBatch(lastId, 64)) != LegacyPasswordMigration.DONE) {
+            batches++;
+        }
+
+        assertEquals((USERS + 63) / 64, batches);
+        assertEquals(USERS / 2, hashed.get());
+        assertEquals("hashed:plain0", dao.getPasswordForUsername("user0"));
+        assertEquals("hashed:1", dao.getPasswordForUsername("user1"));
+    }
+
+    @Test
+    public void resumesFromSavedIdWithoutRescanning() {
+        int saved = migration.runBatch(0, 100);
+        assertEquals(50, hashed.get());
+
+        // A fresh run (e.g. after the worker was stopped) picks up after the saved id.
+        int lastId = saved;
+        int next;
+        while ((next = migration.runBatch(lastId, 100)) != LegacyPasswordMigration.DONE) {
+            lastId = next;
+        }
+        assertEquals(USERS / 2, hashed.get());
+
+        // Once finished, another pass from the end finds nothing to do.
+        assertEquals(LegacyPasswordMigration.DONE, migration.runBatch(lastId, 100));
+        assertEquals(USERS / 2, hashed.get());
+    }
+}
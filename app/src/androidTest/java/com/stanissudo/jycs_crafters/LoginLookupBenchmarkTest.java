@@ -0,0 +1,141 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.UserDAO;
+import com.stanissudo.jycs_crafters.database.entities.User;
+import com.stanissudo.jycs_crafters.database.pojos.LoginRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Times the login lookup against 100k users: the one-query {@link UserDAO#getLoginRecord} on the
+ * username index, and the same lookup forced to scan the table as every username query did before
+ * the index existed. Reports p50/p99 in microseconds through the instrumentation status; also
+ * checks that a Google sign-in gets the real id of a new or existing account.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class LoginLookupBenchmarkTest {
+
+    private static final int USERS = 100_000;
+    private static final int LOOKUPS = 2_000;
+    private static final int SCANS = 50;
+    private static final String SCAN = "SELECT id, username, password, isAdmin, isActive FROM " +
+            FuelTrackAppDatabase.USER_TABLE + " NOT INDEXED WHERE username = ?";
+
+    private FuelTrackAppDatabase db;
+    private UserDAO dao;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        dao = db.userDAO();
+        db.runInTransaction(() -> {
+            for (int i = 0; i < USERS; i++) {
+                dao.insert(new User(name(i), "pw" + i));
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private static String name(int i) {
+        return String.format(Locale.US, "user%06d@example.com", i);
+    }
+
+    @Test
+    public void loginLookupUsesTheUsernameIndex() {
+        try (Cursor c = db.query("EXPLAIN QUERY PLAN SELECT id, username, password, isAdmin, isActive FROM " +
+                FuelTrackAppDatabase.USER_TABLE + " WHERE username = ?", new Object[]{name(1)})) {
+            StringBuilder plan = new StringBuilder();
+            while (c.moveToNext()) plan.append(c.getString(c.getColumnIndexOrThrow("detail"))).append('\n');
+            assertTrue(plan.toString(), plan.toString().contains("index_" + FuelTrackAppDatabase.USER_TABLE + "_username"));
+        }
+    }
+
+    @Test
+    public void loginLatencyWithHundredThousandUsers() {
+        Random random = new Random(42);
+        long[] indexed = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            int n = random.nextInt(USERS);
+            long start = SystemClock.elapsedRealtimeNanos();
+            LoginRecord r = dao.getLoginRecord(name(n));
+            indexed[i] = SystemClock.elapsedRealtimeNanos() - start;
+            assertEquals("pw" + n, r.password);
+        }
+        long[] scanned = new long[SCANS];
+        for (int i = 0; i < SCANS; i++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            try (Cursor c = db.query(SCAN, new Object[]{name(random.nextInt(USERS))})) {
+                assertTrue(c.moveToFirst());
+            }
+            scanned[i] = SystemClock.elapsedRealtimeNanos() - start;
+        }
+
+        long p50 = percentileMicros(indexed, 50);
+        long p99 = percentileMicros(indexed, 99);
+        long scanP50 = percentileMicros(scanned, 50);
+        long scanP99 = percentileMicros(scanned, 99);
+        Log.i(MainActivity.TAG, String.format(Locale.US,
+                "Login lookup, %d users: indexed p50=%dus p99=%dus, scan p50=%dus p99=%dus",
+                USERS, p50, p99, scanP50, scanP99));
+        Bundle results = new Bundle();
+        results.putLong("login_p50_us", p50);
+        results.putLong("login_p99_us", p99);
+        results.putLong("login_scan_p50_us", scanP50);
+        results.putLong("login_scan_p99_us", scanP99);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+
+        assertTrue("indexed p50 " + p50 + "us vs scan " + scanP50 + "us", p50 * 10 < scanP50);
+    }
+
+    @Test
+    public void googleProvisioningReturnsTheRealId() {
+        LoginRecord existing = dao.insertOrGetLoginRecord(new User(name(7), "other"));
+        assertEquals("pw7", existing.password);
+        assertEquals(8, existing.id); // ids start at 1
+
+        LoginRecord created = dao.insertOrGetLoginRecord(new User("new@example.com", "hash"));
+        assertEquals(USERS + 1, created.id);
+        assertTrue(created.isActive);
+        assertFalse(created.isAdmin);
+        assertEquals(created.id, dao.getLoginRecord("new@example.com").id);
+        assertEquals(1, dao.exists("new@example.com"));
+        assertEquals(0, dao.exists("missing@example.com"));
+    }
+
+    private static long percentileMicros(long[] nanos, int pct) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int i = Math.min(sorted.length - 1, (int) Math.ceil(pct / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(0, i)] / 1_000;
+    }
+}
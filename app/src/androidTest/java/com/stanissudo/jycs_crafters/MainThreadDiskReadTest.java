@@ -0,0 +1,88 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.app.Application;
+import android.app.Instrumentation;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Runs what {@link FuelTrackApplication#onCreate()} starts, then opens the login screen, on a main
+ * thread that reports disk reads and custom slow calls (which is how {@code SessionStore} reports
+ * waiting for its preload). Catches the static helpers the source scan in
+ * {@code NoMainThreadPrefsTest} cannot see. Only violations raised by app code are counted; a
+ * library reading its own files is its business.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MainThreadDiskReadTest {
+
+    private static final String APP_PACKAGE = "com.stanissudo.jycs_crafters.";
+
+    @Test
+    public void startupAndLoginDoNotReadDiskOnTheMainThread() {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        Application app = ApplicationProvider.getApplicationContext();
+        List<Violation> violations = new CopyOnWriteArrayList<>();
+        StrictMode.ThreadPolicy[] previous = new StrictMode.ThreadPolicy[1];
+
+        instrumentation.runOnMainSync(() -> {
+            previous[0] = StrictMode.getThreadPolicy();
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectCustomSlowCalls()
+                    .penaltyListener(Runnable::run, violations::add)
+                    .build());
+        });
+        try {
+            instrumentation.runOnMainSync(() -> FuelTrackApplication.startBackgroundWork(app));
+            try (ActivityScenario<LoginActivity> ignored = ActivityScenario.launch(LoginActivity.class)) {
+                instrumentation.waitForIdleSync();
+            }
+        } finally {
+            instrumentation.runOnMainSync(() -> StrictMode.setThreadPolicy(previous[0]));
+        }
+
+        List<String> ours = new ArrayList<>();
+        for (Violation v : violations) {
+            if (raisedByApp(v)) ours.add(v + " at " + firstAppFrame(v));
+        }
+        assertTrue("Main-thread disk access: " + ours, ours.isEmpty());
+    }
+
+    /** True if the first frame above the platform's own is app code rather than a library's. */
+    private static boolean raisedByApp(Violation v) {
+        for (StackTraceElement frame : v.getStackTrace()) {
+            String c = frame.getClassName();
+            if (c.startsWith(APP_PACKAGE)) return true;
+            if (!isPlatform(c)) return false;
+        }
+        return false;
+    }
+
+    private static String firstAppFrame(Violation v) {
+        for (StackTraceElement frame : v.getStackTrace()) {
+            if (frame.getClassName().startsWith(APP_PACKAGE)) return frame.toString();
+        }
+        return "?";
+    }
+
+    private static boolean isPlatform(String className) {
+        return className.startsWith("android.") || className.startsWith("com.android.")
+                || className.startsWith("java.") || className.startsWith("javax.")
+                || className.startsWith("dalvik.") || className.startsWith("libcore.")
+                || className.startsWith("sun.");
+    }
+}
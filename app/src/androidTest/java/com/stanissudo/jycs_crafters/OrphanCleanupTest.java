@@ -0,0 +1,150 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.stanissudo.jycs_crafters.database.FuelEntryDAO;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.OrphanPurge;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deleting a vehicle or a user takes everything under it along (foreign keys), and
+ * {@link OrphanPurge} clears rows orphaned before the keys existed in batches of bounded size
+ * without touching live data, and reports the space it freed.
+ */
+@RunWith(AndroidJUnit4.class)
+public class OrphanCleanupTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 8, 0);
+
+    private FuelTrackAppDatabase db;
+    private FuelEntryDAO dao;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        dao = db.fuelEntryDAO();
+        ParentRows.addCars(db, 1);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void deletingAVehicleDeletesItsLogAndRollups() {
+        addEntries(1, 3);
+        int month = EpochTime.epochMonth(EpochTime.toEpochMillis(T0));
+        assertNotNull(dao.getMonthStats(1, month));
+
+        db.vehicleDAO().deleteRecordById(1);
+
+        assertTrue(dao.getFirstEntriesPage(1, 100).isEmpty());
+        assertNull(dao.getVehicleStats(1));
+        assertNull(dao.getMonthStats(1, month));
+    }
+
+    @Test
+    public void deletingAUserDeletesTheirVehiclesAndOutbox() {
+        addEntries(1, 3);
+        assertEquals(3, db.changeLogDAO().countPending(ParentRows.OWNER_ID));
+
+        db.userDAO().deleteByUsername("user" + ParentRows.OWNER_ID);
+
+        assertNull(db.vehicleDAO().findById(1));
+        assertTrue(dao.getFirstEntriesPage(1, 100).isEmpty());
+        assertNull(dao.getVehicleStats(1));
+        assertEquals(0, db.changeLogDAO().countPending(ParentRows.OWNER_ID));
+    }
+
+    @Test
+    public void purgeClearsOldOrphansInBoundedBatches() {
+        addEntries(1, 2);
+        // As left behind by deletes before version 11: keys off while the orphans are written.
+        SupportSQLiteDatabase sql = db.getOpenHelper().getWritableDatabase();
+        sql.execSQL("PRAGMA foreign_keys = OFF");
+        addEntries(99, 7);                        // car deleted: 7 entries, a stats row, a month row
+        Vehicle ownerless = new Vehicle(42, "Gone", "Ford", "Focus", 2014);
+        ownerless.setVehicleID(8);
+        db.vehicleDAO().insertVehicle(ownerless);
+        addEntries(8, 3);                         // owner deleted: the vehicle, 3 entries, 3 outbox rows
+        sql.execSQL("PRAGMA foreign_keys = ON");
+        assertTrue(foreignKeyViolations() > 0);
+
+        OrphanPurge purge = new OrphanPurge(db);
+        int total = 0;
+        OrphanPurge.Batch batch;
+        do {
+            batch = purge.runBatch(4);
+            assertTrue(batch.rows <= 4);
+            total += batch.rows;
+        } while (batch.rows > 0);
+
+        // 10 entries, 1 vehicle, 1 stats row, 1 month row, 3 outbox rows; the cascade took car 8's rollups.
+        assertEquals(16, total);
+        assertEquals(0, foreignKeyViolations());
+        assertNull(dao.getVehicleStats(99));
+        assertNull(db.vehicleDAO().findById(8));
+        assertEquals(2, dao.getVehicleStats(1).getFillUpsCount());
+        assertEquals(2, db.changeLogDAO().countPending(ParentRows.OWNER_ID));
+    }
+
+    @Test
+    public void purgeReportsTheSpaceItFreed() {
+        SupportSQLiteDatabase sql = db.getOpenHelper().getWritableDatabase();
+        sql.execSQL("PRAGMA foreign_keys = OFF");
+        // Enough rows to fill many pages, so deleting them empties whole pages.
+        List<FuelEntry> orphans = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) orphans.add(new FuelEntry(99, 1000 + i * 300, 3.5, 10.0, T0.plusHours(i)));
+        dao.insertRecords(orphans);
+        sql.execSQL("PRAGMA foreign_keys = ON");
+
+        OrphanPurge purge = new OrphanPurge(db);
+        long freed = 0;
+        OrphanPurge.Batch batch;
+        do {
+            batch = purge.runBatch(500);
+            freed += batch.bytesFreed;
+        } while (batch.rows > 0);
+
+        assertTrue("Freed " + freed + " bytes", freed > 0);
+        assertTrue(dao.getFirstEntriesPage(99, 1).isEmpty());
+    }
+
+    private void addEntries(int carId, int count) {
+        for (int i = 0; i < count; i++) {
+            dao.insertRecord(new FuelEntry(carId, 1000 + i * 300, 3.5, 10.0, T0.plusHours(i)));
+        }
+    }
+
+    private int foreignKeyViolations() {
+        int n = 0;
+        try (Cursor c = db.getOpenHelper().getReadableDatabase().query("PRAGMA foreign_key_check")) {
+            while (c.moveToNext()) n++;
+        }
+        return n;
+    }
+}
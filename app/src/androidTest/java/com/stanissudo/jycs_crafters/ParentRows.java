@@ -0,0 +1,38 @@
+package com.stanissudo.jycs_crafters;
+
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.entities.User;
+import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+
+/**
+ * Inserts the users and vehicles that test rows point at, since the foreign keys reject a fuel
+ * entry without its vehicle and a vehicle without its owner. Rows are written directly, so
+ * nothing lands in the backup outbox.
+ */
+public final class ParentRows {
+
+    /** Owner of the cars added by {@link #addCars}. */
+    public static final int OWNER_ID = 1;
+
+    private ParentRows() {
+    }
+
+    /** Adds users with the given ids; ids that already exist are left alone. */
+    public static void addUsers(FuelTrackAppDatabase db, int... userIds) {
+        for (int id : userIds) {
+            User u = new User("user" + id, "pw");
+            u.setId(id);
+            db.userDAO().insert(u);
+        }
+    }
+
+    /** Adds vehicles with the given ids, owned by {@link #OWNER_ID}. */
+    public static void addCars(FuelTrackAppDatabase db, int... carIds) {
+        addUsers(db, OWNER_ID);
+        for (int id : carIds) {
+            Vehicle v = new Vehicle(OWNER_ID, "Car " + id, "Make", "Model", 2020);
+            v.setVehicleID(id);
+            db.vehicleDAO().insertVehicle(v);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup timings reported through the instrumentation status. Only public APIs that predate the
+ * non-blocking repository are used, so the same file runs on the commit before it for the
+ * "before" numbers:
+ * <ul>
+ *   <li>{@code getRepository} on the main thread must return without waiting for the database.</li>
+ *   <li>Median time-to-first-frame of {@link LandingPageActivity} and of the launcher
+ *       {@link LoginActivity}, which is the first screen that asks for the repository.</li>
+ * </ul>
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmarkTest {
+
+    private static final int RUNS = 5;
+
+    @Test
+    public void getRepositoryDoesNotBlockTheMainThread() {
+        Application app = ApplicationProvider.getApplicationContext();
+        long[] elapsed = new long[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            long start = SystemClock.elapsedRealtimeNanos();
+            FuelTrackAppRepository repository = FuelTrackAppRepository.getRepository(app);
+            elapsed[0] = SystemClock.elapsedRealtimeNanos() - start;
+            assertNotNull(repository);
+        });
+        long micros = TimeUnit.NANOSECONDS.toMicros(elapsed[0]);
+        Log.i(MainActivity.TAG, "getRepository on the main thread: " + micros + "us");
+        // Reported before asserting, so a blocking build still yields its number.
+        Bundle results = new Bundle();
+        results.putLong("get_repository_us", micros);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+        assertTrue("getRepository took " + micros + "us", elapsed[0] < TimeUnit.MILLISECONDS.toNanos(16));
+    }
+
+    @Test
+    public void timeToFirstFrame() throws InterruptedException {
+        long landing = medianFirstFrameMillis(
+                LandingPageActivity.intentFactory(ApplicationProvider.getApplicationContext(), "bench", false));
+        long login = medianFirstFrameMillis(
+                new Intent(ApplicationProvider.getApplicationContext(), LoginActivity.class));
+
+        Log.i(MainActivity.TAG, String.format(Locale.US,
+                "Time to first frame: LandingPageActivity=%dms LoginActivity=%dms", landing, login));
+        Bundle results = new Bundle();
+        results.putLong("ttff_landing_ms", landing);
+        results.putLong("ttff_login_ms", login);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+    }
+
+    /** Launches {@code intent} {@link #RUNS} times and returns the median launch-to-frame time. */
+    private static long medianFirstFrameMillis(Intent intent) throws InterruptedException {
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            CountDownLatch drawn = new CountDownLatch(1);
+            long start = SystemClock.elapsedRealtime();
+            try (ActivityScenario<Activity> scenario = ActivityScenario.launch(intent)) {
+                // The first frame after RESUMED is the one the user sees.
+                scenario.onActivity(a -> Choreographer.getInstance().postFrameCallback(t -> drawn.countDown()));
+                assertTrue(drawn.await(10, TimeUnit.SECONDS));
+                samples[i] = SystemClock.elapsedRealtime() - start;
+            }
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+}
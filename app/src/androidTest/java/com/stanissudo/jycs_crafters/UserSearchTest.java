@@ -0,0 +1,154 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+
+import androidx.paging.PagingSource;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.UserDAO;
+import com.stanissudo.jycs_crafters.database.UserFilter;
+import com.stanissudo.jycs_crafters.database.UserPagingSource;
+import com.stanissudo.jycs_crafters.database.entities.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import kotlin.coroutines.EmptyCoroutineContext;
+import kotlinx.coroutines.BuildersKt;
+
+/**
+ * The admin user list: usernames are unique, the search index follows inserts, renames and
+ * deletes, and {@link UserPagingSource} walks a filtered or searched list in username order.
+ */
+@RunWith(AndroidJUnit4.class)
+public class UserSearchTest {
+
+    private static final int USERS = 1_000;
+    private static final int PAGE = 40;
+
+    private FuelTrackAppDatabase db;
+    private UserDAO dao;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        dao = db.userDAO();
+
+        // Every third account is deactivated; inserted out of order so the index does the sorting.
+        db.runInTransaction(() -> {
+            for (int i = USERS - 1; i >= 0; i--) {
+                User u = new User(String.format("driver%04d@example.com", i), "pw");
+                u.setDisplayName(i % 2 == 0 ? "Even Driver " + i : "Odd Driver " + i);
+                u.setActive(i % 3 != 0);
+                dao.insert(u);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void duplicateUsernameIsRejected() {
+        dao.insert(new User("driver0001@example.com", "other"));
+        assertEquals(1, dao.exists("driver0001@example.com"));
+        assertEquals(USERS, dao.getAllUsersList().size());
+    }
+
+    @Test
+    public void matchQueryKeepsOnlyWordPrefixes() {
+        assertEquals("jane* d*", UserPagingSource.matchQuery(" Jane.D"));
+        assertEquals("or* x*", UserPagingSource.matchQuery("\"or\" -x*"));
+        assertNull(UserPagingSource.matchQuery(" .@ "));
+        assertNull(UserPagingSource.matchQuery(null));
+    }
+
+    @Test
+    public void searchFollowsRenamesAndDeletes() throws InterruptedException {
+        List<User> odd = walk(UserFilter.ALL, "odd dri");
+        assertEquals(USERS / 2, odd.size());
+
+        User first = odd.get(0);
+        dao.updateDisplayName(first.getId(), "Renamed");
+        assertEquals(USERS / 2 - 1, walk(UserFilter.ALL, "odd").size());
+        List<User> renamed = walk(UserFilter.ALL, "ren");
+        assertEquals(1, renamed.size());
+        assertEquals(first.getUsername(), renamed.get(0).getUsername());
+
+        dao.deleteByUsername(first.getUsername());
+        assertTrue(walk(UserFilter.ALL, "ren").isEmpty());
+
+        // Username words are searchable too.
+        assertEquals(1, walk(UserFilter.ALL, "driver0002").size());
+    }
+
+    @Test
+    public void filteredPagesAreInUsernameOrder() throws InterruptedException {
+        List<User> active = walk(UserFilter.ACTIVE, null);
+        List<User> inactive = walk(UserFilter.INACTIVE, "");
+        assertEquals(USERS, active.size() + inactive.size());
+        assertEquals((USERS + 2) / 3, inactive.size());
+        for (User u : active) assertTrue(u.isActive());
+        for (User u : inactive) assertFalse(u.isActive());
+        for (int i = 1; i < active.size(); i++) {
+            assertTrue(active.get(i - 1).getUsername().compareTo(active.get(i).getUsername()) < 0);
+        }
+
+        List<User> activeEven = walk(UserFilter.ACTIVE, "even");
+        for (User u : activeEven) assertTrue(u.isActive() && u.getDisplayName().startsWith("Even"));
+    }
+
+    @Test
+    public void prependLoadsEarlierUsersInDisplayOrder() throws InterruptedException {
+        UserPagingSource source = new UserPagingSource(db, dao, UserFilter.ALL, null);
+        PagingSource.LoadResult.Page<String, User> first =
+                load(source, new PagingSource.LoadParams.Refresh<>(null, PAGE, false));
+        PagingSource.LoadResult.Page<String, User> second =
+                load(source, new PagingSource.LoadParams.Append<>(first.getNextKey(), PAGE, false));
+        PagingSource.LoadResult.Page<String, User> back =
+                load(source, new PagingSource.LoadParams.Prepend<>(second.getPrevKey(), PAGE, false));
+
+        assertEquals(first.getData().size(), back.getData().size());
+        for (int i = 0; i < first.getData().size(); i++) {
+            assertEquals(first.getData().get(i).getId(), back.getData().get(i).getId());
+        }
+    }
+
+    /** Every user the source lists, loading {@link #PAGE} rows at a time. */
+    private List<User> walk(UserFilter filter, String search) throws InterruptedException {
+        UserPagingSource source = new UserPagingSource(db, dao, filter, search);
+        List<User> all = new ArrayList<>();
+        PagingSource.LoadResult.Page<String, User> page =
+                load(source, new PagingSource.LoadParams.Refresh<>(null, PAGE, false));
+        while (true) {
+            assertTrue(page.getData().size() <= PAGE);
+            all.addAll(page.getData());
+            if (page.getNextKey() == null) return all;
+            page = load(source, new PagingSource.LoadParams.Append<>(page.getNextKey(), PAGE, false));
+        }
+    }
+
+    private static PagingSource.LoadResult.Page<String, User> load(
+            UserPagingSource source, PagingSource.LoadParams<String> params) throws InterruptedException {
+        PagingSource.LoadResult<String, User> result =
+                BuildersKt.<PagingSource.LoadResult<String, User>>runBlocking(
+                        EmptyCoroutineContext.INSTANCE, (scope, cont) -> source.load(params, cont));
+        assertTrue("Unexpected load result: " + result, result instanceof PagingSource.LoadResult.Page);
+        return (PagingSource.LoadResult.Page<String, User>) result;
+    }
+}
@@ -48,6 +48,7 @@ public class VehicleDaoTest {
                 .allowMainThreadQueries() // OK in instrumented tests
                 .build();
         vehicleDAO = db.vehicleDAO();
+        ParentRows.addUsers(db, 1, 2, 3);
     }
 
     @After
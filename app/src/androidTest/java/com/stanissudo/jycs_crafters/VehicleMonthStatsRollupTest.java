@@ -0,0 +1,141 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.stanissudo.jycs_crafters.database.FuelEntryDAO;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.entities.VehicleMonthStats;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that the monthly buckets follow inserts, updates (including moves between months) and
+ * deletes, that a batch insert lands in the same buckets as a rebuild, and that range reads
+ * bring along the previous bucket.
+ */
+@RunWith(AndroidJUnit4.class)
+public class VehicleMonthStatsRollupTest {
+
+    // Makes LiveData observeForever run synchronously
+    @Rule public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private static final LocalDateTime JAN = LocalDateTime.of(2025, 1, 10, 8, 0);
+
+    private FuelTrackAppDatabase db;
+    private FuelEntryDAO dao;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        dao = db.fuelEntryDAO();
+        ParentRows.addCars(db, 1, 2);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private static int month(LocalDateTime t) {
+        return EpochTime.epochMonth(EpochTime.toEpochMillis(t));
+    }
+
+    @Test
+    public void bucketsFollowWrites() {
+        dao.insertRecord(new FuelEntry(1, 1000, 4.00, 10.0, JAN));
+        dao.insertRecord(new FuelEntry(1, 1300, 5.00, 10.0, JAN.plusDays(7)));
+        dao.insertRecord(new FuelEntry(1, 1600, 3.00, 10.0, JAN.plusMonths(1)));
+
+        VehicleMonthStats jan = dao.getMonthStats(1, month(JAN));
+        assertEquals(2, jan.getFillUpsCount());
+        assertEquals(9_000, jan.getTotalCostCents());
+        assertEquals(20_000, jan.getGallonsMilli());
+        assertEquals(1000, (int) jan.getMinOdometer());
+        assertEquals(1300, (int) jan.getMaxOdometer());
+        assertEquals(1, dao.getMonthStats(1, month(JAN) + 1).getFillUpsCount());
+
+        // Moving an entry into February shifts it between buckets.
+        FuelEntry moved = dao.getFirstEntriesPage(1, 2).get(1);
+        moved.setLogDate(JAN.plusMonths(1).minusDays(1));
+        dao.updateRecord(moved);
+        assertEquals(1, dao.getMonthStats(1, month(JAN)).getFillUpsCount());
+        assertEquals(1000, (int) dao.getMonthStats(1, month(JAN)).getMaxOdometer());
+        assertEquals(2, dao.getMonthStats(1, month(JAN) + 1).getFillUpsCount());
+        assertEquals(1300, (int) dao.getMonthStats(1, month(JAN) + 1).getMinOdometer());
+
+        // Deleting a month's last entry removes its bucket.
+        dao.deleteRecordById(dao.getFirstEntriesPage(1, 3).get(2).getLogID());
+        assertNull(dao.getMonthStats(1, month(JAN)));
+    }
+
+    @Test
+    public void batchInsertMatchesRebuild() {
+        List<FuelEntry> batch = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            batch.add(new FuelEntry(1 + i % 2, 1000 + i * 50, 3.00 + i % 7, 9.5, JAN.plusDays(i * 3L)));
+        }
+        dao.insertRecords(batch);
+        List<VehicleMonthStats> incremental = allBuckets();
+
+        dao.rebuildMonthStats();
+        List<VehicleMonthStats> rebuilt = allBuckets();
+
+        assertFalse(incremental.isEmpty());
+        assertEquals(rebuilt.size(), incremental.size());
+        for (int i = 0; i < rebuilt.size(); i++) {
+            assertEquals(rebuilt.get(i).toString(), incremental.get(i).toString());
+        }
+    }
+
+    @Test
+    public void rangeReadIncludesThePreviousBucket() {
+        dao.insertRecord(new FuelEntry(1, 1000, 4.00, 10.0, JAN));
+        dao.insertRecord(new FuelEntry(1, 1300, 4.00, 10.0, JAN.plusMonths(3)));
+        dao.insertRecord(new FuelEntry(1, 1500, 4.00, 10.0, JAN.plusMonths(4)));
+        int from = month(JAN) + 3;
+
+        List<VehicleMonthStats> range = read(dao.getMonthStatsInRange(1, from, from + 11));
+
+        assertEquals(3, range.size());
+        assertEquals(month(JAN), range.get(0).getMonth());
+        assertEquals(from, range.get(1).getMonth());
+    }
+
+    private List<VehicleMonthStats> allBuckets() {
+        List<VehicleMonthStats> all = new ArrayList<>();
+        all.addAll(read(dao.getMonthStatsInRange(1, Integer.MIN_VALUE, Integer.MAX_VALUE)));
+        all.addAll(read(dao.getMonthStatsInRange(2, Integer.MIN_VALUE, Integer.MAX_VALUE)));
+        return all;
+    }
+
+    private static <T> T read(LiveData<T> liveData) {
+        List<T> box = new ArrayList<>();
+        Observer<T> obs = box::add;
+        liveData.observeForever(obs);
+        liveData.removeObserver(obs);
+        assertFalse("LiveData did not emit", box.isEmpty());
+        return box.get(box.size() - 1);
+    }
+}
@@ -0,0 +1,114 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.stanissudo.jycs_crafters.database.FuelEntryDAO;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.entities.VehicleStats;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checks that the VehicleStats rollup follows inserts, updates and deletes, and that a rebuild
+ * restores it after it has drifted.
+ */
+@RunWith(AndroidJUnit4.class)
+public class VehicleStatsRollupTest {
+
+    private FuelTrackAppDatabase db;
+    private FuelEntryDAO dao;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        dao = db.fuelEntryDAO();
+        ParentRows.addCars(db, 1, 2);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void rollupFollowsWrites() {
+        LocalDateTime t = LocalDateTime.of(2025, 1, 1, 8, 0);
+        dao.insertRecord(new FuelEntry(1, 1000, 4.00, 10.0, t));
+        dao.insertRecord(new FuelEntry(1, 1300, 5.00, 10.0, t.plusDays(7)));
+        dao.insertRecord(new FuelEntry(2, 50, 3.00, 5.0, t));
+
+        VehicleStats s = dao.getVehicleStats(1);
+        assertEquals(2, s.getFillUpsCount());
+        assertEquals(90.0, s.getTotalCost(), 1e-6);
+        assertEquals(9.0, s.getPricePerGallonSum(), 1e-6);
+        assertEquals(1000, (int) s.getMinOdometer());
+        assertEquals(1300, (int) s.getMaxOdometer());
+
+        // Moving the newest entry to car 2 shifts it between rollup rows.
+        FuelEntry newest = dao.getFirstEntriesPage(1, 1).get(0);
+        newest.setCarID(2);
+        dao.updateRecord(newest);
+        s = dao.getVehicleStats(1);
+        assertEquals(1, s.getFillUpsCount());
+        assertEquals(40.0, s.getTotalCost(), 1e-6);
+        assertEquals(1000, (int) s.getMaxOdometer());
+        assertEquals(2, dao.getVehicleStats(2).getFillUpsCount());
+        assertEquals(1300, (int) dao.getVehicleStats(2).getMaxOdometer());
+
+        // Deleting the last entry of a car removes its rollup row.
+        dao.deleteRecordById(dao.getFirstEntriesPage(1, 1).get(0).getLogID());
+        assertNull(dao.getVehicleStats(1));
+    }
+
+    @Test
+    public void rebuildRepairsDrift() {
+        LocalDateTime t = LocalDateTime.of(2025, 1, 1, 8, 0);
+        dao.insertRecord(new FuelEntry(1, 1000, 4.00, 10.0, t));
+        dao.insertRecord(new FuelEntry(1, 1300, 5.00, 10.0, t.plusDays(7)));
+
+        // Simulate drift, e.g. from a write that bypassed the DAO wrappers.
+        dao.adjustStats(1, 5, 12_300, 1_000);
+        dao.adjustMeasured(1, 40, 2_000);
+        assertEquals(7, dao.getVehicleStats(1).getFillUpsCount());
+
+        dao.rebuildVehicleStats();
+        VehicleStats s = dao.getVehicleStats(1);
+        assertEquals(2, s.getFillUpsCount());
+        assertEquals(90.0, s.getTotalCost(), 1e-6);
+        assertEquals(9.0, s.getPricePerGallonSum(), 1e-6);
+        assertEquals(1000, (int) s.getMinOdometer());
+        assertEquals(1300, (int) s.getMaxOdometer());
+        assertEquals(EpochTime.toEpochMillis(t.plusDays(7)), (long) s.getLastFillUpMillis());
+        assertEquals(300, s.getMeasuredDistance());
+        assertEquals(10_000, s.getMeasuredGallonsMilli());
+    }
+
+    @Test
+    public void totalsAreExactToTheCent() {
+        LocalDateTime t = LocalDateTime.of(2025, 1, 1, 8, 0);
+        // 0.1 gal at $1.00 = $0.10, a value a REAL column can't hold exactly.
+        for (int i = 0; i < 1_000; i++) {
+            dao.insertRecord(new FuelEntry(1, 1000 + i, 1.00, 0.1, t.plusHours(i)));
+        }
+        assertEquals(10_000, dao.getVehicleStats(1).getTotalCostCents());
+
+        dao.rebuildVehicleStats();
+        assertEquals(10_000, dao.getVehicleStats(1).getTotalCostCents());
+    }
+}
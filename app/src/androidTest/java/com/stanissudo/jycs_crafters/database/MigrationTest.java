@@ -0,0 +1,256 @@
+package com.stanissudo.jycs_crafters.database;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.stanissudo.jycs_crafters.utils.PasswordHasher;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Upgrades a version-3 database, written with the tables as that release created them, through
+ * every migration to the current version and checks it against the exported schema and its rows:
+ * money converted without float truncation, orphans kept for OrphanPurgeWorker, duplicate
+ * usernames renamed, and AUTOINCREMENT counters never moved back.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+    private static final String LEGACY_GOOGLE_HASH = PasswordHasher.sha256Hex("oauth_dummy");
+
+    @Rule
+    public final MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), FuelTrackAppDatabase.class);
+
+    private Context ctx;
+
+    @Before
+    public void setUp() {
+        ctx = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        ctx.deleteDatabase(TEST_DB);
+        createVersion3();
+    }
+
+    @After
+    public void tearDown() {
+        ctx.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void convertsMoneyToFixedPointWithoutTruncating() throws IOException {
+        SupportSQLiteDatabase db = migrateToLatest();
+
+        // 32.99 * 100 is 3298.9999…, which a plain cast would have cut to 3298.
+        assertEquals("10500 3459 3632", moneyOf(db, 1));
+        assertEquals("8250 3999 3299", moneyOf(db, 2));
+        assertEquals("0 0 0", moneyOf(db, 3));
+        assertEquals(6931, longOf(db, "SELECT totalCostCents FROM " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE +
+                " WHERE CarID = 1"));
+        assertEquals(2000, longOf(db, "SELECT lastFillUpMillis FROM " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE +
+                " WHERE CarID = 1"));
+    }
+
+    @Test
+    public void keepsOrphansUnderTheNewForeignKeys() throws IOException {
+        SupportSQLiteDatabase db = migrateToLatest();
+
+        assertEquals(4, longOf(db, "SELECT COUNT(*) FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE));
+        assertEquals(3, longOf(db, "SELECT COUNT(*) FROM " + FuelTrackAppDatabase.VEHICLE_TABLE));
+        List<String> violations = rows(db, "SELECT `table`, rowid FROM pragma_foreign_key_check");
+        assertTrue(violations.toString(), violations.contains(FuelTrackAppDatabase.VEHICLE_TABLE + " 3"));
+        assertTrue(violations.toString(), violations.contains(FuelTrackAppDatabase.FUEL_LOG_TABLE + " 4"));
+
+        assertEquals(List.of(FuelTrackAppDatabase.USER_TABLE + " UserId id CASCADE"),
+                foreignKeys(db, FuelTrackAppDatabase.VEHICLE_TABLE));
+        assertEquals(List.of(FuelTrackAppDatabase.VEHICLE_TABLE + " CarID VehicleID CASCADE"),
+                foreignKeys(db, FuelTrackAppDatabase.FUEL_LOG_TABLE));
+        assertEquals(List.of(FuelTrackAppDatabase.VEHICLE_TABLE + " CarID VehicleID CASCADE"),
+                foreignKeys(db, FuelTrackAppDatabase.VEHICLE_STATS_TABLE));
+        assertEquals(List.of(FuelTrackAppDatabase.VEHICLE_TABLE + " CarID VehicleID CASCADE"),
+                foreignKeys(db, FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE));
+        assertEquals(List.of(FuelTrackAppDatabase.USER_TABLE + " UserId id CASCADE"),
+                foreignKeys(db, FuelTrackAppDatabase.CHANGE_LOG_TABLE));
+    }
+
+    @Test
+    public void recreatesEveryIndex() throws IOException {
+        SupportSQLiteDatabase db = migrateToLatest();
+
+        String log = FuelTrackAppDatabase.FUEL_LOG_TABLE;
+        String vehicles = FuelTrackAppDatabase.VEHICLE_TABLE;
+        String outbox = FuelTrackAppDatabase.CHANGE_LOG_TABLE;
+        assertEquals(Set.of("index_" + log + "_CarID_logDate", "index_" + log + "_CarID_Odometer",
+                "index_" + log + "_SyncId"), indices(db, log));
+        assertEquals(Set.of("index_" + vehicles + "_UserId", "index_" + vehicles + "_UserId_SyncId"),
+                indices(db, vehicles));
+        assertEquals(Set.of("index_" + outbox + "_EntityType_EntityId", "index_" + outbox + "_UserId_Seq",
+                "index_" + outbox + "_UserId_EntityType_SyncKey"), indices(db, outbox));
+        assertEquals(Set.of("index_" + FuelTrackAppDatabase.USER_TABLE + "_username"),
+                indices(db, FuelTrackAppDatabase.USER_TABLE));
+    }
+
+    @Test
+    public void renamesDuplicateUsernamesAndClearsTheSharedPassword() throws IOException {
+        SupportSQLiteDatabase db = migrateToLatest();
+
+        assertEquals(List.of("1 alice pw1", "2 bob " + PasswordHasher.NO_PASSWORD, "3 alice#3 pw3"),
+                rows(db, "SELECT id, username, password FROM " + FuelTrackAppDatabase.USER_TABLE + " ORDER BY id"));
+        assertEquals(2, longOf(db, "SELECT COUNT(*) FROM " + FuelTrackAppDatabase.USER_FTS_TABLE +
+                " WHERE " + FuelTrackAppDatabase.USER_FTS_TABLE + " MATCH 'alice'"));
+    }
+
+    @Test
+    public void keepsAutoincrementCountersPastDeletedRows() throws IOException {
+        SupportSQLiteDatabase db = migrateToLatest();
+
+        assertEquals(List.of(FuelTrackAppDatabase.FUEL_LOG_TABLE + " 5", FuelTrackAppDatabase.USER_TABLE + " 4",
+                        FuelTrackAppDatabase.VEHICLE_TABLE + " 4"),
+                rows(db, "SELECT name, seq FROM sqlite_sequence ORDER BY name"));
+    }
+
+    @Test
+    public void givesEveryRowItsOwnBackupKey() throws IOException {
+        SupportSQLiteDatabase db = migrateToLatest();
+
+        List<String> keys = rows(db, "SELECT SyncId FROM " + FuelTrackAppDatabase.VEHICLE_TABLE +
+                " UNION ALL SELECT SyncId FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE);
+        assertEquals(7, keys.size());
+        assertEquals(7, new HashSet<>(keys).size());
+        for (String key : keys) {
+            assertTrue(key, key.matches("[0-9a-f]{32}"));
+        }
+    }
+
+    /**
+     * Users 1 and 3 share a name; user 4, vehicle 4 and entry 5 were deleted, so each counter is
+     * above its table's highest id. Vehicle 3's owner and entry 4's car no longer exist.
+     */
+    private void createVersion3() {
+        SupportSQLiteOpenHelper.Configuration config = SupportSQLiteOpenHelper.Configuration.builder(ctx)
+                .name(TEST_DB)
+                .callback(new SupportSQLiteOpenHelper.Callback(3) {
+                    @Override
+                    public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                        db.execSQL("CREATE TABLE `FuelEntryTable` (`LogID` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                                "`CarID` INTEGER NOT NULL, `logDate` INTEGER NOT NULL, `Odometer` INTEGER, " +
+                                "`Gallons` REAL, `PricePerGallon` REAL, `TotalCost` REAL)");
+                        db.execSQL("CREATE TABLE `UserTable` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                                "`username` TEXT NOT NULL, `password` TEXT NOT NULL, `isAdmin` INTEGER NOT NULL, " +
+                                "`displayName` TEXT, `isActive` INTEGER NOT NULL)");
+                        db.execSQL("CREATE TABLE `VehicleTable` (`VehicleID` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                                "`UserId` INTEGER NOT NULL, `Name` TEXT, `Make` TEXT, `Model` TEXT, `Year` INTEGER NOT NULL)");
+                    }
+
+                    @Override
+                    public void onUpgrade(@NonNull SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+                    }
+                })
+                .build();
+        try (SupportSQLiteOpenHelper open = new FrameworkSQLiteOpenHelperFactory().create(config)) {
+            SupportSQLiteDatabase db = open.getWritableDatabase();
+            String user = "INSERT INTO UserTable (id, username, password, isAdmin, displayName, isActive) " +
+                    "VALUES (?, ?, ?, 0, ?, 1)";
+            db.execSQL(user, new Object[]{1, "alice", "pw1", "Alice"});
+            db.execSQL(user, new Object[]{2, "bob", LEGACY_GOOGLE_HASH, "Bob"});
+            db.execSQL(user, new Object[]{3, "alice", "pw3", "Alice Again"});
+            db.execSQL(user, new Object[]{4, "carol", "pw4", "Carol"});
+            db.execSQL("DELETE FROM UserTable WHERE id = 4");
+
+            String vehicle = "INSERT INTO VehicleTable (VehicleID, UserId, Name, Make, Model, Year) " +
+                    "VALUES (?, ?, 'Car', 'Make', 'Model', 2020)";
+            db.execSQL(vehicle, new Object[]{1, 1});
+            db.execSQL(vehicle, new Object[]{2, 3});
+            db.execSQL(vehicle, new Object[]{3, 4});
+            db.execSQL(vehicle, new Object[]{4, 1});
+            db.execSQL("DELETE FROM VehicleTable WHERE VehicleID = 4");
+
+            String entry = "INSERT INTO FuelEntryTable (LogID, CarID, logDate, Odometer, Gallons, PricePerGallon, " +
+                    "TotalCost) VALUES (?, ?, ?, ?, ?, ?, ?)";
+            db.execSQL(entry, new Object[]{1, 1, 1000L, 1000, 10.5, 3.459, 36.32});
+            db.execSQL(entry, new Object[]{2, 1, 2000L, 1300, 8.25, 3.999, 32.99});
+            db.execSQL(entry, new Object[]{3, 2, 3000L, null, null, null, null});
+            db.execSQL(entry, new Object[]{4, 9, 4000L, 500, 5.0, 4.0, 20.0});
+            db.execSQL(entry, new Object[]{5, 1, 5000L, 1600, 1.0, 1.0, 1.0});
+            db.execSQL("DELETE FROM FuelEntryTable WHERE LogID = 5");
+        }
+    }
+
+    /** Also checks every table, column, index and key against the exported current schema. */
+    private SupportSQLiteDatabase migrateToLatest() throws IOException {
+        return helper.runMigrationsAndValidate(TEST_DB, 15, true, FuelTrackAppDatabase.ALL_MIGRATIONS);
+    }
+
+    private static String moneyOf(SupportSQLiteDatabase db, long logId) {
+        return rows(db, "SELECT GallonsMilli, PriceTenthCents, TotalCostCents FROM " +
+                FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE LogID = " + logId).get(0);
+    }
+
+    /** One {@code "table from to on_delete"} line per key. */
+    private static List<String> foreignKeys(SupportSQLiteDatabase db, String table) {
+        List<String> keys = new ArrayList<>();
+        try (Cursor c = db.query("PRAGMA foreign_key_list(`" + table + "`)")) {
+            while (c.moveToNext()) {
+                keys.add(c.getString(c.getColumnIndexOrThrow("table")) + " " +
+                        c.getString(c.getColumnIndexOrThrow("from")) + " " +
+                        c.getString(c.getColumnIndexOrThrow("to")) + " " +
+                        c.getString(c.getColumnIndexOrThrow("on_delete")));
+            }
+        }
+        return keys;
+    }
+
+    /** Index names, leaving out the ones SQLite makes for primary keys. */
+    private static Set<String> indices(SupportSQLiteDatabase db, String table) {
+        Set<String> names = new HashSet<>();
+        try (Cursor c = db.query("PRAGMA index_list(`" + table + "`)")) {
+            while (c.moveToNext()) {
+                String name = c.getString(c.getColumnIndexOrThrow("name"));
+                if (!name.startsWith("sqlite_autoindex_")) names.add(name);
+            }
+        }
+        return names;
+    }
+
+    private static long longOf(SupportSQLiteDatabase db, String sql) {
+        try (Cursor c = db.query(sql)) {
+            assertTrue(sql, c.moveToFirst());
+            return c.getLong(0);
+        }
+    }
+
+    /** Each row's columns joined by spaces. */
+    private static List<String> rows(SupportSQLiteDatabase db, String sql) {
+        List<String> rows = new ArrayList<>();
+        try (Cursor c = db.query(sql)) {
+            while (c.moveToNext()) {
+                StringBuilder row = new StringBuilder(String.valueOf(c.getString(0)));
+                for (int i = 1; i < c.getColumnCount(); i++) {
+                    row.append(' ').append(c.getString(i));
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+}
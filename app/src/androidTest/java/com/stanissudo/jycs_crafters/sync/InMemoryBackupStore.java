@@ -0,0 +1,108 @@
+package com.stanissudo.jycs_crafters.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link RemoteBackupStore} in memory, for tests. Behaves like the Firestore one: one document
+ * per key, a store-assigned version in place of the server timestamp (the cursor), and copies of
+ * the rows rather than references. Pushes can be made to fail.
+ */
+final class InMemoryBackupStore implements RemoteBackupStore {
+
+    private final int maxBatch;
+    /** version -> change; a key's older version is removed when it is overwritten. */
+    private final TreeMap<Long, RemoteChange> byVersion = new TreeMap<>();
+    private final Map<String, Long> versionOfKey = new HashMap<>();
+    private long version;
+    private int failuresLeft;
+    int pushCalls;
+
+    InMemoryBackupStore(int maxBatch) {
+        this.maxBatch = maxBatch;
+    }
+
+    /** The next {@code n} pushes throw without storing anything. */
+    synchronized void failNextPushes(int n) {
+        failuresLeft = n;
+    }
+
+    synchronized int size() {
+        return versionOfKey.size();
+    }
+
+    @Nullable
+    synchronized RemoteChange get(String key) {
+        Long v = versionOfKey.get(key);
+        return v == null ? null : byVersion.get(v);
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return maxBatch;
+    }
+
+    @Override
+    public synchronized void push(@NonNull List<RemoteChange> changes) throws IOException {
+        pushCalls++;
+        if (changes.size() > maxBatch) throw new IllegalArgumentException("Batch of " + changes.size());
+        if (failuresLeft > 0) {
+            failuresLeft--;
+            throw new IOException("Simulated network failure");
+        }
+        for (RemoteChange c : changes) {
+            Long old = versionOfKey.put(c.key(), ++version);
+            if (old != null) byVersion.remove(old);
+            byVersion.put(version, copy(c));
+        }
+    }
+
+    @NonNull
+    @Override
+    public synchronized Page pull(@Nullable String cursor, int limit) {
+        long after = cursor == null ? 0 : Long.parseLong(cursor);
+        List<RemoteChange> page = new ArrayList<>(Math.min(limit, byVersion.size()));
+        long last = after;
+        for (Map.Entry<Long, RemoteChange> e : byVersion.tailMap(after, false).entrySet()) {
+            if (page.size() == limit) break;
+            page.add(copy(e.getValue()));
+            last = e.getKey();
+        }
+        boolean more = !byVersion.tailMap(last, false).isEmpty();
+        return new Page(page, String.valueOf(last), more);
+    }
+
+    /** What survives a round trip through Firestore: no owner, no local ids, no derived columns. */
+    private static RemoteChange copy(RemoteChange c) {
+        if (c.vehicle != null) {
+            Vehicle v = new Vehicle();
+            v.setSyncId(c.vehicle.getSyncId());
+            v.setName(c.vehicle.getName());
+            v.setMake(c.vehicle.getMake());
+            v.setModel(c.vehicle.getModel());
+            v.setYear(c.vehicle.getYear());
+            return RemoteChange.of(v, c.changedAt);
+        }
+        if (c.fuelEntry != null) {
+            FuelEntry e = new FuelEntry();
+            e.setSyncId(c.fuelEntry.getSyncId());
+            e.setLogDateMillis(c.fuelEntry.getLogDateMillis());
+            e.setOdometer(c.fuelEntry.getOdometer());
+            e.setGallonsMilli(c.fuelEntry.getGallonsMilli());
+            e.setPriceTenthCents(c.fuelEntry.getPriceTenthCents());
+            e.setTotalCostCents(c.fuelEntry.getTotalCostCents());
+            return RemoteChange.of(e, c.carKey, c.changedAt);
+        }
+        return RemoteChange.deleted(c.type, c.syncKey, c.changedAt);
+    }
+}
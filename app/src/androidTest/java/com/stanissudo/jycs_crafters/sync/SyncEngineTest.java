@@ -0,0 +1,330 @@
+package com.stanissudo.jycs_crafters.sync;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.stanissudo.jycs_crafters.ParentRows;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.entities.ChangeLog;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+import com.stanissudo.jycs_crafters.database.entities.VehicleStats;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Two installs ("phone" and "restored") syncing through an {@link InMemoryBackupStore}: the
+ * outbox is written with every change and collapses repeats, a push empties it, a failed push
+ * keeps it, a restore rebuilds the data and rollups without echoing them back, and an unpushed
+ * local edit wins over the backup. Deleting a vehicle sends tombstones for the entries the cascade
+ * took with it, and entries that arrive without their vehicle get a placeholder one. Rows are
+ * matched by backup key within the pulling user's data, so local ids that collide across installs
+ * and other users' rows are left alone.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyncEngineTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 8, 0);
+    private static final int PHONE_USER = 7;
+    private static final int RESTORED_USER = 3;
+    private static final int OTHER_USER = 4;
+
+    private FuelTrackAppDatabase phone;
+    private FuelTrackAppDatabase restored;
+    private InMemoryBackupStore store;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        phone = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        restored = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        store = new InMemoryBackupStore(3);
+        ParentRows.addUsers(phone, PHONE_USER);
+        ParentRows.addUsers(restored, RESTORED_USER);
+    }
+
+    @After
+    public void tearDown() {
+        phone.close();
+        restored.close();
+    }
+
+    @Test
+    public void outboxHoldsOneRowPerChangedEntity() {
+        int car = addVehicle(phone, "Civic");
+        phone.fuelEntryDAO().insertRecord(new FuelEntry(car, 1000, 3.5, 10.0, T0));
+        FuelEntry e = phone.fuelEntryDAO().getFirstEntriesPage(car, 1).get(0);
+        e.setOdometer(1001);
+        phone.fuelEntryDAO().updateRecord(e);
+        e.setOdometer(1002);
+        phone.fuelEntryDAO().updateRecord(e);
+        assertEquals(2, phone.changeLogDAO().countPending(PHONE_USER));
+
+        phone.fuelEntryDAO().deleteRecordById(e.getLogID());
+        assertEquals(2, phone.changeLogDAO().countPending(PHONE_USER));
+        assertTrue(phone.changeLogDAO().isPending(PHONE_USER, ChangeLog.FUEL_ENTRY, e.getSyncId()));
+    }
+
+    @Test
+    public void pushShipsBatchesAndEmptiesTheOutbox() throws Exception {
+        int car = seedPhone();
+        SyncEngine engine = engine(phone, PHONE_USER);
+
+        assertEquals(6, engine.pushAll());
+
+        assertEquals(0, phone.changeLogDAO().countPending(PHONE_USER));
+        assertEquals(2, store.pushCalls); // the vehicle and five entries, three at a time
+        assertEquals(6, store.size());
+        assertEquals(Integer.valueOf(1600), store.get(ChangeLog.FUEL_ENTRY + "_" +
+                phone.fuelEntryDAO().getFirstEntriesPage(car, 1).get(0).getSyncId()).fuelEntry.getOdometer());
+    }
+
+    @Test
+    public void failedPushKeepsTheOutbox() throws Exception {
+        seedPhone();
+        SyncEngine engine = engine(phone, PHONE_USER);
+        store.failNextPushes(1);
+
+        try {
+            engine.pushBatch();
+            fail("Push should have failed");
+        } catch (IOException expected) {
+            // retried by the worker
+        }
+        assertEquals(6, phone.changeLogDAO().countPending(PHONE_USER));
+        assertEquals(0, store.size());
+
+        assertEquals(6, engine.pushAll());
+        assertEquals(0, phone.changeLogDAO().countPending(PHONE_USER));
+    }
+
+    @Test
+    public void restoreRebuildsDataWithoutEchoingIt() throws Exception {
+        int car = seedPhone();
+        engine(phone, PHONE_USER).pushAll();
+
+        String cursor = engine(restored, RESTORED_USER).pullAll(null);
+
+        assertNotNull(cursor);
+        Vehicle v = restoredCar(car);
+        assertEquals("Civic", v.getName());
+        assertEquals(RESTORED_USER, (int) v.getUserId());
+        assertLogsEqual(phone.fuelEntryDAO().getFirstEntriesPage(car, 100),
+                restored.fuelEntryDAO().getFirstEntriesPage(v.getVehicleID(), 100));
+        VehicleStats a = phone.fuelEntryDAO().getVehicleStats(car);
+        VehicleStats b = restored.fuelEntryDAO().getVehicleStats(v.getVehicleID());
+        assertEquals(a.getTotalCostCents(), b.getTotalCostCents());
+        assertEquals(a.getMaxOdometer(), b.getMaxOdometer());
+        assertEquals(0, restored.changeLogDAO().countPending(RESTORED_USER));
+
+        // Pulling its own changes back leaves the phone as it was.
+        engine(phone, PHONE_USER).pullAll(null);
+        assertEquals(0, phone.changeLogDAO().countPending(PHONE_USER));
+        assertEquals(5, phone.fuelEntryDAO().getFirstEntriesPage(car, 100).size());
+    }
+
+    @Test
+    public void editsAndDeletesFollowTheCursor() throws Exception {
+        int car = seedPhone();
+        SyncEngine phoneEngine = engine(phone, PHONE_USER);
+        SyncEngine restoredEngine = engine(restored, RESTORED_USER);
+        phoneEngine.pushAll();
+        String cursor = restoredEngine.pullAll(null);
+
+        List<FuelEntry> log = phone.fuelEntryDAO().getFirstEntriesPage(car, 100);
+        phone.fuelEntryDAO().deleteRecordById(log.get(0).getLogID());
+        FuelEntry edited = log.get(2);
+        edited.setTotalCostCents(edited.getTotalCostCents() + 100);
+        phone.fuelEntryDAO().updateRecord(edited);
+        phone.vehicleDAO().updateName(car, "Old Civic");
+        assertEquals(3, phoneEngine.pushAll());
+
+        restoredEngine.pullAll(cursor);
+
+        Vehicle v = restoredCar(car);
+        assertLogsEqual(phone.fuelEntryDAO().getFirstEntriesPage(car, 100),
+                restored.fuelEntryDAO().getFirstEntriesPage(v.getVehicleID(), 100));
+        assertEquals("Old Civic", v.getName());
+        assertEquals(phone.fuelEntryDAO().getVehicleStats(car).getTotalCostCents(),
+                restored.fuelEntryDAO().getVehicleStats(v.getVehicleID()).getTotalCostCents());
+    }
+
+    @Test
+    public void unpushedLocalEditWins() throws Exception {
+        int car = seedPhone();
+        SyncEngine phoneEngine = engine(phone, PHONE_USER);
+        SyncEngine restoredEngine = engine(restored, RESTORED_USER);
+        phoneEngine.pushAll();
+        String cursor = restoredEngine.pullAll(null);
+
+        FuelEntry remote = phone.fuelEntryDAO().getFirstEntriesPage(car, 1).get(0);
+        FuelEntry local = restoredEntry(remote.getSyncId());
+        local.setTotalCostCents(1);
+        restored.fuelEntryDAO().updateRecord(local);
+        remote.setTotalCostCents(2);
+        phone.fuelEntryDAO().updateRecord(remote);
+        phoneEngine.pushAll();
+
+        restoredEngine.pullAll(cursor);
+        assertEquals(1, restoredEntry(remote.getSyncId()).getTotalCostCents());
+
+        restoredEngine.pushAll();
+        assertEquals(1, store.get(ChangeLog.FUEL_ENTRY + "_" + remote.getSyncId()).fuelEntry.getTotalCostCents());
+    }
+
+    @Test
+    public void deletingAVehicleSendsTombstonesForItsLog() throws Exception {
+        int car = seedPhone();
+        SyncEngine phoneEngine = engine(phone, PHONE_USER);
+        SyncEngine restoredEngine = engine(restored, RESTORED_USER);
+        phoneEngine.pushAll();
+        String cursor = restoredEngine.pullAll(null);
+        int restoredCar = restoredCar(car).getVehicleID();
+
+        phone.vehicleDAO().deleteRecordById(car);
+        assertTrue(phone.fuelEntryDAO().getFirstEntriesPage(car, 100).isEmpty());
+        assertNull(phone.fuelEntryDAO().getVehicleStats(car));
+        assertEquals(6, phone.changeLogDAO().countPending(PHONE_USER));
+        assertEquals(6, phoneEngine.pushAll());
+
+        restoredEngine.pullAll(cursor);
+        assertNull(restored.vehicleDAO().findById(restoredCar));
+        assertTrue(restored.fuelEntryDAO().getFirstEntriesPage(restoredCar, 100).isEmpty());
+        assertNull(restored.fuelEntryDAO().getVehicleStats(restoredCar));
+    }
+
+    @Test
+    public void entriesWithoutTheirVehicleGetAPlaceholder() throws Exception {
+        // Written raw, so only the entries reach the backup.
+        Vehicle v = new Vehicle(PHONE_USER, "Civic", "Honda", "Civic", 2018);
+        v.setVehicleID(5);
+        phone.vehicleDAO().insertVehicle(v);
+        phone.fuelEntryDAO().insertRecord(new FuelEntry(5, 1000, 3.5, 10.0, T0));
+        phone.fuelEntryDAO().insertRecord(new FuelEntry(5, 1300, 3.5, 10.0, T0.plusDays(7)));
+        SyncEngine phoneEngine = engine(phone, PHONE_USER);
+        SyncEngine restoredEngine = engine(restored, RESTORED_USER);
+        assertEquals(2, phoneEngine.pushAll());
+
+        String cursor = restoredEngine.pullAll(null);
+        Vehicle placeholder = restoredCar(5);
+        assertNotNull(placeholder);
+        assertEquals(RESTORED_USER, (int) placeholder.getUserId());
+        assertEquals(2, restored.fuelEntryDAO().getVehicleStats(placeholder.getVehicleID()).getFillUpsCount());
+        assertEquals(0, restored.changeLogDAO().countPending(RESTORED_USER));
+
+        phone.vehicleDAO().updateName(5, "Civic");
+        phoneEngine.pushAll();
+        restoredEngine.pullAll(cursor);
+        assertEquals("Civic", restoredCar(5).getName());
+        assertEquals(placeholder.getVehicleID(), restoredCar(5).getVehicleID());
+        assertEquals(2, restored.fuelEntryDAO().getVehicleStats(placeholder.getVehicleID()).getFillUpsCount());
+    }
+
+    @Test
+    public void collidingLocalIdsAndOtherUsersRowsAreLeftAlone() throws Exception {
+        // The target already has another user's car and log, and a car of its own, under the
+        // same local ids the phone's rows have.
+        ParentRows.addUsers(restored, OTHER_USER);
+        int otherCar = addVehicle(restored, OTHER_USER, "Other");
+        restored.fuelEntryDAO().insertRecord(new FuelEntry(otherCar, 50, 3.0, 5.0, T0));
+        restored.fuelEntryDAO().insertRecord(new FuelEntry(otherCar, 90, 3.0, 5.0, T0.plusDays(1)));
+        int ownCar = addVehicle(restored, RESTORED_USER, "Jeep");
+        restored.fuelEntryDAO().insertRecord(new FuelEntry(ownCar, 7000, 3.9, 12.0, T0));
+        List<FuelEntry> otherLog = restored.fuelEntryDAO().getFirstEntriesPage(otherCar, 100);
+        List<FuelEntry> ownLog = restored.fuelEntryDAO().getFirstEntriesPage(ownCar, 100);
+
+        int car = seedPhone();
+        assertEquals(otherCar, car);
+        engine(phone, PHONE_USER).pushAll();
+        SyncEngine restoredEngine = engine(restored, RESTORED_USER);
+
+        // A new install pushes before it pulls: its rows must not land on the phone's documents.
+        assertEquals(2, restoredEngine.pushAll());
+        assertEquals(8, store.size());
+        assertEquals("Civic", store.get(ChangeLog.VEHICLE + "_" + phone.vehicleDAO().getSyncKey(car)).vehicle.getName());
+
+        restoredEngine.pullAll(null);
+
+        Vehicle other = restored.vehicleDAO().findById(otherCar);
+        assertEquals("Other", other.getName());
+        assertEquals(OTHER_USER, (int) other.getUserId());
+        assertEquals(otherLog, restored.fuelEntryDAO().getFirstEntriesPage(otherCar, 100));
+        assertEquals(2, restored.fuelEntryDAO().getVehicleStats(otherCar).getFillUpsCount());
+        assertEquals(ownLog, restored.fuelEntryDAO().getFirstEntriesPage(ownCar, 100));
+        assertEquals("Jeep", restored.vehicleDAO().findById(ownCar).getName());
+
+        Vehicle civic = restoredCar(car);
+        assertNotEquals(otherCar, civic.getVehicleID());
+        assertNotEquals(ownCar, civic.getVehicleID());
+        assertLogsEqual(phone.fuelEntryDAO().getFirstEntriesPage(car, 100),
+                restored.fuelEntryDAO().getFirstEntriesPage(civic.getVehicleID(), 100));
+        assertEquals(2, restored.vehicleDAO().getFleetSummariesNow(RESTORED_USER).size());
+        assertEquals(1, restored.vehicleDAO().getFleetSummariesNow(OTHER_USER).size());
+        assertEquals(0, restored.changeLogDAO().countPending(RESTORED_USER));
+    }
+
+    /** One vehicle with five fill-ups for {@link #PHONE_USER}; returns the vehicle id. */
+    private int seedPhone() {
+        int car = addVehicle(phone, "Civic");
+        int[] odometers = {1000, 1150, 1320, 1480, 1600};
+        for (int i = 0; i < odometers.length; i++) {
+            phone.fuelEntryDAO().insertRecord(new FuelEntry(car, odometers[i], 3.459 + i * 0.1, 9.5 + i, T0.plusDays(i * 6L)));
+        }
+        return car;
+    }
+
+    private static int addVehicle(FuelTrackAppDatabase db, String name) {
+        return addVehicle(db, PHONE_USER, name);
+    }
+
+    private static int addVehicle(FuelTrackAppDatabase db, int userId, String name) {
+        db.vehicleDAO().insertRecord(new Vehicle(userId, name, "Honda", "Civic", 2018));
+        return db.vehicleDAO().getVehicleIdsByName(name).get(0);
+    }
+
+    /** The restored install's copy of the phone's vehicle {@code phoneCar}, found by backup key. */
+    private Vehicle restoredCar(int phoneCar) {
+        return restored.vehicleDAO().findBySyncKey(RESTORED_USER, phone.vehicleDAO().getSyncKey(phoneCar));
+    }
+
+    private FuelEntry restoredEntry(String syncKey) {
+        return restored.fuelEntryDAO().getEntriesBySyncKeys(RESTORED_USER, Collections.singletonList(syncKey)).get(0);
+    }
+
+    private SyncEngine engine(FuelTrackAppDatabase db, int userId) {
+        return new SyncEngine(db, Runnable::run, store, userId);
+    }
+
+    /**
+     * Same rows, economy columns included: the restore recomputes them from the same log. Local
+     * ids are the installs' own, so rows are compared under the expected ones.
+     */
+    private static void assertLogsEqual(List<FuelEntry> expected, List<FuelEntry> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            FuelEntry e = expected.get(i);
+            FuelEntry a = actual.get(i);
+            assertEquals(e.getSyncId(), a.getSyncId());
+            a.setLogID(e.getLogID());
+            a.setCarID(e.getCarID());
+            assertEquals(e, a);
+        }
+    }
+}
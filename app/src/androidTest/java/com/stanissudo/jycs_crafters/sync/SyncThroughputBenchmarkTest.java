@@ -0,0 +1,145 @@
+package com.stanissudo.jycs_crafters.sync;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.stanissudo.jycs_crafters.MainActivity;
+import com.stanissudo.jycs_crafters.ParentRows;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Pushes 100k outbox changes through {@link SyncEngine} in Firestore-sized batches and restores
+ * them into an empty database, and edits 1k entries 100 times each to show the outbox collapsing
+ * 100k changes into 1k. Timings go to the instrumentation status.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class SyncThroughputBenchmarkTest {
+
+    private static final int USER_ID = 1;
+    private static final int CHANGES = 100_000;
+    private static final int INSERT_BATCH = 1_000;
+
+    private FuelTrackAppDatabase phone;
+    private FuelTrackAppDatabase restored;
+    private InMemoryBackupStore store;
+    private int carId;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        phone = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        restored = Room.inMemoryDatabaseBuilder(ctx, FuelTrackAppDatabase.class)
+                .allowMainThreadQueries() // OK for tests
+                .build();
+        store = new InMemoryBackupStore(FirestoreBackupStore.MAX_BATCH);
+        ParentRows.addUsers(phone, USER_ID);
+        ParentRows.addUsers(restored, USER_ID);
+        phone.vehicleDAO().insertRecord(new Vehicle(USER_ID, "Bench", "Honda", "Civic", 2018));
+        carId = phone.vehicleDAO().getVehicleIdsByName("Bench").get(0);
+    }
+
+    @After
+    public void tearDown() {
+        phone.close();
+        restored.close();
+    }
+
+    @Test
+    public void pushAndRestoreHundredThousandChanges() throws Exception {
+        insertEntries(CHANGES);
+        assertEquals(CHANGES + 1, phone.changeLogDAO().countPending(USER_ID));
+
+        long start = SystemClock.elapsedRealtime();
+        int pushed = new SyncEngine(phone, Runnable::run, store, USER_ID).pushAll();
+        long pushMs = SystemClock.elapsedRealtime() - start;
+
+        start = SystemClock.elapsedRealtime();
+        new SyncEngine(restored, Runnable::run, store, USER_ID).pullAll(null);
+        long restoreMs = SystemClock.elapsedRealtime() - start;
+
+        assertEquals(CHANGES + 1, pushed);
+        assertEquals(0, phone.changeLogDAO().countPending(USER_ID));
+        assertEquals(CHANGES, restored.fuelEntryDAO().getVehicleStats(carId).getFillUpsCount());
+        assertEquals(phone.fuelEntryDAO().getVehicleStats(carId).getTotalCostCents(),
+                restored.fuelEntryDAO().getVehicleStats(carId).getTotalCostCents());
+
+        Log.i(MainActivity.TAG, String.format(Locale.US, "Sync %d changes: push=%dms (%d/s) restore=%dms (%d/s)",
+                pushed, pushMs, perSecond(pushed, pushMs), restoreMs, perSecond(pushed, restoreMs)));
+        Bundle results = new Bundle();
+        results.putLong("sync_push_ms", pushMs);
+        results.putLong("sync_restore_ms", restoreMs);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+    }
+
+    @Test
+    public void repeatedEditsCollapseInTheOutbox() throws Exception {
+        int rows = 1_000;
+        insertEntries(rows);
+        new SyncEngine(phone, Runnable::run, store, USER_ID).pushAll();
+        List<FuelEntry> log = phone.fuelEntryDAO().getFirstEntriesPage(carId, rows);
+
+        for (int round = 1; round <= CHANGES / rows; round++) {
+            final int r = round;
+            phone.runInTransaction(() -> {
+                for (FuelEntry e : log) {
+                    e.setTotalCostCents(e.getTotalCostCents() + r);
+                    phone.fuelEntryDAO().updateRecord(e);
+                }
+            });
+        }
+        assertEquals(rows, phone.changeLogDAO().countPending(USER_ID));
+
+        int callsBefore = store.pushCalls;
+        long start = SystemClock.elapsedRealtime();
+        assertEquals(rows, new SyncEngine(phone, Runnable::run, store, USER_ID).pushAll());
+        long pushMs = SystemClock.elapsedRealtime() - start;
+
+        Log.i(MainActivity.TAG, String.format(Locale.US, "%d edits pushed as %d changes in %d batches, %dms",
+                CHANGES, rows, store.pushCalls - callsBefore, pushMs));
+        Bundle results = new Bundle();
+        results.putLong("sync_coalesced_push_ms", pushMs);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+    }
+
+    private void insertEntries(int count) {
+        LocalDateTime base = LocalDateTime.of(2000, 1, 1, 8, 0);
+        List<FuelEntry> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < count; i++) {
+            batch.add(new FuelEntry(carId, i * 25, 3.5, 10.0, base.plusHours(i * 9L)));
+            if (batch.size() == INSERT_BATCH) {
+                phone.fuelEntryDAO().insertRecords(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) phone.fuelEntryDAO().insertRecords(batch);
+    }
+
+    private static long perSecond(long n, long millis) {
+        return millis == 0 ? n : n * 1000 / millis;
+    }
+}
@@ -0,0 +1,136 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link SessionStore} reads {@code login_prefs} once on its io executor, serves reads from
+ * memory, and folds back-to-back writes into one flush.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SessionStoreTest {
+
+    // Makes LiveData postValue/observeForever run synchronously
+    @Rule public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private SharedPreferences prefs;
+    private final QueuedExecutor io = new QueuedExecutor();
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        prefs = ctx.getSharedPreferences("session_store_test", Context.MODE_PRIVATE);
+        prefs.edit().clear().commit();
+    }
+
+    @Test
+    public void loadsSavedSessionOnTheIoExecutor() {
+        prefs.edit()
+                .putInt(SessionStore.KEY_USER_ID, 7)
+                .putString(SessionStore.KEY_USERNAME, "alice")
+                .putBoolean(SessionStore.KEY_IS_ADMIN, true)
+                .putBoolean(SessionStore.KEY_LOGGED_IN, true)
+                .commit();
+        int[] opened = new int[1];
+        SessionStore store = new SessionStore(() -> {
+            opened[0]++;
+            return prefs;
+        }, io);
+        assertEquals("Prefs must not be opened on the constructing thread", 0, opened[0]);
+
+        io.runAll();
+
+        assertEquals(1, opened[0]);
+        assertTrue(store.isLoggedIn());
+        assertEquals(7, store.getUserId());
+        assertEquals("alice", store.getUsername());
+        assertTrue(store.isAdmin());
+    }
+
+    @Test
+    public void backToBackWritesShareOneFlush() {
+        SessionStore store = new SessionStore(() -> prefs, io);
+        io.runAll();
+
+        store.login(3, "bob", false);
+        store.setLastSelectedVehicleId(11);
+        store.setUsername("bobby");
+
+        // Memory is updated immediately; disk only once the io thread runs.
+        assertEquals("bobby", store.getUsername());
+        assertFalse(prefs.getBoolean(SessionStore.KEY_LOGGED_IN, false));
+        assertEquals(1, io.pending());
+
+        io.runAll();
+
+        assertTrue(prefs.getBoolean(SessionStore.KEY_LOGGED_IN, false));
+        assertEquals(3, prefs.getInt(SessionStore.KEY_USER_ID, -1));
+        assertEquals("bobby", prefs.getString(SessionStore.KEY_USERNAME, null));
+        assertEquals(11, prefs.getInt(SessionStore.KEY_LAST_VEHICLE, -1));
+    }
+
+    @Test
+    public void logoutKeepsIdsAndDropsIdentity() {
+        SessionStore store = new SessionStore(() -> prefs, Runnable::run);
+        store.login(3, "bob", true);
+        store.setLastSelectedVehicleId(11);
+
+        store.logout();
+
+        assertFalse(store.isLoggedIn());
+        assertFalse(prefs.contains(SessionStore.KEY_USERNAME));
+        assertFalse(prefs.contains(SessionStore.KEY_IS_ADMIN));
+        assertEquals(3, prefs.getInt(SessionStore.KEY_USER_ID, -1));
+        assertEquals(11, prefs.getInt(SessionStore.KEY_LAST_VEHICLE, -1));
+    }
+
+    @Test
+    public void observersSeeChangesButNotNoOps() {
+        SessionStore store = new SessionStore(() -> prefs, Runnable::run);
+        List<SessionStore.Session> seen = new ArrayList<>();
+        store.observe().observeForever(seen::add);
+
+        store.login(1, "carol", false);
+        store.login(1, "carol", false);
+        store.logout();
+
+        assertEquals(3, seen.size()); // initial load, login, logout
+        assertTrue(seen.get(1).loggedIn);
+        assertFalse(seen.get(2).loggedIn);
+    }
+
+    /** Collects tasks until the test decides to run them. */
+    private static final class QueuedExecutor implements Executor {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable r) {
+            tasks.add(r);
+        }
+
+        int pending() {
+            return tasks.size();
+        }
+
+        void runAll() {
+            Runnable r;
+            while ((r = tasks.poll()) != null) r.run();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Selection rules of {@link VehicleSelectionStore}: restore from prefs, fall back to the first
+ * vehicle, resolve by ID even when names collide, only emit on real changes, and start each
+ * account afresh.
+ */
+@RunWith(AndroidJUnit4.class)
+public class VehicleSelectionStoreTest {
+
+    // Makes LiveData setValue/observeForever run synchronously
+    @Rule public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private SharedPreferences prefs;
+
+    @Before
+    public void setUp() {
+        Context ctx = ApplicationProvider.getApplicationContext();
+        prefs = ctx.getSharedPreferences("vehicle_selection_test", Context.MODE_PRIVATE);
+        prefs.edit().clear().commit();
+    }
+
+    @Test
+    public void restoresSavedSelection() {
+        prefs.edit().putInt(SessionStore.KEY_LAST_VEHICLE, 2).commit();
+        VehicleSelectionStore store = newStore();
+
+        store.setVehicles(Arrays.asList(vehicle(1, "A"), vehicle(2, "B")));
+
+        assertEquals(2, store.getSelectedIdNow());
+        assertEquals(Integer.valueOf(2), store.getSelectedId().getValue());
+    }
+
+    @Test
+    public void fallsBackToFirstVehicleAndPersistsIt() {
+        prefs.edit().putInt(SessionStore.KEY_LAST_VEHICLE, 99).commit();
+        VehicleSelectionStore store = newStore();
+
+        store.setVehicles(Arrays.asList(vehicle(5, "A"), vehicle(6, "B")));
+
+        assertEquals(5, store.getSelectedIdNow());
+        assertEquals(5, prefs.getInt(SessionStore.KEY_LAST_VEHICLE, -1));
+    }
+
+    @Test
+    public void duplicateNamesResolveById() {
+        VehicleSelectionStore store = newStore();
+        store.setVehicles(Arrays.asList(vehicle(1, "Civic"), vehicle(2, "Civic")));
+
+        assertTrue(store.select(2));
+
+        assertEquals(2, store.getSelectedIdNow());
+        assertEquals(2, store.getSelectedVehicle().getVehicleID());
+        assertEquals(2, prefs.getInt(SessionStore.KEY_LAST_VEHICLE, -1));
+    }
+
+    @Test
+    public void rejectsUnknownIds() {
+        VehicleSelectionStore store = newStore();
+        store.setVehicles(Collections.singletonList(vehicle(1, "A")));
+
+        assertFalse(store.select(42));
+        assertEquals(1, store.getSelectedIdNow());
+    }
+
+    @Test
+    public void emitsOnlyOnChange() {
+        VehicleSelectionStore store = newStore();
+        List<Integer> seen = new ArrayList<>();
+        store.getSelectedId().observeForever(seen::add);
+
+        List<Vehicle> list = Arrays.asList(vehicle(1, "A"), vehicle(2, "B"));
+        store.setVehicles(list);
+        store.setVehicles(list); // e.g. Room re-emitting after an unrelated write
+        store.select(1);
+        store.select(2);
+
+        assertEquals(Arrays.asList(1, 2), seen);
+    }
+
+    @Test
+    public void deletingTheSelectedVehicleMovesToTheFirst() {
+        VehicleSelectionStore store = newStore();
+        store.setVehicles(Arrays.asList(vehicle(1, "A"), vehicle(2, "B"), vehicle(3, "C")));
+        store.select(3);
+
+        store.setVehicles(Arrays.asList(vehicle(1, "A"), vehicle(2, "B")));
+
+        assertEquals(1, store.getSelectedIdNow());
+    }
+
+    @Test
+    public void emptyListHasNoSelection() {
+        VehicleSelectionStore store = newStore();
+        store.setVehicles(Collections.emptyList());
+
+        assertEquals(VehicleSelectionStore.NO_VEHICLE, store.getSelectedIdNow());
+        assertNull(store.getSelectedVehicle());
+    }
+
+    @Test
+    public void anotherAccountDoesNotInheritTheSelection() {
+        SessionStore session = newSession();
+        VehicleSelectionStore store = new VehicleSelectionStore(session);
+        session.login(1, "alice", false);
+        store.setVehicles(Arrays.asList(vehicle(1, "A"), vehicle(2, "B")));
+        store.select(2);
+
+        session.logout();
+        store.reset();
+
+        assertEquals(VehicleSelectionStore.NO_VEHICLE, store.getSelectedIdNow());
+        assertNull(store.getSelectedId().getValue());
+        assertNull(store.getVehicle(2));
+        assertTrue(store.getVehicles().getValue().isEmpty());
+
+        session.login(7, "bob", false);
+        store.reset();
+        assertEquals(-1, session.getLastSelectedVehicleId());
+        store.setVehicles(Arrays.asList(vehicle(8, "C"), vehicle(9, "D")));
+
+        assertEquals(8, store.getSelectedIdNow());
+    }
+
+    @Test
+    public void sameAccountGetsItsSelectionBack() {
+        SessionStore session = newSession();
+        VehicleSelectionStore store = new VehicleSelectionStore(session);
+        session.login(1, "alice", false);
+        store.setVehicles(Arrays.asList(vehicle(1, "A"), vehicle(2, "B")));
+        store.select(2);
+
+        session.logout();
+        store.reset();
+        session.login(1, "alice", false);
+        store.reset();
+        store.setVehicles(Arrays.asList(vehicle(1, "A"), vehicle(2, "B")));
+
+        assertEquals(2, store.getSelectedIdNow());
+    }
+
+    /** Store over a session that loads and flushes on the calling thread. */
+    private VehicleSelectionStore newStore() {
+        return new VehicleSelectionStore(newSession());
+    }
+
+    private SessionStore newSession() {
+        return new SessionStore(() -> prefs, Runnable::run);
+    }
+
+    private static Vehicle vehicle(int id, String name) {
+        Vehicle v = new Vehicle(1, name, "Make", "Model", 2020);
+        v.setVehicleID(id);
+        return v;
+    }
+}
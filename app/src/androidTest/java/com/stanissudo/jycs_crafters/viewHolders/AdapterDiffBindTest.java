@@ -0,0 +1,202 @@
+package com.stanissudo.jycs_crafters.viewHolders;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import androidx.paging.PagingData;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.stanissudo.jycs_crafters.R;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import kotlin.Unit;
+
+/**
+ * Counts {@code onBindViewHolder} calls on a laid-out RecyclerView: after the first list is shown,
+ * re-submitting a copy with one edited row must rebind exactly that row.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AdapterDiffBindTest {
+
+    private static final int ROWS = 5; // all fit on screen, so every row is bound once initially
+
+    private Context ctx;
+
+    @Before
+    public void setUp() {
+        ctx = new ContextThemeWrapper(ApplicationProvider.getApplicationContext(), R.style.Theme_JYCSCrafters);
+    }
+
+    @Test
+    public void garageAdapterRebindsOnlyTheEditedRow() throws InterruptedException {
+        AtomicInteger binds = new AtomicInteger();
+        GarageAdapter[] adapter = new GarageAdapter[1];
+        RecyclerView rv = onMain(() -> {
+            adapter[0] = new GarageAdapter(new NoopCallbacks()) {
+                @Override
+                public void onBindViewHolder(@NonNull VH h, int position) {
+                    binds.incrementAndGet();
+                    super.onBindViewHolder(h, position);
+                }
+            };
+            return newRecyclerView(adapter[0]);
+        });
+
+        submitAndLayout(rv, done -> adapter[0].submitList(vehicles(null), done));
+        assertEquals(ROWS, binds.getAndSet(0));
+
+        // Same rows as fresh objects (what Room emits on every invalidation), one of them edited.
+        submitAndLayout(rv, done -> adapter[0].submitList(vehicles("Renamed"), done));
+        assertEquals(1, binds.get());
+    }
+
+    @Test
+    public void fuelLogAdapterRebindsOnlyTheEditedRow() throws InterruptedException {
+        AtomicInteger binds = new AtomicInteger();
+        FuelLogAdapter[] adapter = new FuelLogAdapter[1];
+        LifecycleOwner owner = onMain(ResumedOwner::new);
+        RecyclerView rv = onMain(() -> {
+            adapter[0] = new FuelLogAdapter(new FuelLogCallbacks()) {
+                @Override
+                public void onBindViewHolder(@NonNull VH h, int position) {
+                    binds.incrementAndGet();
+                    super.onBindViewHolder(h, position);
+                }
+            };
+            return newRecyclerView(adapter[0]);
+        });
+
+        submitAndLayout(rv, done -> submitPages(adapter[0], owner, entries(0), done));
+        assertEquals(ROWS, binds.getAndSet(0));
+
+        submitAndLayout(rv, done -> submitPages(adapter[0], owner, entries(1), done));
+        assertEquals(1, binds.get());
+    }
+
+    // --------------------------------------------------------------------------------------------
+    // Helpers
+    // --------------------------------------------------------------------------------------------
+
+    private interface Submit {
+        void run(Runnable done);
+    }
+
+    private interface MainCall<T> {
+        T call();
+    }
+
+    private static <T> T onMain(MainCall<T> call) {
+        List<T> out = new ArrayList<>(1);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> out.add(call.call()));
+        return out.get(0);
+    }
+
+    /** Submits on the main thread, waits for the background diff to land, then lays out. */
+    private static void submitAndLayout(RecyclerView rv, Submit submit) throws InterruptedException {
+        CountDownLatch diffed = new CountDownLatch(1);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> submit.run(diffed::countDown));
+        assertTrue("Diff never completed", diffed.await(5, TimeUnit.SECONDS));
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> layout(rv));
+    }
+
+    private static void submitPages(FuelLogAdapter adapter, LifecycleOwner owner,
+                                    List<FuelEntry> rows, Runnable done) {
+        boolean[] fired = new boolean[1];
+        adapter.addOnPagesUpdatedListener(() -> {
+            if (!fired[0]) {
+                fired[0] = true;
+                done.run();
+            }
+            return Unit.INSTANCE;
+        });
+        adapter.submitData(owner.getLifecycle(), PagingData.from(rows));
+    }
+
+    private RecyclerView newRecyclerView(RecyclerView.Adapter<?> adapter) {
+        RecyclerView rv = new RecyclerView(ctx);
+        rv.setLayoutManager(new LinearLayoutManager(ctx));
+        rv.setItemAnimator(null); // count binds, not animation holders
+        rv.setAdapter(adapter);
+        layout(rv);
+        return rv;
+    }
+
+    private static void layout(RecyclerView rv) {
+        rv.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(4000, View.MeasureSpec.EXACTLY));
+        rv.layout(0, 0, 1080, 4000);
+    }
+
+    /** Fresh objects every call; {@code renamed} replaces the name of the middle row. */
+    private static List<Vehicle> vehicles(String renamed) {
+        List<Vehicle> list = new ArrayList<>();
+        for (int i = 1; i <= ROWS; i++) {
+            String name = (renamed != null && i == 3) ? renamed : "Car " + i;
+            Vehicle v = new Vehicle(1, name, "Make", "Model", 2020);
+            v.setVehicleID(i);
+            list.add(v);
+        }
+        return list;
+    }
+
+    /** Fresh objects every call; {@code extraGallons} is added to the middle row. */
+    private static List<FuelEntry> entries(double extraGallons) {
+        LocalDateTime base = LocalDateTime.of(2025, 8, 1, 8, 0);
+        List<FuelEntry> list = new ArrayList<>();
+        for (int i = 1; i <= ROWS; i++) {
+            double gallons = 10 + (i == 3 ? extraGallons : 0);
+            FuelEntry e = new FuelEntry(1, 1_000 * i, 4.0, gallons, base.plusDays(i));
+            e.setLogID(i);
+            list.add(e);
+        }
+        return list;
+    }
+
+    private static final class NoopCallbacks implements GarageAdapter.Callbacks {
+        @Override public void onDeleteClicked(long id) { }
+        @Override public void onEditClicked(long id) { }
+    }
+
+    private static final class FuelLogCallbacks implements FuelLogAdapter.Callbacks {
+        @Override public void onDeleteClicked(long id) { }
+        @Override public void onEditClicked(long id) { }
+    }
+
+    /** Minimal always-resumed owner so {@code submitData} starts collecting immediately. */
+    private static final class ResumedOwner implements LifecycleOwner {
+        private final LifecycleRegistry registry = new LifecycleRegistry(this);
+
+        ResumedOwner() {
+            registry.setCurrentState(Lifecycle.State.RESUMED);
+        }
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return registry;
+        }
+    }
+}
@@ -4,12 +4,10 @@ import android.app.DatePickerDialog;
 import android.app.TimePickerDialog;
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.text.Editable;
 import android.text.InputFilter;
 import android.text.TextWatcher;
-import android.widget.AutoCompleteTextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -18,12 +16,15 @@ import androidx.lifecycle.ViewModelProvider;
 import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
 import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
 import com.stanissudo.jycs_crafters.databinding.ActivityAddFuelEntryBinding;
-import com.stanissudo.jycs_crafters.utils.CarSelectorHelper;
+import com.stanissudo.jycs_crafters.utils.VehicleSelectionStore;
 import com.stanissudo.jycs_crafters.utils.DecimalDigitsInputFilter;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+import com.stanissudo.jycs_crafters.utils.OdometerIndex;
 import com.stanissudo.jycs_crafters.viewHolders.FuelEntryViewModel;
 import com.stanissudo.jycs_crafters.viewHolders.SharedViewModel;
 import com.stanissudo.jycs_crafters.viewHolders.GarageViewModel;
-import com.stanissudo.jycs_crafters.utils.NumberFormatter;
+import com.stanissudo.jycs_crafters.utils.FixedPoint;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -63,6 +64,12 @@ import java.util.Locale;
  *   <li>{@link #isUpdating} — Prevent recursive updates while a watcher is actively writing.</li>
  * </ul>
  *
+ * <h3>Odometer feedback</h3>
+ * The selected car's readings are held in memory as an {@link OdometerIndex}, loaded once and
+ * refreshed when the log changes, so the odometer is checked against its neighbours on every
+ * keystroke and date/time change without a query. In ADD mode the newest entry's price and a
+ * likely odometer reading are prefilled. The save still re-checks inside its transaction.
+ *
  * <h3>Date & Time handling</h3>
  * Uses {@link java.time} to maintain a single canonical {@link #recordTimeStamp}. Two inputs (date
  * and time) write back into the same timestamp so persisted data is always consistent.
@@ -102,6 +109,12 @@ public class AddFuelEntryActivity extends AppCompatActivity {
     /** Repository used for asynchronous validation (e.g., odometer sanity check). */
     private FuelTrackAppRepository repository;
 
+    /** In-memory odometer readings of the selected car; empty until the first load. */
+    private OdometerIndex odometerIndex = OdometerIndex.EMPTY;
+    /** Last values this screen prefilled, so a car change replaces them but never user input. */
+    private String prefilledOdometer = "";
+    private String prefilledPrice = "";
+
     // --------------------------------------------------------------------------------------------
     // Watcher guards & priority system
     // --------------------------------------------------------------------------------------------
@@ -193,9 +206,9 @@ public class AddFuelEntryActivity extends AppCompatActivity {
                 new DecimalDigitsInputFilter(3, 3)
         });
 
-        // Price/gal: up to 2 decimals (and up to 2 digits before the dot)
+        // Price/gal: up to 3 decimals, as stored (and up to 2 digits before the dot)
         binding.pricePerGallonInputEditText.setFilters(new InputFilter[]{
-                new DecimalDigitsInputFilter(2, 2)
+                new DecimalDigitsInputFilter(2, 3)
         });
 
         // TotalPrice: up to 2 decimals (and up to 4 digits before the dot)
@@ -219,28 +232,21 @@ public class AddFuelEntryActivity extends AppCompatActivity {
         isEdit = editLogId > 0;
         setTitle(isEdit ? "Edit Fuel Entry" : "Add Fuel Entry");
 
-        // Load vehicles for the dropdown and set initial selection.
-        SharedPreferences sharedPreferences = getSharedPreferences("login_prefs", MODE_PRIVATE);
-        garageViewModel.loadUserVehicles(sharedPreferences.getInt("userId", -1));
-        garageViewModel.getUserVehicles().observe(this, vehicles -> {
-            if (vehicles != null && !vehicles.isEmpty()) {
-                // (a) Push fresh list into helper (may update its cache)
-                CarSelectorHelper.loadVehicleData(this, vehicles);
-
-                // (b) Recreate dropdown adapter with fresh list
-                AutoCompleteTextView carSelectorDropdown = binding.toolbarDropdown;
-                //CarSelectorHelper.setupDropdown(this, carSelectorDropdown);
-                CarSelectorHelper.setupDropdown(this, carSelectorDropdown, id -> {
-                    if (id != -1) sharedViewModel.selectCar(id); // emits to fragments
-                });
-
-                // (c) Pick initial selection and propagate it
-                Integer initialCarId = CarSelectorHelper.getSelectedOptionKey();
-                if (initialCarId != -1) {
-                    sharedViewModel.selectCar(initialCarId);
-                }
-            }
+        // Load vehicles for the dropdown; the selection store keeps the text and shared model in sync.
+        VehicleSelectionStore selection = VehicleSelectionStore.get(this);
+        selection.bindDropdown(this, binding.toolbarDropdown, null);
+        selection.getSelectedId().observe(this, id -> {
+            if (id == null) return;
+            sharedViewModel.selectCar(id);
+            viewModel.setCarId(id);
+        });
+        viewModel.odometerIndex.observe(this, index -> {
+            odometerIndex = index;
+            if (!isEdit) prefillFromLatest(index);
+            checkOdometerLive();
         });
+        garageViewModel.loadUserVehicles(SessionStore.get(this).getUserId());
+        garageViewModel.getUserVehicles().observe(this, selection::setVehicles);
 
         // Initialize date/time inputs to "now". These will be overridden in EDIT mode below.
         Calendar calendarNow = Calendar.getInstance();
@@ -260,6 +266,7 @@ public class AddFuelEntryActivity extends AppCompatActivity {
                         // Keep time; replace date.
                         recordTimeStamp = recordTimeStamp.withYear(y).withMonth(m + 1).withDayOfMonth(d);
                         binding.editTextDateFuelEntry.setText(UI_DATE_FMT.format(recordTimeStamp));
+                        checkOdometerLive();
                     },
                     c.get(Calendar.YEAR),
                     c.get(Calendar.MONTH),
@@ -275,6 +282,7 @@ public class AddFuelEntryActivity extends AppCompatActivity {
                         // Keep date; replace time.
                         recordTimeStamp = recordTimeStamp.withHour(h).withMinute(m).withSecond(0).withNano(0);
                         binding.editTextTimeFuelEntry.setText(UI_TIME_FMT.format(recordTimeStamp));
+                        checkOdometerLive();
                     },
                     recordTimeStamp.getHour(),
                     recordTimeStamp.getMinute(),
@@ -286,6 +294,9 @@ public class AddFuelEntryActivity extends AppCompatActivity {
         binding.gasVolumeInputEditText.addTextChangedListener(volumeWatcher);
         binding.pricePerGallonInputEditText.addTextChangedListener(pricePerGalWatcher);
         binding.totalPriceInputEditText.addTextChangedListener(totalPriceWatcher);
+        binding.odometerInputEditText.addTextChangedListener(odometerWatcher);
+        // A prefilled suggestion is replaced by the first keystroke.
+        binding.odometerInputEditText.setSelectAllOnFocus(true);
 
         // EDIT mode: prefill from DB without triggering calculations.
         if (isEdit) {
@@ -295,9 +306,9 @@ public class AddFuelEntryActivity extends AppCompatActivity {
 
                 // Prefill numeric fields.
                 binding.odometerInputEditText.setText(String.valueOf(e.getOdometer()));
-                binding.gasVolumeInputEditText.setText(NumberFormatter.upTo3(e.getGallons()));
-                binding.pricePerGallonInputEditText.setText(NumberFormatter.upTo2(e.getPricePerGallon()));
-                binding.totalPriceInputEditText.setText(NumberFormatter.upTo2(e.getTotalCost()));
+                binding.gasVolumeInputEditText.setText(FixedPoint.upTo3(e.getGallonsMilli(), FixedPoint.GALLONS_SCALE));
+                binding.pricePerGallonInputEditText.setText(FixedPoint.upTo3(e.getPriceTenthCents(), FixedPoint.PRICE_SCALE));
+                binding.totalPriceInputEditText.setText(FixedPoint.upTo2(e.getTotalCostCents(), FixedPoint.COST_SCALE));
 
                 // Prefill date/time from entity.
                 LocalDateTime ldt = e.getLogDate();
@@ -306,11 +317,10 @@ public class AddFuelEntryActivity extends AppCompatActivity {
                     binding.editTextDateFuelEntry.setText(UI_DATE_FMT.format(ldt));
                     binding.editTextTimeFuelEntry.setText(UI_TIME_FMT.format(ldt));
                 }
+                checkOdometerLive(); // the odometer was checked above against "now"
 
-                // Prefill/lock car selection (helper may choose by ID or by name internally).
-                try {
-                    CarSelectorHelper.setSelectedOptionById(AddFuelEntryActivity.this, carId);
-                } catch (Exception ignore) { /* helper may expect names; best-effort */ }
+                // Prefill/lock car selection.
+                VehicleSelectionStore.get(this).select(e.getCarID());
                 binding.toolbarDropdown.setEnabled(false); // keep car immutable during edit
 
                 suppressWatchers = false;
@@ -321,17 +331,17 @@ public class AddFuelEntryActivity extends AppCompatActivity {
         binding.saveEntryButton.setOnClickListener(v -> onSave());
     }
 
-    /** Keep the dropdown's visible text in sync with persisted selection. */
-    @Override
-    protected void onResume() {
-        super.onResume();
-        CarSelectorHelper.updateDropdownText(binding.toolbarDropdown);
-    }
-
     // --------------------------------------------------------------------------------------------
     // TextWatchers
     // --------------------------------------------------------------------------------------------
 
+    /** Re-checks the odometer against the in-memory neighbours on every change. */
+    private final TextWatcher odometerWatcher = new TextWatcher() {
+        @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+        @Override public void onTextChanged(CharSequence s, int start, int before, int count) { }
+        @Override public void afterTextChanged(Editable s) { checkOdometerLive(); }
+    };
+
     /** Watches Gallons input and updates dependent fields according to priority rules. */
     private final TextWatcher volumeWatcher = new TextWatcher() {
         @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
@@ -392,7 +402,7 @@ public class AddFuelEntryActivity extends AppCompatActivity {
 
     /**
      * Derive Gallons from Total and Price/Gal.
-     * <p>If either input is empty or unparsable, clears the Gallons field.</p>
+     * <p>If either input is empty, unparsable or the price is zero, clears the Gallons field.</p>
      */
     private void updateGallons() {
         String pricePerGalStr = text(binding.pricePerGallonInputEditText);
@@ -400,11 +410,12 @@ public class AddFuelEntryActivity extends AppCompatActivity {
 
         if (!pricePerGalStr.isEmpty() && !totalPriceStr.isEmpty()) {
             try {
-                double pricePerGal = Double.parseDouble(pricePerGalStr);
-                double totalPrice  = Double.parseDouble(totalPriceStr);
-                double gasVolume   = totalPrice / Math.max(pricePerGal, 0.000001d);
-                binding.gasVolumeInputEditText.setText(NumberFormatter.upTo3(gasVolume));
-            } catch (NumberFormatException e) {
+                long pricePerGal = FixedPoint.parse(pricePerGalStr, FixedPoint.PRICE_SCALE);
+                long totalPrice  = FixedPoint.parse(totalPriceStr, FixedPoint.COST_SCALE);
+                long gasVolume   = FixedPoint.divide(totalPrice, FixedPoint.COST_SCALE,
+                        pricePerGal, FixedPoint.PRICE_SCALE, FixedPoint.GALLONS_SCALE);
+                binding.gasVolumeInputEditText.setText(FixedPoint.upTo3(gasVolume, FixedPoint.GALLONS_SCALE));
+            } catch (NumberFormatException | ArithmeticException e) {
                 binding.gasVolumeInputEditText.setText("");
             }
         } else {
@@ -414,7 +425,7 @@ public class AddFuelEntryActivity extends AppCompatActivity {
 
     /**
      * Derive Price/Gal from Total and Gallons.
-     * <p>If either input is empty or unparsable, clears the Price/Gal field.</p>
+     * <p>If either input is empty, unparsable or the volume is zero, clears the Price/Gal field.</p>
      */
     private void updatePricePerGallon() {
         String gasVolumeStr   = text(binding.gasVolumeInputEditText);
@@ -422,11 +433,12 @@ public class AddFuelEntryActivity extends AppCompatActivity {
 
         if (!gasVolumeStr.isEmpty() && !totalPriceStr.isEmpty()) {
             try {
-                double gasVol      = Double.parseDouble(gasVolumeStr);
-                double totalPrice  = Double.parseDouble(totalPriceStr);
-                double pricePerGal = totalPrice / Math.max(gasVol, 0.000001d);
-                binding.pricePerGallonInputEditText.setText(NumberFormatter.upTo2(pricePerGal));
-            } catch (NumberFormatException e) {
+                long gasVol      = FixedPoint.parse(gasVolumeStr, FixedPoint.GALLONS_SCALE);
+                long totalPrice  = FixedPoint.parse(totalPriceStr, FixedPoint.COST_SCALE);
+                long pricePerGal = FixedPoint.divide(totalPrice, FixedPoint.COST_SCALE,
+                        gasVol, FixedPoint.GALLONS_SCALE, FixedPoint.PRICE_SCALE);
+                binding.pricePerGallonInputEditText.setText(FixedPoint.upTo3(pricePerGal, FixedPoint.PRICE_SCALE));
+            } catch (NumberFormatException | ArithmeticException e) {
                 binding.pricePerGallonInputEditText.setText("");
             }
         } else {
@@ -444,11 +456,11 @@ public class AddFuelEntryActivity extends AppCompatActivity {
 
         if (!gasVolumeStr.isEmpty() && !pricePerGalStr.isEmpty()) {
             try {
-                double gasVol      = Double.parseDouble(gasVolumeStr);
-                double pricePerGal = Double.parseDouble(pricePerGalStr);
-                double total       = gasVol * pricePerGal;
-                binding.totalPriceInputEditText.setText(NumberFormatter.upTo2(total));
-            } catch (NumberFormatException e) {
+                long gasVol      = FixedPoint.parse(gasVolumeStr, FixedPoint.GALLONS_SCALE);
+                long pricePerGal = FixedPoint.parse(pricePerGalStr, FixedPoint.PRICE_SCALE);
+                long total       = FixedPoint.totalCents(gasVol, pricePerGal);
+                binding.totalPriceInputEditText.setText(FixedPoint.upTo2(total, FixedPoint.COST_SCALE));
+            } catch (NumberFormatException | ArithmeticException e) {
                 binding.totalPriceInputEditText.setText("");
             }
         } else {
@@ -456,23 +468,82 @@ public class AddFuelEntryActivity extends AppCompatActivity {
         }
     }
 
+    // --------------------------------------------------------------------------------------------
+    // Odometer feedback
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Show an inline error while the typed odometer does not fit between the neighbouring
+     * entries of the chosen date. Two binary searches over {@link #odometerIndex}; no I/O.
+     */
+    private void checkOdometerLive() {
+        String odoStr = text(binding.odometerInputEditText);
+        if (odoStr.isEmpty() || recordTimeStamp == null || odometerIndex.size() == 0) {
+            binding.odometerInputEditText.setError(null);
+            return;
+        }
+        int odo = safeInt(odoStr);
+        long date = EpochTime.toEpochMillis(recordTimeStamp);
+        long self = isEdit ? editLogId : 0;
+        Integer prev = odometerIndex.previousOdometer(date, self);
+        Integer next = odometerIndex.nextOdometer(date, self);
+        boolean fits = (prev == null || odo > prev) && (next == null || odo < next);
+        binding.odometerInputEditText.setError(fits ? null : odometerRangeMessage(prev, next));
+    }
+
+    /**
+     * ADD mode: suggest the next odometer reading and the newest entry's price, unless the user
+     * already typed something there.
+     */
+    private void prefillFromLatest(OdometerIndex index) {
+        Integer suggested = index.suggestedOdometer();
+        if (suggested == null) suggested = index.latestOdometer();
+        String odo = suggested == null ? "" : String.valueOf(suggested);
+        if (text(binding.odometerInputEditText).equals(prefilledOdometer)) {
+            binding.odometerInputEditText.setText(odo);
+            prefilledOdometer = odo;
+        }
+
+        Long latestPrice = index.latestPriceTenthCents();
+        String price = latestPrice == null ? "" : FixedPoint.upTo2(latestPrice, FixedPoint.PRICE_SCALE);
+        if (text(binding.pricePerGallonInputEditText).equals(prefilledPrice)) {
+            // Not a user edit: keep the pricing priorities as they are.
+            suppressWatchers = true;
+            binding.pricePerGallonInputEditText.setText(price);
+            suppressWatchers = false;
+            prefilledPrice = price;
+        }
+    }
+
+    /** "Odometer must be > prev and < next." for whichever neighbours exist. */
+    private static String odometerRangeMessage(Integer prev, Integer next) {
+        if (prev != null && next != null) {
+            return "Odometer must be > " + prev + " and < " + next + ".";
+        } else if (prev != null) {
+            return "Odometer must be > " + prev + ".";
+        } else if (next != null) {
+            return "Odometer must be < " + next + ".";
+        }
+        return "Couldn’t validate odometer.";
+    }
+
     // --------------------------------------------------------------------------------------------
     // Save flow
     // --------------------------------------------------------------------------------------------
 
     /**
-     * Gather user inputs, perform basic validation, then run an asynchronous odometer sanity check
-     * before committing insert/update via the {@link FuelEntryViewModel}.
+     * Gather user inputs, perform basic validation, then hand the entry to the repository, which
+     * checks the odometer against neighbouring entries and inserts/updates in a single transaction.
      */
     private void onSave() {
         // Read dropdown selection
-        int _carId = CarSelectorHelper.getSelectedOptionKey();
+        int _carId = VehicleSelectionStore.get(this).getSelectedIdNow();
 
         // Read numeric fields (fallback to 0 on parse issues)
         int odo        = safeInt(text(binding.odometerInputEditText));
-        double gallons = safeDouble(text(binding.gasVolumeInputEditText));
-        double price   = safeDouble(text(binding.pricePerGallonInputEditText));
-        double total   = gallons * price; // single source of truth; UI Total mirrors this
+        long gallons = safeFixed(text(binding.gasVolumeInputEditText), FixedPoint.GALLONS_SCALE);
+        long price   = safeFixed(text(binding.pricePerGallonInputEditText), FixedPoint.PRICE_SCALE);
+        long total   = FixedPoint.totalCents(gallons, price); // single source of truth; UI Total mirrors this
 
         // Merge date + time from UI into recordTimeStamp
         String dateStr = text(binding.editTextDateFuelEntry);
@@ -489,39 +560,22 @@ public class AddFuelEntryActivity extends AppCompatActivity {
         if (isEdit) e.setLogID(editLogId);
         e.setCarID(_carId);
         e.setOdometer(odo);
-        e.setGallons(gallons);
-        e.setPricePerGallon(price);
-        e.setTotalCost(total);
+        e.setGallonsMilli(gallons);
+        e.setPriceTenthCents(price);
+        e.setTotalCostCents(total);
         e.setLogDate(recordTimeStamp);
 
         // Synchronous field validation (basic required checks)
         if (!validateInputsBasic(e)) return;
 
-        // Async odometer validation. Callback provides bounds of neighboring entries (if any).
-        repository.checkOdometerAsync(
-                e.getLogID(),
-                _carId,
-                e.getLogDate(),
-                e.getOdometer(),
-                (ok, prev, next) -> runOnUiThread(() -> {
-                    if (ok) {
-                        if (isEdit) viewModel.update(e); else viewModel.insert(e);
-                        finish();
-                    } else {
-                        String msg;
-                        if (prev != null && next != null) {
-                            msg = "Odometer must be > " + prev + " and < " + next + ".";
-                        } else if (prev != null) {
-                            msg = "Odometer must be > " + prev + ".";
-                        } else if (next != null) {
-                            msg = "Odometer must be < " + next + ".";
-                        } else {
-                            msg = "Couldn’t validate odometer.";
-                        }
-                        Toast.makeText(this, msg, Toast.LENGTH_LONG).show();
-                    }
-                })
-        );
+        // Odometer check and write happen in one transaction; the result says which neighbour blocked it.
+        repository.saveFuelEntryAsync(e, result -> {
+            if (result.saved) {
+                finish();
+                return;
+            }
+            Toast.makeText(this, odometerRangeMessage(result.prev, result.next), Toast.LENGTH_LONG).show();
+        });
     }
 
     /**
@@ -544,12 +598,12 @@ public class AddFuelEntryActivity extends AppCompatActivity {
             Toast.makeText(this, "Odometer must be ≥ 0.", Toast.LENGTH_SHORT).show();
             return false;
         }
-        if (entry.getPricePerGallon() <= 0) {
+        if (entry.getPriceTenthCents() <= 0) {
             // Message says > 0, but code allows 0. Change to <= 0 if you want to enforce strictly > 0.
             Toast.makeText(this, "Price per gallon must be > 0.", Toast.LENGTH_SHORT).show();
             return false;
         }
-        if (entry.getGallons() <= 0) {
+        if (entry.getGallonsMilli() <= 0) {
             // Message says > 0, but code allows 0. Change to <= 0 if you want to enforce strictly > 0.
             Toast.makeText(this, "Gallons must be > 0.", Toast.LENGTH_SHORT).show();
             return false;
@@ -575,8 +629,8 @@ public class AddFuelEntryActivity extends AppCompatActivity {
         try { return Integer.parseInt(s); } catch (Exception e) { return 0; }
     }
 
-    /** Parse double or return 0.0 on failure. */
-    private double safeDouble(String s) {
-        try { return Double.parseDouble(s); } catch (Exception e) { return 0.0; }
+    /** Parse a decimal to fixed-point at {@code scale} or return 0 on failure. */
+    private long safeFixed(String s, int scale) {
+        try { return FixedPoint.parse(s, scale); } catch (Exception e) { return 0; }
     }
 }
@@ -2,7 +2,6 @@ package com.stanissudo.jycs_crafters;
 
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.widget.Toast;
 
@@ -14,6 +13,7 @@ import com.google.android.material.navigation.NavigationView;
 import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
 import com.stanissudo.jycs_crafters.database.entities.Vehicle;
 import com.stanissudo.jycs_crafters.databinding.ActivityVehicleBinding;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
 import com.stanissudo.jycs_crafters.viewHolders.GarageViewModel;
 
 /**
@@ -94,8 +94,7 @@ public class AddVehicleActivity extends BaseDrawerActivity {
         isEdit = editVehicleID > 0;
         setTitle(isEdit ? "Edit Vehicle" : "Add Vehicle");
 
-        SharedPreferences prefs = getSharedPreferences("login_prefs", MODE_PRIVATE);
-        userId = prefs.getInt("userId", -1);
+        userId = SessionStore.get(this).getUserId();
 
         // EDIT mode: prefill from DB without triggering calculations.
         if (isEdit) {
@@ -4,15 +4,17 @@
  *
  * Activity for managing administrative actions within the FuelTrack application.
  * This screen is only accessible to admin users and provides:
- * - Viewing all registered users in a RecyclerView
+ * - Browsing registered users page by page, searchable and filtered by active/inactive
+ * - Tapping a user to deactivate, reactivate or permanently delete them
  * - Adding new users
  * - Removing users
  * - Changing user passwords
+ * - Showing database query timings (also written by {@code adb shell dumpsys activity})
  * - Maria: Deactivating, reactivating, and permanently deleting users
  * - Logging out of the application
  *
  * Notes:
- * - Uses LiveData to observe user list changes in real-time.
+ * - Observes a paged user list that reloads itself after user changes (see AdminUsersViewModel).
  * - Relies on repository-level safety checks for operations such as avoiding self-deletion.
  * - Includes both Firebase and Google Sign-In logout support.
  */
@@ -21,13 +23,20 @@ package com.stanissudo.jycs_crafters;
 
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
+import android.graphics.Typeface;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.widget.EditText;
+import android.widget.ScrollView;
+import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.google.android.gms.auth.api.signin.GoogleSignIn;
@@ -35,7 +44,15 @@ import com.google.android.gms.auth.api.signin.GoogleSignInClient;
 import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
 import com.google.firebase.auth.FirebaseAuth;
 import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
+import com.stanissudo.jycs_crafters.database.UserFilter;
+import com.stanissudo.jycs_crafters.database.entities.User;
 import com.stanissudo.jycs_crafters.databinding.ActivityAdminCheckBinding;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
+import com.stanissudo.jycs_crafters.utils.VehicleSelectionStore;
+import com.stanissudo.jycs_crafters.viewHolders.AdminUsersViewModel;
+
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 /**
  * @author Camila Caicedo
  * created: 8/14/2025
@@ -46,8 +63,9 @@ public class AdminCheckActivity extends AppCompatActivity {
 
     private ActivityAdminCheckBinding binding;
     private FuelTrackAppRepository repository;
-    private SharedPreferences sharedPreferences;
+    private SessionStore session;
     private UserListAdapter adapter;
+    private AdminUsersViewModel viewModel;
 
     /**
      * Initializes the admin view, sets up UI components, binds click listeners,
@@ -60,24 +78,50 @@ public class AdminCheckActivity extends AppCompatActivity {
         binding = ActivityAdminCheckBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        sharedPreferences = getSharedPreferences("login_prefs", MODE_PRIVATE);
+        session = SessionStore.get(this);
         repository = FuelTrackAppRepository.getRepository(getApplication());
 
         binding.adminMessage.setText("You have admin privileges!");
 
+        viewModel = new ViewModelProvider(this).get(AdminUsersViewModel.class);
+
         // RecyclerView setup
-        adapter = new UserListAdapter();
+        adapter = new UserListAdapter(this::showUserActionsDialog);
         binding.userListRecycler.setLayoutManager(new LinearLayoutManager(this));
         binding.userListRecycler.setAdapter(adapter);
 
-        // Observe and update user list dynamically
-        repository.getAllUsers().observe(this, users -> adapter.setUsers(users));
+        // Paged user list; reloads itself when users change
+        viewModel.pagedUsers.observe(this, data -> adapter.submitData(getLifecycle(), data));
+
+        // Search as you type (debounced in the ViewModel) and the active/inactive filter
+        binding.userSearchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                viewModel.setSearch(s.toString());
+            }
+        });
+        binding.userFilterToggle.check(filterButtonId(viewModel.getFilter()));
+        binding.userFilterToggle.addOnButtonCheckedListener((group, checkedId, isChecked) -> {
+            if (!isChecked) return;
+            if (checkedId == R.id.filterActive) viewModel.setFilter(UserFilter.ACTIVE);
+            else if (checkedId == R.id.filterInactive) viewModel.setFilter(UserFilter.INACTIVE);
+            else viewModel.setFilter(UserFilter.ALL);
+        });
 
         // Button actions
         binding.addUserButton.setOnClickListener(v -> showAddUserDialog());
         binding.removeUserButton.setOnClickListener(v -> showRemoveUserDialog());
         binding.changePasswordButton.setOnClickListener(v -> showChangePasswordDialog());
         binding.logoutButton.setOnClickListener(v -> logout());
+        binding.queryReportButton.setOnClickListener(v -> showQueryReport());
 
         // Maria: Extra admin actions (Deactivate / Reactivate / Delete permanently)
         if (binding.deactivateUserButton != null) {
@@ -91,6 +135,45 @@ public class AdminCheckActivity extends AppCompatActivity {
         }
     }
 
+    private static int filterButtonId(UserFilter filter) {
+        switch (filter) {
+            case ACTIVE:
+                return R.id.filterActive;
+            case INACTIVE:
+                return R.id.filterInactive;
+            default:
+                return R.id.filterAll;
+        }
+    }
+
+    /**
+     * Shows the actions for a tapped user: deactivate or reactivate, and delete permanently.
+     * Runs through the same repository checks as the typed-username dialogs.
+     * @param user The user whose row was tapped.
+     */
+    private void showUserActionsDialog(User user) {
+        String username = user.getUsername();
+        String currentUsername = session.getUsername();
+        boolean isAdmin = session.isAdmin();
+
+        String[] actions = {user.isActive() ? "Deactivate" : "Reactivate", "Delete permanently"};
+        new AlertDialog.Builder(this)
+                .setTitle(username)
+                .setItems(actions, (dialog, which) -> {
+                    if (which == 1) {
+                        confirmDelete(username);
+                    } else if (user.isActive()) {
+                        repository.deactivateUserSafely(username, currentUsername, isAdmin,
+                                (ok, msg) -> Toast.makeText(this, msg, Toast.LENGTH_SHORT).show());
+                    } else {
+                        repository.reactivateUserSafely(username, currentUsername, isAdmin,
+                                (ok, msg) -> Toast.makeText(this, msg, Toast.LENGTH_SHORT).show());
+                    }
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
     /**
      * Displays a dialog for adding a new user.
      * Validates inputs and delegates user creation to the repository.
@@ -153,8 +236,8 @@ public class AdminCheckActivity extends AppCompatActivity {
                 return;
             }
 
-            String currentUsername = sharedPreferences.getString("username", "");
-            boolean isAdmin = sharedPreferences.getBoolean("isAdmin", false);
+            String currentUsername = session.getUsername();
+            boolean isAdmin = session.isAdmin();
 
             repository.deleteUserSafely(username, currentUsername, isAdmin, (ok, msg) -> {
                 Toast.makeText(this, msg, Toast.LENGTH_SHORT).show();
@@ -183,8 +266,8 @@ public class AdminCheckActivity extends AppCompatActivity {
                 return;
             }
 
-            String currentUsername = sharedPreferences.getString("username", "");
-            boolean isAdmin = sharedPreferences.getBoolean("isAdmin", false);
+            String currentUsername = session.getUsername();
+            boolean isAdmin = session.isAdmin();
 
             repository.deactivateUserSafely(username, currentUsername, isAdmin,
                     (ok, msg) -> Toast.makeText(this, msg, Toast.LENGTH_SHORT).show());
@@ -211,8 +294,8 @@ public class AdminCheckActivity extends AppCompatActivity {
                 return;
             }
 
-            String currentUsername = sharedPreferences.getString("username", "");
-            boolean isAdmin = sharedPreferences.getBoolean("isAdmin", false);
+            String currentUsername = session.getUsername();
+            boolean isAdmin = session.isAdmin();
 
             repository.reactivateUserSafely(username, currentUsername, isAdmin,
                     (ok, msg) -> Toast.makeText(this, msg, Toast.LENGTH_SHORT).show());
@@ -239,22 +322,30 @@ public class AdminCheckActivity extends AppCompatActivity {
                 return;
             }
 
-            String currentUsername = sharedPreferences.getString("username", "");
-            boolean isAdmin = sharedPreferences.getBoolean("isAdmin", false);
-
-            new AlertDialog.Builder(this)
-                    .setTitle("Confirm Permanent Delete")
-                    .setMessage("This will permanently delete the user '" + username + "'. Continue?")
-                    .setPositiveButton("Yes, delete", (d, w) ->
-                            repository.deleteUserSafely(username, currentUsername, isAdmin,
-                                    (ok, msg) -> Toast.makeText(this, msg, Toast.LENGTH_SHORT).show()))
-                    .setNegativeButton("Cancel", null)
-                    .show();
+            confirmDelete(username);
         });
         builder.setNegativeButton("Cancel", null);
         builder.show();
     }
 
+    /**
+     * Asks for confirmation, then permanently deletes {@code username}.
+     * @param username The user to delete.
+     */
+    private void confirmDelete(String username) {
+        String currentUsername = session.getUsername();
+        boolean isAdmin = session.isAdmin();
+
+        new AlertDialog.Builder(this)
+                .setTitle("Confirm Permanent Delete")
+                .setMessage("This will permanently delete the user '" + username + "'. Continue?")
+                .setPositiveButton("Yes, delete", (d, w) ->
+                        repository.deleteUserSafely(username, currentUsername, isAdmin,
+                                (ok, msg) -> Toast.makeText(this, msg, Toast.LENGTH_SHORT).show()))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
     /**
      * Displays a dialog for changing the current user's password.
      * Validates new password and confirms match before updating.
@@ -292,8 +383,7 @@ public class AdminCheckActivity extends AppCompatActivity {
                 return;
             }
 
-            SharedPreferences sp = getSharedPreferences("login_prefs", Context.MODE_PRIVATE);
-            String currentUsername = sp.getString("username", "");
+            String currentUsername = session.getUsername();
 
             repository.changePasswordIfUserExists(currentUsername, newPass, (ok, msg) -> {
                 Toast.makeText(this, msg, Toast.LENGTH_SHORT).show();
@@ -304,6 +394,38 @@ public class AdminCheckActivity extends AppCompatActivity {
         builder.show();
     }
 
+    /**
+     * Shows executor queue stats, per-statement latency percentiles and the slow-query log.
+     */
+    private void showQueryReport() {
+        TextView text = new TextView(this);
+        text.setText(repository.getQueryReport());
+        text.setTypeface(Typeface.MONOSPACE);
+        text.setTextIsSelectable(true);
+        int pad = (int) (16 * getResources().getDisplayMetrics().density);
+        text.setPadding(pad, pad, pad, 0);
+        ScrollView scroll = new ScrollView(this);
+        scroll.addView(text);
+
+        new AlertDialog.Builder(this)
+                .setTitle("Query Report")
+                .setView(scroll)
+                .setPositiveButton("Close", null)
+                .show();
+    }
+
+    /**
+     * Appends the query report to {@code dumpsys activity} output for this screen.
+     */
+    @Override
+    public void dump(@NonNull String prefix, @Nullable FileDescriptor fd, @NonNull PrintWriter writer,
+                     @Nullable String[] args) {
+        super.dump(prefix, fd, writer, args);
+        writer.print(prefix);
+        writer.println("Query report:");
+        writer.println(repository.getQueryReport());
+    }
+
     /**
      * Logs out the current user from Firebase, Google Sign-In, and clears stored preferences.
      */
@@ -316,11 +438,8 @@ public class AdminCheckActivity extends AppCompatActivity {
         );
 
         googleSignInClient.signOut().addOnCompleteListener(task -> {
-            SharedPreferences.Editor editor = sharedPreferences.edit();
-            editor.putBoolean("isLoggedIn", false);
-            editor.remove("username");
-            editor.remove("isAdmin");
-            editor.apply();
+            session.logout();
+            VehicleSelectionStore.get(this).reset();
 
             Intent intent = new Intent(this, LoginActivity.class);
             intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
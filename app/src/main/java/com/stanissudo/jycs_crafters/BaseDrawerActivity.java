@@ -2,7 +2,6 @@ package com.stanissudo.jycs_crafters;
 
 
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.TextView;
@@ -19,7 +18,8 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.android.gms.auth.api.signin.GoogleSignIn;
 import com.google.android.gms.auth.api.signin.GoogleSignInClient;
 import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
-import com.stanissudo.jycs_crafters.utils.CarSelectorHelper;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
+import com.stanissudo.jycs_crafters.utils.VehicleSelectionStore;
 
 /**
  * *  @author Stan Permiakov
@@ -36,7 +36,7 @@ import com.stanissudo.jycs_crafters.utils.CarSelectorHelper;
  *   <li>Install the toolbar as the SupportActionBar and connect it to the drawer toggle.</li>
  *   <li>Provide a shared, app-wide <em>Logout</em> action that signs out from Firebase and Google,
  *       clears local login state, and navigates to {@link LoginActivity}.</li>
- *   <li>Handle common navigation destinations from the drawer (Home, Fuel Entry, Fuel Log, Garage, Settings).</li>
+ *   <li>Handle common navigation destinations from the drawer (Home, Fuel Entry, Fuel Log, Garage, Fleet Overview, Settings).</li>
  * </ul>
  * <p>
  * <b>Subclass contract</b>
@@ -72,7 +72,7 @@ public abstract class BaseDrawerActivity extends AppCompatActivity {
      * <ol>
      *   <li>Firebase sign-out (covers email/password and Google-linked sessions).</li>
      *   <li>Google Sign-In sign-out using a default {@link GoogleSignInOptions} client.</li>
-     *   <li>Clears local login state in {@code SharedPreferences}.</li>
+     *   <li>Clears the local login state in {@link SessionStore}.</li>
      *   <li>Starts {@link LoginActivity} with flags to clear the task/back stack and finishes the current Activity.</li>
      * </ol>
      */
@@ -86,14 +86,9 @@ public abstract class BaseDrawerActivity extends AppCompatActivity {
                 new GoogleSignInOptions.Builder(GoogleSignInOptions.DEFAULT_SIGN_IN).build()
         );
 
-        SharedPreferences prefs = getSharedPreferences("login_prefs", MODE_PRIVATE);
-
         googleSignInClient.signOut().addOnCompleteListener(task -> {
-            SharedPreferences.Editor editor = prefs.edit();
-            editor.putBoolean("isLoggedIn", false);
-            editor.remove("username");
-            editor.remove("isAdmin");
-            editor.apply();
+            SessionStore.get(this).logout();
+            VehicleSelectionStore.get(this).reset();
 
             Intent intent = new Intent(this, LoginActivity.class);
             intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -102,8 +97,8 @@ public abstract class BaseDrawerActivity extends AppCompatActivity {
         });
     }
     protected void updateDrawerHeaderUsername() {
-        SharedPreferences prefs = getSharedPreferences("login_prefs", MODE_PRIVATE);
-        String username = prefs.getString("username", "User");
+        String username = SessionStore.get(this).getUsername();
+        if (username.isEmpty()) username = "User";
 
         NavigationView nav = getNavigationView();
         if (nav == null) return;
@@ -158,7 +153,7 @@ public abstract class BaseDrawerActivity extends AppCompatActivity {
                     startActivity(intent);
                 }
             } else if (id == R.id.nav_fuel_entry) {
-                Intent intent = AddFuelEntryActivity.addFuelIntentFactory(getApplicationContext(), CarSelectorHelper.getSelectedOptionKey());
+                Intent intent = AddFuelEntryActivity.addFuelIntentFactory(getApplicationContext(), VehicleSelectionStore.get(this).getSelectedIdNow());
                 startActivity(intent);
                 // }
             } else if (id == R.id.nav_fuel_log) {
@@ -170,6 +165,10 @@ public abstract class BaseDrawerActivity extends AppCompatActivity {
                 Intent intent = GarageActivity.garageIntentFactory(getApplicationContext(), -1);
                 startActivity(intent);
                 // }
+            } else if (id == R.id.nav_fleet) {
+                if (!(this instanceof FleetOverviewActivity)) {
+                    startActivity(FleetOverviewActivity.fleetOverviewIntentFactory(getApplicationContext()));
+                }
             } else if (id == R.id.nav_vehicle) {
                 Intent intent = AddVehicleActivity.vehicleIntentFactory(getApplicationContext(), -1);
                 startActivity(intent);
@@ -0,0 +1,106 @@
+package com.stanissudo.jycs_crafters;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+
+import androidx.appcompat.widget.Toolbar;
+import androidx.drawerlayout.widget.DrawerLayout;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+
+import com.google.android.material.chip.Chip;
+import com.google.android.material.divider.MaterialDividerItemDecoration;
+import com.google.android.material.navigation.NavigationView;
+import com.stanissudo.jycs_crafters.database.FleetSort;
+import com.stanissudo.jycs_crafters.databinding.ActivityFleetOverviewBinding;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
+import com.stanissudo.jycs_crafters.utils.VehicleSelectionStore;
+import com.stanissudo.jycs_crafters.viewHolders.FleetOverviewViewModel;
+import com.stanissudo.jycs_crafters.viewHolders.FleetSummaryAdapter;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Fleet overview: every vehicle of the signed-in user with its cost, distance, last fill-up and
+ * MPG, sortable by any of them.
+ * <p>
+ * All rows come from one rollup query ({@code VehicleDAO.getFleetSummaries}) that the stats tabs
+ * share, so opening this screen or re-sorting it does not query per vehicle. Tapping a row makes
+ * that vehicle the selected car and returns to the previous screen.
+ */
+public class FleetOverviewActivity extends BaseDrawerActivity {
+
+    private ActivityFleetOverviewBinding binding;
+    private FleetOverviewViewModel viewModel;
+    private final Map<FleetSort, Chip> sortChips = new EnumMap<>(FleetSort.class);
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        // Inflate layout and attach early so BaseDrawerActivity can find drawer views.
+        binding = ActivityFleetOverviewBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        super.onCreate(savedInstanceState);
+        setTitle("Fleet Overview");
+        updateDrawerHeaderUsername();
+
+        viewModel = new ViewModelProvider(this).get(FleetOverviewViewModel.class);
+        viewModel.loadFleet(SessionStore.get(this).getUserId());
+
+        // RecyclerView setup
+        binding.fleetRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        FleetSummaryAdapter adapter = new FleetSummaryAdapter(vehicleId -> {
+            VehicleSelectionStore.get(this).select(vehicleId);
+            finish();
+        });
+        binding.fleetRecyclerView.setAdapter(adapter);
+        viewModel.getRows().observe(this, data -> adapter.submitData(getLifecycle(), data));
+
+        MaterialDividerItemDecoration divider =
+                new MaterialDividerItemDecoration(this, LinearLayoutManager.VERTICAL);
+        divider.setLastItemDecorated(false);
+        divider.setDividerThicknessResource(this, R.dimen.list_divider_thickness);
+        binding.fleetRecyclerView.addItemDecoration(divider);
+
+        // Sorting: a click on the checked chip reverses the order, so listen for clicks, not checks.
+        sortChips.put(FleetSort.NAME, binding.sortName);
+        sortChips.put(FleetSort.TOTAL_COST, binding.sortCost);
+        sortChips.put(FleetSort.DISTANCE, binding.sortDistance);
+        sortChips.put(FleetSort.LAST_FILL_UP, binding.sortLastFillUp);
+        sortChips.put(FleetSort.MPG, binding.sortMpg);
+        for (Map.Entry<FleetSort, Chip> e : sortChips.entrySet()) {
+            FleetSort sort = e.getKey();
+            e.getValue().setOnClickListener(v -> viewModel.sortBy(sort));
+        }
+        viewModel.getSort().observe(this, sort -> binding.fleetSortGroup.check(sortChips.get(sort).getId()));
+        viewModel.isReversed().observe(this, reversed -> binding.toolbar.setSubtitle(
+                Boolean.TRUE.equals(reversed) ? "Reversed order" : null));
+    }
+
+    /**
+     * Build an {@link Intent} that opens the fleet overview.
+     *
+     * @param context Caller context
+     * @return Intent ready for {@link Context#startActivity(Intent)}
+     */
+    public static Intent fleetOverviewIntentFactory(Context context) {
+        return new Intent(context, FleetOverviewActivity.class);
+    }
+
+    @Override
+    protected DrawerLayout getDrawerLayout() {
+        return binding.drawerLayout;
+    }
+
+    @Override
+    protected NavigationView getNavigationView() {
+        return binding.navView;
+    }
+
+    @Override
+    protected Toolbar getToolbar() {
+        return binding.toolbar;
+    }
+}
@@ -3,24 +3,35 @@ package com.stanissudo.jycs_crafters;
 import android.app.AlertDialog;
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
+import android.net.Uri;
 import android.os.Bundle;
-import android.widget.AutoCompleteTextView;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
 import androidx.appcompat.widget.Toolbar;
 import androidx.drawerlayout.widget.DrawerLayout;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
 
 import com.google.android.material.divider.MaterialDividerItemDecoration;
 import com.google.android.material.navigation.NavigationView;
 import com.stanissudo.jycs_crafters.databinding.ActivityFuelLogBinding;
-import com.stanissudo.jycs_crafters.utils.CarSelectorHelper;
+import com.stanissudo.jycs_crafters.transfer.FuelEntryExporter;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
+import com.stanissudo.jycs_crafters.utils.VehicleSelectionStore;
 import com.stanissudo.jycs_crafters.viewHolders.FuelLogAdapter;
 import com.stanissudo.jycs_crafters.viewHolders.FuelLogViewModel;
 import com.stanissudo.jycs_crafters.viewHolders.SharedViewModel;
 import com.stanissudo.jycs_crafters.viewHolders.GarageViewModel;
+import com.stanissudo.jycs_crafters.workers.FuelLogExportWorker;
+
+import java.util.UUID;
 
 /**
  * *  @author Stan Permiakov
@@ -32,9 +43,10 @@ import com.stanissudo.jycs_crafters.viewHolders.GarageViewModel;
  * Responsibilities:
  * <ul>
  *   <li>Hosts the navigation drawer provided by {@link BaseDrawerActivity}.</li>
- *   <li>Loads the user's vehicles and wires the toolbar dropdown using {@link CarSelectorHelper}.</li>
- *   <li>Observes {@link FuelLogViewModel#entries} and renders them via {@link FuelLogAdapter}.</li>
+ *   <li>Loads the user's vehicles and wires the toolbar dropdown using {@link VehicleSelectionStore}.</li>
+ *   <li>Observes {@link FuelLogViewModel#pagedEntries} and renders them via {@link FuelLogAdapter}.</li>
  *   <li>Supports inline delete and edit actions on each list item.</li>
+ *   <li>Exports the selected car's log to a user-picked document via {@link FuelLogExportWorker}.</li>
  * </ul>
  *
  * <h3>Lifecycle & Base class expectations</h3>
@@ -63,6 +75,16 @@ public class FuelLogActivity extends BaseDrawerActivity {
      */
     private SharedViewModel sharedViewModel;
 
+    /**
+     * Document pickers for the two export formats; the picked URI is handed to the export worker.
+     */
+    private final ActivityResultLauncher<String> exportCsvLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(FuelEntryExporter.Format.CSV.mimeType),
+            uri -> startExport(uri, FuelEntryExporter.Format.CSV));
+    private final ActivityResultLauncher<String> exportJsonLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(FuelEntryExporter.Format.NDJSON.mimeType),
+            uri -> startExport(uri, FuelEntryExporter.Format.NDJSON));
+
     // --------------------------------------------------------------------------------------------
     // Lifecycle
     // --------------------------------------------------------------------------------------------
@@ -83,46 +105,22 @@ public class FuelLogActivity extends BaseDrawerActivity {
         garageViewModel = new ViewModelProvider(this).get(GarageViewModel.class);
         sharedViewModel = new ViewModelProvider(this).get(SharedViewModel.class);
 
-        // Load vehicles for this user and configure the dropdown when data arrives.
-        SharedPreferences prefs = getSharedPreferences("login_prefs", MODE_PRIVATE);
-        int userId = prefs.getInt("userId", -1);
+        // Load vehicles for this user; the selection store drives the dropdown and the list filter.
+        VehicleSelectionStore selection = VehicleSelectionStore.get(this);
+        selection.bindDropdown(this, binding.toolbarDropdown, null);
+        selection.getSelectedId().observe(this, carId -> {
+            if (carId == null) return;
+            sharedViewModel.selectCar(carId);
+            viewModel.setSelectedCarId(carId);
+        });
+        int userId = SessionStore.get(this).getUserId();
         garageViewModel.loadUserVehicles(userId);
         garageViewModel.getUserVehicles().observe(this, vehicles -> {
             if (vehicles == null || vehicles.isEmpty()) {
                 Toast.makeText(this, "No vehicles found for this account.", Toast.LENGTH_SHORT).show();
-                return;
             }
             updateDrawerHeaderUsername();
-
-            // (a) Update helper's cache and wire the dropdown adapter.
-            CarSelectorHelper.loadVehicleData(this, vehicles);
-            AutoCompleteTextView dropdown = binding.toolbarDropdown;
-            //CarSelectorHelper.setupDropdown(this, dropdown);
-            CarSelectorHelper.setupDropdown(this, dropdown, id -> {
-                if (id != -1) sharedViewModel.selectCar(id); // emits to fragments
-            });
-
-            // (b) Initial selection → update shared model and list filter.
-            Integer initialCarId = CarSelectorHelper.getSelectedOptionKey();
-            if (initialCarId != null && initialCarId > 0) {
-                sharedViewModel.selectCar(initialCarId);
-                viewModel.setSelectedCarId(initialCarId);
-            } else {
-                Toast.makeText(this, "Select a car to load entries", Toast.LENGTH_SHORT).show();
-            }
-
-            // (c) Subsequent user selection changes.
-            dropdown.setOnItemClickListener((parent, view, position, id) -> {
-                String name = (String) parent.getItemAtPosition(position);
-                CarSelectorHelper.setSelectedOption(this, name);
-                Integer newCarId = CarSelectorHelper.getSelectedOptionKey();
-                if (newCarId == null || newCarId <= 0) {
-                    Toast.makeText(this, "Invalid car selection", Toast.LENGTH_SHORT).show();
-                    return;
-                }
-                sharedViewModel.selectCar(newCarId);
-                viewModel.setSelectedCarId(newCarId);
-            });
+            selection.setVehicles(vehicles);
         });
 
         // RecyclerView setup
@@ -141,15 +139,15 @@ public class FuelLogActivity extends BaseDrawerActivity {
             public void onEditClicked(long id) {
                 startActivity(AddFuelEntryActivity.editIntentFactory(
                         FuelLogActivity.this,
-                        CarSelectorHelper.getSelectedOptionKey(),
+                        VehicleSelectionStore.get(FuelLogActivity.this).getSelectedIdNow(),
                         (int) id
                 ));
             }
         });
         binding.logDisplayRecyclerView.setAdapter(adapter);
 
-        // Keep the list in sync with the backing data.
-        viewModel.entries.observe(this, adapter::submitList);
+        // Keep the list in sync with the backing data; windows are loaded as the user scrolls.
+        viewModel.pagedEntries.observe(this, data -> adapter.submitData(getLifecycle(), data));
 
         // Add horizontal divider in between items
         MaterialDividerItemDecoration divider =
@@ -160,27 +158,67 @@ public class FuelLogActivity extends BaseDrawerActivity {
     }
 
 
-    /**
-     * Ensure the toolbar dropdown text reflects the persisted selection when returning to the UI.
-     */
+    // --------------------------------------------------------------------------------------------
+    // Export
+    // --------------------------------------------------------------------------------------------
+
     @Override
-    protected void onResume() {
-        super.onResume();
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.fuel_log_menu, menu);
+        return true;
+    }
 
-        // 1) Update in-memory selectedOption from prefs
-        CarSelectorHelper.syncFromPrefs(this);
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        int id = item.getItemId();
+        if ((id == R.id.action_export_csv || id == R.id.action_export_json) && !hasSelectedCar()) {
+            return true;
+        }
+        if (id == R.id.action_export_csv) {
+            exportCsvLauncher.launch("fuel-log." + FuelEntryExporter.Format.CSV.extension);
+            return true;
+        } else if (id == R.id.action_export_json) {
+            exportJsonLauncher.launch("fuel-log." + FuelEntryExporter.Format.NDJSON.extension);
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
 
-        // 2) Update the dropdown text to match
-        CarSelectorHelper.updateDropdownText(binding.toolbarDropdown);
+    /**
+     * Hands the picked document to {@link FuelLogExportWorker} and reports the outcome.
+     * The write grant is made persistable so the worker can still open the URI if the
+     * process is restarted before it runs.
+     */
+    private void startExport(Uri uri, FuelEntryExporter.Format format) {
+        if (uri == null) return; // picker cancelled
+        try {
+            getContentResolver().takePersistableUriPermission(uri,
+                    Intent.FLAG_GRANT_READ_URI_PERMISSION | Intent.FLAG_GRANT_WRITE_URI_PERMISSION);
+        } catch (SecurityException ignored) {
+            // Not persistable (e.g. a file:// URI); the temporary grant still covers this run.
+        }
+        // The selection can be reset while the picker is open, e.g. by a logout in another task.
+        if (!hasSelectedCar()) return;
+        int carId = VehicleSelectionStore.get(this).getSelectedIdNow();
+        UUID workId = FuelLogExportWorker.enqueue(this, uri, format, carId);
+        Toast.makeText(this, "Exporting fuel log…", Toast.LENGTH_SHORT).show();
 
-        // 3) Emit to fragments if changed (or on first resume)
-        int savedId = CarSelectorHelper.getSavedSelectedId(this);
-        if (savedId != -1) {
-            Integer current = sharedViewModel.getSelectedCarId().getValue();
-            if (current == null || !current.equals(savedId)) {
-                sharedViewModel.selectCar(savedId);
+        WorkManager.getInstance(this).getWorkInfoByIdLiveData(workId).observe(this, info -> {
+            if (info == null || !info.getState().isFinished()) return;
+            if (info.getState() == WorkInfo.State.SUCCEEDED) {
+                long rows = info.getOutputData().getLong(FuelLogExportWorker.KEY_ROWS, 0);
+                Toast.makeText(this, "Exported " + rows + " entries", Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(this, "Export failed", Toast.LENGTH_SHORT).show();
             }
-        }
+        });
+    }
+
+    /** Exports cover the selected car only; says so and returns false when there is none. */
+    private boolean hasSelectedCar() {
+        if (VehicleSelectionStore.get(this).getSelectedIdNow() != VehicleSelectionStore.NO_VEHICLE) return true;
+        Toast.makeText(this, "Select a vehicle to export its log", Toast.LENGTH_SHORT).show();
+        return false;
     }
 
     // --------------------------------------------------------------------------------------------
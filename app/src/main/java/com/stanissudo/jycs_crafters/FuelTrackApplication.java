@@ -0,0 +1,54 @@
+package com.stanissudo.jycs_crafters;
+
+import android.app.Application;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+
+import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
+import com.stanissudo.jycs_crafters.network.AdviceQuotePool;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
+import com.stanissudo.jycs_crafters.workers.BackupSyncWorker;
+import com.stanissudo.jycs_crafters.workers.EconomyBackfillWorker;
+import com.stanissudo.jycs_crafters.workers.OrphanPurgeWorker;
+import com.stanissudo.jycs_crafters.workers.PasswordRehashWorker;
+
+/**
+ * Starts opening the database and loading the login session and advice quotes as soon as the
+ * process starts, each on its own background thread, so the first screen that needs them usually
+ * finds them ready. It also queues the one-off maintenance jobs and the periodic cloud backup;
+ * none of that reads preferences or the database here, the jobs check their own state when they
+ * run.
+ * <p>
+ * {@link EpochTime} caches the time zone's offsets and the monthly stats are grouped by local
+ * month, so both are reset when the device's time zone changes. The zone the buckets were grouped
+ * in is stored, and the buckets are also rebuilt at startup if the zone changed while the app was
+ * not running; that check runs on the database writer.
+ */
+public class FuelTrackApplication extends Application {
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        startBackgroundWork(this);
+        registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                EpochTime.resetZone();
+                FuelTrackAppRepository.getRepository(FuelTrackApplication.this).rebuildMonthStatsIfZoneChanged();
+            }
+        }, new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED));
+    }
+
+    /** Everything {@link #onCreate()} starts; runs on the main thread, so it must not touch disk. */
+    static void startBackgroundWork(Application app) {
+        FuelTrackAppRepository.getRepository(app).rebuildMonthStatsIfZoneChanged();
+        SessionStore.get(app);
+        AdviceQuotePool.get(app);
+        PasswordRehashWorker.enqueueIfNeeded(app);
+        EconomyBackfillWorker.enqueueIfNeeded(app);
+        OrphanPurgeWorker.enqueueIfNeeded(app);
+        BackupSyncWorker.schedule(app);
+    }
+}
@@ -3,7 +3,6 @@ package com.stanissudo.jycs_crafters;
 import android.app.AlertDialog;
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.widget.Toast;
 
@@ -16,7 +15,8 @@ import com.google.android.material.divider.MaterialDividerItemDecoration;
 import com.google.android.material.navigation.NavigationView;
 import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
 import com.stanissudo.jycs_crafters.databinding.ActivityGarageBinding;
-import com.stanissudo.jycs_crafters.utils.CarSelectorHelper;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
+import com.stanissudo.jycs_crafters.utils.VehicleSelectionStore;
 import com.stanissudo.jycs_crafters.viewHolders.GarageAdapter;
 import com.stanissudo.jycs_crafters.viewHolders.GarageViewModel;
 
@@ -45,17 +45,15 @@ public class GarageActivity extends BaseDrawerActivity {
         garageViewModel = new ViewModelProvider(this).get(GarageViewModel.class);
         updateDrawerHeaderUsername();
         // Load vehicles for this user.
-        SharedPreferences prefs = getSharedPreferences("login_prefs", MODE_PRIVATE);
-        int userId = prefs.getInt("userId", -1);
+        int userId = SessionStore.get(this).getUserId();
         garageViewModel.loadUserVehicles(userId);
         garageViewModel.getUserVehicles().observe(this, vehicles -> {
             if (vehicles == null || vehicles.isEmpty()) {
                 Toast.makeText(this, "No vehicles found for this account.", Toast.LENGTH_SHORT).show();
-                return;
             }
 
-            // (a) Update helper's cache.
-            CarSelectorHelper.loadVehicleData(this, vehicles);
+            // (a) Keep the shared selection in step with adds/deletes made here.
+            VehicleSelectionStore.get(this).setVehicles(vehicles);
         });
 
         // RecyclerView
@@ -6,8 +6,8 @@
  * It supports:
  * - Manual username/password login
  * - Google Sign-In with Firebase Authentication
- * - Session persistence using SharedPreferences
- * - Loading motivational advice from a remote API via Retrofit
+ * - Session persistence through SessionStore
+ * - Showing motivational advice from a local pool refreshed from a remote API
  *
  * Maria's contributions:
  * - Blocking login for inactive users
@@ -22,29 +22,24 @@
 
 package com.stanissudo.jycs_crafters;
 
-import com.stanissudo.jycs_crafters.network.AdviceResponse;
-import com.stanissudo.jycs_crafters.network.AdviceService;
-import com.stanissudo.jycs_crafters.network.RetrofitClient;
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import com.stanissudo.jycs_crafters.network.AdviceQuotePool;
 
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.lifecycle.LiveData;
 
 import com.google.android.gms.auth.api.signin.*;
 import com.google.android.gms.common.api.ApiException;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.*;
 import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
-import com.stanissudo.jycs_crafters.database.entities.User;
 import com.stanissudo.jycs_crafters.databinding.ActivityLoginBinding;
+import com.stanissudo.jycs_crafters.utils.PasswordHasher;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
+import com.stanissudo.jycs_crafters.utils.VehicleSelectionStore;
 
 public class LoginActivity extends AppCompatActivity {
 
@@ -53,7 +48,7 @@ public class LoginActivity extends AppCompatActivity {
 
     private ActivityLoginBinding binding;
     private FuelTrackAppRepository repository;
-    private SharedPreferences sharedPreferences;
+    private SessionStore session;
     private GoogleSignInClient googleSignInClient;
     private FirebaseAuth firebaseAuth;
 
@@ -67,13 +62,13 @@ public class LoginActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        sharedPreferences = getSharedPreferences("login_prefs", Context.MODE_PRIVATE);
+        session = SessionStore.get(this);
 
         // Auto-login check
-        boolean isLoggedIn = sharedPreferences.getBoolean("isLoggedIn", false);
-        if (isLoggedIn) {
-            String username = sharedPreferences.getString("username", "");
-            boolean isAdmin = sharedPreferences.getBoolean("isAdmin", false);
+        SessionStore.Session saved = session.current();
+        if (saved.loggedIn) {
+            String username = saved.username;
+            boolean isAdmin = saved.isAdmin;
 
             if (isAdmin) {
                 startActivity(LandingPageActivity.intentFactory(this, username, true));
@@ -109,34 +104,20 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads a random advice/quote from an API and displays it in a target TextView.
-     * Uses Retrofit for network calls.
+     * Shows the next advice/quote from the local {@link AdviceQuotePool}.
+     * Reads from memory only; the pool refreshes itself from the API in the background.
      *
      * @param target TextView where the advice will be displayed.
      */
     private void loadAdviceInto(android.widget.TextView target) {
-        AdviceService service = RetrofitClient.getInstance().create(AdviceService.class);
-        service.getAdvice().enqueue(new Callback<AdviceResponse>() {
-            @Override
-            public void onResponse(Call<AdviceResponse> call, Response<AdviceResponse> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().getSlip() != null) {
-                    String text = "“" + response.body().getSlip().getAdvice() + "”";
-                    target.setText(text);
-                } else {
-                    target.setText("Could not load advice.");
-                }
-            }
-            @Override
-            public void onFailure(Call<AdviceResponse> call, Throwable t) {
-                target.setText("Error: " + (t.getMessage() != null ? t.getMessage() : "Unknown"));
-            }
-        });
+        target.setText(AdviceQuotePool.get(this).next());
     }
 
     /**
      * Verifies the user’s credentials for manual login.
      * - Maria: blocks inactive users
      * - Supports both hashed and plaintext passwords
+     * - Refuses accounts created by Google sign-in, which have no password
      * - Maria: upgrades plaintext to hashed on successful login
      * - Saves session and redirects to appropriate screen.
      */
@@ -149,36 +130,37 @@ public class LoginActivity extends AppCompatActivity {
             return;
         }
 
-        LiveData<User> userLiveData = repository.getUserByUsername(username);
-        userLiveData.observe(this, user -> {
+        // One indexed lookup for id, stored password and flags; answered once, not observed.
+        repository.findLoginAsync(username, user -> {
             if (user != null) {
                 // Maria: block login for inactive users
-                if (!user.isActive()) {
+                if (!user.isActive) {
                     showToast("Your account is deactivated. Contact an admin.");
                     return;
                 }
 
                 // Maria: support hashed or legacy plaintext passwords
-                String stored = user.getPassword();
-                boolean storedIsHash = stored != null && stored.matches("(?i)^[0-9a-f]{64}$");
-                String attemptHash = sha256(password);
-
-                boolean ok = storedIsHash ? stored.equalsIgnoreCase(attemptHash) : stored.equals(password);
-                if (!ok) {
+                String stored = user.password;
+                if (PasswordHasher.isNoPassword(stored)) {
+                    showToast("This account signs in with Google");
+                    return;
+                }
+                if (!PasswordHasher.verify(password, stored)) {
                     showToast("Incorrect password");
                     return;
                 }
 
                 // Maria: upgrade legacy plaintext to hash on successful login
-                if (!storedIsHash) {
-                    repository.updatePasswordById(user.getId(), attemptHash);
+                // (the repository hashes on the write executor, not here on the main thread)
+                if (PasswordHasher.needsUpgrade(stored)) {
+                    repository.updatePasswordById(user.id, password);
                 }
 
-                saveUserSession(user.getId(), user.getUsername(), user.isAdmin());
+                saveUserSession(user.id, user.username, user.isAdmin);
                 Toast.makeText(this, "Login successful", Toast.LENGTH_SHORT).show();
 
-                if (user.isAdmin()) {
-                    startActivity(LandingPageActivity.intentFactory(this, user.getUsername(), true));
+                if (user.isAdmin) {
+                    startActivity(LandingPageActivity.intentFactory(this, user.username, true));
                 } else {
                     startActivity(new Intent(this, MainActivity.class));
                 }
@@ -208,27 +190,18 @@ public class LoginActivity extends AppCompatActivity {
                                 showToast("Google account has no email associated.");
                                 return;
                             }
-                            LiveData<User> userLiveData = repository.getUserByUsername(email);
-
-                            userLiveData.observe(this, user -> {
-                                if (user == null) {
-                                    User newUser = new User(email, "oauth_dummy");
-                                    repository.insertUser(newUser);
-                                    showToast("New Google user added.");
-                                    saveUserSession(newUser.getId(), email, false);
-                                    startActivity(new Intent(this, MainActivity.class));
+                            // Finds or creates the account in one step, so the session gets its real id.
+                            repository.provisionGoogleUserAsync(email, user -> {
+                                // Maria: block Google login for inactive users
+                                if (!user.isActive) {
+                                    showToast("Your account is deactivated. Contact an admin.");
+                                    return;
+                                }
+                                saveUserSession(user.id, user.username, user.isAdmin);
+                                if (user.isAdmin) {
+                                    startActivity(LandingPageActivity.intentFactory(this, user.username, true));
                                 } else {
-                                    // Maria: block Google login for inactive users
-                                    if (!user.isActive()) {
-                                        showToast("Your account is deactivated. Contact an admin.");
-                                        return;
-                                    }
-                                    saveUserSession(user.getId(), user.getUsername(), user.isAdmin());
-                                    if (user.isAdmin()) {
-                                        startActivity(LandingPageActivity.intentFactory(this, user.getUsername(), true));
-                                    } else {
-                                        startActivity(new Intent(this, MainActivity.class));
-                                    }
+                                    startActivity(new Intent(this, MainActivity.class));
                                 }
                                 finish();
                             });
@@ -257,22 +230,18 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     /**
-     * Saves the login session data to SharedPreferences for persistent login.
+     * Saves the login session data to {@link SessionStore} for persistent login.
      *
      * @param userId   The ID of the logged-in user.
      * @param username The username of the logged-in user.
      * @param isAdmin  Whether the user has admin privileges.
      */
     private void saveUserSession(int userId, String username, boolean isAdmin) {
-        if (sharedPreferences == null) {
-            sharedPreferences = getSharedPreferences("login_prefs", Context.MODE_PRIVATE);
+        if (session == null) {
+            session = SessionStore.get(this);
         }
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.putInt("userId", userId);
-        editor.putString("username", username);
-        editor.putBoolean("isAdmin", isAdmin);
-        editor.putBoolean("isLoggedIn", true);
-        editor.apply();
+        session.login(userId, username, isAdmin);
+        VehicleSelectionStore.get(this).reset();
     }
 
     /**
@@ -293,23 +262,4 @@ public class LoginActivity extends AppCompatActivity {
     public static Intent intentFactory(Context context) {
         return new Intent(context, LoginActivity.class);
     }
-
-    /**
-     * Maria: Helper method to compute SHA-256 hash of a string.
-     * Used for password storage and verification.
-     *
-     * @param s The input string.
-     * @return The SHA-256 hash in hexadecimal format.
-     */
-    private static String sha256(String s) {
-        try {
-            java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] bytes = md.digest(s.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder(bytes.length * 2);
-            for (byte b : bytes) sb.append(String.format("%02x", b));
-            return sb.toString();
-        } catch (java.security.NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        }
-    }
 }
@@ -1,12 +1,10 @@
 package com.stanissudo.jycs_crafters;
 
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.content.Context;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.TextView;
-import android.widget.AutoCompleteTextView;
 
 import androidx.activity.OnBackPressedCallback;
 import androidx.appcompat.widget.Toolbar;
@@ -20,7 +18,8 @@ import com.google.android.material.tabs.TabLayout;
 import com.google.android.material.tabs.TabLayoutMediator;
 import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
 import com.stanissudo.jycs_crafters.databinding.ActivityMainBinding;
-import com.stanissudo.jycs_crafters.utils.CarSelectorHelper;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
+import com.stanissudo.jycs_crafters.utils.VehicleSelectionStore;
 import com.stanissudo.jycs_crafters.viewHolders.SharedViewModel;
 import com.stanissudo.jycs_crafters.viewHolders.StatsPagerAdapter;
 import com.stanissudo.jycs_crafters.viewHolders.GarageViewModel;
@@ -51,11 +50,11 @@ public class MainActivity extends BaseDrawerActivity {
         GarageViewModel garageViewModel = new ViewModelProvider(this).get(GarageViewModel.class);
         sharedViewModel = new ViewModelProvider(this).get(SharedViewModel.class);
 
-        // --- 2. Standard Setup (Repository, SharedPreferences, etc.) ---
+        // --- 2. Standard Setup (Repository, session, etc.) ---
         FuelTrackAppRepository repository = FuelTrackAppRepository.getRepository(getApplication());
-        SharedPreferences sharedPreferences = getSharedPreferences("login_prefs", MODE_PRIVATE);
-        String username = sharedPreferences.getString("username", "User");
-        int userId = sharedPreferences.getInt("userId", -1);
+        SessionStore.Session session = SessionStore.get(this).current();
+        String username = session.username.isEmpty() ? "User" : session.username;
+        int userId = session.userId;
 
         // --- 3. Setup UI Components (ViewPager, Tabs, Navigation) ---
         ViewPager2 viewPager = binding.viewPager;
@@ -63,7 +62,7 @@ public class MainActivity extends BaseDrawerActivity {
         StatsPagerAdapter pagerAdapter = new StatsPagerAdapter(this);
         viewPager.setAdapter(pagerAdapter);
         new TabLayoutMediator(tabLayout, viewPager, (tab, position) -> {
-            tab.setText(position == 0 ? "Cost" : "Distance");
+            tab.setText(position == 0 ? "Cost" : position == 1 ? "Distance" : "Economy");
         }).attach();
 
         // Setup for Navigation Drawer Header
@@ -73,43 +72,17 @@ public class MainActivity extends BaseDrawerActivity {
         usernameText.setText(username);
 
         // --- 4. Load Data and Link to UI ---
-        // Observe the list of vehicles from the database
-        garageViewModel.loadUserVehicles(userId);
-        garageViewModel.getUserVehicles().observe(this, vehicles -> {
-            if (vehicles != null && !vehicles.isEmpty()) {
-                // a. Load vehicle data into the helper, which sets the default selection
-                CarSelectorHelper.loadVehicleData(this, vehicles);
-
-                // b. Setup the dropdown UI with the loaded data
-                AutoCompleteTextView carSelectorDropdown = binding.toolbarDropdown;
-                //CarSelectorHelper.setupDropdown(this, carSelectorDropdown);
-                CarSelectorHelper.setupDropdown(this, carSelectorDropdown, id -> {
-                    if (id != -1) sharedViewModel.selectCar(id); // emits to fragments
-                });
-
-                // c. **CRITICAL FIX:** Get the initial car ID and push it to the SharedViewModel.
-                //    This immediately informs all listening fragments which car to display.
-                Integer initialCarId = CarSelectorHelper.getSelectedOptionKey();
-                if (initialCarId != -1) {
-                    sharedViewModel.selectCar(initialCarId);
-                }
-            }
+        // The store indexes the user's vehicles by ID and owns the selection; the dropdown and the
+        // fragments (through the SharedViewModel) just follow it.
+        VehicleSelectionStore selection = VehicleSelectionStore.get(this);
+        selection.bindDropdown(this, binding.toolbarDropdown, null);
+        selection.getSelectedId().observe(this, id -> {
+            if (id != null) sharedViewModel.selectCar(id);
         });
+        garageViewModel.loadUserVehicles(userId);
+        garageViewModel.getUserVehicles().observe(this, selection::setVehicles);
 
         // --- 5. Set Listeners for User Interactions ---
-        // Listener for future dropdown selections
-        binding.toolbarDropdown.setOnItemClickListener((parent, view, position, id) -> {
-            String newSelected = parent.getItemAtPosition(position).toString();
-            CarSelectorHelper.setSelectedOption(this, newSelected);
-            binding.toolbarDropdown.setText(newSelected, false);
-
-            // Get the new car ID and notify the SharedViewModel of the change
-            Integer selectedId = CarSelectorHelper.getSelectedOptionKey();
-            if (selectedId != -1) {
-                sharedViewModel.selectCar(selectedId);
-            }
-        });
-
         // Listener for Navigation Drawer item clicks
         navView.setNavigationItemSelectedListener(item -> {
             int id = item.getItemId();
@@ -136,26 +109,6 @@ public class MainActivity extends BaseDrawerActivity {
         });
     }
 
-    @Override
-    protected void onResume() {
-        super.onResume();
-
-        // 1) Update in-memory selectedOption from prefs
-        CarSelectorHelper.syncFromPrefs(this);
-
-        // 2) Update the dropdown text to match
-        CarSelectorHelper.updateDropdownText(binding.toolbarDropdown);
-
-        // 3) Emit to fragments if changed (or on first resume)
-        int savedId = CarSelectorHelper.getSavedSelectedId(this);
-        if (savedId != -1) {
-            Integer current = sharedViewModel.getSelectedCarId().getValue();
-            if (current == null || !current.equals(savedId)) {
-                sharedViewModel.selectCar(savedId);
-            }
-        }
-    }
-
     @Override
     protected DrawerLayout getDrawerLayout() {
         return binding.drawerLayout;
@@ -2,7 +2,6 @@ package com.stanissudo.jycs_crafters;
 
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.text.InputType;
 import android.widget.Button;
@@ -16,11 +15,13 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
 import com.stanissudo.jycs_crafters.database.entities.User;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
+import com.stanissudo.jycs_crafters.utils.VehicleSelectionStore;
 
 public class SettingsActivity extends AppCompatActivity {
 
     private FuelTrackAppRepository repository;
-    private SharedPreferences sp;
+    private SessionStore session;
 
     private TextView headerName;          // @+id/settings_header_name
     private TextView headerUsername;      // @+id/settings_header_username
@@ -37,7 +38,7 @@ public class SettingsActivity extends AppCompatActivity {
         setContentView(R.layout.activity_settings);
 
         repository = FuelTrackAppRepository.getRepository(getApplication());
-        sp = getSharedPreferences("login_prefs", Context.MODE_PRIVATE);
+        session = SessionStore.get(this);
 
         // Bind views to IDs from your XML
         headerName = findViewById(R.id.settings_header_name);
@@ -50,8 +51,8 @@ public class SettingsActivity extends AppCompatActivity {
         deleteAccountButton = findViewById(R.id.deleteAccountButton);
 
         // Load current session values
-        int userId = sp.getInt("userId", -1);
-        String currentUsername = sp.getString("username", "");
+        int userId = session.getUserId();
+        String currentUsername = session.getUsername();
 
         // Populate static fields
         usernameText.setText(currentUsername);
@@ -106,11 +107,8 @@ public class SettingsActivity extends AppCompatActivity {
                     .setPositiveButton("Deactivate", (d, w) -> {
                         repository.softDeleteUserById(userId);
                         // Clear session and go back to Login
-                        SharedPreferences.Editor ed = sp.edit();
-                        ed.putBoolean("isLoggedIn", false);
-                        ed.remove("username");
-                        ed.remove("isAdmin");
-                        ed.apply();
+                        session.logout();
+                        VehicleSelectionStore.get(this).reset();
                         startActivity(LoginActivity.intentFactory(this));
                         finish();
                     })
@@ -166,7 +164,7 @@ public class SettingsActivity extends AppCompatActivity {
                 return;
             }
 
-            String currentUsername = sp.getString("username", "");
+            String currentUsername = session.getUsername();
             repository.changePasswordWithCurrentCheck(currentUsername, cur, np, (ok, msg) -> {
                 Toast.makeText(this, msg, Toast.LENGTH_SHORT).show();
             });
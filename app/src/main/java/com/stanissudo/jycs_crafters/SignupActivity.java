@@ -11,14 +11,13 @@
  *
  * Notes:
  * - Uses LiveData observers to check for existing usernames and retrieve the newly created user with its generated ID.
- * - Stores login session in SharedPreferences for persistent login across app restarts.
+ * - Stores login session in SessionStore for persistent login across app restarts.
  */
 
 package com.stanissudo.jycs_crafters;
 
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.widget.Toast;
@@ -29,12 +28,14 @@ import androidx.lifecycle.LiveData;
 import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
 import com.stanissudo.jycs_crafters.database.entities.User;
 import com.stanissudo.jycs_crafters.databinding.ActivitySignupBinding;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
+import com.stanissudo.jycs_crafters.utils.VehicleSelectionStore;
 
 public class SignupActivity extends AppCompatActivity {
 
     private ActivitySignupBinding binding;
     private FuelTrackAppRepository repository;
-    private SharedPreferences prefs;
+    private SessionStore session;
 
     /**
      * Called when the activity is first created.
@@ -50,7 +51,7 @@ public class SignupActivity extends AppCompatActivity {
         setContentView(binding.getRoot());
 
         repository = FuelTrackAppRepository.getRepository(getApplication());
-        prefs = getSharedPreferences("login_prefs", MODE_PRIVATE);
+        session = SessionStore.get(this);
 
         binding.createAccountButton.setOnClickListener(v -> attemptSignup());
         binding.loginLink.setOnClickListener(v ->
@@ -112,19 +113,15 @@ public class SignupActivity extends AppCompatActivity {
     }
 
     /**
-     * Saves the user session to SharedPreferences.
+     * Saves the user session to {@link SessionStore}.
      *
      * @param userId   The ID of the user.
      * @param username The username of the user.
      * @param isAdmin  Whether the user has admin privileges.
      */
     private void saveUserSession(int userId, String username, boolean isAdmin) {
-        SharedPreferences.Editor editor = prefs.edit();
-        editor.putInt("userId", userId);
-        editor.putString("username", username);
-        editor.putBoolean("isAdmin", isAdmin);
-        editor.putBoolean("isLoggedIn", true);
-        editor.apply();
+        session.login(userId, username, isAdmin);
+        VehicleSelectionStore.get(this).reset();
     }
 
     /**
@@ -2,19 +2,19 @@
  * Author: Jose Caicedo
  * Date: 08/05/2025
  *
- * RecyclerView adapter for displaying a list of {@link com.stanissudo.jycs_crafters.database.entities.User} objects.
+ * Paging adapter for displaying {@link com.stanissudo.jycs_crafters.database.entities.User} objects.
  * This adapter binds user data to a simple two-line list item layout:
  * - Line 1: Username
- * - Line 2: Role ("Admin" or "User")
+ * - Line 2: Display name, role ("Admin" or "User") and whether the account is deactivated
  *
  * Usage:
- * - Call {@link #setUsers(List)} to provide or update the dataset.
+ * - Pass windows of users from {@code PagingData} via {@code submitData}.
  * - Attach this adapter to a RecyclerView with a suitable LayoutManager (e.g., LinearLayoutManager).
  *
  * Notes:
  * - Uses the built-in Android layout {@code android.R.layout.simple_list_item_2}.
- * - Calls {@link #notifyDataSetChanged()} after updating the dataset for simplicity.
- *   For large datasets, consider using {@link androidx.recyclerview.widget.DiffUtil} for better performance.
+ * - Rows are diffed on a background thread keyed by user id, so deactivating one user rebinds one row.
+ * - Tapping a row hands its user to {@link OnUserClickListener}, so admin actions need no typed username.
  */
 package com.stanissudo.jycs_crafters;
 
@@ -24,25 +24,43 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.stanissudo.jycs_crafters.database.entities.User;
 
-import java.util.List;
+public class UserListAdapter extends PagingDataAdapter<User, UserListAdapter.UserViewHolder> {
 
-public class UserListAdapter extends RecyclerView.Adapter<UserListAdapter.UserViewHolder> {
+    /** Receives the user whose row was tapped. */
+    public interface OnUserClickListener {
+        void onUserClicked(User user);
+    }
+
+    /** Rows are the same item when their ids match; contents compare all columns. */
+    static final DiffUtil.ItemCallback<User> DIFF = new DiffUtil.ItemCallback<User>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
 
-    /** The list of users to display in the RecyclerView. */
-    private List<User> users;
+        @Override
+        public boolean areContentsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    /** Receiver for row taps. */
+    private final OnUserClickListener listener;
 
     /**
-     * Updates the adapter's dataset with a new list of users and refreshes the UI.
+     * Creates the adapter.
      *
-     * @param users A list of {@link User} objects to display.
+     * @param listener Called with the user of a tapped row.
      */
-    public void setUsers(List<User> users) {
-        this.users = users;
-        notifyDataSetChanged();
+    public UserListAdapter(@NonNull OnUserClickListener listener) {
+        super(DIFF);
+        this.listener = listener;
     }
 
     /**
@@ -68,19 +86,15 @@ public class UserListAdapter extends RecyclerView.Adapter<UserListAdapter.UserVi
      */
     @Override
     public void onBindViewHolder(@NonNull UserViewHolder holder, int position) {
-        User user = users.get(position);
+        User user = getItem(position);
+        if (user == null) return; // placeholders are disabled, but the API allows nulls
         holder.usernameView.setText(user.getUsername());
-        holder.adminView.setText(user.isAdmin() ? "Admin" : "User");
-    }
-
-    /**
-     * Returns the total number of items in the dataset.
-     *
-     * @return The number of user items, or 0 if the dataset is null.
-     */
-    @Override
-    public int getItemCount() {
-        return users == null ? 0 : users.size();
+        String role = user.isAdmin() ? "Admin" : "User";
+        String details = user.getDisplayName() == null || user.getDisplayName().equals(user.getUsername())
+                ? role
+                : user.getDisplayName() + " • " + role;
+        holder.adminView.setText(user.isActive() ? details : details + " • Deactivated");
+        holder.itemView.setOnClickListener(v -> listener.onUserClicked(user));
     }
 
     /**
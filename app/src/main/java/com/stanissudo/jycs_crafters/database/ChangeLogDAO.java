@@ -0,0 +1,45 @@
+package com.stanissudo.jycs_crafters.database;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.stanissudo.jycs_crafters.database.entities.ChangeLog;
+
+import java.util.List;
+
+/**
+ * Read and acknowledge side of the backup outbox. Rows are only ever written by the DAO
+ * wrappers in {@link FuelEntryDAO} and {@link VehicleDAO}, through {@link ChangeLog#RECORD_CHANGE}.
+ */
+@Dao
+public interface ChangeLogDAO {
+
+    /** Oldest pending changes of one user, read off the (UserId, Seq) index. */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.CHANGE_LOG_TABLE +
+            " WHERE UserId = :userId ORDER BY Seq LIMIT :limit")
+    List<ChangeLog> getPending(int userId, int limit);
+
+    /**
+     * Drops the user's changes up to and including {@code upToSeq} once the backup has them. An
+     * entity changed again in the meantime has a newer row with a higher Seq, which stays.
+     */
+    @Query("DELETE FROM " + FuelTrackAppDatabase.CHANGE_LOG_TABLE + " WHERE UserId = :userId AND Seq <= :upToSeq")
+    int acknowledge(int userId, long upToSeq);
+
+    /**
+     * Whether a local change of the user's to the entity with backup key {@code syncKey} is still
+     * waiting to be pushed; also true for an entity deleted here, whose row is gone.
+     */
+    @Query("SELECT EXISTS(SELECT 1 FROM " + FuelTrackAppDatabase.CHANGE_LOG_TABLE +
+            " WHERE UserId = :userId AND EntityType = :type AND SyncKey = :syncKey)")
+    boolean isPending(int userId, int type, String syncKey);
+
+    @Query("SELECT COUNT(*) FROM " + FuelTrackAppDatabase.CHANGE_LOG_TABLE + " WHERE UserId = :userId")
+    int countPending(int userId);
+
+    /** Deletes up to {@code limit} pending rows of users that no longer exist. */
+    @Query("DELETE FROM " + FuelTrackAppDatabase.CHANGE_LOG_TABLE + " WHERE Seq IN (SELECT Seq FROM " +
+            FuelTrackAppDatabase.CHANGE_LOG_TABLE + " WHERE UserId NOT IN (SELECT id FROM " +
+            FuelTrackAppDatabase.USER_TABLE + ") LIMIT :limit)")
+    int deleteOrphaned(int limit);
+}
@@ -0,0 +1,53 @@
+package com.stanissudo.jycs_crafters.database;
+
+import com.stanissudo.jycs_crafters.database.pojos.VehicleSummary;
+
+import java.util.Comparator;
+
+/**
+ * Orderings for the fleet overview. Each metric sorts in its natural direction (names A to Z,
+ * everything else largest or newest first); cars without a value for the metric go last either
+ * way, and ties fall back to the vehicle id so the order is stable.
+ */
+public enum FleetSort {
+    NAME(Comparator.comparing((VehicleSummary s) -> s.name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))),
+    TOTAL_COST(Comparator.comparingLong((VehicleSummary s) -> s.totalCostCents).reversed()),
+    DISTANCE(Comparator.comparingInt(VehicleSummary::distance).reversed()),
+    LAST_FILL_UP(Comparator.comparing((VehicleSummary s) -> s.lastFillUpMillis,
+            Comparator.nullsLast(Comparator.<Long>reverseOrder()))),
+    MPG(Comparator.comparing(VehicleSummary::averageMpgMilli, Comparator.nullsLast(Comparator.<Long>reverseOrder())));
+
+    private final Comparator<VehicleSummary> natural;
+
+    FleetSort(Comparator<VehicleSummary> natural) {
+        this.natural = natural;
+    }
+
+    /** Comparator for this metric; {@code reversed} flips the metric but keeps empty cars last. */
+    public Comparator<VehicleSummary> comparator(boolean reversed) {
+        Comparator<VehicleSummary> byMetric = reversed ? reverseKeepingEmptyLast() : natural;
+        return byMetric.thenComparingInt(s -> s.vehicleId);
+    }
+
+    private Comparator<VehicleSummary> reverseKeepingEmptyLast() {
+        return (a, b) -> {
+            boolean aEmpty = isEmpty(a);
+            boolean bEmpty = isEmpty(b);
+            if (aEmpty != bEmpty) return aEmpty ? 1 : -1;
+            return natural.compare(b, a);
+        };
+    }
+
+    private boolean isEmpty(VehicleSummary s) {
+        switch (this) {
+            case NAME:
+                return s.name == null;
+            case LAST_FILL_UP:
+                return s.lastFillUpMillis == null;
+            case MPG:
+                return s.averageMpgMilli() == null;
+            default:
+                return false;
+        }
+    }
+}
@@ -1,60 +1,608 @@
 package com.stanissudo.jycs_crafters.database;
 
+import android.database.Cursor;
+
 import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
+import com.stanissudo.jycs_crafters.database.entities.ChangeLog;
 import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.entities.VehicleMonthStats;
+import com.stanissudo.jycs_crafters.database.entities.VehicleStats;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.stanissudo.jycs_crafters.database.pojos.CarCostStats;
 import com.stanissudo.jycs_crafters.database.pojos.CarDistanceStats;
+import com.stanissudo.jycs_crafters.database.pojos.CarEconomyStats;
+import com.stanissudo.jycs_crafters.database.pojos.FuelEntrySaveResult;
 
 /**
  * * @author Stan Permiakov
  * * created: 8/12/2025
  * * @project JYCS-Crafters
+ * *
+ * Writes go through {@link #insertRecord}, {@link #updateRecord} and {@link #deleteRecordById},
+ * which keep the car's {@link FuelTrackAppDatabase#VEHICLE_STATS_TABLE} row and the entry's
+ * {@link FuelTrackAppDatabase#VEHICLE_MONTH_STATS_TABLE} bucket in step inside the same
+ * transaction, and queue the entry for the backup in {@link FuelTrackAppDatabase#CHANGE_LOG_TABLE}.
+ * {@link #storeEntry} and {@link #removeEntry} do the same minus the outbox row; they are for
+ * applying changes that came from the backup. The raw row methods are only for those wrappers.
+ * <p>
+ * Every row belongs to an existing vehicle (foreign key, ON DELETE CASCADE). Rows orphaned before
+ * the key existed are skipped by the rollup rebuilds and removed by {@link OrphanPurge}.
  */
 @Dao
 public interface FuelEntryDAO {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertRecord(FuelEntry fuelEntry);
+    long insertRow(FuelEntry fuelEntry);
 
     @Update(onConflict = OnConflictStrategy.REPLACE)
-    void updateRecord(FuelEntry fuelEntry);
+    void updateRow(FuelEntry fuelEntry);
+
+    @Query("DELETE FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE  LogID = :recordId")
+    void deleteRow(long recordId);
+
+    @Transaction
+    default void insertRecord(FuelEntry fuelEntry) {
+        long id = storeEntry(fuelEntry);
+        recordChange(ChangeLog.FUEL_ENTRY, id, fuelEntry.getSyncId(), fuelEntry.getCarID(), System.currentTimeMillis());
+    }
+
+    /**
+     * Inserts or overwrites the entry and updates the rollups and economy columns, without
+     * queueing it for the backup. An overwritten row keeps its backup key; a new one without a key
+     * gets one.
+     *
+     * @return the entry's LogID
+     */
+    @Transaction
+    default long storeEntry(FuelEntry fuelEntry) {
+        // REPLACE on an existing LogID overwrites that row, so take it out of the totals first.
+        FuelEntry old = fuelEntry.getLogID() == 0 ? null : getEntryById(fuelEntry.getLogID());
+        FuelEntry oldNext = old == null ? null : getNextEntry(old);
+        if (old != null && old.getSyncId() != null) fuelEntry.setSyncId(old.getSyncId());
+        else if (fuelEntry.getSyncId() == null) fuelEntry.setSyncId(ChangeLog.newSyncKey());
+        long id = insertRow(fuelEntry);
+        if (old != null) removeFromStats(old);
+        addToStats(fuelEntry);
+        refreshEconomyAround(id, oldNext);
+        return id;
+    }
+
+    @Insert
+    List<Long> insertRows(List<FuelEntry> fuelEntries);
+
+    /**
+     * Inserts a batch of new entries in one transaction. The rollup gets one delta per car in the
+     * batch rather than one per row, which is what makes bulk imports cheap.
+     */
+    @Transaction
+    default void insertRecords(List<FuelEntry> fuelEntries) {
+        List<Long> ids = storeEntries(fuelEntries);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < ids.size(); i++) {
+            FuelEntry e = fuelEntries.get(i);
+            recordChange(ChangeLog.FUEL_ENTRY, ids.get(i), e.getSyncId(), e.getCarID(), now);
+        }
+    }
+
+    /**
+     * {@link #insertRecords} without queueing the rows for the backup; returns their LogIDs. Rows
+     * without a backup key get one.
+     */
+    @Transaction
+    default List<Long> storeEntries(List<FuelEntry> fuelEntries) {
+        if (fuelEntries.isEmpty()) return new ArrayList<>();
+        for (FuelEntry e : fuelEntries) {
+            if (e.getSyncId() == null) e.setSyncId(ChangeLog.newSyncKey());
+        }
+        List<Long> ids = insertRows(fuelEntries);
+
+        Map<Integer, long[]> deltas = new HashMap<>();
+        Map<Long, long[]> monthDeltas = new HashMap<>();
+        Map<Integer, Long> earliest = new HashMap<>();
+        for (FuelEntry e : fuelEntries) {
+            earliest.merge(e.getCarID(), e.getLogDateMillis(), Math::min);
+            // d = {count, totalCostCents, priceTenthCents, measuredDistance, measuredGallonsMilli},
+            // m = {count, totalCostCents, priceTenthCents, gallonsMilli}
+            long[] d = deltas.computeIfAbsent(e.getCarID(), k -> new long[5]);
+            long[] m = monthDeltas.computeIfAbsent(
+                    MonthlyRollup.key(e.getCarID(), EpochTime.epochMonth(e.getLogDateMillis())), k -> new long[4]);
+            d[0]++;
+            d[1] += e.getTotalCostCents();
+            d[2] += e.getPriceTenthCents();
+            d[3] += e.measuredDistance();
+            d[4] += e.measuredGallonsMilli();
+            m[0]++;
+            m[1] += e.getTotalCostCents();
+            m[2] += e.getPriceTenthCents();
+            m[3] += e.getGallonsMilli();
+        }
+        for (Map.Entry<Integer, long[]> d : deltas.entrySet()) {
+            int carId = d.getKey();
+            ensureStatsRow(carId);
+            adjustStats(carId, (int) d.getValue()[0], d.getValue()[1], d.getValue()[2]);
+            adjustMeasured(carId, d.getValue()[3], d.getValue()[4]);
+            refreshOdometerRange(carId);
+        }
+        for (Map.Entry<Long, long[]> m : monthDeltas.entrySet()) {
+            int carId = (int) (m.getKey() >> 32);
+            int month = (int) (long) m.getKey();
+            long[] d = m.getValue();
+            ensureMonthStatsRow(carId, month);
+            adjustMonthStats(carId, month, (int) d[0], d[1], d[2], d[3]);
+            refreshMonthOdometer(carId, month);
+        }
+        // Rows can land anywhere in a car's history, so re-walk each car from its earliest new row.
+        for (Map.Entry<Integer, Long> e : earliest.entrySet()) recomputeEconomyForCar(e.getKey(), e.getValue());
+        return ids;
+    }
+
+    @Transaction
+    default void updateRecord(FuelEntry fuelEntry) {
+        FuelEntry old = getEntryById(fuelEntry.getLogID());
+        if (old == null) return;
+        FuelEntry oldNext = getNextEntry(old);
+        // The key never changes, whatever the caller's copy of the row carries.
+        fuelEntry.setSyncId(old.getSyncId() != null ? old.getSyncId() : ChangeLog.newSyncKey());
+        updateRow(fuelEntry);
+        removeFromStats(old);
+        addToStats(fuelEntry);
+        refreshEconomyAround(fuelEntry.getLogID(), oldNext);
+        recordChange(ChangeLog.FUEL_ENTRY, fuelEntry.getLogID(), fuelEntry.getSyncId(), fuelEntry.getCarID(),
+                System.currentTimeMillis());
+    }
+
+    /** An entry that never got a backup key was never backed up, so it needs no tombstone. */
+    @Transaction
+    default void deleteRecordById(long recordId) {
+        FuelEntry old = removeEntry(recordId);
+        if (old != null && old.getSyncId() != null) {
+            recordChange(ChangeLog.FUEL_ENTRY, recordId, old.getSyncId(), old.getCarID(), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Deletes the entry and updates the rollups, without queueing it for the backup.
+     *
+     * @return the deleted row, or {@code null} if there was none
+     */
+    @Transaction
+    default FuelEntry removeEntry(long recordId) {
+        FuelEntry old = getEntryById(recordId);
+        if (old == null) return null;
+        FuelEntry oldNext = getNextEntry(old);
+        deleteRow(recordId);
+        removeFromStats(old);
+        if (oldNext != null) refreshEconomy(oldNext);
+        return old;
+    }
+
+    /** Queues entity {@code id} for the backup; see {@link ChangeLog#RECORD_CHANGE}. */
+    @Query(ChangeLog.RECORD_CHANGE)
+    void recordChange(int type, long id, String syncKey, int vehicleId, long changedAt);
+
+    @Query("SELECT EXISTS(SELECT 1 FROM " + FuelTrackAppDatabase.VEHICLE_TABLE + " WHERE VehicleID = :carId)")
+    boolean vehicleExists(int carId);
+
+    /** Current rows of the given entries, for building one backup batch. Missing ids are skipped. */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE LogID IN (:ids)")
+    List<FuelEntry> getEntriesByIds(List<Long> ids);
+
+    /** The user's entries with the given backup keys, for applying one pulled page. */
+    @Query("SELECT f.* FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " f JOIN " + FuelTrackAppDatabase.VEHICLE_TABLE +
+            " v ON v.VehicleID = f.CarID WHERE v.UserId = :userId AND f.SyncId IN (:syncKeys)")
+    List<FuelEntry> getEntriesBySyncKeys(int userId, List<String> syncKeys);
+
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE LogID = :id LIMIT 1")
+    FuelEntry getEntryById(long id);
 
     @Query("SELECT * FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID = :carId ORDER BY logDate DESC")
     LiveData<List<FuelEntry>> getEntriesForCar(int carId);
 
+    /**
+     * First window of the paged fuel log (newest first). Ties on {@code logDate} are broken by
+     * {@code LogID} so every row has a unique position for keyset paging.
+     */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID = :carId " +
+            "ORDER BY logDate DESC, LogID DESC LIMIT :limit")
+    List<FuelEntry> getFirstEntriesPage(int carId, int limit);
+
+    /**
+     * Window of entries that come after the key {@code (logDate, logId)} in newest-first order.
+     */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID = :carId " +
+            "AND (logDate < :logDate OR (logDate = :logDate AND LogID < :logId)) " +
+            "ORDER BY logDate DESC, LogID DESC LIMIT :limit")
+    List<FuelEntry> getEntriesPageAfter(int carId, long logDate, long logId, int limit);
+
+    /**
+     * Window of entries that come before the key {@code (logDate, logId)} in newest-first order.
+     * Rows are returned oldest first; callers reverse them.
+     */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID = :carId " +
+            "AND (logDate > :logDate OR (logDate = :logDate AND LogID > :logId)) " +
+            "ORDER BY logDate ASC, LogID ASC LIMIT :limit")
+    List<FuelEntry> getEntriesPageBefore(int carId, long logDate, long logId, int limit);
+
     @Query("SELECT * FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE LogID = :id LIMIT 1")
     LiveData<FuelEntry> getRecordById(int id);
 
+    /** Raw cursor over one car's log, oldest first, for streaming exports. Caller closes it. */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID = :carId ORDER BY logDate, LogID")
+    Cursor cursorForCar(int carId);
+
+    /** Raw cursor over every car's log, grouped by car and oldest first. Caller closes it. */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " ORDER BY CarID, logDate, LogID")
+    Cursor cursorForAllCars();
+
+    /** Just the columns {@code OdometerIndex} needs for one car, oldest first. Caller closes it. */
+    @Query("SELECT LogID, logDate, Odometer, PriceTenthCents FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE +
+            " WHERE CarID = :carId ORDER BY logDate, LogID")
+    Cursor odometerCursorForCar(int carId);
+
     @Query("SELECT odometer FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE LogID != :logId AND CarID = :carId AND logDate < :logDate ORDER BY logDate DESC LIMIT 1")
-    Integer getPreviousOdometer(long logId, int carId, LocalDateTime logDate);
+    Integer getPreviousOdometer(long logId, int carId, long logDate);
 
     @Query("SELECT odometer FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE LogID != :logId AND CarID = :carId AND logDate > :logDate ORDER BY logDate LIMIT 1")
-    Integer getNextOdometer(long logId, int carId, LocalDateTime logDate);
+    Integer getNextOdometer(long logId, int carId, long logDate);
+
+    /**
+     * Checks the entry's odometer against the car's neighbouring entries by date and, if it fits
+     * strictly between them, inserts it (LogID 0) or updates it. Doing both in one transaction
+     * means two quick saves cannot each pass the check against a log that no longer exists.
+     */
+    @Transaction
+    default FuelEntrySaveResult validateAndSave(FuelEntry fuelEntry) {
+        int odometer = fuelEntry.getOdometer();
+        Integer prev = getPreviousOdometer(fuelEntry.getLogID(), fuelEntry.getCarID(), fuelEntry.getLogDateMillis());
+        Integer next = getNextOdometer(fuelEntry.getLogID(), fuelEntry.getCarID(), fuelEntry.getLogDateMillis());
+        if ((prev != null && odometer <= prev) || (next != null && odometer >= next)) {
+            return FuelEntrySaveResult.conflict(prev, next);
+        }
+        if (fuelEntry.getLogID() == 0) insertRecord(fuelEntry); else updateRecord(fuelEntry);
+        return FuelEntrySaveResult.saved(prev, next);
+    }
 
-    @Query("SELECT COUNT(*) AS fillUpsCount, " +
-            "SUM(TotalCost) as totalCost, " +
-            "AVG(PricePerGallon) as avgPricePerGallon, " +
-            "AVG(TotalCost) as avgCostPerFillUp " +
-            "FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " " +
+    // Integer averages rounded half-up: (2 * sum + n) / (2 * n).
+    @Query("SELECT fillUpsCount, " +
+            "totalCostCents, " +
+            "(2 * priceTenthCentsSum + fillUpsCount) / (2 * fillUpsCount) as avgPriceTenthCents, " +
+            "(2 * totalCostCents + fillUpsCount) / (2 * fillUpsCount) as avgCostPerFillUpCents " +
+            "FROM " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE + " " +
             "WHERE CarID = :carId")
     LiveData<CarCostStats> getCostStatsForVehicle(int carId);
 
-    @Query("SELECT MAX(Odometer) AS lastOdometer, " +
-            "(MAX(Odometer) - MIN(Odometer)) as totalDistance, " +
-            "(MAX(Odometer) - MIN(Odometer)) / (COUNT(*) - 1) as avgDistancePerFillUp " +
-            "FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " " +
+    @Query("SELECT maxOdometer AS lastOdometer, " +
+            "(maxOdometer - minOdometer) as totalDistance, " +
+            "(maxOdometer - minOdometer) / (fillUpsCount - 1) as avgDistancePerFillUp " +
+            "FROM " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE + " " +
             "WHERE CarID = :carId")
     LiveData<CarDistanceStats> getDistanceStatsForVehicle(int carId);
 
-    @Query("DELETE FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE  LogID = :recordId")
-    void deleteRecordById(long recordId);
-}
\ No newline at end of file
+    // ==== Per-entry economy (DistanceSincePrev, MpgMilli) ====
+
+    /**
+     * Writes the economy columns only; callers move the car's measured totals to match
+     * ({@link #adjustMeasured}).
+     */
+    @Query("UPDATE " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " SET DistanceSincePrev = :distance, MpgMilli = :mpgMilli " +
+            "WHERE LogID = :logId")
+    void setEconomy(long logId, Integer distance, Long mpgMilli);
+
+    /** The car's entry just before {@code e} in {@code (logDate, LogID)} order, or null. */
+    default FuelEntry getPreviousEntry(FuelEntry e) {
+        List<FuelEntry> rows = getEntriesPageAfter(e.getCarID(), e.getLogDateMillis(), e.getLogID(), 1);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /** The car's entry just after {@code e} in {@code (logDate, LogID)} order, or null. */
+    default FuelEntry getNextEntry(FuelEntry e) {
+        List<FuelEntry> rows = getEntriesPageBefore(e.getCarID(), e.getLogDateMillis(), e.getLogID(), 1);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /** Re-reads {@code e} and its predecessor and stores its distance and MPG if they changed. */
+    default void refreshEconomy(FuelEntry e) {
+        FuelEntry current = getEntryById(e.getLogID());
+        if (current == null) return;
+        FuelEntry prev = getPreviousEntry(current);
+        long distance = current.measuredDistance();
+        long gallons = current.measuredGallonsMilli();
+        if (current.applyEconomy(prev == null ? null : prev.getOdometer())) {
+            setEconomy(current.getLogID(), current.getDistanceSincePrev(), current.getMpgMilli());
+            adjustMeasured(current.getCarID(), current.measuredDistance() - distance,
+                    current.measuredGallonsMilli() - gallons);
+        }
+    }
+
+    /**
+     * After entry {@code logId} was written, the only rows whose predecessor can have changed are
+     * the entry itself, its new successor and the successor it had before the write.
+     */
+    default void refreshEconomyAround(long logId, FuelEntry formerNext) {
+        if (formerNext != null) refreshEconomy(formerNext);
+        FuelEntry saved = getEntryById(logId);
+        if (saved == null) return;
+        refreshEconomy(saved);
+        FuelEntry next = getNextEntry(saved);
+        if (next != null) refreshEconomy(next);
+    }
+
+    /**
+     * Walks one car's log in order and fixes every entry whose stored economy is stale; for bulk
+     * imports and the one-time backfill. Returns the number of rows updated.
+     */
+    @Transaction
+    default int recomputeEconomyForCar(int carId) {
+        return recomputeEconomyForCar(carId, Long.MIN_VALUE);
+    }
+
+    /** Raw cursor over one car's entries dated {@code fromMillis} or later, oldest first. Caller closes it. */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID = :carId AND logDate >= :fromMillis " +
+            "ORDER BY logDate, LogID")
+    Cursor cursorForCarFrom(int carId, long fromMillis);
+
+    /**
+     * Like {@link #recomputeEconomyForCar(int)} but only for entries dated {@code fromMillis} or
+     * later; earlier ones cannot be affected by rows added there. Batches appended to the end of
+     * a log therefore only walk themselves.
+     */
+    @Transaction
+    default int recomputeEconomyForCar(int carId, long fromMillis) {
+        List<FuelEntry> stale = new ArrayList<>();
+        long measuredDistance = 0;
+        long measuredGallons = 0;
+        // Entries dated strictly before fromMillis; LogID MIN_VALUE excludes ties on the date.
+        List<FuelEntry> before = fromMillis == Long.MIN_VALUE ? new ArrayList<>()
+                : getEntriesPageAfter(carId, fromMillis, Long.MIN_VALUE, 1);
+        try (Cursor c = cursorForCarFrom(carId, fromMillis)) {
+            int id = c.getColumnIndexOrThrow("LogID");
+            int odo = c.getColumnIndexOrThrow("Odometer");
+            int gallons = c.getColumnIndexOrThrow("GallonsMilli");
+            int distance = c.getColumnIndexOrThrow("DistanceSincePrev");
+            int mpg = c.getColumnIndexOrThrow("MpgMilli");
+            Integer prevOdometer = before.isEmpty() ? null : before.get(0).getOdometer();
+            boolean first = before.isEmpty();
+            FuelEntry row = new FuelEntry();
+            while (c.moveToNext()) {
+                row.setOdometer(c.isNull(odo) ? null : c.getInt(odo));
+                row.setGallonsMilli(c.getLong(gallons));
+                row.setDistanceSincePrev(c.isNull(distance) ? null : c.getInt(distance));
+                row.setMpgMilli(c.isNull(mpg) ? null : c.getLong(mpg));
+                measuredDistance -= row.measuredDistance();
+                measuredGallons -= row.measuredGallonsMilli();
+                boolean changed = row.applyEconomy(first ? null : prevOdometer);
+                measuredDistance += row.measuredDistance();
+                measuredGallons += row.measuredGallonsMilli();
+                if (changed) {
+                    FuelEntry fix = new FuelEntry();
+                    fix.setLogID(c.getLong(id));
+                    fix.setDistanceSincePrev(row.getDistanceSincePrev());
+                    fix.setMpgMilli(row.getMpgMilli());
+                    stale.add(fix);
+                }
+                prevOdometer = row.getOdometer();
+                first = false;
+            }
+        }
+        // Written after the cursor is closed so the walk never sees its own updates.
+        for (FuelEntry fix : stale) setEconomy(fix.getLogID(), fix.getDistanceSincePrev(), fix.getMpgMilli());
+        if (!stale.isEmpty()) adjustMeasured(carId, measuredDistance, measuredGallons);
+        return stale.size();
+    }
+
+    /** Smallest car id above {@code afterCarId} that has log entries, or null; for batch jobs. */
+    @Query("SELECT CarID FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID > :afterCarId " +
+            "ORDER BY CarID LIMIT 1")
+    Integer getNextLoggedCarId(int afterCarId);
+
+    /**
+     * Economy over the car's fill-ups that have a predecessor. Average MPG is total distance over
+     * total gallons (not the mean of per-fill-up MPG), rounded half-up in milli-MPG.
+     */
+    @Query("SELECT COUNT(MpgMilli) AS measuredFillUps, " +
+            "COALESCE(SUM(CASE WHEN MpgMilli IS NOT NULL THEN DistanceSincePrev END), 0) AS measuredDistance, " +
+            "COALESCE(SUM(CASE WHEN MpgMilli IS NOT NULL THEN GallonsMilli END), 0) AS measuredGallonsMilli, " +
+            "MAX(MpgMilli) AS bestMpgMilli, MIN(MpgMilli) AS worstMpgMilli, " +
+            "(SELECT MpgMilli FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID = :carId " +
+            "ORDER BY logDate DESC, LogID DESC LIMIT 1) AS lastMpgMilli " +
+            "FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID = :carId")
+    LiveData<CarEconomyStats> getEconomyStatsForVehicle(int carId);
+
+    // ==== VehicleStats rollup ====
+
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE + " WHERE CarID = :carId")
+    VehicleStats getVehicleStats(int carId);
+
+    @Query("INSERT OR IGNORE INTO " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE +
+            " (CarID, fillUpsCount, totalCostCents, priceTenthCentsSum, measuredDistance, measuredGallonsMilli) " +
+            "VALUES (:carId, 0, 0, 0, 0, 0)")
+    void ensureStatsRow(int carId);
+
+    @Query("UPDATE " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE + " SET " +
+            "fillUpsCount = fillUpsCount + :count, " +
+            "totalCostCents = totalCostCents + :totalCostCents, " +
+            "priceTenthCentsSum = priceTenthCentsSum + :priceTenthCents " +
+            "WHERE CarID = :carId")
+    void adjustStats(int carId, int count, long totalCostCents, long priceTenthCents);
+
+    /**
+     * Adds to the distance and fuel of the car's fill-ups that have an MPG figure, which the fleet
+     * overview's average MPG divides. Every change to an entry's economy columns or gallons goes
+     * through here with its difference.
+     */
+    @Query("UPDATE " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE + " SET " +
+            "measuredDistance = measuredDistance + :distance, " +
+            "measuredGallonsMilli = measuredGallonsMilli + :gallonsMilli " +
+            "WHERE CarID = :carId")
+    void adjustMeasured(int carId, long distance, long gallonsMilli);
+
+    /**
+     * Min/max odometer and the newest date can't be undone arithmetically on delete, so re-read
+     * them from the (CarID, Odometer) and (CarID, logDate) indexes.
+     */
+    @Query("UPDATE " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE + " SET " +
+            "minOdometer = (SELECT MIN(Odometer) FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID = :carId), " +
+            "maxOdometer = (SELECT MAX(Odometer) FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID = :carId), " +
+            "lastFillUpMillis = (SELECT MAX(logDate) FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID = :carId) " +
+            "WHERE CarID = :carId")
+    void refreshOdometerRange(int carId);
+
+    @Query("DELETE FROM " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE + " WHERE CarID = :carId AND fillUpsCount <= 0")
+    void dropEmptyStats(int carId);
+
+    default void addToStats(FuelEntry e) {
+        ensureStatsRow(e.getCarID());
+        adjustStats(e.getCarID(), 1, e.getTotalCostCents(), e.getPriceTenthCents());
+        adjustMeasured(e.getCarID(), e.measuredDistance(), e.measuredGallonsMilli());
+        refreshOdometerRange(e.getCarID());
+
+        int month = EpochTime.epochMonth(e.getLogDateMillis());
+        ensureMonthStatsRow(e.getCarID(), month);
+        adjustMonthStats(e.getCarID(), month, 1, e.getTotalCostCents(), e.getPriceTenthCents(), e.getGallonsMilli());
+        refreshMonthOdometer(e.getCarID(), month);
+    }
+
+    default void removeFromStats(FuelEntry e) {
+        adjustStats(e.getCarID(), -1, -e.getTotalCostCents(), -e.getPriceTenthCents());
+        adjustMeasured(e.getCarID(), -e.measuredDistance(), -e.measuredGallonsMilli());
+        dropEmptyStats(e.getCarID());
+        refreshOdometerRange(e.getCarID());
+
+        int month = EpochTime.epochMonth(e.getLogDateMillis());
+        adjustMonthStats(e.getCarID(), month, -1, -e.getTotalCostCents(), -e.getPriceTenthCents(), -e.getGallonsMilli());
+        dropEmptyMonthStats(e.getCarID(), month);
+        refreshMonthOdometer(e.getCarID(), month);
+    }
+
+    @Query("DELETE FROM " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE)
+    void clearVehicleStats();
+
+    @Query("INSERT INTO " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE +
+            " (CarID, fillUpsCount, totalCostCents, priceTenthCentsSum, minOdometer, maxOdometer, " +
+            "measuredDistance, measuredGallonsMilli) " +
+            "SELECT *, 0, 0 FROM (" + FuelTrackAppDatabase.VEHICLE_STATS_AGGREGATE + ") WHERE CarID IN (SELECT VehicleID FROM " +
+            FuelTrackAppDatabase.VEHICLE_TABLE + ")")
+    void insertAggregatedStats();
+
+    @Query(FuelTrackAppDatabase.VEHICLE_STATS_REFRESH_LATEST)
+    void refreshAggregatedLatest();
+
+    /** Recomputes every rollup row, lifetime and monthly, from the log itself, repairing any drift. */
+    @Transaction
+    default void rebuildVehicleStats() {
+        clearVehicleStats();
+        insertAggregatedStats();
+        refreshAggregatedLatest();
+        rebuildMonthStats();
+    }
+
+    // ==== VehicleMonthStats rollup ====
+
+    /**
+     * Month buckets {@code fromMonth..toMonth} of one car, oldest first, plus the closest earlier
+     * bucket if there is one: its odometer is where the range's distance starts. Reads straight
+     * off the (CarID, month) primary key.
+     */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE + " WHERE CarID = :carId " +
+            "AND month >= (SELECT COALESCE(MAX(month), :fromMonth) FROM " + FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE +
+            " WHERE CarID = :carId AND month < :fromMonth) " +
+            "AND month <= :toMonth ORDER BY month")
+    LiveData<List<VehicleMonthStats>> getMonthStatsInRange(int carId, int fromMonth, int toMonth);
+
+    /** Every month bucket of one car, oldest first: one row per month with fill-ups. */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE + " WHERE CarID = :carId ORDER BY month")
+    LiveData<List<VehicleMonthStats>> getMonthStatsForCar(int carId);
+
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE + " WHERE CarID = :carId AND month = :month")
+    VehicleMonthStats getMonthStats(int carId, int month);
+
+    @Query("INSERT OR IGNORE INTO " + FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE +
+            " (CarID, month, fillUpsCount, totalCostCents, priceTenthCentsSum, gallonsMilli) " +
+            "VALUES (:carId, :month, 0, 0, 0, 0)")
+    void ensureMonthStatsRow(int carId, int month);
+
+    @Query("UPDATE " + FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE + " SET " +
+            "fillUpsCount = fillUpsCount + :count, " +
+            "totalCostCents = totalCostCents + :totalCostCents, " +
+            "priceTenthCentsSum = priceTenthCentsSum + :priceTenthCents, " +
+            "gallonsMilli = gallonsMilli + :gallonsMilli " +
+            "WHERE CarID = :carId AND month = :month")
+    void adjustMonthStats(int carId, int month, int count, long totalCostCents, long priceTenthCents, long gallonsMilli);
+
+    /** Like {@link #refreshOdometerRange}, over the month's slice of the (CarID, logDate) index. */
+    @Query("UPDATE " + FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE + " SET " +
+            "minOdometer = (SELECT MIN(Odometer) FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE +
+            " WHERE CarID = :carId AND logDate >= :fromMillis AND logDate < :toMillis), " +
+            "maxOdometer = (SELECT MAX(Odometer) FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE +
+            " WHERE CarID = :carId AND logDate >= :fromMillis AND logDate < :toMillis) " +
+            "WHERE CarID = :carId AND month = :month")
+    void refreshMonthOdometerRange(int carId, int month, long fromMillis, long toMillis);
+
+    default void refreshMonthOdometer(int carId, int month) {
+        refreshMonthOdometerRange(carId, month, EpochTime.startOfMonth(month), EpochTime.startOfMonth(month + 1));
+    }
+
+    @Query("DELETE FROM " + FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE +
+            " WHERE CarID = :carId AND month = :month AND fillUpsCount <= 0")
+    void dropEmptyMonthStats(int carId, int month);
+
+    @Query("DELETE FROM " + FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE)
+    void clearMonthStats();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertMonthStats(List<VehicleMonthStats> rows);
+
+    /**
+     * Recomputes the month buckets from the log. Also needed after a time zone change, since a
+     * fill-up near midnight on the 1st can land in a different local month.
+     */
+    @Transaction
+    default void rebuildMonthStats() {
+        clearMonthStats();
+        List<VehicleMonthStats> rows;
+        try (Cursor c = cursorForAllCars()) {
+            rows = MonthlyRollup.aggregate(c);
+        }
+        // Entries orphaned before the foreign keys may still be waiting for OrphanPurge.
+        rows.removeIf(r -> !vehicleExists(r.getCarID()));
+        insertMonthStats(rows);
+    }
+
+    // ==== Orphan purge ====
+
+    /**
+     * A car id that still has log entries but no vehicle, or a vehicle without an owner; null once
+     * there is none. Only rows written before the foreign keys can match.
+     */
+    @Query("SELECT CarID FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID NOT IN (SELECT v.VehicleID FROM " +
+            FuelTrackAppDatabase.VEHICLE_TABLE + " v JOIN " + FuelTrackAppDatabase.USER_TABLE + " u ON u.id = v.UserId) " +
+            "LIMIT 1")
+    Integer getOrphanedCarId();
+
+    /** Deletes up to {@code limit} of one car's entries, found through the (CarID, logDate) index. */
+    @Query("DELETE FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE LogID IN (SELECT LogID FROM " +
+            FuelTrackAppDatabase.FUEL_LOG_TABLE + " WHERE CarID = :carId LIMIT :limit)")
+    int deleteEntriesOfCar(int carId, int limit);
+
+    @Query("DELETE FROM " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE + " WHERE rowid IN (SELECT rowid FROM " +
+            FuelTrackAppDatabase.VEHICLE_STATS_TABLE + " WHERE CarID NOT IN (SELECT VehicleID FROM " +
+            FuelTrackAppDatabase.VEHICLE_TABLE + ") LIMIT :limit)")
+    int deleteOrphanedStats(int limit);
+
+    @Query("DELETE FROM " + FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE + " WHERE rowid IN (SELECT rowid FROM " +
+            FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE + " WHERE CarID NOT IN (SELECT VehicleID FROM " +
+            FuelTrackAppDatabase.VEHICLE_TABLE + ") LIMIT :limit)")
+    int deleteOrphanedMonthStats(int limit);
+}
@@ -0,0 +1,136 @@
+package com.stanissudo.jycs_crafters.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.PagingSource;
+import androidx.paging.PagingState;
+import androidx.room.InvalidationTracker;
+
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import kotlin.Unit;
+import kotlin.coroutines.Continuation;
+import kotlinx.coroutines.BuildersKt;
+import kotlinx.coroutines.CoroutineDispatcher;
+import kotlinx.coroutines.ExecutorsKt;
+
+/**
+ * Keyset {@link PagingSource} over a single car's fuel log, newest first.
+ * <p>
+ * Each page is addressed by the {@code (logDate, LogID)} of its boundary row instead of an
+ * OFFSET, so loading window N costs the same as loading window 1 no matter how deep the user
+ * scrolls. Queries run on Room's query executor and the source invalidates itself whenever
+ * {@link FuelTrackAppDatabase#FUEL_LOG_TABLE} changes.
+ */
+public class FuelEntryPagingSource extends PagingSource<FuelEntryPagingSource.Key, FuelEntry> {
+
+    /** Position of a row in the {@code ORDER BY logDate DESC, LogID DESC} ordering. */
+    public static final class Key {
+        final long logDate; // epoch millis, as stored
+        final long logId;
+
+        Key(long logDate, long logId) {
+            this.logDate = logDate;
+            this.logId = logId;
+        }
+
+        static Key of(FuelEntry e) {
+            return new Key(e.getLogDateMillis(), e.getLogID());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return logId == key.logId && logDate == key.logDate;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(logDate, logId);
+        }
+    }
+
+    private final FuelTrackAppDatabase db;
+    private final FuelEntryDAO dao;
+    private final int carId;
+    private final CoroutineDispatcher dispatcher;
+
+    /** Registered lazily on the first load so construction never touches the database. */
+    private final AtomicBoolean observerRegistered = new AtomicBoolean(false);
+    private final InvalidationTracker.Observer observer =
+            new InvalidationTracker.Observer(FuelTrackAppDatabase.FUEL_LOG_TABLE) {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    invalidate();
+                }
+            };
+
+    public FuelEntryPagingSource(FuelTrackAppDatabase db, FuelEntryDAO dao, int carId) {
+        this.db = db;
+        this.dao = dao;
+        this.carId = carId;
+        this.dispatcher = ExecutorsKt.from(db.getQueryExecutor());
+        registerInvalidatedCallback(() -> {
+            if (observerRegistered.get()) {
+                db.getInvalidationTracker().removeObserver(observer);
+            }
+            return Unit.INSTANCE;
+        });
+    }
+
+    @Nullable
+    @Override
+    public Object load(@NonNull LoadParams<Key> params,
+                       @NonNull Continuation<? super LoadResult<Key, FuelEntry>> continuation) {
+        return BuildersKt.<LoadResult<Key, FuelEntry>>withContext(
+                dispatcher, (scope, cont) -> loadPage(params), continuation);
+    }
+
+    /**
+     * Restart from the row closest to where the user was looking. {@code logId + 1} makes the
+     * exclusive "after" query include the anchor row itself.
+     */
+    @Nullable
+    @Override
+    public Key getRefreshKey(@NonNull PagingState<Key, FuelEntry> state) {
+        Integer anchor = state.getAnchorPosition();
+        if (anchor == null) return null;
+        FuelEntry item = state.closestItemToPosition(anchor);
+        return item == null ? null : new Key(item.getLogDateMillis(), item.getLogID() + 1);
+    }
+
+    private LoadResult<Key, FuelEntry> loadPage(LoadParams<Key> params) {
+        if (observerRegistered.compareAndSet(false, true)) {
+            db.getInvalidationTracker().addObserver(observer);
+        }
+        Key key = params.getKey();
+        int limit = params.getLoadSize();
+        try {
+            if (params instanceof LoadParams.Prepend) {
+                List<FuelEntry> rows = new ArrayList<>(
+                        dao.getEntriesPageBefore(carId, key.logDate, key.logId, limit));
+                Collections.reverse(rows);
+                Key prev = rows.size() < limit ? null : Key.of(rows.get(0));
+                Key next = rows.isEmpty() ? null : Key.of(rows.get(rows.size() - 1));
+                return getInvalid() ? new LoadResult.Invalid<>() : new LoadResult.Page<>(rows, prev, next);
+            }
+
+            List<FuelEntry> rows = key == null
+                    ? dao.getFirstEntriesPage(carId, limit)
+                    : dao.getEntriesPageAfter(carId, key.logDate, key.logId, limit);
+            Key prev = key == null ? null : (rows.isEmpty() ? key : Key.of(rows.get(0)));
+            Key next = rows.size() < limit ? null : Key.of(rows.get(rows.size() - 1));
+            return getInvalid() ? new LoadResult.Invalid<>() : new LoadResult.Page<>(rows, prev, next);
+        } catch (RuntimeException e) {
+            return new LoadResult.Error<>(e);
+        }
+    }
+}
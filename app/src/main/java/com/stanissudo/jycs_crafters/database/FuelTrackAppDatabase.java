@@ -1,6 +1,7 @@
 package com.stanissudo.jycs_crafters.database;
 
 import android.content.Context;
+import android.database.Cursor;
 
 import androidx.annotation.NonNull;
 import androidx.room.Database;
@@ -10,14 +11,18 @@ import androidx.room.TypeConverters;
 // (kept)
 import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
 
+import com.stanissudo.jycs_crafters.database.entities.ChangeLog;
 import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
 import com.stanissudo.jycs_crafters.database.entities.User;
+import com.stanissudo.jycs_crafters.database.entities.UserFts;
 import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+import com.stanissudo.jycs_crafters.database.entities.VehicleMonthStats;
+import com.stanissudo.jycs_crafters.database.entities.VehicleStats;
 import com.stanissudo.jycs_crafters.database.typeConverters.LocalDateTypeConverter;
+import com.stanissudo.jycs_crafters.utils.PasswordHasher;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * @author Ysabelle Kim
@@ -28,15 +33,60 @@ import java.util.concurrent.Executors;
  */
 @TypeConverters({LocalDateTypeConverter.class})
 // CAMILA: bump version 2 -> 3 to add User.displayName
-@Database(entities = {FuelEntry.class, User.class, Vehicle.class}, version = 3, exportSchema = false)
+// version 3 -> 4 adds the per-car indices on FuelEntryTable
+// version 4 -> 5 adds the VehicleStats rollup
+// version 5 -> 6 moves fuel log money/volume columns to fixed-point integers
+// version 6 -> 7 adds the per-month VehicleMonthStats rollup
+// version 7 -> 8 adds the per-entry economy columns (backfilled by EconomyBackfillWorker)
+// version 8 -> 9 indexes VehicleTable.UserId for the fleet overview
+// version 9 -> 10 adds the ChangeLog outbox for the cloud backup
+// version 10 -> 11 adds ON DELETE CASCADE foreign keys (old orphans are left to OrphanPurgeWorker)
+// version 11 -> 12 makes usernames unique and adds the UserFts search index
+// version 12 -> 13 adds the last fill-up and MPG totals to VehicleStats
+// version 13 -> 14 adds install-independent backup keys to vehicles, fuel entries and the outbox
+// version 14 -> 15 takes the shared placeholder password off Google accounts
+@Database(entities = {FuelEntry.class, User.class, Vehicle.class, VehicleStats.class, VehicleMonthStats.class,
+        ChangeLog.class, UserFts.class},
+        version = 15, exportSchema = true)
 public abstract class FuelTrackAppDatabase extends RoomDatabase {
     private static final String DATABASE_NAME = "FuelTrackDatabase";
     public static final String FUEL_LOG_TABLE = "FuelEntryTable";
     public static final String USER_TABLE = "UserTable";
     public static final String VEHICLE_TABLE = "VehicleTable";
+    public static final String VEHICLE_STATS_TABLE = "VehicleStatsTable";
+    public static final String VEHICLE_MONTH_STATS_TABLE = "VehicleMonthStatsTable";
+    public static final String CHANGE_LOG_TABLE = "ChangeLogTable";
+    public static final String USER_FTS_TABLE = "UserFtsTable";
+
+    /** Per-car totals computed from scratch; shared by the 5 -> 6 backfill and the DAO rebuild. */
+    static final String VEHICLE_STATS_AGGREGATE =
+            "SELECT CarID, COUNT(*), COALESCE(SUM(TotalCostCents), 0), COALESCE(SUM(PriceTenthCents), 0), " +
+            "MIN(Odometer), MAX(Odometer) FROM " + FUEL_LOG_TABLE + " GROUP BY CarID";
+    /**
+     * Fills the rollup's last fill-up and MPG totals from the log, for every row at once; shared by
+     * the 12 -> 13 backfill and the DAO rebuild.
+     */
+    static final String VEHICLE_STATS_REFRESH_LATEST =
+            "UPDATE " + VEHICLE_STATS_TABLE + " SET " +
+            "lastFillUpMillis = (SELECT MAX(logDate) FROM " + FUEL_LOG_TABLE + " f " +
+            "WHERE f.CarID = " + VEHICLE_STATS_TABLE + ".CarID), " +
+            "measuredDistance = (SELECT COALESCE(SUM(CASE WHEN MpgMilli IS NOT NULL THEN DistanceSincePrev END), 0) " +
+            "FROM " + FUEL_LOG_TABLE + " f WHERE f.CarID = " + VEHICLE_STATS_TABLE + ".CarID), " +
+            "measuredGallonsMilli = (SELECT COALESCE(SUM(CASE WHEN MpgMilli IS NOT NULL THEN GallonsMilli END), 0) " +
+            "FROM " + FUEL_LOG_TABLE + " f WHERE f.CarID = " + VEHICLE_STATS_TABLE + ".CarID)";
+    /** 128 random bits as hex, evaluated per row; the SQL side of {@link ChangeLog#newSyncKey()}. */
+    private static final String RANDOM_SYNC_KEY = "lower(hex(randomblob(16)))";
+    /** What Google accounts stored as their password before version 15. */
+    private static final String LEGACY_GOOGLE_PASSWORD = "oauth_dummy";
     private static volatile FuelTrackAppDatabase INSTANCE;
-    private static final int NUMBER_OF_THREADS = 4;
-    static final ExecutorService databaseWriteExecutor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    /**
+     * SQLite allows one writer at a time, so writes get exactly one thread and never contend for
+     * the lock. Reads run on a small separate pool; with WAL they don't wait for the writer.
+     * The reader count stays below the framework's WAL connection pool size.
+     */
+    private static final int READER_THREADS = 3;
+    static final MeteredExecutor databaseWriteExecutor = new MeteredExecutor("db-writer", 1);
+    static final MeteredExecutor databaseReadExecutor = new MeteredExecutor("db-reader", READER_THREADS);
 
     static FuelTrackAppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
@@ -45,8 +95,14 @@ public abstract class FuelTrackAppDatabase extends RoomDatabase {
                     INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
                                     FuelTrackAppDatabase.class, DATABASE_NAME)
                             // CAMILA: register both migrations so users can upgrade 1->2 (isActive) and 2->3 (displayName)
-                            .addMigrations(MIGRATION_1_2, MIGRATION_2_3)
+                            .addMigrations(ALL_MIGRATIONS)
                             .addCallback(addDefaultValues)
+                            .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                            // LiveData/Paging reads use the reader pool, transactions the writer.
+                            .setQueryExecutor(databaseReadExecutor)
+                            .setTransactionExecutor(databaseWriteExecutor)
+                            // Times each statement until its cursor closes, for QueryMetrics.
+                            .openHelperFactory(new MeteredOpenHelper.Factory(new FrameworkSQLiteOpenHelperFactory()))
                             .build();
                 }
             }
@@ -96,7 +152,296 @@ public abstract class FuelTrackAppDatabase extends RoomDatabase {
         }
     };
 
+    // Index names follow Room's index_<table>_<columns> convention so schema validation matches
+    // the @Index declarations on FuelEntry.
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_" + FUEL_LOG_TABLE + "_CarID_logDate` ON `"
+                    + FUEL_LOG_TABLE + "` (`CarID`, `logDate`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_" + FUEL_LOG_TABLE + "_CarID_Odometer` ON `"
+                    + FUEL_LOG_TABLE + "` (`CarID`, `Odometer`)");
+        }
+    };
+
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // Creates the rollup table in its version-5 layout (REAL money columns) but does not
+            // fill it: this build always runs MIGRATION_5_6 next, which drops and recreates it with
+            // integer columns and backfills it, and the shared aggregate already yields those.
+            db.execSQL("CREATE TABLE IF NOT EXISTS `" + VEHICLE_STATS_TABLE + "` (" +
+                    "`CarID` INTEGER NOT NULL, `fillUpsCount` INTEGER NOT NULL, " +
+                    "`totalCost` REAL NOT NULL, `pricePerGallonSum` REAL NOT NULL, " +
+                    "`minOdometer` INTEGER, `maxOdometer` INTEGER, PRIMARY KEY(`CarID`))");
+        }
+    };
+
+    /**
+     * Gallons, price and total become milli-gallons, tenth-cents and cents. SQLite can't change a
+     * column's type in place, so the log is copied into a new table (keeping LogIDs and the id
+     * counter) and the indices are recreated; the rollup is rebuilt from the converted values.
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE `" + FUEL_LOG_TABLE + "_new` (" +
+                    "`LogID` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `CarID` INTEGER NOT NULL, " +
+                    "`logDate` INTEGER NOT NULL, `Odometer` INTEGER, " +
+                    "`GallonsMilli` INTEGER NOT NULL, `PriceTenthCents` INTEGER NOT NULL, " +
+                    "`TotalCostCents` INTEGER NOT NULL)");
+            db.execSQL("INSERT INTO `" + FUEL_LOG_TABLE + "_new` " +
+                    "(LogID, CarID, logDate, Odometer, GallonsMilli, PriceTenthCents, TotalCostCents) " +
+                    "SELECT LogID, CarID, logDate, Odometer, " +
+                    "CAST(ROUND(COALESCE(Gallons, 0) * 1000) AS INTEGER), " +
+                    "CAST(ROUND(COALESCE(PricePerGallon, 0) * 1000) AS INTEGER), " +
+                    "CAST(ROUND(COALESCE(TotalCost, 0) * 100) AS INTEGER) " +
+                    "FROM `" + FUEL_LOG_TABLE + "`");
+            copySequence(db, FUEL_LOG_TABLE);
+            db.execSQL("DROP TABLE `" + FUEL_LOG_TABLE + "`");
+            db.execSQL("ALTER TABLE `" + FUEL_LOG_TABLE + "_new` RENAME TO `" + FUEL_LOG_TABLE + "`");
+            MIGRATION_3_4.migrate(db);
+
+            db.execSQL("DROP TABLE IF EXISTS `" + VEHICLE_STATS_TABLE + "`");
+            db.execSQL("CREATE TABLE `" + VEHICLE_STATS_TABLE + "` (" +
+                    "`CarID` INTEGER NOT NULL, `fillUpsCount` INTEGER NOT NULL, " +
+                    "`totalCostCents` INTEGER NOT NULL, `priceTenthCentsSum` INTEGER NOT NULL, " +
+                    "`minOdometer` INTEGER, `maxOdometer` INTEGER, PRIMARY KEY(`CarID`))");
+            db.execSQL("INSERT INTO " + VEHICLE_STATS_TABLE +
+                    " (CarID, fillUpsCount, totalCostCents, priceTenthCentsSum, minOdometer, maxOdometer) " +
+                    VEHICLE_STATS_AGGREGATE);
+        }
+    };
+
+    /** Creates the month buckets and fills them from the existing log, in the device's zone. */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `" + VEHICLE_MONTH_STATS_TABLE + "` (" +
+                    "`CarID` INTEGER NOT NULL, `month` INTEGER NOT NULL, `fillUpsCount` INTEGER NOT NULL, " +
+                    "`totalCostCents` INTEGER NOT NULL, `priceTenthCentsSum` INTEGER NOT NULL, " +
+                    "`gallonsMilli` INTEGER NOT NULL, `minOdometer` INTEGER, `maxOdometer` INTEGER, " +
+                    "PRIMARY KEY(`CarID`, `month`))");
+            try (Cursor c = db.query("SELECT * FROM `" + FUEL_LOG_TABLE + "`")) {
+                MonthlyRollup.insertAll(db, MonthlyRollup.aggregate(c));
+            }
+        }
+    };
+
+    /**
+     * Adds the derived economy columns empty. Filling them walks every car's log, so it is left to
+     * {@code EconomyBackfillWorker} instead of blocking the first open after the update.
+     */
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `" + FUEL_LOG_TABLE + "` ADD COLUMN `DistanceSincePrev` INTEGER");
+            db.execSQL("ALTER TABLE `" + FUEL_LOG_TABLE + "` ADD COLUMN `MpgMilli` INTEGER");
+        }
+    };
+
+    /** Index name as Room generates it for {@code @Index("UserId")} on {@link Vehicle}. */
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_" + VEHICLE_TABLE + "_UserId` ON `" +
+                    VEHICLE_TABLE + "` (`UserId`)");
+        }
+    };
+
+    /**
+     * Starts the outbox empty: data written before the upgrade reaches the backup once it is next
+     * edited. Index names follow Room's convention, as for {@link ChangeLog}'s declarations.
+     */
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `" + CHANGE_LOG_TABLE + "` (" +
+                    "`Seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `EntityType` INTEGER NOT NULL, " +
+                    "`EntityId` INTEGER NOT NULL, `UserId` INTEGER NOT NULL, `ChangedAt` INTEGER NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_" + CHANGE_LOG_TABLE + "_EntityType_EntityId` ON `" +
+                    CHANGE_LOG_TABLE + "` (`EntityType`, `EntityId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_" + CHANGE_LOG_TABLE + "_UserId_Seq` ON `" +
+                    CHANGE_LOG_TABLE + "` (`UserId`, `Seq`)");
+        }
+    };
+
+    /**
+     * SQLite only accepts foreign keys in CREATE TABLE, so every child table is rebuilt under its
+     * old name with the same rows and its indices recreated, parents first. Rows that already lost
+     * their parent are copied as they are: keys are not enforced while upgrading, and deleting
+     * them here would make this one long transaction even longer, so OrphanPurgeWorker removes
+     * them in small batches afterwards.
+     */
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            rebuildTable(db, VEHICLE_TABLE, "`VehicleID`, `UserId`, `Name`, `Make`, `Model`, `Year`",
+                    "`VehicleID` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `UserId` INTEGER NOT NULL, " +
+                    "`Name` TEXT, `Make` TEXT, `Model` TEXT, `Year` INTEGER NOT NULL, " +
+                    cascadeFrom("UserId", USER_TABLE, "id"));
+            MIGRATION_8_9.migrate(db);
+
+            rebuildTable(db, FUEL_LOG_TABLE, "`LogID`, `CarID`, `logDate`, `Odometer`, `GallonsMilli`, " +
+                    "`PriceTenthCents`, `TotalCostCents`, `DistanceSincePrev`, `MpgMilli`",
+                    "`LogID` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `CarID` INTEGER NOT NULL, " +
+                    "`logDate` INTEGER NOT NULL, `Odometer` INTEGER, " +
+                    "`GallonsMilli` INTEGER NOT NULL, `PriceTenthCents` INTEGER NOT NULL, " +
+                    "`TotalCostCents` INTEGER NOT NULL, `DistanceSincePrev` INTEGER, `MpgMilli` INTEGER, " +
+                    cascadeFrom("CarID", VEHICLE_TABLE, "VehicleID"));
+            MIGRATION_3_4.migrate(db);
+
+            rebuildTable(db, VEHICLE_STATS_TABLE, "`CarID`, `fillUpsCount`, `totalCostCents`, " +
+                    "`priceTenthCentsSum`, `minOdometer`, `maxOdometer`",
+                    "`CarID` INTEGER NOT NULL, `fillUpsCount` INTEGER NOT NULL, " +
+                    "`totalCostCents` INTEGER NOT NULL, `priceTenthCentsSum` INTEGER NOT NULL, " +
+                    "`minOdometer` INTEGER, `maxOdometer` INTEGER, PRIMARY KEY(`CarID`), " +
+                    cascadeFrom("CarID", VEHICLE_TABLE, "VehicleID"));
+
+            rebuildTable(db, VEHICLE_MONTH_STATS_TABLE, "`CarID`, `month`, `fillUpsCount`, `totalCostCents`, " +
+                    "`priceTenthCentsSum`, `gallonsMilli`, `minOdometer`, `maxOdometer`",
+                    "`CarID` INTEGER NOT NULL, `month` INTEGER NOT NULL, `fillUpsCount` INTEGER NOT NULL, " +
+                    "`totalCostCents` INTEGER NOT NULL, `priceTenthCentsSum` INTEGER NOT NULL, " +
+                    "`gallonsMilli` INTEGER NOT NULL, `minOdometer` INTEGER, `maxOdometer` INTEGER, " +
+                    "PRIMARY KEY(`CarID`, `month`), " +
+                    cascadeFrom("CarID", VEHICLE_TABLE, "VehicleID"));
+
+            rebuildTable(db, CHANGE_LOG_TABLE, "`Seq`, `EntityType`, `EntityId`, `UserId`, `ChangedAt`",
+                    "`Seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `EntityType` INTEGER NOT NULL, " +
+                    "`EntityId` INTEGER NOT NULL, `UserId` INTEGER NOT NULL, `ChangedAt` INTEGER NOT NULL, " +
+                    cascadeFrom("UserId", USER_TABLE, "id"));
+            MIGRATION_9_10.migrate(db);
+        }
+    };
+
+    /**
+     * Duplicate usernames, which the old check-then-insert sign-ups could race into, are renamed
+     * to {@code name#id} before the unique index goes on; the oldest row keeps the name, as it is
+     * the one logins already found. Renaming rather than deleting keeps the later accounts' cars.
+     * The search table, its sync triggers and their names are written as Room generates them for
+     * {@link UserFts}, then filled from the existing users.
+     */
+    static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("UPDATE `" + USER_TABLE + "` SET username = username || '#' || id " +
+                    "WHERE id NOT IN (SELECT MIN(id) FROM `" + USER_TABLE + "` GROUP BY username)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_" + USER_TABLE + "_username` ON `" +
+                    USER_TABLE + "` (`username`)");
+
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `" + USER_FTS_TABLE + "` USING FTS4(" +
+                    "`username` TEXT NOT NULL, `displayName` TEXT, content=`" + USER_TABLE + "`)");
+            for (String when : new String[]{"BEFORE_UPDATE", "BEFORE_DELETE"}) {
+                db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_" + USER_FTS_TABLE + "_" + when +
+                        " " + when.replace('_', ' ') + " ON `" + USER_TABLE + "` BEGIN DELETE FROM `" +
+                        USER_FTS_TABLE + "` WHERE `docid`=OLD.`rowid`; END");
+            }
+            for (String when : new String[]{"AFTER_UPDATE", "AFTER_INSERT"}) {
+                db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_" + USER_FTS_TABLE + "_" + when +
+                        " " + when.replace('_', ' ') + " ON `" + USER_TABLE + "` BEGIN INSERT INTO `" +
+                        USER_FTS_TABLE + "`(`docid`, `username`, `displayName`) VALUES (NEW.`rowid`, " +
+                        "NEW.`username`, NEW.`displayName`); END");
+            }
+            db.execSQL("INSERT INTO `" + USER_FTS_TABLE + "`(`" + USER_FTS_TABLE + "`) VALUES('rebuild')");
+        }
+    };
+
+    /**
+     * Moves the fleet overview's last fill-up and MPG sums into the rollup row, so the overview no
+     * longer joins the log. Filled once here; the DAO wrappers keep them in step from then on.
+     */
+    static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `" + VEHICLE_STATS_TABLE + "` ADD COLUMN `lastFillUpMillis` INTEGER");
+            db.execSQL("ALTER TABLE `" + VEHICLE_STATS_TABLE + "` ADD COLUMN `measuredDistance` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `" + VEHICLE_STATS_TABLE + "` ADD COLUMN `measuredGallonsMilli` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL(VEHICLE_STATS_REFRESH_LATEST);
+        }
+    };
+
+    /**
+     * Every existing vehicle and fuel entry gets a random key, like rows created from now on: its
+     * local id is only unique on this install, so two upgraded phones on one account would push
+     * their car 1 to the same document. Pending outbox rows take the key of the row they name;
+     * tombstones, whose row is gone, get a random one. Index names follow Room's convention, as
+     * for the entities' declarations.
+     */
+    static final Migration MIGRATION_13_14 = new Migration(13, 14) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `" + VEHICLE_TABLE + "` ADD COLUMN `SyncId` TEXT");
+            db.execSQL("UPDATE `" + VEHICLE_TABLE + "` SET SyncId = " + RANDOM_SYNC_KEY);
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_" + VEHICLE_TABLE + "_UserId_SyncId` ON `" +
+                    VEHICLE_TABLE + "` (`UserId`, `SyncId`)");
+
+            db.execSQL("ALTER TABLE `" + FUEL_LOG_TABLE + "` ADD COLUMN `SyncId` TEXT");
+            db.execSQL("UPDATE `" + FUEL_LOG_TABLE + "` SET SyncId = " + RANDOM_SYNC_KEY);
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_" + FUEL_LOG_TABLE + "_SyncId` ON `" +
+                    FUEL_LOG_TABLE + "` (`SyncId`)");
+
+            db.execSQL("ALTER TABLE `" + CHANGE_LOG_TABLE + "` ADD COLUMN `SyncKey` TEXT");
+            db.execSQL("UPDATE `" + CHANGE_LOG_TABLE + "` SET SyncKey = CASE EntityType " +
+                    "WHEN " + ChangeLog.VEHICLE + " THEN (SELECT SyncId FROM `" + VEHICLE_TABLE + "` WHERE VehicleID = EntityId) " +
+                    "WHEN " + ChangeLog.FUEL_ENTRY + " THEN (SELECT SyncId FROM `" + FUEL_LOG_TABLE + "` WHERE LogID = EntityId) END");
+            db.execSQL("UPDATE `" + CHANGE_LOG_TABLE + "` SET SyncKey = " + RANDOM_SYNC_KEY + " WHERE SyncKey IS NULL");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_" + CHANGE_LOG_TABLE + "_UserId_EntityType_SyncKey` ON `" +
+                    CHANGE_LOG_TABLE + "` (`UserId`, `EntityType`, `SyncKey`)");
+        }
+    };
+
+    /**
+     * Google sign-in used to store the hash of one fixed password, {@link #LEGACY_GOOGLE_PASSWORD},
+     * so anyone who knew it could open those accounts from the password form. Such rows now hold
+     * {@link PasswordHasher#NO_PASSWORD}, as new Google accounts do. Only the SHA-256 form has to
+     * be matched: the app has never stored any other kind of hash.
+     */
+    static final Migration MIGRATION_14_15 = new Migration(14, 15) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("UPDATE `" + USER_TABLE + "` SET password = ? WHERE password IN (?, ?)",
+                    new Object[]{PasswordHasher.NO_PASSWORD, PasswordHasher.sha256Hex(LEGACY_GOOGLE_PASSWORD),
+                            LEGACY_GOOGLE_PASSWORD});
+        }
+    };
+
+    /** Every upgrade step, oldest first; declared after them so none is still null. */
+    static final Migration[] ALL_MIGRATIONS = {MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5,
+            MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11,
+            MIGRATION_11_12, MIGRATION_12_13, MIGRATION_13_14, MIGRATION_14_15};
+
+    /** Foreign key clause as Room declares it for {@code onDelete = CASCADE}. */
+    private static String cascadeFrom(String column, String parentTable, String parentColumn) {
+        return "FOREIGN KEY(`" + column + "`) REFERENCES `" + parentTable + "`(`" + parentColumn + "`) " +
+                "ON UPDATE NO ACTION ON DELETE CASCADE";
+    }
+
+    /**
+     * Replaces {@code table} with one defined by {@code definition}, copying {@code columns}; drops
+     * its indices. An AUTOINCREMENT counter carries over, so ids of deleted rows, which the backup
+     * may still hold tombstones for, are never handed out again.
+     */
+    private static void rebuildTable(SupportSQLiteDatabase db, String table, String columns, String definition) {
+        db.execSQL("CREATE TABLE `" + table + "_new` (" + definition + ")");
+        db.execSQL("INSERT INTO `" + table + "_new` (" + columns + ") SELECT " + columns + " FROM `" + table + "`");
+        copySequence(db, table);
+        db.execSQL("DROP TABLE `" + table + "`");
+        db.execSQL("ALTER TABLE `" + table + "_new` RENAME TO `" + table + "`");
+    }
+
+    /**
+     * Gives {@code table}'s copy, {@code <table>_new}, the original's AUTOINCREMENT counter rather
+     * than the highest id copied, which is lower when the newest rows were deleted. The old counter
+     * is at least every copied id; renaming the copy carries the row along.
+     */
+    private static void copySequence(SupportSQLiteDatabase db, String table) {
+        db.execSQL("DELETE FROM sqlite_sequence WHERE name = '" + table + "_new'");
+        db.execSQL("INSERT INTO sqlite_sequence (name, seq) SELECT '" + table + "_new', seq FROM sqlite_sequence " +
+                "WHERE name = '" + table + "'");
+    }
+
     public abstract FuelEntryDAO fuelEntryDAO();
     public abstract UserDAO userDAO();
     public abstract VehicleDAO vehicleDAO();
+    public abstract ChangeLogDAO changeLogDAO();
 }
@@ -6,11 +6,17 @@
 package com.stanissudo.jycs_crafters.database;
 
 import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 
+import androidx.annotation.WorkerThread;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.PagingSource;
 
 import com.stanissudo.jycs_crafters.MainActivity;
 import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
@@ -18,12 +24,33 @@ import com.stanissudo.jycs_crafters.database.entities.User;
 import com.stanissudo.jycs_crafters.database.entities.Vehicle;
 import com.stanissudo.jycs_crafters.database.pojos.CarCostStats;
 import com.stanissudo.jycs_crafters.database.pojos.CarDistanceStats;
-
+import com.stanissudo.jycs_crafters.database.pojos.CarEconomyStats;
+import com.stanissudo.jycs_crafters.database.pojos.FleetSummary;
+import com.stanissudo.jycs_crafters.database.pojos.FuelEntrySaveResult;
+import com.stanissudo.jycs_crafters.database.pojos.LoginRecord;
+import com.stanissudo.jycs_crafters.database.pojos.PeriodCost;
+import com.stanissudo.jycs_crafters.sync.RemoteBackupStore;
+import com.stanissudo.jycs_crafters.sync.SyncEngine;
+import com.stanissudo.jycs_crafters.transfer.FuelEntryCsvImporter;
+import com.stanissudo.jycs_crafters.transfer.FuelEntryExporter;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+import com.stanissudo.jycs_crafters.utils.OdometerIndex;
+import com.stanissudo.jycs_crafters.utils.PasswordHasher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 
 /**
  * @author Ysabelle Kim
@@ -34,69 +61,82 @@ import java.util.concurrent.Future;
  * performs work on the database.</p>
  */
 public class FuelTrackAppRepository {
-    private static FuelTrackAppRepository repository;
+    private static final AtomicReference<FuelTrackAppRepository> repository = new AtomicReference<>();
+    /** Remembers which time zone the month buckets were grouped in. */
+    private static final String STATS_PREFS = "stats_prefs";
+    private static final String KEY_BUCKET_ZONE = "bucket_zone";
+    private final Application application;
+    private final FuelTrackAppDatabase db;
     private final FuelEntryDAO fuelEntryDAO;
     private final UserDAO userDAO;
     private final VehicleDAO vehicleDAO;
     private LiveData<List<FuelEntry>> allLogs;
+    /** Fleet summary of {@link #fleetUserId}, shared by every screen that shows per-car totals. */
+    private LiveData<FleetSummary> fleet;
+    private int fleetUserId;
     private final Handler main = new Handler(Looper.getMainLooper());
+    /** Reads and parses CSV imports, off the database executors. */
+    private static final ExecutorService importExecutor =
+            Executors.newSingleThreadExecutor(r -> new Thread(r, "csv-import"));
 
-    public interface OdometerCheckCallback {
-        void onResult(boolean ok, @androidx.annotation.Nullable Integer prev,
-                      @androidx.annotation.Nullable Integer next);
+    public interface SaveCallback {
+        void onResult(FuelEntrySaveResult result);
     }
 
-    public void checkOdometerAsync(long logId, int carId, java.time.LocalDateTime when, int value,
-
-                                   OdometerCheckCallback cb) {
+    /**
+     * Validates the entry's odometer against its neighbours and writes it, all in one transaction
+     * on the write executor. The result is delivered on the main thread.
+     */
+    public void saveFuelEntryAsync(FuelEntry fuelEntry, SaveCallback cb) {
         FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> {
-            Integer prev = fuelEntryDAO.getPreviousOdometer(logId, carId, when);
-            Integer next = fuelEntryDAO.getNextOdometer(logId, carId, when);
-            boolean ok = (prev == null || value > prev) && (next == null || value < next);
-            main.post(() -> cb.onResult(ok, prev, next));
+            FuelEntrySaveResult result = fuelEntryDAO.validateAndSave(fuelEntry);
+            main.post(() -> cb.onResult(result));
         });
     }
 
+    /**
+     * Only wires up handles; Room opens the database lazily, so this does no disk I/O and is
+     * safe to run on the main thread. The real work happens in {@link #warmUp()}.
+     */
     private FuelTrackAppRepository(Application application) {
-        FuelTrackAppDatabase db = FuelTrackAppDatabase.getDatabase(application);
+        this.application = application;
+        this.db = FuelTrackAppDatabase.getDatabase(application);
         this.fuelEntryDAO = db.fuelEntryDAO();
         this.userDAO = db.userDAO();
         this.vehicleDAO = db.vehicleDAO();
-
-        // CAMILA: one-time sweep to hash any legacy plaintext passwords
-        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> {
-            List<User> users = userDAO.getAllUsersList();
-            if (users == null) return;
-            for (User u : users) {
-                String pw = u.getPassword();
-                if (pw != null && !pw.matches("(?i)^[0-9a-f]{64}$")) {
-                    userDAO.updatePasswordById(u.getId(), sha256(pw));
-                }
-            }
-        });
     }
 
     /**
-     * Returns a singleton instance of FuelTrackAppRepository.
+     * Returns the singleton FuelTrackAppRepository without blocking.
+     * <p>
+     * The first caller to win the compare-and-set starts {@link #warmUp()}; a thread that loses
+     * the race drops its unused instance (which has no side effects) and returns the winner.
      */
     public static FuelTrackAppRepository getRepository(Application application) {
-        if (repository != null) {
-            return repository;
+        FuelTrackAppRepository existing = repository.get();
+        if (existing != null) {
+            return existing;
         }
-        Future<FuelTrackAppRepository> future = FuelTrackAppDatabase.databaseWriteExecutor.submit(
-                new Callable<FuelTrackAppRepository>() {
-                    @Override
-                    public FuelTrackAppRepository call() {
-                        return new FuelTrackAppRepository(application);
-                    }
-                }
-        );
-        try {
-            return future.get();
-        } catch (InterruptedException | ExecutionException e) {
-            Log.d(MainActivity.TAG, "Problem getting FuelTrackAppRepository, thread error.");
+        FuelTrackAppRepository created = new FuelTrackAppRepository(application);
+        if (repository.compareAndSet(null, created)) {
+            created.warmUp();
+            return created;
         }
-        return null;
+        return repository.get();
+    }
+
+    /**
+     * Opens the database (running migrations) on the write executor. The legacy password sweep
+     * is no longer part of startup; see {@link #rehashLegacyPasswords(int, int)}.
+     */
+    private void warmUp() {
+        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> {
+            try {
+                db.getOpenHelper().getWritableDatabase();
+            } catch (RuntimeException e) {
+                Log.e(MainActivity.TAG, "Opening the database failed", e);
+            }
+        });
     }
 
     // ==== FuelEntry Methods ====
@@ -112,14 +152,109 @@ public class FuelTrackAppRepository {
         return fuelEntryDAO.getEntriesForCar(carId);
     }
 
-    public void deleteRecordByID(long carId) {
-        fuelEntryDAO.deleteRecordById(carId);
+    /**
+     * Creates a fresh keyset {@link PagingSource} over one car's log. Paging asks for a new
+     * instance every time the previous one is invalidated, so this must not be cached.
+     */
+    public PagingSource<FuelEntryPagingSource.Key, FuelEntry> newEntriesPagingSource(int carId) {
+        return new FuelEntryPagingSource(db, fuelEntryDAO, carId);
+    }
+
+    public void deleteRecordByID(long logId) {
+        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> fuelEntryDAO.deleteRecordById(logId));
     }
 
     public LiveData<FuelEntry> getRecordById(int logId) {
         return fuelEntryDAO.getRecordById(logId);
     }
 
+    /**
+     * Streams a CSV export into the fuel log in batches of {@code batchSize} rows. The file is read
+     * and parsed on its own thread and only the batch inserts go to the write executor, so saves
+     * from the UI get in between batches. The stream is closed when the import ends.
+     *
+     * @return progress updates, ending with one whose {@code finished} flag is set
+     */
+    public LiveData<FuelEntryCsvImporter.Progress> importFuelEntries(InputStream in, int batchSize) {
+        FuelEntryCsvImporter importer = new FuelEntryCsvImporter(fuelEntryDAO, batchSize,
+                FuelTrackAppDatabase.databaseWriteExecutor);
+        importExecutor.execute(() -> {
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                importer.importFrom(reader);
+            } catch (IOException e) {
+                Log.e(MainActivity.TAG, "Closing import stream failed", e);
+            }
+        });
+        return importer.getProgress();
+    }
+
+    /**
+     * Streams the log of one car to {@code out}. There is no all-cars export: the log table holds
+     * every account's entries. Blocks until done; meant to be called from a background worker.
+     *
+     * @return number of rows written
+     * @throws IllegalArgumentException if {@code carId} is not a vehicle id
+     */
+    @WorkerThread
+    public long exportFuelLog(int carId, OutputStream out, FuelEntryExporter.Format format,
+                              BooleanSupplier cancelled) throws IOException {
+        if (carId <= 0) throw new IllegalArgumentException("No vehicle to export: " + carId);
+        try (Cursor cursor = fuelEntryDAO.cursorForCar(carId)) {
+            return new FuelEntryExporter().export(cursor, out, format, cancelled);
+        }
+    }
+
+    /** Recomputes the per-car stats rollup from the log, e.g. after bulk changes. */
+    public void rebuildVehicleStats() {
+        FuelTrackAppDatabase.databaseWriteExecutor.execute(fuelEntryDAO::rebuildVehicleStats);
+    }
+
+    /**
+     * CAMILA: hashes any legacy plaintext passwords, one page of users at a time.
+     * Each batch runs on the write executor so it interleaves with UI writes instead of holding
+     * the write lock for the whole table. Blocks until the batch is committed.
+     *
+     * @param afterId last id returned by the previous call (0 to start)
+     * @return last id visited, or {@link LegacyPasswordMigration#DONE} when the table is exhausted
+     */
+    @WorkerThread
+    public int rehashLegacyPasswords(int afterId, int batchSize) throws InterruptedException, ExecutionException {
+        LegacyPasswordMigration migration = new LegacyPasswordMigration(userDAO,
+                stored -> PasswordHasher.isHashed(stored) || PasswordHasher.isNoPassword(stored),
+                PasswordHasher::hashForStorage);
+        return FuelTrackAppDatabase.databaseWriteExecutor
+                .submit(() -> db.runInTransaction(() -> migration.runBatch(afterId, batchSize)))
+                .get();
+    }
+
+    /**
+     * Fills the economy columns for the next car with log entries after {@code afterCarId}, in one
+     * transaction on the write executor. Blocks until it is committed.
+     *
+     * @param afterCarId car id returned by the previous call (0 to start)
+     * @return the car just processed, or {@code null} when no cars are left
+     */
+    @WorkerThread
+    public Integer backfillEconomy(int afterCarId) throws InterruptedException, ExecutionException {
+        return FuelTrackAppDatabase.databaseWriteExecutor.submit(() -> {
+            Integer carId = fuelEntryDAO.getNextLoggedCarId(afterCarId);
+            if (carId != null) fuelEntryDAO.recomputeEconomyForCar(carId);
+            return carId;
+        }).get();
+    }
+
+    /**
+     * Deletes up to {@code limit} rows orphaned before the foreign keys existed, in one transaction
+     * on the write executor. Blocks until it is committed.
+     *
+     * @return what was removed; {@code rows} is 0 once nothing is left
+     */
+    @WorkerThread
+    public OrphanPurge.Batch purgeOrphans(int limit) throws InterruptedException, ExecutionException {
+        OrphanPurge purge = new OrphanPurge(db);
+        return FuelTrackAppDatabase.databaseWriteExecutor.submit(() -> purge.runBatch(limit)).get();
+    }
+
     // === User Methods ====
     public LiveData<User> getUserByUsername(String username) {
         return userDAO.getUserByUsername(username);
@@ -133,8 +268,8 @@ public class FuelTrackAppRepository {
         FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> {
             // CAMILA: store hashed
             String pw = user.getPassword();
-            if (pw != null && !pw.matches("(?i)^[0-9a-f]{64}$")) {
-                user.setPassword(sha256(pw));
+            if (pw != null) {
+                user.setPassword(PasswordHasher.hashIfNeeded(pw));
             }
             userDAO.insert(user);
         });
@@ -151,8 +286,7 @@ public class FuelTrackAppRepository {
     public void updatePassword(String username, String newPassword) {
         FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> {
             // CAMILA: hash on write
-            String hashed = (newPassword != null && newPassword.matches("(?i)^[0-9a-f]{64}$"))
-                    ? newPassword : sha256(newPassword);
+            String hashed = PasswordHasher.hashIfNeeded(newPassword);
             userDAO.updatePassword(username, hashed);
         });
     }
@@ -160,8 +294,7 @@ public class FuelTrackAppRepository {
     // CAMILA: password by id (settings / sweep)
     public void updatePasswordById(int userId, String newPasswordHash) {
         FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> {
-            String hashed = (newPasswordHash != null && newPasswordHash.matches("(?i)^[0-9a-f]{64}$"))
-                    ? newPasswordHash : sha256(newPasswordHash);
+            String hashed = PasswordHasher.hashIfNeeded(newPasswordHash);
             userDAO.updatePasswordById(userId, hashed);
         });
     }
@@ -180,17 +313,26 @@ public class FuelTrackAppRepository {
         return userDAO.getAllUsers();
     }
 
+    /**
+     * Creates a fresh {@link UserPagingSource} for the admin list: users passing {@code filter}
+     * whose username or display name has words starting with the words of {@code search}
+     * (everyone when it is blank). Like {@link #newEntriesPagingSource}, never cache the result.
+     */
+    public PagingSource<String, User> newUsersPagingSource(UserFilter filter, String search) {
+        return new UserPagingSource(db, userDAO, filter, search);
+    }
+
     // ==== Vehicle Methods ====
     public void insertVehicle(Vehicle vehicle) {
-        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.insertVehicle(vehicle));
+        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.insertRecord(vehicle));
     }
 
     public void updateVehicle(Vehicle vehicle) {
-        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.updateVehicle(vehicle));
+        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.updateRecord(vehicle));
     }
 
     public void deleteVehicleByVehicleName(String name) {
-        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.deleteByVehicleName(name));
+        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.deleteRecordsByName(name));
     }
 
     public LiveData<List<Vehicle>> getAllVehicles() {
@@ -202,23 +344,23 @@ public class FuelTrackAppRepository {
     }
 
     public void updateVehicleName(int vehicleID, String newName) {
-        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.updateVehicleName(vehicleID, newName));
+        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.updateName(vehicleID, newName));
     }
 
     public void updateVehicleMake(int vehicleID, String newMake) {
-        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.updateVehicleMake(vehicleID, newMake));
+        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.updateMake(vehicleID, newMake));
     }
 
     public void updateVehicleModel(int vehicleID, String newModel) {
-        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.updateVehicleModel(vehicleID, newModel));
+        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.updateModel(vehicleID, newModel));
     }
 
     public void updateVehicleYear(int vehicleID, int newYear) {
-        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.updateVehicleYear(vehicleID, newYear));
+        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.updateYear(vehicleID, newYear));
     }
 
     public void deleteVehicleById(long vehicleID) {
-        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.deleteVehicleById(vehicleID));
+        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> vehicleDAO.deleteRecordById((int) vehicleID));
     }
 
     ;
@@ -231,10 +373,110 @@ public class FuelTrackAppRepository {
         return fuelEntryDAO.getDistanceStatsForVehicle(vehicleId);
     }
 
+    /** Cost totals for the current {@code period}; calendar periods read at most 13 month buckets. */
+    public LiveData<CarCostStats> getCostStatsForVehicle(int vehicleId, StatsPeriod period) {
+        if (period == StatsPeriod.ALL_TIME) return getCostStatsForVehicle(vehicleId);
+        long now = System.currentTimeMillis();
+        int from = period.firstMonth(now);
+        return Transformations.map(fuelEntryDAO.getMonthStatsInRange(vehicleId, from, period.lastMonth(now)),
+                buckets -> CarCostStats.fromBuckets(buckets, from));
+    }
+
+    /** Distance totals for the current {@code period}; see {@link CarDistanceStats#fromBuckets}. */
+    public LiveData<CarDistanceStats> getDistanceStatsForVehicle(int vehicleId, StatsPeriod period) {
+        if (period == StatsPeriod.ALL_TIME) return getDistanceStatsForVehicle(vehicleId);
+        long now = System.currentTimeMillis();
+        int from = period.firstMonth(now);
+        return Transformations.map(fuelEntryDAO.getMonthStatsInRange(vehicleId, from, period.lastMonth(now)),
+                buckets -> CarDistanceStats.fromBuckets(buckets, from));
+    }
+
+    /**
+     * Cost per month for the last 12 months, then per calendar year, newest first; see
+     * {@link PeriodCost#breakdown}.
+     */
+    public LiveData<List<PeriodCost>> getCostBreakdownForVehicle(int vehicleId) {
+        return Transformations.map(fuelEntryDAO.getMonthStatsForCar(vehicleId),
+                buckets -> PeriodCost.breakdown(buckets, EpochTime.epochMonth(System.currentTimeMillis()), 12));
+    }
+
+    /**
+     * The car's odometer readings in memory, for as-you-type checks; reloaded after writes to the
+     * fuel log while observed.
+     */
+    public LiveData<OdometerIndex> getOdometerIndex(int vehicleId) {
+        return new OdometerIndexLiveData(db, fuelEntryDAO, FuelTrackAppDatabase.databaseReadExecutor, vehicleId);
+    }
+
+    public LiveData<CarEconomyStats> getEconomyStatsForVehicle(int vehicleId) {
+        return fuelEntryDAO.getEconomyStatsForVehicle(vehicleId);
+    }
+
+    /**
+     * Re-buckets the monthly stats if they were grouped in another time zone than
+     * {@link EpochTime#zone()}: at startup, in case the zone changed while the app was not running,
+     * and after a live time zone change. Runs on the write executor, so writes queued after it
+     * already land in the right buckets.
+     */
+    public void rebuildMonthStatsIfZoneChanged() {
+        FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> {
+            SharedPreferences prefs = application.getSharedPreferences(STATS_PREFS, Context.MODE_PRIVATE);
+            String zone = EpochTime.zone().getId();
+            if (zone.equals(prefs.getString(KEY_BUCKET_ZONE, null))) return;
+            fuelEntryDAO.rebuildMonthStats();
+            prefs.edit().putString(KEY_BUCKET_ZONE, zone).apply();
+        });
+    }
+
+    /**
+     * All of the user's vehicles with their lifetime totals, from one query over the rollup rows
+     * that Room re-runs after writes. The same instance is returned for the same user, so switching
+     * the selected car only looks the car up in rows that are already loaded.
+     */
+    public synchronized LiveData<FleetSummary> getFleetSummary(int userId) {
+        if (fleet == null || fleetUserId != userId) {
+            fleetUserId = userId;
+            fleet = Transformations.map(vehicleDAO.getFleetSummaries(userId), FleetSummary::new);
+        }
+        return fleet;
+    }
+
     public LiveData<Vehicle> getVehicleByID(int id) {
         return vehicleDAO.getVehicleByID(id);
     }
 
+    // ==== Cloud backup ====
+
+    /**
+     * Sync engine for {@code userId}'s data against {@code remote}. Its writes are queued on the
+     * database write executor; call it from a background worker.
+     */
+    public SyncEngine newSyncEngine(RemoteBackupStore remote, int userId) {
+        return new SyncEngine(db, FuelTrackAppDatabase.databaseWriteExecutor, remote, userId);
+    }
+
+    // ==== Executor metrics ====
+
+    /**
+     * Queue depth and wait times of the database writer and reader executors.
+     * Reads and writes are routed separately: anything that only reads goes to the reader pool,
+     * anything that writes (including read-then-write checks) goes to the single writer.
+     */
+    public List<MeteredExecutor.Stats> getExecutorStats() {
+        return Arrays.asList(FuelTrackAppDatabase.databaseWriteExecutor.stats(),
+                FuelTrackAppDatabase.databaseReadExecutor.stats());
+    }
+
+    /**
+     * Executor queues, then p50/p95/p99 latency per statement and the slow-query log from
+     * {@link QueryMetrics}. Reads in-memory counters only, so it is safe on the main thread.
+     */
+    public String getQueryReport() {
+        StringBuilder sb = new StringBuilder();
+        for (MeteredExecutor.Stats s : getExecutorStats()) sb.append(s).append('\n');
+        return sb.append('\n').append(QueryMetrics.get().report()).toString();
+    }
+
     // ====== Callbacks ======
     public interface ExistsCallback {
         void onResult(boolean exists);
@@ -244,8 +486,41 @@ public class FuelTrackAppRepository {
         void onResult(boolean ok, String message);
     }
 
-    public void userExistsAsync(String username, ExistsCallback cb) {
+    public interface LoginCallback {
+        void onResult(LoginRecord record);
+    }
+
+    /**
+     * Looks up what a login needs for {@code username} in one query on the reader pool.
+     * The record, or null for an unknown user, is delivered on the main thread.
+     */
+    public void findLoginAsync(String username, LoginCallback cb) {
+        FuelTrackAppDatabase.databaseReadExecutor.execute(() -> {
+            LoginRecord record = userDAO.getLoginRecord(username);
+            main.post(() -> cb.onResult(record));
+        });
+    }
+
+    /**
+     * Returns the account for a Google sign-in, creating it on first use. The lookup and the
+     * insert run on the writer, the insert and its read-back in one transaction, so the record
+     * always carries the row's real id. New accounts get {@link PasswordHasher#NO_PASSWORD}, so
+     * they cannot be opened from the password form.
+     */
+    public void provisionGoogleUserAsync(String email, LoginCallback cb) {
         FuelTrackAppDatabase.databaseWriteExecutor.execute(() -> {
+            LoginRecord record = userDAO.getLoginRecord(email);
+            if (record == null) {
+                User u = new User(email, PasswordHasher.NO_PASSWORD);
+                record = userDAO.insertOrGetLoginRecord(u);
+            }
+            LoginRecord result = record;
+            main.post(() -> cb.onResult(result));
+        });
+    }
+
+    public void userExistsAsync(String username, ExistsCallback cb) {
+        FuelTrackAppDatabase.databaseReadExecutor.execute(() -> {
             boolean exists = userDAO.exists(username) == 1;
             main.post(() -> cb.onResult(exists));
         });
@@ -258,8 +533,7 @@ public class FuelTrackAppRepository {
                 main.post(() -> cb.onResult(false, "Username does not exist."));
                 return;
             }
-            String hashed = (newPassword != null && newPassword.matches("(?i)^[0-9a-f]{64}$"))
-                    ? newPassword : sha256(newPassword);
+            String hashed = PasswordHasher.hashIfNeeded(newPassword);
             userDAO.updatePassword(username, hashed);
             main.post(() -> cb.onResult(true, "Password changed."));
         });
@@ -291,8 +565,8 @@ public class FuelTrackAppRepository {
             User u = new User(username, password);
             u.setAdmin(isAdmin);
             String pw = u.getPassword();
-            if (pw != null && !pw.matches("(?i)^[0-9a-f]{64}$")) {
-                u.setPassword(sha256(pw));
+            if (pw != null) {
+                u.setPassword(PasswordHasher.hashIfNeeded(pw));
             }
             userDAO.insert(u);
             main.post(() -> cb.onResult(true, "User added."));
@@ -309,10 +583,7 @@ public class FuelTrackAppRepository {
                 main.post(() -> cb.onResult(false, "Session error: user not found."));
                 return;
             }
-            boolean storedIsHash = stored.matches("(?i)^[0-9a-f]{64}$");     // CAMILA
-            String curHash = sha256(currentPassword);                        // CAMILA
-            boolean ok = storedIsHash ? stored.equalsIgnoreCase(curHash) : stored.equals(currentPassword);
-            if (!ok) {
+            if (!PasswordHasher.verify(currentPassword, stored)) {           // CAMILA
                 main.post(() -> cb.onResult(false, "Current password is incorrect."));
                 return;
             }
@@ -320,7 +591,7 @@ public class FuelTrackAppRepository {
                 main.post(() -> cb.onResult(false, "New password cannot be empty."));
                 return;
             }
-            userDAO.updatePassword(currentUsername, sha256(newPassword));    // CAMILA
+            userDAO.updatePassword(currentUsername, PasswordHasher.hashForStorage(newPassword)); // CAMILA
             main.post(() -> cb.onResult(true, "Password changed."));
         });
     }
@@ -359,17 +630,4 @@ public class FuelTrackAppRepository {
             main.post(() -> cb.onResult(true, "User reactivated."));
         });
     }
-
-    // CAMILA: SHA-256 helper
-    private static String sha256(String s) {
-        try {
-            java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] bytes = md.digest(s.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder(bytes.length * 2);
-            for (byte b : bytes) sb.append(String.format("%02x", b));
-            return sb.toString();
-        } catch (java.security.NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        }
-    }
 }
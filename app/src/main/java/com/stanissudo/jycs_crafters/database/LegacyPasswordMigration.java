@@ -0,0 +1,51 @@
+package com.stanissudo.jycs_crafters.database;
+
+import androidx.annotation.WorkerThread;
+
+import com.stanissudo.jycs_crafters.database.pojos.UserPassword;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * One step of the legacy plaintext-password migration: reads one page of users after a given id
+ * and re-hashes the plaintext ones in a single transaction. Callers keep the returned id so an
+ * interrupted run resumes where it stopped instead of rescanning the table.
+ */
+public final class LegacyPasswordMigration {
+
+    /** Returned by {@link #runBatch} once every user has been visited. */
+    public static final int DONE = -1;
+
+    private final UserDAO userDAO;
+    private final Predicate<String> isHashed;
+    private final Function<String, String> hash;
+
+    public LegacyPasswordMigration(UserDAO userDAO, Predicate<String> isHashed, Function<String, String> hash) {
+        this.userDAO = userDAO;
+        this.isHashed = isHashed;
+        this.hash = hash;
+    }
+
+    /**
+     * @param afterId last id returned by the previous batch (0 to start)
+     * @param limit   users to visit in this batch
+     * @return the last id visited, or {@link #DONE} if there were no users after {@code afterId}
+     */
+    @WorkerThread
+    public int runBatch(int afterId, int limit) {
+        List<UserPassword> page = userDAO.getPasswordsAfter(afterId, limit);
+        if (page.isEmpty()) return DONE;
+
+        List<UserPassword> legacy = new ArrayList<>();
+        for (UserPassword row : page) {
+            if (row.password != null && !isHashed.test(row.password)) {
+                legacy.add(new UserPassword(row.id, hash.apply(row.password)));
+            }
+        }
+        if (!legacy.isEmpty()) userDAO.updatePasswordsById(legacy);
+        return page.get(page.size() - 1).id;
+    }
+}
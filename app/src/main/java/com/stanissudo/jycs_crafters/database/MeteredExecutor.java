@@ -0,0 +1,131 @@
+package com.stanissudo.jycs_crafters.database;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.stanissudo.jycs_crafters.MainActivity;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Fixed-size executor that records how many tasks are waiting and how long they waited before a
+ * thread picked them up. Used for the database writer and reader pools so a backed-up queue shows
+ * up in {@link #stats()} (and in logcat once a wait passes {@link #SLOW_WAIT_MS}). Each task also
+ * tags the statements it issues in {@link QueryMetrics} with this executor and its queue wait.
+ */
+public final class MeteredExecutor extends AbstractExecutorService {
+
+    /** Waits longer than this are logged; a queue this far behind is visible to the user. */
+    static final long SLOW_WAIT_MS = 100;
+
+    /** Point-in-time view of an executor's queue. */
+    public static final class Stats {
+        public final String name;
+        public final int queueDepth;
+        public final long completed;
+        public final long avgWaitMicros;
+        public final long maxWaitMicros;
+
+        Stats(String name, int queueDepth, long completed, long avgWaitMicros, long maxWaitMicros) {
+            this.name = name;
+            this.queueDepth = queueDepth;
+            this.completed = completed;
+            this.avgWaitMicros = avgWaitMicros;
+            this.maxWaitMicros = maxWaitMicros;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: queued=%d done=%d avgWait=%dus maxWait=%dus",
+                    name, queueDepth, completed, avgWaitMicros, maxWaitMicros);
+        }
+    }
+
+    private final String name;
+    private final ThreadPoolExecutor delegate;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    MeteredExecutor(String name, int threads) {
+        this.name = name;
+        AtomicInteger n = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, threads == 1 ? name : name + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        this.delegate = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), factory);
+    }
+
+    @Override
+    public void execute(@NonNull Runnable task) {
+        final long enqueuedAt = System.nanoTime();
+        queued.incrementAndGet();
+        delegate.execute(() -> {
+            long wait = System.nanoTime() - enqueuedAt;
+            queued.decrementAndGet();
+            started.incrementAndGet();
+            totalWaitNanos.addAndGet(wait);
+            maxWaitNanos.accumulate(wait);
+            if (wait > TimeUnit.MILLISECONDS.toNanos(SLOW_WAIT_MS)) {
+                Log.w(MainActivity.TAG, name + " task waited " + TimeUnit.NANOSECONDS.toMillis(wait) + "ms");
+            }
+            QueryMetrics metrics = QueryMetrics.get();
+            metrics.taskStarted(name, wait);
+            try {
+                task.run();
+            } finally {
+                metrics.taskFinished();
+                completed.incrementAndGet();
+            }
+        });
+    }
+
+    public Stats stats() {
+        long starts = started.get();
+        long avg = starts == 0 ? 0 : totalWaitNanos.get() / starts;
+        return new Stats(name, queued.get(), completed.get(),
+                TimeUnit.NANOSECONDS.toMicros(avg), TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()));
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @NonNull
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,533 @@
+package com.stanissudo.jycs_crafters.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteTransactionListener;
+import android.os.CancellationSignal;
+import android.util.Pair;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Open helper that times every statement run on the database for {@link QueryMetrics}.
+ * <p>
+ * A query is timed from the call that opens its cursor to {@link Cursor#close()}. SQLite only
+ * steps a query as its rows are read, so that is the span the caller actually waits for, and the
+ * row count is how far the cursor got. Compiled statements, {@code execSQL} and transaction
+ * boundaries are timed around the call itself. Everything else passes straight through.
+ */
+final class MeteredOpenHelper implements SupportSQLiteOpenHelper {
+
+    /** Wraps the helpers another factory creates. */
+    static final class Factory implements SupportSQLiteOpenHelper.Factory {
+        private final SupportSQLiteOpenHelper.Factory delegate;
+
+        Factory(SupportSQLiteOpenHelper.Factory delegate) {
+            this.delegate = delegate;
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteOpenHelper create(@NonNull Configuration configuration) {
+            return new MeteredOpenHelper(delegate.create(configuration), QueryMetrics.get());
+        }
+    }
+
+    private final SupportSQLiteOpenHelper delegate;
+    private final QueryMetrics metrics;
+    /**
+     * Wrapper for the database the delegate last returned. Room asks for the database on every
+     * statement and the framework helper keeps handing back the same one, so it is wrapped once
+     * rather than per call; a reopened database gets a new wrapper.
+     */
+    private volatile MeteredDatabase wrapped;
+
+    MeteredOpenHelper(SupportSQLiteOpenHelper delegate, QueryMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Nullable
+    @Override
+    public String getDatabaseName() {
+        return delegate.getDatabaseName();
+    }
+
+    @Override
+    public void setWriteAheadLoggingEnabled(boolean enabled) {
+        delegate.setWriteAheadLoggingEnabled(enabled);
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteDatabase getWritableDatabase() {
+        return wrap(delegate.getWritableDatabase());
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteDatabase getReadableDatabase() {
+        return wrap(delegate.getReadableDatabase());
+    }
+
+    /** Two threads racing here may both allocate; either wrapper is correct. */
+    private MeteredDatabase wrap(SupportSQLiteDatabase db) {
+        MeteredDatabase w = wrapped;
+        if (w == null || w.db != db) {
+            wrapped = w = new MeteredDatabase(db, metrics);
+        }
+        return w;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private static final class MeteredDatabase implements SupportSQLiteDatabase {
+        private final SupportSQLiteDatabase db;
+        private final QueryMetrics metrics;
+
+        MeteredDatabase(SupportSQLiteDatabase db, QueryMetrics metrics) {
+            this.db = db;
+            this.metrics = metrics;
+        }
+
+        // ---- Timed ----
+
+        @NonNull
+        @Override
+        public SupportSQLiteStatement compileStatement(@NonNull String sql) {
+            return new MeteredStatement(db.compileStatement(sql), sql, metrics);
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull String query) {
+            long start = metrics.start();
+            return new MeteredCursor(db.query(query), query, start, metrics);
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull String query, @NonNull Object[] bindArgs) {
+            long start = metrics.start();
+            return new MeteredCursor(db.query(query, bindArgs), query, start, metrics);
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull SupportSQLiteQuery query) {
+            long start = metrics.start();
+            return new MeteredCursor(db.query(query), query.getSql(), start, metrics);
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull SupportSQLiteQuery query, @Nullable CancellationSignal cancellationSignal) {
+            long start = metrics.start();
+            return new MeteredCursor(db.query(query, cancellationSignal), query.getSql(), start, metrics);
+        }
+
+        @Override
+        public long insert(@NonNull String table, int conflictAlgorithm, @NonNull ContentValues values)
+                throws SQLException {
+            long start = metrics.start();
+            long rowId = -1;
+            try {
+                return rowId = db.insert(table, conflictAlgorithm, values);
+            } finally {
+                metrics.finished("INSERT INTO " + table, start, rowId == -1 ? 0 : 1);
+            }
+        }
+
+        @Override
+        public int delete(@NonNull String table, @Nullable String whereClause, @Nullable Object[] whereArgs) {
+            long start = metrics.start();
+            int rows = -1;
+            try {
+                return rows = db.delete(table, whereClause, whereArgs);
+            } finally {
+                metrics.finished("DELETE FROM " + table, start, rows);
+            }
+        }
+
+        @Override
+        public int update(@NonNull String table, int conflictAlgorithm, @NonNull ContentValues values,
+                          @Nullable String whereClause, @Nullable Object[] whereArgs) {
+            long start = metrics.start();
+            int rows = -1;
+            try {
+                return rows = db.update(table, conflictAlgorithm, values, whereClause, whereArgs);
+            } finally {
+                metrics.finished("UPDATE " + table, start, rows);
+            }
+        }
+
+        @Override
+        public void execSQL(@NonNull String sql) throws SQLException {
+            long start = metrics.start();
+            try {
+                db.execSQL(sql);
+            } finally {
+                metrics.finished(sql, start, -1);
+            }
+        }
+
+        @Override
+        public void execSQL(@NonNull String sql, @NonNull Object[] bindArgs) throws SQLException {
+            long start = metrics.start();
+            try {
+                db.execSQL(sql, bindArgs);
+            } finally {
+                metrics.finished(sql, start, -1);
+            }
+        }
+
+        @Override
+        public void beginTransaction() {
+            long start = metrics.start();
+            try {
+                db.beginTransaction();
+            } finally {
+                metrics.finished("BEGIN EXCLUSIVE TRANSACTION", start, -1);
+            }
+        }
+
+        @Override
+        public void beginTransactionNonExclusive() {
+            long start = metrics.start();
+            try {
+                db.beginTransactionNonExclusive();
+            } finally {
+                metrics.finished("BEGIN IMMEDIATE TRANSACTION", start, -1);
+            }
+        }
+
+        @Override
+        public void beginTransactionReadOnly() {
+            long start = metrics.start();
+            try {
+                db.beginTransactionReadOnly();
+            } finally {
+                metrics.finished("BEGIN DEFERRED TRANSACTION", start, -1);
+            }
+        }
+
+        @Override
+        public void beginTransactionWithListener(@NonNull SQLiteTransactionListener transactionListener) {
+            long start = metrics.start();
+            try {
+                db.beginTransactionWithListener(transactionListener);
+            } finally {
+                metrics.finished("BEGIN EXCLUSIVE TRANSACTION", start, -1);
+            }
+        }
+
+        @Override
+        public void beginTransactionWithListenerNonExclusive(@NonNull SQLiteTransactionListener transactionListener) {
+            long start = metrics.start();
+            try {
+                db.beginTransactionWithListenerNonExclusive(transactionListener);
+            } finally {
+                metrics.finished("BEGIN IMMEDIATE TRANSACTION", start, -1);
+            }
+        }
+
+        @Override
+        public void beginTransactionWithListenerReadOnly(@NonNull SQLiteTransactionListener transactionListener) {
+            long start = metrics.start();
+            try {
+                db.beginTransactionWithListenerReadOnly(transactionListener);
+            } finally {
+                metrics.finished("BEGIN DEFERRED TRANSACTION", start, -1);
+            }
+        }
+
+        /** The commit, and so the fsync, happens here for the outermost transaction. */
+        @Override
+        public void endTransaction() {
+            long start = metrics.start();
+            try {
+                db.endTransaction();
+            } finally {
+                metrics.finished("END TRANSACTION", start, -1);
+            }
+        }
+
+        // ---- Passed through ----
+
+        @Override
+        public void setTransactionSuccessful() {
+            db.setTransactionSuccessful();
+        }
+
+        @Override
+        public boolean inTransaction() {
+            return db.inTransaction();
+        }
+
+        @Override
+        public boolean isDbLockedByCurrentThread() {
+            return db.isDbLockedByCurrentThread();
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely() {
+            return db.yieldIfContendedSafely();
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely(long sleepAfterYieldDelayMillis) {
+            return db.yieldIfContendedSafely(sleepAfterYieldDelayMillis);
+        }
+
+        @Override
+        public boolean isExecPerConnectionSQLSupported() {
+            return db.isExecPerConnectionSQLSupported();
+        }
+
+        @Override
+        public void execPerConnectionSQL(@NonNull String sql, @Nullable Object[] bindArgs) {
+            db.execPerConnectionSQL(sql, bindArgs);
+        }
+
+        @Override
+        public int getVersion() {
+            return db.getVersion();
+        }
+
+        @Override
+        public void setVersion(int version) {
+            db.setVersion(version);
+        }
+
+        @Override
+        public long getMaximumSize() {
+            return db.getMaximumSize();
+        }
+
+        @Override
+        public long setMaximumSize(long numBytes) {
+            return db.setMaximumSize(numBytes);
+        }
+
+        @Override
+        public long getPageSize() {
+            return db.getPageSize();
+        }
+
+        @Override
+        public void setPageSize(long numBytes) {
+            db.setPageSize(numBytes);
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return db.isReadOnly();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return db.isOpen();
+        }
+
+        @Override
+        public boolean needUpgrade(int newVersion) {
+            return db.needUpgrade(newVersion);
+        }
+
+        @Nullable
+        @Override
+        public String getPath() {
+            return db.getPath();
+        }
+
+        @Override
+        public void setLocale(@NonNull Locale locale) {
+            db.setLocale(locale);
+        }
+
+        @Override
+        public void setMaxSqlCacheSize(int cacheSize) {
+            db.setMaxSqlCacheSize(cacheSize);
+        }
+
+        @Override
+        public void setForeignKeyConstraintsEnabled(boolean enabled) {
+            db.setForeignKeyConstraintsEnabled(enabled);
+        }
+
+        @Override
+        public boolean enableWriteAheadLogging() {
+            return db.enableWriteAheadLogging();
+        }
+
+        @Override
+        public void disableWriteAheadLogging() {
+            db.disableWriteAheadLogging();
+        }
+
+        @Override
+        public boolean isWriteAheadLoggingEnabled() {
+            return db.isWriteAheadLoggingEnabled();
+        }
+
+        @Nullable
+        @Override
+        public List<Pair<String, String>> getAttachedDbs() {
+            return db.getAttachedDbs();
+        }
+
+        @Override
+        public boolean isDatabaseIntegrityOk() {
+            return db.isDatabaseIntegrityOk();
+        }
+
+        @Override
+        public void close() throws IOException {
+            db.close();
+        }
+    }
+
+    /** Times each execution of a compiled statement; Room reuses them across calls. */
+    private static final class MeteredStatement implements SupportSQLiteStatement {
+        private final SupportSQLiteStatement statement;
+        private final String sql;
+        private final QueryMetrics metrics;
+
+        MeteredStatement(SupportSQLiteStatement statement, String sql, QueryMetrics metrics) {
+            this.statement = statement;
+            this.sql = sql;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void execute() {
+            long start = metrics.start();
+            try {
+                statement.execute();
+            } finally {
+                metrics.finished(sql, start, -1);
+            }
+        }
+
+        @Override
+        public int executeUpdateDelete() {
+            long start = metrics.start();
+            int rows = -1;
+            try {
+                return rows = statement.executeUpdateDelete();
+            } finally {
+                metrics.finished(sql, start, rows);
+            }
+        }
+
+        @Override
+        public long executeInsert() {
+            long start = metrics.start();
+            long rowId = -1;
+            try {
+                return rowId = statement.executeInsert();
+            } finally {
+                metrics.finished(sql, start, rowId == -1 ? 0 : 1);
+            }
+        }
+
+        @Override
+        public long simpleQueryForLong() {
+            long start = metrics.start();
+            try {
+                return statement.simpleQueryForLong();
+            } finally {
+                metrics.finished(sql, start, 1);
+            }
+        }
+
+        @Nullable
+        @Override
+        public String simpleQueryForString() {
+            long start = metrics.start();
+            try {
+                return statement.simpleQueryForString();
+            } finally {
+                metrics.finished(sql, start, 1);
+            }
+        }
+
+        @Override
+        public void bindNull(int index) {
+            statement.bindNull(index);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            statement.bindLong(index, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            statement.bindDouble(index, value);
+        }
+
+        @Override
+        public void bindString(int index, @NonNull String value) {
+            statement.bindString(index, value);
+        }
+
+        @Override
+        public void bindBlob(int index, @NonNull byte[] value) {
+            statement.bindBlob(index, value);
+        }
+
+        @Override
+        public void clearBindings() {
+            statement.clearBindings();
+        }
+
+        @Override
+        public void close() throws IOException {
+            statement.close();
+        }
+    }
+
+    /** Ends its query's timing when closed, with the rows the caller stepped through. */
+    private static final class MeteredCursor extends CursorWrapper {
+        private final String sql;
+        private final long startedAt;
+        private final QueryMetrics metrics;
+        private boolean recorded;
+
+        MeteredCursor(Cursor cursor, String sql, long startedAt, QueryMetrics metrics) {
+            super(cursor);
+            this.sql = sql;
+            this.startedAt = startedAt;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void close() {
+            if (recorded) {
+                super.close();
+                return;
+            }
+            recorded = true;
+            // Read the position first: a closed cursor can't report it.
+            int position = getPosition();
+            int rows = position < 0 ? 0 : (isAfterLast() ? position : position + 1);
+            super.close();
+            metrics.finished(sql, startedAt, rows);
+        }
+    }
+}
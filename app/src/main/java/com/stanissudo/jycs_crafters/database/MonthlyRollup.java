@@ -0,0 +1,73 @@
+package com.stanissudo.jycs_crafters.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.stanissudo.jycs_crafters.database.entities.VehicleMonthStats;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds {@link VehicleMonthStats} rows from scratch. Month buckets follow the device's zone
+ * through {@link EpochTime}, which SQLite's own date functions can't see, so the log is walked
+ * once in Java; shared by the 6 -> 7 backfill and {@link FuelEntryDAO#rebuildMonthStats()}.
+ */
+final class MonthlyRollup {
+    private MonthlyRollup() {
+    }
+
+    /** Aggregates every row of a fuel log cursor; the cursor is read but not closed. */
+    static List<VehicleMonthStats> aggregate(Cursor c) {
+        int car = c.getColumnIndexOrThrow("CarID");
+        int date = c.getColumnIndexOrThrow("logDate");
+        int odo = c.getColumnIndexOrThrow("Odometer");
+        int gallons = c.getColumnIndexOrThrow("GallonsMilli");
+        int price = c.getColumnIndexOrThrow("PriceTenthCents");
+        int total = c.getColumnIndexOrThrow("TotalCostCents");
+
+        Map<Long, VehicleMonthStats> buckets = new LinkedHashMap<>();
+        while (c.moveToNext()) {
+            int carId = c.getInt(car);
+            int month = EpochTime.epochMonth(c.getLong(date));
+            VehicleMonthStats b = buckets.computeIfAbsent(key(carId, month), k -> new VehicleMonthStats(carId, month));
+            b.setFillUpsCount(b.getFillUpsCount() + 1);
+            b.setTotalCostCents(b.getTotalCostCents() + c.getLong(total));
+            b.setPriceTenthCentsSum(b.getPriceTenthCentsSum() + c.getLong(price));
+            b.setGallonsMilli(b.getGallonsMilli() + c.getLong(gallons));
+            if (!c.isNull(odo)) {
+                int o = c.getInt(odo);
+                if (b.getMinOdometer() == null || o < b.getMinOdometer()) b.setMinOdometer(o);
+                if (b.getMaxOdometer() == null || o > b.getMaxOdometer()) b.setMaxOdometer(o);
+            }
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    /** Writes rows built by {@link #aggregate} without going through a DAO (migrations). */
+    static void insertAll(SupportSQLiteDatabase db, List<VehicleMonthStats> rows) {
+        ContentValues v = new ContentValues();
+        for (VehicleMonthStats b : rows) {
+            v.clear();
+            v.put("CarID", b.getCarID());
+            v.put("month", b.getMonth());
+            v.put("fillUpsCount", b.getFillUpsCount());
+            v.put("totalCostCents", b.getTotalCostCents());
+            v.put("priceTenthCentsSum", b.getPriceTenthCentsSum());
+            v.put("gallonsMilli", b.getGallonsMilli());
+            v.put("minOdometer", b.getMinOdometer());
+            v.put("maxOdometer", b.getMaxOdometer());
+            db.insert(FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE, SQLiteDatabase.CONFLICT_REPLACE, v);
+        }
+    }
+
+    static long key(int carId, int month) {
+        return ((long) carId << 32) | (month & 0xFFFF_FFFFL);
+    }
+}
@@ -0,0 +1,88 @@
+package com.stanissudo.jycs_crafters.database;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+
+import com.stanissudo.jycs_crafters.MainActivity;
+import com.stanissudo.jycs_crafters.utils.OdometerIndex;
+
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One car's {@link OdometerIndex}, loaded on the reader pool when first observed and reloaded
+ * after Room reports a write to the fuel log, the same way Room's own LiveData queries follow
+ * their tables. Room tracks whole tables, so a write for another car also triggers a reload; it
+ * is a single indexed read of four columns. While nobody observes, changes only mark it stale.
+ */
+final class OdometerIndexLiveData extends LiveData<OdometerIndex> {
+
+    private final FuelTrackAppDatabase db;
+    private final FuelEntryDAO dao;
+    private final Executor executor;
+    private final int carId;
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+
+    private final InvalidationTracker.Observer observer =
+            new InvalidationTracker.Observer(FuelTrackAppDatabase.FUEL_LOG_TABLE) {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    stale.set(true);
+                    if (hasActiveObservers()) executor.execute(OdometerIndexLiveData.this::load);
+                }
+            };
+
+    OdometerIndexLiveData(FuelTrackAppDatabase db, FuelEntryDAO dao, Executor executor, int carId) {
+        this.db = db;
+        this.dao = dao;
+        this.executor = executor;
+        this.carId = carId;
+    }
+
+    @Override
+    protected void onActive() {
+        db.getInvalidationTracker().addObserver(observer);
+        if (stale.get()) executor.execute(this::load);
+    }
+
+    @Override
+    protected void onInactive() {
+        db.getInvalidationTracker().removeObserver(observer);
+        // Writes are no longer observed, so the next observer must not trust this snapshot.
+        stale.set(true);
+    }
+
+    /** Rebuilds the index if it is stale; runs on the reader pool, one load at a time. */
+    private void load() {
+        while (stale.get() && loading.compareAndSet(false, true)) {
+            try {
+                if (!stale.compareAndSet(true, false)) continue;
+                postValue(read());
+            } catch (RuntimeException e) {
+                Log.e(MainActivity.TAG, "Loading odometer index for car " + carId + " failed", e);
+            } finally {
+                loading.set(false);
+            }
+        }
+    }
+
+    private OdometerIndex read() {
+        try (Cursor c = dao.odometerCursorForCar(carId)) {
+            int id = c.getColumnIndexOrThrow("LogID");
+            int date = c.getColumnIndexOrThrow("logDate");
+            int odo = c.getColumnIndexOrThrow("Odometer");
+            int price = c.getColumnIndexOrThrow("PriceTenthCents");
+            OdometerIndex.Builder builder = new OdometerIndex.Builder(carId, c.getCount());
+            while (c.moveToNext()) {
+                builder.add(c.getLong(id), c.getLong(date), c.isNull(odo) ? null : c.getInt(odo), c.getLong(price));
+            }
+            return builder.build();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.stanissudo.jycs_crafters.database;
+
+import android.database.Cursor;
+
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * One step of the clean-up of rows orphaned before the foreign keys existed (database version 11):
+ * fuel entries of deleted vehicles, vehicles of deleted users, and the rollup and outbox rows that
+ * belonged to them. Each step deletes a bounded number of rows in one transaction, so the write
+ * lock is only ever held briefly; callers repeat it until it deletes nothing.
+ */
+public final class OrphanPurge {
+
+    /** What one {@link #runBatch} removed. */
+    public static final class Batch {
+        /** Rows deleted by the purge itself; rows the cascade took along are not counted. */
+        public final int rows;
+        /**
+         * Space the deletes emptied: pages cut off the end of the file, which auto-vacuum (the
+         * Android default) does at every commit, plus growth of the free page list, where emptied
+         * pages go without it.
+         */
+        public final long bytesFreed;
+
+        Batch(int rows, long bytesFreed) {
+            this.rows = rows;
+            this.bytesFreed = bytesFreed;
+        }
+    }
+
+    private final FuelTrackAppDatabase db;
+
+    public OrphanPurge(FuelTrackAppDatabase db) {
+        this.db = db;
+    }
+
+    /**
+     * Deletes up to {@code limit} orphaned rows, bottom up: the fuel logs of cars that are gone or
+     * have no owner, one car at a time through its index; then ownerless vehicles, whose logs are
+     * gone by then so the cascade has little to do; then stray rollup and outbox rows.
+     *
+     * @return what was removed; {@code rows} is 0 once nothing is orphaned
+     */
+    @WorkerThread
+    public Batch runBatch(int limit) {
+        long usedBefore = usedBytes();
+        int rows = db.runInTransaction(() -> {
+            FuelEntryDAO fuelEntryDAO = db.fuelEntryDAO();
+            int deleted = 0;
+            Integer carId;
+            while (deleted < limit && (carId = fuelEntryDAO.getOrphanedCarId()) != null) {
+                deleted += fuelEntryDAO.deleteEntriesOfCar(carId, limit - deleted);
+            }
+            if (deleted < limit) deleted += db.vehicleDAO().deleteOrphanedVehicles(limit - deleted);
+            if (deleted < limit) deleted += fuelEntryDAO.deleteOrphanedStats(limit - deleted);
+            if (deleted < limit) deleted += fuelEntryDAO.deleteOrphanedMonthStats(limit - deleted);
+            if (deleted < limit) deleted += db.changeLogDAO().deleteOrphaned(limit - deleted);
+            return deleted;
+        });
+        return new Batch(rows, Math.max(0, usedBefore - usedBytes()));
+    }
+
+    /** Bytes held by pages in use: the file's pages minus the free ones. */
+    private long usedBytes() {
+        SupportSQLiteDatabase sql = db.getOpenHelper().getWritableDatabase();
+        return (pragma(sql, "page_count") - pragma(sql, "freelist_count")) * pragma(sql, "page_size");
+    }
+
+    private static long pragma(SupportSQLiteDatabase sql, String name) {
+        try (Cursor c = sql.query("PRAGMA " + name)) {
+            return c.moveToFirst() ? c.getLong(0) : 0;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.stanissudo.jycs_crafters.database;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.stanissudo.jycs_crafters.MainActivity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-statement timing of every database connection, fed by {@link MeteredOpenHelper}.
+ * <p>
+ * A query is timed from the call that opens its cursor to the cursor closing, which is when its
+ * rows have been read and mapped; other statements from the call to its return. Each sample is
+ * tagged with the executor whose task issued it and how long that task sat in the queue, as set by
+ * {@link MeteredExecutor}. Statements issued elsewhere, such as by the WorkManager workers, are
+ * tagged with the thread's name and no queue wait.
+ * <p>
+ * Every statement is timed (two clock reads and a few field writes on a thread-local context) but
+ * only one in {@link #SAMPLE_EVERY} is kept, in a fixed ring that writers claim slots of with one
+ * atomic increment, so recording never locks. Statements over {@link #SLOW_QUERY_MS} are always
+ * logged and kept in a separate slow ring. {@link #report()} computes percentiles from the ring on
+ * demand.
+ */
+public final class QueryMetrics {
+
+    /** Statements at least this slow are logged and kept in the slow-query ring. */
+    static final long SLOW_QUERY_MS = 50;
+    /** One in this many statements on a thread is sampled into the ring. */
+    static final int SAMPLE_EVERY = 8;
+    /** Samples kept; a power of two so a slot is the write counter masked. */
+    static final int RING_SIZE = 1024;
+    static final int SLOW_RING_SIZE = 32;
+
+    private static final QueryMetrics INSTANCE = new QueryMetrics(RING_SIZE, SLOW_RING_SIZE,
+            TimeUnit.MILLISECONDS.toNanos(SLOW_QUERY_MS), SAMPLE_EVERY, System::nanoTime);
+
+    /** The process-wide metrics the database executors and {@link MeteredOpenHelper} write to. */
+    public static QueryMetrics get() {
+        return INSTANCE;
+    }
+
+    /** One timed statement. */
+    public static final class Sample {
+        public final String sql;
+        public final String executor;
+        public final long latencyMicros;
+        /** How long the statement's task sat in the executor queue; 0 off the executors. */
+        public final long waitMicros;
+        /** Rows read from the cursor or changed by the statement, or -1 if unknown. */
+        public final int rows;
+
+        Sample(String sql, String executor, long latencyMicros, long waitMicros, int rows) {
+            this.sql = sql;
+            this.executor = executor;
+            this.latencyMicros = latencyMicros;
+            this.waitMicros = waitMicros;
+            this.rows = rows;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%dus (wait %dus, %s) %s: %s", latencyMicros, waitMicros,
+                    rows < 0 ? "rows ?" : rows + " rows", executor, abbreviate(sql));
+        }
+    }
+
+    /** Percentiles of one statement's samples. */
+    public static final class StatementStats {
+        public final String sql;
+        public final int samples;
+        public final long p50Micros;
+        public final long p95Micros;
+        public final long p99Micros;
+        public final long maxWaitMicros;
+        /** Mean of the reported row counts, or -1 if no sample reported one. */
+        public final long avgRows;
+
+        StatementStats(String sql, int samples, long p50Micros, long p95Micros, long p99Micros,
+                       long maxWaitMicros, long avgRows) {
+            this.sql = sql;
+            this.samples = samples;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.maxWaitMicros = maxWaitMicros;
+            this.avgRows = avgRows;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "n=%d p50=%dus p95=%dus p99=%dus maxWait=%dus%s %s",
+                    samples, p50Micros, p95Micros, p99Micros, maxWaitMicros,
+                    avgRows < 0 ? "" : " rows~" + avgRows, abbreviate(sql));
+        }
+    }
+
+    /** Snapshot of the rings: statements slowest (p95) first, then the slow log newest first. */
+    public static final class Report {
+        public final List<StatementStats> statements;
+        public final List<Sample> slow;
+        public final long timed;
+
+        Report(List<StatementStats> statements, List<Sample> slow, long timed) {
+            this.statements = statements;
+            this.slow = slow;
+            this.timed = timed;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.US, "%d statements timed, 1 in %d sampled\n", timed, SAMPLE_EVERY));
+            for (StatementStats s : statements) sb.append(s).append('\n');
+            sb.append(String.format(Locale.US, "\nSlow (>= %dms):\n", SLOW_QUERY_MS));
+            if (slow.isEmpty()) sb.append("none\n");
+            for (Sample s : slow) sb.append(s).append('\n');
+            return sb.toString();
+        }
+    }
+
+    /** The executor task running on a thread, if any, and its sampling count; one per thread, reused. */
+    private static final class TaskContext {
+        String executor;
+        long waitNanos;
+        int sinceSample;
+    }
+
+    private final AtomicReferenceArray<Sample> ring;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicReferenceArray<Sample> slowRing;
+    private final AtomicLong slowWritten = new AtomicLong();
+    private final AtomicLong timed = new AtomicLong();
+    private final long slowNanos;
+    private final int sampleEvery;
+    private final LongSupplier clock;
+    private final ThreadLocal<TaskContext> task = ThreadLocal.withInitial(TaskContext::new);
+
+    QueryMetrics(int ringSize, int slowRingSize, long slowNanos, int sampleEvery, LongSupplier clock) {
+        this.ring = new AtomicReferenceArray<>(ringSize);
+        this.slowRing = new AtomicReferenceArray<>(slowRingSize);
+        this.slowNanos = slowNanos;
+        this.sampleEvery = sampleEvery;
+        this.clock = clock;
+    }
+
+    /** Called by {@link MeteredExecutor} as a task leaves the queue. */
+    void taskStarted(String executor, long waitNanos) {
+        TaskContext t = task.get();
+        t.executor = executor;
+        t.waitNanos = waitNanos;
+    }
+
+    /** Called by {@link MeteredExecutor} when the task returns. */
+    void taskFinished() {
+        TaskContext t = task.get();
+        t.executor = null;
+        t.waitNanos = 0;
+    }
+
+    /** Clock reading to pass to {@link #finished} when the statement about to run is done. */
+    long start() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Records {@code sql}, which started at {@code startedAt} and is done now. Statements may
+     * overlap on a thread (a query run while another's cursor is open), since each carries its own
+     * start.
+     *
+     * @param rows rows read or changed, or -1 if unknown
+     */
+    void finished(String sql, long startedAt, int rows) {
+        long latency = clock.getAsLong() - startedAt;
+        timed.incrementAndGet();
+        TaskContext t = task.get();
+        boolean slow = latency >= slowNanos;
+        boolean sampled = ++t.sinceSample >= sampleEvery;
+        if (slow || sampled) {
+            String executor = t.executor != null ? t.executor : Thread.currentThread().getName();
+            Sample sample = new Sample(sql, executor, TimeUnit.NANOSECONDS.toMicros(latency),
+                    TimeUnit.NANOSECONDS.toMicros(t.waitNanos), rows);
+            // Only the sampled ones go to the main ring, so slow statements don't skew its percentiles.
+            if (sampled) {
+                t.sinceSample = 0;
+                ring.set((int) (written.getAndIncrement() % ring.length()), sample);
+            }
+            if (slow) {
+                slowRing.set((int) (slowWritten.getAndIncrement() % slowRing.length()), sample);
+                Log.w(MainActivity.TAG, "Slow query " + sample);
+            }
+        }
+    }
+
+    /** Percentiles per statement over the samples currently in the ring. */
+    public Report report() {
+        Map<String, List<Sample>> bySql = new HashMap<>();
+        for (int i = 0; i < ring.length(); i++) {
+            Sample s = ring.get(i);
+            if (s != null) bySql.computeIfAbsent(s.sql, k -> new ArrayList<>()).add(s);
+        }
+        List<StatementStats> statements = new ArrayList<>();
+        for (Map.Entry<String, List<Sample>> e : bySql.entrySet()) {
+            statements.add(stats(e.getKey(), e.getValue()));
+        }
+        statements.sort((a, b) -> Long.compare(b.p95Micros, a.p95Micros));
+
+        List<Sample> slow = new ArrayList<>();
+        long end = slowWritten.get();
+        for (long i = end - 1; i >= Math.max(0, end - slowRing.length()); i--) {
+            Sample s = slowRing.get((int) (i % slowRing.length()));
+            if (s != null) slow.add(s);
+        }
+        return new Report(statements, slow, timed.get());
+    }
+
+    private static StatementStats stats(String sql, List<Sample> samples) {
+        long[] latencies = new long[samples.size()];
+        long maxWait = 0;
+        long rowSum = 0;
+        int rowSamples = 0;
+        for (int i = 0; i < latencies.length; i++) {
+            Sample s = samples.get(i);
+            latencies[i] = s.latencyMicros;
+            maxWait = Math.max(maxWait, s.waitMicros);
+            if (s.rows >= 0) {
+                rowSum += s.rows;
+                rowSamples++;
+            }
+        }
+        Arrays.sort(latencies);
+        return new StatementStats(sql, latencies.length, percentile(latencies, 50), percentile(latencies, 95),
+                percentile(latencies, 99), maxWait, rowSamples == 0 ? -1 : rowSum / rowSamples);
+    }
+
+    /** Nearest-rank percentile of sorted, non-empty {@code values}. */
+    static long percentile(long[] values, int pct) {
+        int rank = (int) Math.ceil(pct / 100.0 * values.length);
+        return values[Math.max(0, Math.min(values.length, rank) - 1)];
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() <= 120 ? sql : sql.substring(0, 117) + "...";
+    }
+}
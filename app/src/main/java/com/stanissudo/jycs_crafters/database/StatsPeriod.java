@@ -0,0 +1,32 @@
+package com.stanissudo.jycs_crafters.database;
+
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+
+/**
+ * Time window for the stats tabs. Calendar periods are answered from the month buckets
+ * ({@link com.stanissudo.jycs_crafters.database.entities.VehicleMonthStats}), lifetime totals from
+ * the per-car rollup.
+ */
+public enum StatsPeriod {
+    ALL_TIME,
+    THIS_YEAR,
+    THIS_MONTH;
+
+    /** First month bucket of the period containing {@code nowMillis} (see {@link EpochTime#epochMonth}). */
+    public int firstMonth(long nowMillis) {
+        int month = EpochTime.epochMonth(nowMillis);
+        switch (this) {
+            case THIS_MONTH:
+                return month;
+            case THIS_YEAR:
+                return month - Math.floorMod(month, 12);
+            default:
+                return Integer.MIN_VALUE;
+        }
+    }
+
+    /** Last month bucket of the period containing {@code nowMillis}. */
+    public int lastMonth(long nowMillis) {
+        return EpochTime.epochMonth(nowMillis);
+    }
+}
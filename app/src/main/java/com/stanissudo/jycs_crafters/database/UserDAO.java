@@ -17,8 +17,11 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
 import com.stanissudo.jycs_crafters.database.entities.User;
+import com.stanissudo.jycs_crafters.database.pojos.LoginRecord;
+import com.stanissudo.jycs_crafters.database.pojos.UserPassword;
 
 import java.util.List;
 
@@ -59,13 +62,38 @@ public interface UserDAO {
 
     /**
      * Checks if a user with the given username exists in the database.
+     * Stops at the first index hit instead of counting.
      *
      * @param username The username to check.
-     * @return The count of matching users (0 if not found, >0 if exists).
+     * @return 1 if the user exists, 0 if not.
      */
-    @Query("SELECT COUNT(*) FROM " + FuelTrackAppDatabase.USER_TABLE + " WHERE username = :username")
+    @Query("SELECT EXISTS(SELECT 1 FROM " + FuelTrackAppDatabase.USER_TABLE + " WHERE username = :username)")
     int exists(String username);
 
+    /**
+     * Everything a login checks, in one lookup on the username index.
+     *
+     * @param username The username to look up.
+     * @return The user's login columns, or null if there is no such user.
+     */
+    @Query("SELECT id, username, password, isAdmin, isActive FROM " + FuelTrackAppDatabase.USER_TABLE +
+            " WHERE username = :username")
+    LoginRecord getLoginRecord(String username);
+
+    /**
+     * Inserts {@code user} unless its username is taken, then returns whichever row holds the
+     * name, in one transaction. Two sign-ins racing for the same new account both get the one
+     * row the unique index let in, with its real id.
+     *
+     * @param user The account to create if missing.
+     * @return The login columns of the existing or new user.
+     */
+    @Transaction
+    default LoginRecord insertOrGetLoginRecord(User user) {
+        insert(user);
+        return getLoginRecord(user.getUsername());
+    }
+
     /**
      * Retrieves a user by their username as LiveData.
      * This allows UI to observe and update automatically when the user data changes.
@@ -119,6 +147,27 @@ public interface UserDAO {
     @Query("UPDATE " + FuelTrackAppDatabase.USER_TABLE + " SET password = :passwordHash WHERE id = :userId")
     void updatePasswordById(int userId, String passwordHash);
 
+    /**
+     * Returns the next page of (id, password) pairs after {@code afterId}, in id order.
+     * Used by the legacy password re-hash job to walk the table in bounded chunks.
+     * @param afterId Last id of the previous page (0 for the first page).
+     * @param limit   Maximum number of rows.
+     * @return Up to {@code limit} rows with {@code id > afterId}.
+     */
+    @Query("SELECT id, password FROM " + FuelTrackAppDatabase.USER_TABLE + " WHERE id > :afterId ORDER BY id LIMIT :limit")
+    List<UserPassword> getPasswordsAfter(int afterId, int limit);
+
+    /**
+     * Writes a batch of re-hashed passwords in one transaction.
+     * @param rows Users whose {@code password} already holds the new hash.
+     */
+    @Transaction
+    default void updatePasswordsById(List<UserPassword> rows) {
+        for (UserPassword row : rows) {
+            updatePasswordById(row.id, row.password);
+        }
+    }
+
     /**
      * Camila: Updates the display name of a user by ID.
      * @param userId      The ID of the user.
@@ -176,4 +225,44 @@ public interface UserDAO {
      */
     @Query("SELECT * FROM " + FuelTrackAppDatabase.USER_TABLE + " WHERE isActive = 0 ORDER BY username ASC")
     LiveData<List<User>> getInactiveUsers();
+
+    // ==== Admin list (keyset pages in username order) ====
+    // Usernames are unique, so a username alone marks a position in the list.
+
+    /**
+     * Next page after {@code afterUsername} ({@code ""} for the first page), read in order from the
+     * username index.
+     * @param states {@code isActive} values to include (see {@link UserFilter}).
+     */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.USER_TABLE +
+            " WHERE username > :afterUsername AND isActive IN (:states) ORDER BY username LIMIT :limit")
+    List<User> getUsersPageAfter(String afterUsername, List<Integer> states, int limit);
+
+    /** Page ending just before {@code beforeUsername}, in descending order. */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.USER_TABLE +
+            " WHERE username < :beforeUsername AND isActive IN (:states) ORDER BY username DESC LIMIT :limit")
+    List<User> getUsersPageBefore(String beforeUsername, List<Integer> states, int limit);
+
+    /**
+     * Like {@link #getUsersPageAfter}, restricted to users whose username or display name matches
+     * the FTS query {@code match} (e.g. {@code "jan* do*"}).
+     */
+    @Query("SELECT " + FuelTrackAppDatabase.USER_TABLE + ".* FROM " + FuelTrackAppDatabase.USER_TABLE +
+            " JOIN " + FuelTrackAppDatabase.USER_FTS_TABLE + " ON " + FuelTrackAppDatabase.USER_FTS_TABLE +
+            ".rowid = " + FuelTrackAppDatabase.USER_TABLE + ".id" +
+            " WHERE " + FuelTrackAppDatabase.USER_FTS_TABLE + " MATCH :match" +
+            " AND " + FuelTrackAppDatabase.USER_TABLE + ".username > :afterUsername" +
+            " AND " + FuelTrackAppDatabase.USER_TABLE + ".isActive IN (:states)" +
+            " ORDER BY " + FuelTrackAppDatabase.USER_TABLE + ".username LIMIT :limit")
+    List<User> searchUsersPageAfter(String match, String afterUsername, List<Integer> states, int limit);
+
+    /** Like {@link #getUsersPageBefore}, restricted to matches of {@code match}. */
+    @Query("SELECT " + FuelTrackAppDatabase.USER_TABLE + ".* FROM " + FuelTrackAppDatabase.USER_TABLE +
+            " JOIN " + FuelTrackAppDatabase.USER_FTS_TABLE + " ON " + FuelTrackAppDatabase.USER_FTS_TABLE +
+            ".rowid = " + FuelTrackAppDatabase.USER_TABLE + ".id" +
+            " WHERE " + FuelTrackAppDatabase.USER_FTS_TABLE + " MATCH :match" +
+            " AND " + FuelTrackAppDatabase.USER_TABLE + ".username < :beforeUsername" +
+            " AND " + FuelTrackAppDatabase.USER_TABLE + ".isActive IN (:states)" +
+            " ORDER BY " + FuelTrackAppDatabase.USER_TABLE + ".username DESC LIMIT :limit")
+    List<User> searchUsersPageBefore(String match, String beforeUsername, List<Integer> states, int limit);
 }
@@ -0,0 +1,26 @@
+package com.stanissudo.jycs_crafters.database;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Which accounts the admin list shows. {@link #ACTIVE} and {@link #INACTIVE} select the same rows
+ * as {@link UserDAO#getActiveUsers()} and {@link UserDAO#getInactiveUsers()}, a page at a time.
+ */
+public enum UserFilter {
+    ALL(Arrays.asList(0, 1)),
+    ACTIVE(Collections.singletonList(1)),
+    INACTIVE(Collections.singletonList(0));
+
+    private final List<Integer> states;
+
+    UserFilter(List<Integer> states) {
+        this.states = states;
+    }
+
+    /** {@code isActive} values to match. */
+    List<Integer> states() {
+        return states;
+    }
+}
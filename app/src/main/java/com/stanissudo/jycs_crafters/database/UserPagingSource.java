@@ -0,0 +1,143 @@
+package com.stanissudo.jycs_crafters.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.PagingSource;
+import androidx.paging.PagingState;
+import androidx.room.InvalidationTracker;
+
+import com.stanissudo.jycs_crafters.database.entities.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import kotlin.Unit;
+import kotlin.coroutines.Continuation;
+import kotlinx.coroutines.BuildersKt;
+import kotlinx.coroutines.CoroutineDispatcher;
+import kotlinx.coroutines.ExecutorsKt;
+
+/**
+ * Keyset {@link PagingSource} over the user accounts for the admin list, in username order,
+ * optionally narrowed to a {@link UserFilter} and a search over username and display name.
+ * <p>
+ * Keys are usernames: they are unique, so each page continues from its boundary row on the
+ * username index, or, when searching, on the {@link FuelTrackAppDatabase#USER_FTS_TABLE} matches.
+ * Like {@link FuelEntryPagingSource}, queries run on Room's query executor and the source
+ * invalidates itself whenever {@link FuelTrackAppDatabase#USER_TABLE} changes.
+ */
+public class UserPagingSource extends PagingSource<String, User> {
+
+    private final FuelTrackAppDatabase db;
+    private final UserDAO dao;
+    private final List<Integer> states;
+    /** FTS query for the search text, or {@code null} to list everyone. */
+    @Nullable
+    private final String match;
+    private final CoroutineDispatcher dispatcher;
+
+    /** Registered lazily on the first load so construction never touches the database. */
+    private final AtomicBoolean observerRegistered = new AtomicBoolean(false);
+    private final InvalidationTracker.Observer observer =
+            new InvalidationTracker.Observer(FuelTrackAppDatabase.USER_TABLE) {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    invalidate();
+                }
+            };
+
+    public UserPagingSource(FuelTrackAppDatabase db, UserDAO dao, UserFilter filter, @Nullable String search) {
+        this.db = db;
+        this.dao = dao;
+        this.states = filter.states();
+        this.match = matchQuery(search);
+        this.dispatcher = ExecutorsKt.from(db.getQueryExecutor());
+        registerInvalidatedCallback(() -> {
+            if (observerRegistered.get()) {
+                db.getInvalidationTracker().removeObserver(observer);
+            }
+            return Unit.INSTANCE;
+        });
+    }
+
+    /**
+     * Turns typed text into an FTS prefix query: each run of letters or digits must start a word
+     * of the username or display name, so {@code "jane.d"} finds {@code jane.doe@gmail.com}.
+     * Everything else is dropped, so FTS operators typed by the user are never interpreted.
+     *
+     * @return the query, or {@code null} if the text has nothing to search for
+     */
+    @Nullable
+    public static String matchQuery(@Nullable String text) {
+        if (text == null) return null;
+        StringBuilder sb = new StringBuilder();
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (term.isEmpty()) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(term).append('*');
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    @Nullable
+    @Override
+    public Object load(@NonNull LoadParams<String> params,
+                       @NonNull Continuation<? super LoadResult<String, User>> continuation) {
+        return BuildersKt.<LoadResult<String, User>>withContext(
+                dispatcher, (scope, cont) -> loadPage(params), continuation);
+    }
+
+    /**
+     * Restart after the row just above the one the user was looking at, so the exclusive "after"
+     * query includes it; from the top when that row was the first.
+     */
+    @Nullable
+    @Override
+    public String getRefreshKey(@NonNull PagingState<String, User> state) {
+        Integer anchor = state.getAnchorPosition();
+        if (anchor == null || anchor == 0) return null;
+        User above = state.closestItemToPosition(anchor - 1);
+        return above == null ? null : above.getUsername();
+    }
+
+    private LoadResult<String, User> loadPage(LoadParams<String> params) {
+        if (observerRegistered.compareAndSet(false, true)) {
+            db.getInvalidationTracker().addObserver(observer);
+        }
+        String key = params.getKey();
+        int limit = params.getLoadSize();
+        try {
+            if (params instanceof LoadParams.Prepend) {
+                List<User> rows = new ArrayList<>(match == null
+                        ? dao.getUsersPageBefore(key, states, limit)
+                        : dao.searchUsersPageBefore(match, key, states, limit));
+                Collections.reverse(rows);
+                String prev = rows.size() < limit ? null : rows.get(0).getUsername();
+                String next = rows.isEmpty() ? null : rows.get(rows.size() - 1).getUsername();
+                return getInvalid() ? new LoadResult.Invalid<>() : new LoadResult.Page<>(rows, prev, next);
+            }
+
+            List<User> rows = pageAfter(key == null ? "" : key, limit);
+            if (rows.isEmpty() && key != null && params instanceof LoadParams.Refresh) {
+                // Everything from the anchor down is gone (deleted or filtered out): start over.
+                key = null;
+                rows = pageAfter("", limit);
+            }
+            String prev = key == null ? null : (rows.isEmpty() ? key : rows.get(0).getUsername());
+            String next = rows.size() < limit ? null : rows.get(rows.size() - 1).getUsername();
+            return getInvalid() ? new LoadResult.Invalid<>() : new LoadResult.Page<>(rows, prev, next);
+        } catch (RuntimeException e) {
+            return new LoadResult.Error<>(e);
+        }
+    }
+
+    private List<User> pageAfter(String after, int limit) {
+        return match == null
+                ? dao.getUsersPageAfter(after, states, limit)
+                : dao.searchUsersPageAfter(match, after, states, limit);
+    }
+}
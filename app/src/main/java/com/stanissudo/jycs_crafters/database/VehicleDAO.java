@@ -6,9 +6,13 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
+import com.stanissudo.jycs_crafters.database.entities.ChangeLog;
 import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+import com.stanissudo.jycs_crafters.database.pojos.VehicleSummary;
 
 import java.util.List;
 
@@ -18,10 +22,14 @@ import java.util.List;
  * @project JYCS-Crafters
  * file: VehicleDAO.java
  * Explanation: Vehicle data access object for FuelTrackAppDatabase
+ * The repository writes through the "Backup-tracked writes" below, which also queue the vehicle
+ * in {@link FuelTrackAppDatabase#CHANGE_LOG_TABLE} in the same transaction.
+ * Deleting a vehicle deletes its fuel log and rollup rows through the foreign keys.
  */
 @Dao
 public interface VehicleDAO {
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    /** Upsert, not REPLACE: a REPLACE deletes the old row first, and the cascade would take its log with it. */
+    @Upsert
     void insertVehicle(Vehicle... vehicle);
 
     @Update(onConflict = OnConflictStrategy.REPLACE)
@@ -59,5 +67,138 @@ public interface VehicleDAO {
     @Query("SELECT * FROM " + FuelTrackAppDatabase.VEHICLE_TABLE + " WHERE VehicleID = :vehicleID LIMIT 1")
     Vehicle findById(long vehicleID);
 
+    /** The user's vehicle with backup key {@code syncKey}, off the unique (UserId, SyncId) index. */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.VEHICLE_TABLE + " WHERE UserId = :userId AND SyncId = :syncKey LIMIT 1")
+    Vehicle findBySyncKey(int userId, String syncKey);
 
+    /**
+     * Every vehicle of one user with its lifetime totals, in one query. Everything comes from the
+     * per-car rollup row, so the cost is one row per vehicle however long the logs are.
+     */
+    String FLEET_SUMMARY_QUERY =
+            "SELECT v.VehicleID AS vehicleId, v.Name AS name, v.Make AS make, v.Model AS model, v.Year AS year, " +
+            "COALESCE(s.fillUpsCount, 0) AS fillUpsCount, COALESCE(s.totalCostCents, 0) AS totalCostCents, " +
+            "COALESCE(s.priceTenthCentsSum, 0) AS priceTenthCentsSum, " +
+            "s.minOdometer AS minOdometer, s.maxOdometer AS maxOdometer, " +
+            "s.lastFillUpMillis AS lastFillUpMillis, " +
+            "COALESCE(s.measuredDistance, 0) AS measuredDistance, " +
+            "COALESCE(s.measuredGallonsMilli, 0) AS measuredGallonsMilli " +
+            "FROM " + FuelTrackAppDatabase.VEHICLE_TABLE + " v " +
+            "LEFT JOIN " + FuelTrackAppDatabase.VEHICLE_STATS_TABLE + " s ON s.CarID = v.VehicleID " +
+            "WHERE v.UserId = :userId";
+
+    @Query(FLEET_SUMMARY_QUERY)
+    LiveData<List<VehicleSummary>> getFleetSummaries(int userId);
+
+    /** Non-observable form of {@link #getFleetSummaries(int)}, for tests. */
+    @Query(FLEET_SUMMARY_QUERY)
+    List<VehicleSummary> getFleetSummariesNow(int userId);
+
+    // ==== Backup-tracked writes ====
+
+    /** Inserts the row, or updates it if the id exists; returns the new rowid, or -1 after an update. */
+    @Upsert
+    long upsertVehicle(Vehicle vehicle);
+
+    /** Queues vehicle {@code id} for the backup; see {@link ChangeLog#RECORD_CHANGE}. */
+    @Query(ChangeLog.RECORD_CHANGE)
+    void recordChange(int type, long id, String syncKey, int vehicleId, long changedAt);
+
+    @Query("SELECT SyncId FROM " + FuelTrackAppDatabase.VEHICLE_TABLE + " WHERE VehicleID = :vehicleId")
+    String getSyncKey(int vehicleId);
+
+    @Query("UPDATE " + FuelTrackAppDatabase.VEHICLE_TABLE + " SET SyncId = :syncKey WHERE VehicleID = :vehicleId")
+    void setSyncKey(int vehicleId, String syncKey);
+
+    /** Queues the vehicle under its backup key, giving it one first if it has none. */
+    default void recordVehicleChange(int vehicleId) {
+        String key = getSyncKey(vehicleId);
+        if (key == null) {
+            key = ChangeLog.newSyncKey();
+            setSyncKey(vehicleId, key);
+        }
+        recordChange(ChangeLog.VEHICLE, vehicleId, key, vehicleId, System.currentTimeMillis());
+    }
+
+    @Transaction
+    default void insertRecord(Vehicle vehicle) {
+        if (vehicle.getSyncId() == null) vehicle.setSyncId(ChangeLog.newSyncKey());
+        long rowId = upsertVehicle(vehicle);
+        recordVehicleChange(rowId > 0 ? (int) rowId : vehicle.getVehicleID());
+    }
+
+    /** The row keeps its backup key, whatever the caller's copy carries. */
+    @Transaction
+    default void updateRecord(Vehicle vehicle) {
+        vehicle.setSyncId(getSyncKey(vehicle.getVehicleID()));
+        updateVehicle(vehicle);
+        recordVehicleChange(vehicle.getVehicleID());
+    }
+
+    @Transaction
+    default void updateName(int vehicleID, String newName) {
+        updateVehicleName(vehicleID, newName);
+        recordVehicleChange(vehicleID);
+    }
+
+    @Transaction
+    default void updateMake(int vehicleID, String newMake) {
+        updateVehicleMake(vehicleID, newMake);
+        recordVehicleChange(vehicleID);
+    }
+
+    @Transaction
+    default void updateModel(int vehicleID, String newModel) {
+        updateVehicleModel(vehicleID, newModel);
+        recordVehicleChange(vehicleID);
+    }
+
+    @Transaction
+    default void updateYear(int vehicleID, int newYear) {
+        updateVehicleYear(vehicleID, newYear);
+        recordVehicleChange(vehicleID);
+    }
+
+    /** Queues every fuel entry of the vehicle for the backup; see {@link ChangeLog#RECORD_ENTRIES_OF_VEHICLE}. */
+    @Query(ChangeLog.RECORD_ENTRIES_OF_VEHICLE)
+    void recordEntriesOfVehicle(int vehicleId, long changedAt);
+
+    /**
+     * The outbox rows are written first: they take the owner from the rows that are about to go,
+     * and cover the entries the cascade deletes along with the vehicle.
+     */
+    @Transaction
+    default void deleteRecordById(int vehicleID) {
+        recordEntriesOfVehicle(vehicleID, System.currentTimeMillis());
+        recordVehicleChange(vehicleID);
+        deleteVehicleById(vehicleID);
+    }
+
+    @Query("SELECT VehicleID FROM " + FuelTrackAppDatabase.VEHICLE_TABLE + " WHERE Name = :name")
+    List<Integer> getVehicleIdsByName(String name);
+
+    @Transaction
+    default void deleteRecordsByName(String name) {
+        long now = System.currentTimeMillis();
+        for (int id : getVehicleIdsByName(name)) {
+            recordEntriesOfVehicle(id, now);
+            recordVehicleChange(id);
+        }
+        deleteByVehicleName(name);
+    }
+
+    /** Current rows of the given vehicles, for building one backup batch. Missing ids are skipped. */
+    @Query("SELECT * FROM " + FuelTrackAppDatabase.VEHICLE_TABLE + " WHERE VehicleID IN (:ids)")
+    List<Vehicle> getVehiclesByIds(List<Integer> ids);
+
+    // ==== Orphan purge ====
+
+    /**
+     * Deletes up to {@code limit} vehicles whose owner no longer exists, left over from before the
+     * foreign keys. Run once their fuel logs are gone, so the cascade has nothing large to delete.
+     */
+    @Query("DELETE FROM " + FuelTrackAppDatabase.VEHICLE_TABLE + " WHERE VehicleID IN (SELECT VehicleID FROM " +
+            FuelTrackAppDatabase.VEHICLE_TABLE + " WHERE UserId NOT IN (SELECT id FROM " +
+            FuelTrackAppDatabase.USER_TABLE + ") LIMIT :limit)")
+    int deleteOrphanedVehicles(int limit);
 }
@@ -0,0 +1,122 @@
+package com.stanissudo.jycs_crafters.database.entities;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+
+import java.util.UUID;
+
+/**
+ * Outbox row: "this vehicle or fuel entry changed and the backup has not seen it yet". Written by
+ * the DAO wrappers in the same transaction as the change, so a crash can never lose one without
+ * the other.
+ * <p>
+ * There is at most one row per entity. A later change replaces the row and gets a new
+ * {@link #Seq}, so ten edits of one entry before a sync go out as one write carrying the entry's
+ * state at push time. Deletes need no payload: an entity missing at push time is sent as a
+ * tombstone. A deleted user's pending rows are deleted with them.
+ * <p>
+ * {@link #SyncKey} is the entity's {@code SyncId}, copied when the change is recorded, so a
+ * tombstone still knows which backup document to delete after its row is gone.
+ */
+@Entity(tableName = FuelTrackAppDatabase.CHANGE_LOG_TABLE,
+        foreignKeys = @ForeignKey(entity = User.class, parentColumns = "id", childColumns = "UserId",
+                onDelete = ForeignKey.CASCADE),
+        indices = {
+                @Index(value = {"EntityType", "EntityId"}, unique = true),
+                @Index(value = {"UserId", "Seq"}),
+                @Index(value = {"UserId", "EntityType", "SyncKey"})
+        })
+public class ChangeLog {
+    public static final int VEHICLE = 1;
+    public static final int FUEL_ENTRY = 2;
+
+    /**
+     * Records a change to entity {@code :id} of type {@code :type}, backup key {@code :syncKey},
+     * that belongs to vehicle {@code :vehicleId}, owned by that vehicle's user. Nothing is recorded
+     * for entries whose vehicle does not exist, since they have no owner to back up to. Shared by
+     * the DAOs.
+     */
+    public static final String RECORD_CHANGE =
+            "INSERT OR REPLACE INTO " + FuelTrackAppDatabase.CHANGE_LOG_TABLE +
+            " (EntityType, EntityId, SyncKey, UserId, ChangedAt) " +
+            "SELECT :type, :id, :syncKey, UserId, :changedAt FROM " + FuelTrackAppDatabase.VEHICLE_TABLE +
+            " WHERE VehicleID = :vehicleId";
+
+    /**
+     * Records a change to every fuel entry of vehicle {@code :vehicleId}. Run before the vehicle is
+     * deleted: the cascade removes its entries without going through the DAO wrappers, so this is
+     * what sends their tombstones to the backup. Entries without a key were never backed up.
+     */
+    public static final String RECORD_ENTRIES_OF_VEHICLE =
+            "INSERT OR REPLACE INTO " + FuelTrackAppDatabase.CHANGE_LOG_TABLE +
+            " (EntityType, EntityId, SyncKey, UserId, ChangedAt) " +
+            "SELECT " + FUEL_ENTRY + ", f.LogID, f.SyncId, v.UserId, :changedAt FROM " + FuelTrackAppDatabase.FUEL_LOG_TABLE +
+            " f JOIN " + FuelTrackAppDatabase.VEHICLE_TABLE + " v ON v.VehicleID = f.CarID " +
+            "WHERE f.CarID = :vehicleId AND f.SyncId IS NOT NULL";
+
+    /** A fresh backup key for a row that has none; random, so installs never hand out the same one. */
+    public static String newSyncKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    /** Increases with every recorded change (AUTOINCREMENT never reuses a value). */
+    @PrimaryKey(autoGenerate = true)
+    private long Seq;
+    private int EntityType;
+    private long EntityId;
+    private String SyncKey;
+    private int UserId;
+    private long ChangedAt;
+
+    public long getSeq() {
+        return Seq;
+    }
+
+    public void setSeq(long seq) {
+        Seq = seq;
+    }
+
+    public int getEntityType() {
+        return EntityType;
+    }
+
+    public void setEntityType(int entityType) {
+        EntityType = entityType;
+    }
+
+    public long getEntityId() {
+        return EntityId;
+    }
+
+    public void setEntityId(long entityId) {
+        EntityId = entityId;
+    }
+
+    public String getSyncKey() {
+        return SyncKey;
+    }
+
+    public void setSyncKey(String syncKey) {
+        SyncKey = syncKey;
+    }
+
+    public int getUserId() {
+        return UserId;
+    }
+
+    public void setUserId(int userId) {
+        UserId = userId;
+    }
+
+    public long getChangedAt() {
+        return ChangedAt;
+    }
+
+    public void setChangedAt(long changedAt) {
+        ChangedAt = changedAt;
+    }
+}
@@ -2,10 +2,15 @@ package com.stanissudo.jycs_crafters.database.entities;
 
 
 import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+import com.stanissudo.jycs_crafters.utils.FixedPoint;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
@@ -14,51 +19,79 @@ import java.util.Objects;
  * * @author Stan Permiakov
  * * created: 8/12/2025
  * * @project JYCS-Crafters
+ * *
+ * Every read of the log is scoped to one car, either in time order (log screen, neighbouring
+ * odometer checks) or by odometer (distance stats), so both orders get a composite index.
+ * <p>
+ * {@code logDate} is held as UTC epoch milliseconds, exactly as stored, so mapping a row never
+ * goes through a type converter; {@link #getLogDate()} converts to local time on demand.
+ * <p>
+ * {@code DistanceSincePrev} and {@code MpgMilli} compare the entry with the car's previous one in
+ * {@code (logDate, LogID)} order. The DAO's write wrappers refresh them on the rows a write
+ * affects (the entry and its old and new successors), so reading them never needs a self-join.
+ * <p>
+ * Deleting the vehicle deletes its log (ON DELETE CASCADE); the (CarID, logDate) index serves the
+ * cascade's lookup.
+ * <p>
+ * {@code SyncId} names the entry in the cloud backup. Unlike {@code LogID} it is the same on every
+ * install, and it never changes once the DAO has assigned it.
  */
-@Entity(tableName = FuelTrackAppDatabase.FUEL_LOG_TABLE)
+@Entity(tableName = FuelTrackAppDatabase.FUEL_LOG_TABLE,
+        foreignKeys = @ForeignKey(entity = Vehicle.class, parentColumns = "VehicleID", childColumns = "CarID",
+                onDelete = ForeignKey.CASCADE),
+        indices = {
+                @Index(value = {"CarID", "logDate"}),
+                @Index(value = {"CarID", "Odometer"}),
+                @Index("SyncId") // pulls find entries by backup key
+        })
 public class FuelEntry {
     @PrimaryKey(autoGenerate = true)
     private long LogID;
     @NonNull
     private Integer CarID = -1;
-    @NonNull
-    private LocalDateTime logDate = LocalDateTime.now();
+    @ColumnInfo(name = "logDate")
+    private long logDateMillis = System.currentTimeMillis();
     private Integer Odometer;
-    private Double Gallons;
-    private Double PricePerGallon;
-    private Double TotalCost;
+    // Fixed-point columns, see FixedPoint: exact sums and no wrapper objects per row.
+    private long GallonsMilli;
+    private long PriceTenthCents;
+    private long TotalCostCents;
+    // Derived from the previous entry of the same car, kept by FuelEntryDAO; null for a car's first entry.
+    private Integer DistanceSincePrev;
+    private Long MpgMilli;
+    private String SyncId;
 
     public FuelEntry() {
     }
 
     public FuelEntry(int carID, int odometer, double gallons, double pricePerGallon) {
         CarID = carID;
-        logDate = LocalDateTime.now();
         Odometer = odometer;
-        Gallons = gallons;
-        TotalCost = gallons * pricePerGallon;
-        PricePerGallon = pricePerGallon;
+        setGallons(gallons);
+        setPricePerGallon(pricePerGallon);
+        TotalCostCents = FixedPoint.totalCents(GallonsMilli, PriceTenthCents);
     }
 
     public FuelEntry(int carID, int odometer, double pricePerGallon, double gallons, @NonNull LocalDateTime logDate) {
         CarID = carID;
-        PricePerGallon = pricePerGallon;
-        TotalCost = gallons * pricePerGallon;
-        Gallons = gallons;
+        setPricePerGallon(pricePerGallon);
+        setGallons(gallons);
+        TotalCostCents = FixedPoint.totalCents(GallonsMilli, PriceTenthCents);
         Odometer = odometer;
-        this.logDate = logDate;
+        setLogDate(logDate);
     }
 
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         FuelEntry fuelEntry = (FuelEntry) o;
-        return LogID == fuelEntry.LogID && CarID == fuelEntry.CarID && Odometer == fuelEntry.Odometer && Double.compare(Gallons, fuelEntry.Gallons) == 0 && Double.compare(PricePerGallon, fuelEntry.PricePerGallon) == 0 && Double.compare(TotalCost, fuelEntry.TotalCost) == 0 && Objects.equals(logDate, fuelEntry.logDate);
+        // Boxed columns: compare by value, not identity, or every reloaded row looks changed.
+        return LogID == fuelEntry.LogID && Objects.equals(CarID, fuelEntry.CarID) && Objects.equals(Odometer, fuelEntry.Odometer) && GallonsMilli == fuelEntry.GallonsMilli && PriceTenthCents == fuelEntry.PriceTenthCents && TotalCostCents == fuelEntry.TotalCostCents && logDateMillis == fuelEntry.logDateMillis && Objects.equals(DistanceSincePrev, fuelEntry.DistanceSincePrev) && Objects.equals(MpgMilli, fuelEntry.MpgMilli);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(LogID, CarID, logDate, Odometer, Gallons, PricePerGallon, TotalCost);
+        return Objects.hash(LogID, CarID, logDateMillis, Odometer, GallonsMilli, PriceTenthCents, TotalCostCents, DistanceSincePrev, MpgMilli);
     }
 
     @NonNull
@@ -67,11 +100,13 @@ public class FuelEntry {
         return "FuelEntry{" +
                 "LogID=" + LogID +
                 ", CarID=" + CarID +
-                ", logDate=" + logDate +
+                ", logDateMillis=" + logDateMillis +
                 ", Odometer=" + Odometer +
-                ", Gallons=" + Gallons +
-                ", PricePerGallon=" + PricePerGallon +
-                ", TotalCost=" + TotalCost + '\'' +
+                ", GallonsMilli=" + GallonsMilli +
+                ", PriceTenthCents=" + PriceTenthCents +
+                ", TotalCostCents=" + TotalCostCents +
+                ", DistanceSincePrev=" + DistanceSincePrev +
+                ", MpgMilli=" + MpgMilli +
                 '}';
     }
 
@@ -92,13 +127,30 @@ public class FuelEntry {
         CarID = carID;
     }
 
+    public String getSyncId() {
+        return SyncId;
+    }
+
+    public void setSyncId(String syncId) {
+        SyncId = syncId;
+    }
+
+    public long getLogDateMillis() {
+        return logDateMillis;
+    }
+
+    public void setLogDateMillis(long logDateMillis) {
+        this.logDateMillis = logDateMillis;
+    }
+
+    /** Log time in the device's zone; allocates, so prefer {@link #getLogDateMillis()} in loops. */
     @NonNull
     public LocalDateTime getLogDate() {
-        return logDate;
+        return EpochTime.toLocalDateTime(logDateMillis);
     }
 
     public void setLogDate(@NonNull LocalDateTime logDate) {
-        this.logDate = logDate;
+        this.logDateMillis = EpochTime.toEpochMillis(logDate);
     }
 
     public Integer getOdometer() {
@@ -109,28 +161,99 @@ public class FuelEntry {
         Odometer = odometer;
     }
 
-    public Double getGallons() {
-        return Gallons;
+    public long getGallonsMilli() {
+        return GallonsMilli;
+    }
+
+    public void setGallonsMilli(long gallonsMilli) {
+        GallonsMilli = gallonsMilli;
+    }
+
+    public long getPriceTenthCents() {
+        return PriceTenthCents;
+    }
+
+    public void setPriceTenthCents(long priceTenthCents) {
+        PriceTenthCents = priceTenthCents;
+    }
+
+    public long getTotalCostCents() {
+        return TotalCostCents;
+    }
+
+    public void setTotalCostCents(long totalCostCents) {
+        TotalCostCents = totalCostCents;
+    }
+
+    public Integer getDistanceSincePrev() {
+        return DistanceSincePrev;
+    }
+
+    public void setDistanceSincePrev(Integer distanceSincePrev) {
+        DistanceSincePrev = distanceSincePrev;
+    }
+
+    public Long getMpgMilli() {
+        return MpgMilli;
+    }
+
+    public void setMpgMilli(Long mpgMilli) {
+        MpgMilli = mpgMilli;
+    }
+
+    /**
+     * Recomputes the derived economy columns against the previous entry's odometer
+     * ({@code null} if there is none).
+     *
+     * @return whether either column changed
+     */
+    public boolean applyEconomy(Integer prevOdometer) {
+        Integer distance = null;
+        Long mpg = null;
+        if (prevOdometer != null && Odometer != null) {
+            distance = Odometer - prevOdometer;
+            if (GallonsMilli > 0) mpg = FixedPoint.mpgMilli(distance, GallonsMilli);
+        }
+        boolean changed = !Objects.equals(distance, DistanceSincePrev) || !Objects.equals(mpg, MpgMilli);
+        DistanceSincePrev = distance;
+        MpgMilli = mpg;
+        return changed;
+    }
+
+    /** Distance this entry adds to its car's measured totals: only entries with an MPG figure count. */
+    public long measuredDistance() {
+        return MpgMilli == null || DistanceSincePrev == null ? 0 : DistanceSincePrev;
+    }
+
+    /** Fuel this entry adds to its car's measured totals; see {@link #measuredDistance()}. */
+    public long measuredGallonsMilli() {
+        return MpgMilli == null ? 0 : GallonsMilli;
+    }
+
+    // ---- Decimal views, for display and callers that still think in dollars/gallons ----
+
+    public double getGallons() {
+        return FixedPoint.toDouble(GallonsMilli, FixedPoint.GALLONS_SCALE);
     }
 
-    public void setGallons(Double gallons) {
-        Gallons = gallons;
+    public void setGallons(double gallons) {
+        GallonsMilli = FixedPoint.fromDouble(gallons, FixedPoint.GALLONS_SCALE);
     }
 
-    public Double getPricePerGallon() {
-        return PricePerGallon;
+    public double getPricePerGallon() {
+        return FixedPoint.toDouble(PriceTenthCents, FixedPoint.PRICE_SCALE);
     }
 
-    public void setPricePerGallon(Double pricePerGallon) {
-        PricePerGallon = pricePerGallon;
+    public void setPricePerGallon(double pricePerGallon) {
+        PriceTenthCents = FixedPoint.fromDouble(pricePerGallon, FixedPoint.PRICE_SCALE);
     }
 
-    public Double getTotalCost() {
-        return TotalCost;
+    public double getTotalCost() {
+        return FixedPoint.toDouble(TotalCostCents, FixedPoint.COST_SCALE);
     }
 
-    public void setTotalCost(Double totalCost) {
-        TotalCost = totalCost;
+    public void setTotalCost(double totalCost) {
+        TotalCostCents = FixedPoint.fromDouble(totalCost, FixedPoint.COST_SCALE);
     }
 
 }
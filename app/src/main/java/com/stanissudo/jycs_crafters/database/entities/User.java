@@ -1,6 +1,7 @@
 package com.stanissudo.jycs_crafters.database.entities;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.annotation.NonNull;
 
@@ -10,8 +11,10 @@ import java.util.Objects;
 
 /**
  * Represents a user account stored in the Room database.
+ * Usernames are unique; the admin list pages through them in username order on that index.
  */
-@Entity(tableName = FuelTrackAppDatabase.USER_TABLE)
+@Entity(tableName = FuelTrackAppDatabase.USER_TABLE,
+        indices = {@Index(value = "username", unique = true)})
 public class User {
 
     @PrimaryKey(autoGenerate = true)
@@ -0,0 +1,48 @@
+package com.stanissudo.jycs_crafters.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.PrimaryKey;
+
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+
+/**
+ * Full-text index over {@link User}'s username and display name for the admin search. It stores
+ * no copy of the text: rows are {@link User} rows by rowid, and triggers Room installs on
+ * {@link FuelTrackAppDatabase#USER_TABLE} keep the index in step with every write.
+ */
+@Fts4(contentEntity = User.class)
+@Entity(tableName = FuelTrackAppDatabase.USER_FTS_TABLE)
+public class UserFts {
+
+    /** Same value as {@link User#getId()}. */
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private int rowid;
+
+    @NonNull
+    private String username;
+
+    private String displayName;
+
+    public UserFts(int rowid, @NonNull String username, String displayName) {
+        this.rowid = rowid;
+        this.username = username;
+        this.displayName = displayName;
+    }
+
+    public int getRowid() {
+        return rowid;
+    }
+
+    @NonNull
+    public String getUsername() {
+        return username;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -2,6 +2,8 @@ package com.stanissudo.jycs_crafters.database.entities;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
@@ -14,9 +16,17 @@ import java.util.Objects;
  * @project JYCS-Crafters
  * file: Vehicle.java
  * @since 1.0.0
- * Explanation: Vehicle entity for FuelTrackAppDatabase
+ * Explanation: Vehicle entity for FuelTrackAppDatabase. Deleting the owner deletes their
+ * vehicles, and with them the fuel logs and rollup rows (ON DELETE CASCADE).
+ * SyncId names the vehicle in its owner's cloud backup, the same on every install.
  */
-@Entity(tableName = FuelTrackAppDatabase.VEHICLE_TABLE)
+@Entity(tableName = FuelTrackAppDatabase.VEHICLE_TABLE,
+        foreignKeys = @ForeignKey(entity = User.class, parentColumns = "id", childColumns = "UserId",
+                onDelete = ForeignKey.CASCADE),
+        indices = {
+                @Index("UserId"), // garage lists and the fleet overview filter by owner
+                @Index(value = {"UserId", "SyncId"}, unique = true) // pulls find vehicles by backup key
+        })
 public class Vehicle {
     @PrimaryKey(autoGenerate = true)
     private int VehicleID;
@@ -26,6 +36,7 @@ public class Vehicle {
     private String Make;
     private String Model;
     private int Year;
+    private String SyncId;
 
     public Vehicle() {
     }
@@ -80,6 +91,14 @@ public class Vehicle {
         VehicleID = vehicleID;
     }
 
+    public String getSyncId() {
+        return SyncId;
+    }
+
+    public void setSyncId(String syncId) {
+        SyncId = syncId;
+    }
+
     public String getName() {
         return Name;
     }
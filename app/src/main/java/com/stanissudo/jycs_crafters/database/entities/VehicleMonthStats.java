@@ -0,0 +1,114 @@
+package com.stanissudo.jycs_crafters.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+
+/**
+ * Totals for one car in one local calendar month ({@code month} is
+ * {@link com.stanissudo.jycs_crafters.utils.EpochTime#epochMonth}, months since 1970-01). Kept in
+ * step with the log by the same DAO wrappers as {@link VehicleStats}; a month or year report reads
+ * at most a dozen of these rows however many fill-ups they cover. Rows go with their vehicle.
+ */
+@Entity(tableName = FuelTrackAppDatabase.VEHICLE_MONTH_STATS_TABLE, primaryKeys = {"CarID", "month"},
+        foreignKeys = @ForeignKey(entity = Vehicle.class, parentColumns = "VehicleID", childColumns = "CarID",
+                onDelete = ForeignKey.CASCADE))
+public class VehicleMonthStats {
+    private int CarID;
+    private int month;
+    private int fillUpsCount;
+    private long totalCostCents;
+    private long priceTenthCentsSum;
+    private long gallonsMilli;
+    private Integer minOdometer;
+    private Integer maxOdometer;
+
+    public VehicleMonthStats() {
+    }
+
+    public VehicleMonthStats(int carID, int month) {
+        CarID = carID;
+        this.month = month;
+    }
+
+    public int getCarID() {
+        return CarID;
+    }
+
+    public void setCarID(int carID) {
+        CarID = carID;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public int getFillUpsCount() {
+        return fillUpsCount;
+    }
+
+    public void setFillUpsCount(int fillUpsCount) {
+        this.fillUpsCount = fillUpsCount;
+    }
+
+    public long getTotalCostCents() {
+        return totalCostCents;
+    }
+
+    public void setTotalCostCents(long totalCostCents) {
+        this.totalCostCents = totalCostCents;
+    }
+
+    public long getPriceTenthCentsSum() {
+        return priceTenthCentsSum;
+    }
+
+    public void setPriceTenthCentsSum(long priceTenthCentsSum) {
+        this.priceTenthCentsSum = priceTenthCentsSum;
+    }
+
+    public long getGallonsMilli() {
+        return gallonsMilli;
+    }
+
+    public void setGallonsMilli(long gallonsMilli) {
+        this.gallonsMilli = gallonsMilli;
+    }
+
+    public Integer getMinOdometer() {
+        return minOdometer;
+    }
+
+    public void setMinOdometer(Integer minOdometer) {
+        this.minOdometer = minOdometer;
+    }
+
+    public Integer getMaxOdometer() {
+        return maxOdometer;
+    }
+
+    public void setMaxOdometer(Integer maxOdometer) {
+        this.maxOdometer = maxOdometer;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "VehicleMonthStats{" +
+                "CarID=" + CarID +
+                ", month=" + month +
+                ", fillUpsCount=" + fillUpsCount +
+                ", totalCostCents=" + totalCostCents +
+                ", priceTenthCentsSum=" + priceTenthCentsSum +
+                ", gallonsMilli=" + gallonsMilli +
+                ", minOdometer=" + minOdometer +
+                ", maxOdometer=" + maxOdometer +
+                '}';
+    }
+}
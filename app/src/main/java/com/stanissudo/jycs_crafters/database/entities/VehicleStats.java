@@ -0,0 +1,130 @@
+package com.stanissudo.jycs_crafters.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.PrimaryKey;
+
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.utils.FixedPoint;
+
+/**
+ * Running totals for one car's fuel log. Rows are kept in step with {@link FuelEntry} writes by
+ * {@link com.stanissudo.jycs_crafters.database.FuelEntryDAO} inside the same transaction, so the
+ * stats screens read one row instead of aggregating the whole log. The row goes with its vehicle.
+ */
+@Entity(tableName = FuelTrackAppDatabase.VEHICLE_STATS_TABLE,
+        foreignKeys = @ForeignKey(entity = Vehicle.class, parentColumns = "VehicleID", childColumns = "CarID",
+                onDelete = ForeignKey.CASCADE))
+public class VehicleStats {
+    @PrimaryKey
+    private int CarID;
+    private int fillUpsCount;
+    /** Sum of TotalCostCents; an exact integer, so it never drifts. */
+    private long totalCostCents;
+    /** Sum of PriceTenthCents, for the average price per gallon. */
+    private long priceTenthCentsSum;
+    private Integer minOdometer;
+    private Integer maxOdometer;
+    /** Date of the newest entry, re-read from the (CarID, logDate) index like the odometer range. */
+    private Long lastFillUpMillis;
+    /** Sums of DistanceSincePrev and GallonsMilli over the entries that have an MPG figure. */
+    private long measuredDistance;
+    private long measuredGallonsMilli;
+
+    public int getCarID() {
+        return CarID;
+    }
+
+    public void setCarID(int carID) {
+        CarID = carID;
+    }
+
+    public int getFillUpsCount() {
+        return fillUpsCount;
+    }
+
+    public void setFillUpsCount(int fillUpsCount) {
+        this.fillUpsCount = fillUpsCount;
+    }
+
+    public long getTotalCostCents() {
+        return totalCostCents;
+    }
+
+    public void setTotalCostCents(long totalCostCents) {
+        this.totalCostCents = totalCostCents;
+    }
+
+    public long getPriceTenthCentsSum() {
+        return priceTenthCentsSum;
+    }
+
+    public void setPriceTenthCentsSum(long priceTenthCentsSum) {
+        this.priceTenthCentsSum = priceTenthCentsSum;
+    }
+
+    public double getTotalCost() {
+        return FixedPoint.toDouble(totalCostCents, FixedPoint.COST_SCALE);
+    }
+
+    public double getPricePerGallonSum() {
+        return FixedPoint.toDouble(priceTenthCentsSum, FixedPoint.PRICE_SCALE);
+    }
+
+    public Integer getMinOdometer() {
+        return minOdometer;
+    }
+
+    public void setMinOdometer(Integer minOdometer) {
+        this.minOdometer = minOdometer;
+    }
+
+    public Integer getMaxOdometer() {
+        return maxOdometer;
+    }
+
+    public void setMaxOdometer(Integer maxOdometer) {
+        this.maxOdometer = maxOdometer;
+    }
+
+    public Long getLastFillUpMillis() {
+        return lastFillUpMillis;
+    }
+
+    public void setLastFillUpMillis(Long lastFillUpMillis) {
+        this.lastFillUpMillis = lastFillUpMillis;
+    }
+
+    public long getMeasuredDistance() {
+        return measuredDistance;
+    }
+
+    public void setMeasuredDistance(long measuredDistance) {
+        this.measuredDistance = measuredDistance;
+    }
+
+    public long getMeasuredGallonsMilli() {
+        return measuredGallonsMilli;
+    }
+
+    public void setMeasuredGallonsMilli(long measuredGallonsMilli) {
+        this.measuredGallonsMilli = measuredGallonsMilli;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "VehicleStats{" +
+                "CarID=" + CarID +
+                ", fillUpsCount=" + fillUpsCount +
+                ", totalCostCents=" + totalCostCents +
+                ", priceTenthCentsSum=" + priceTenthCentsSum +
+                ", minOdometer=" + minOdometer +
+                ", maxOdometer=" + maxOdometer +
+                ", lastFillUpMillis=" + lastFillUpMillis +
+                ", measuredDistance=" + measuredDistance +
+                ", measuredGallonsMilli=" + measuredGallonsMilli +
+                '}';
+    }
+}
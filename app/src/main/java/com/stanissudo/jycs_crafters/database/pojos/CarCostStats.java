@@ -1,8 +1,52 @@
 package com.stanissudo.jycs_crafters.database.pojos;
 
+import androidx.annotation.Nullable;
+
+import com.stanissudo.jycs_crafters.database.entities.VehicleMonthStats;
+import com.stanissudo.jycs_crafters.utils.FixedPoint;
+
+import java.util.List;
+
+/**
+ * Cost rollup for one car, in the fuel log's fixed-point units (see {@link FixedPoint}).
+ * Averages are rounded to the nearest unit by the query.
+ */
 public class CarCostStats {
     public int fillUpsCount;
-    public double totalCost;
-    public double avgPricePerGallon;
-    public double avgCostPerFillUp;
-}
\ No newline at end of file
+    public long totalCostCents;
+    public long avgPriceTenthCents;
+    public long avgCostPerFillUpCents;
+
+    /**
+     * Sums month buckets from {@code fromMonth} on, rounding averages like the rollup query.
+     * Returns {@code null} when the period has no fill-ups, as the query does for an empty car.
+     */
+    @Nullable
+    public static CarCostStats fromBuckets(List<VehicleMonthStats> buckets, int fromMonth) {
+        CarCostStats s = new CarCostStats();
+        long priceSum = 0;
+        for (VehicleMonthStats b : buckets) {
+            if (b.getMonth() < fromMonth) continue;
+            s.fillUpsCount += b.getFillUpsCount();
+            s.totalCostCents += b.getTotalCostCents();
+            priceSum += b.getPriceTenthCentsSum();
+        }
+        if (s.fillUpsCount == 0) return null;
+        long n = s.fillUpsCount;
+        s.avgPriceTenthCents = (2 * priceSum + n) / (2 * n);
+        s.avgCostPerFillUpCents = (2 * s.totalCostCents + n) / (2 * n);
+        return s;
+    }
+
+    public String formatTotalCost() {
+        return FixedPoint.fixed2(totalCostCents, FixedPoint.COST_SCALE);
+    }
+
+    public String formatAvgPricePerGallon() {
+        return FixedPoint.fixed2(avgPriceTenthCents, FixedPoint.PRICE_SCALE);
+    }
+
+    public String formatAvgCostPerFillUp() {
+        return FixedPoint.fixed2(avgCostPerFillUpCents, FixedPoint.COST_SCALE);
+    }
+}
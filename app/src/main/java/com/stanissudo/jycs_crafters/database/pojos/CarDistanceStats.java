@@ -1,7 +1,46 @@
 package com.stanissudo.jycs_crafters.database.pojos;
 
+import androidx.annotation.Nullable;
+
+import com.stanissudo.jycs_crafters.database.entities.VehicleMonthStats;
+
+import java.util.List;
+
 public class CarDistanceStats {
     public int lastOdometer;
     public int totalDistance;
     public double avgDistancePerFillUp;
-}
\ No newline at end of file
+
+    /**
+     * Distance covered from {@code fromMonth} on. A bucket before {@code fromMonth} (see
+     * {@code FuelEntryDAO.getMonthStatsInRange}) supplies the starting odometer, so the drive up to
+     * the period's first fill-up counts; without one the period starts at its own lowest reading.
+     * Returns {@code null} when the period has no odometer readings.
+     */
+    @Nullable
+    public static CarDistanceStats fromBuckets(List<VehicleMonthStats> buckets, int fromMonth) {
+        Integer start = null;
+        Integer min = null;
+        Integer max = null;
+        int fillUps = 0;
+        for (VehicleMonthStats b : buckets) {
+            if (b.getMonth() < fromMonth) {
+                start = b.getMaxOdometer();
+                continue;
+            }
+            fillUps += b.getFillUpsCount();
+            if (b.getMinOdometer() != null && (min == null || b.getMinOdometer() < min)) min = b.getMinOdometer();
+            if (b.getMaxOdometer() != null && (max == null || b.getMaxOdometer() > max)) max = b.getMaxOdometer();
+        }
+        if (max == null) return null;
+        int intervals = start != null ? fillUps : fillUps - 1;
+        if (start == null) start = min;
+
+        CarDistanceStats s = new CarDistanceStats();
+        s.lastOdometer = max;
+        s.totalDistance = max - start;
+        // Integer division, like the lifetime query.
+        s.avgDistancePerFillUp = intervals > 0 ? s.totalDistance / intervals : 0;
+        return s;
+    }
+}
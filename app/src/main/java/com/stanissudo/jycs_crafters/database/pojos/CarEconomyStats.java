@@ -0,0 +1,23 @@
+package com.stanissudo.jycs_crafters.database.pojos;
+
+import androidx.annotation.Nullable;
+
+import com.stanissudo.jycs_crafters.utils.FixedPoint;
+
+public class CarEconomyStats {
+    /** Fill-ups with an MPG figure, i.e. every one but the car's first. */
+    public int measuredFillUps;
+    public long measuredDistance;
+    public long measuredGallonsMilli;
+    @Nullable public Long bestMpgMilli;
+    @Nullable public Long worstMpgMilli;
+    /** MPG of the newest fill-up; {@code null} if it has none. */
+    @Nullable public Long lastMpgMilli;
+
+    /** Distance over fuel across the measured fill-ups, in milli-MPG; {@code null} before the second fill-up. */
+    @Nullable
+    public Long averageMpgMilli() {
+        if (measuredGallonsMilli <= 0) return null;
+        return FixedPoint.mpgMilli(measuredDistance, measuredGallonsMilli);
+    }
+}
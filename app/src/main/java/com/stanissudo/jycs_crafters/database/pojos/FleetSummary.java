@@ -0,0 +1,56 @@
+package com.stanissudo.jycs_crafters.database.pojos;
+
+import androidx.annotation.Nullable;
+
+import com.stanissudo.jycs_crafters.database.FleetSort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One user's {@link VehicleSummary} rows as loaded by a single query, indexed by vehicle id.
+ * Switching the selected car is a map lookup here; sorting copies the list, not the rows.
+ */
+public final class FleetSummary {
+    public static final FleetSummary EMPTY = new FleetSummary(Collections.emptyList());
+
+    private final List<VehicleSummary> rows;
+    private final Map<Integer, VehicleSummary> byId;
+
+    public FleetSummary(List<VehicleSummary> rows) {
+        this.rows = Collections.unmodifiableList(new ArrayList<>(rows));
+        this.byId = new HashMap<>(rows.size() * 2);
+        for (VehicleSummary s : rows) byId.put(s.vehicleId, s);
+    }
+
+    @Nullable
+    public VehicleSummary get(int vehicleId) {
+        return byId.get(vehicleId);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /** Rows ordered by {@code sort}; see {@link FleetSort#comparator(boolean)}. */
+    public List<VehicleSummary> sorted(FleetSort sort, boolean reversed) {
+        List<VehicleSummary> copy = new ArrayList<>(rows);
+        copy.sort(sort.comparator(reversed));
+        return copy;
+    }
+
+    @Nullable
+    public CarCostStats costStats(int vehicleId) {
+        VehicleSummary s = byId.get(vehicleId);
+        return s == null ? null : s.toCostStats();
+    }
+
+    @Nullable
+    public CarDistanceStats distanceStats(int vehicleId) {
+        VehicleSummary s = byId.get(vehicleId);
+        return s == null ? null : s.toDistanceStats();
+    }
+}
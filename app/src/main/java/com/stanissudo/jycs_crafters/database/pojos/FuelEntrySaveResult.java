@@ -0,0 +1,32 @@
+package com.stanissudo.jycs_crafters.database.pojos;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Outcome of {@link com.stanissudo.jycs_crafters.database.FuelEntryDAO#validateAndSave}: either the
+ * entry was written, or its odometer did not fit between the neighbouring entries of the same car,
+ * whose readings are returned so the UI can say what range is allowed.
+ */
+public class FuelEntrySaveResult {
+    public final boolean saved;
+    /** Odometer of the closest earlier entry, or null if there is none. */
+    @Nullable
+    public final Integer prev;
+    /** Odometer of the closest later entry, or null if there is none. */
+    @Nullable
+    public final Integer next;
+
+    private FuelEntrySaveResult(boolean saved, @Nullable Integer prev, @Nullable Integer next) {
+        this.saved = saved;
+        this.prev = prev;
+        this.next = next;
+    }
+
+    public static FuelEntrySaveResult saved(@Nullable Integer prev, @Nullable Integer next) {
+        return new FuelEntrySaveResult(true, prev, next);
+    }
+
+    public static FuelEntrySaveResult conflict(@Nullable Integer prev, @Nullable Integer next) {
+        return new FuelEntrySaveResult(false, prev, next);
+    }
+}
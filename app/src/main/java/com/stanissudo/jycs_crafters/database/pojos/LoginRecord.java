@@ -0,0 +1,21 @@
+package com.stanissudo.jycs_crafters.database.pojos;
+
+/**
+ * The columns a login needs, read in one indexed lookup by username: who the user is, the stored
+ * password (hash or legacy plaintext) to verify against, and whether they may sign in and as what.
+ */
+public class LoginRecord {
+    public int id;
+    public String username;
+    public String password;
+    public boolean isAdmin;
+    public boolean isActive;
+
+    public LoginRecord(int id, String username, String password, boolean isAdmin, boolean isActive) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.isAdmin = isAdmin;
+        this.isActive = isActive;
+    }
+}
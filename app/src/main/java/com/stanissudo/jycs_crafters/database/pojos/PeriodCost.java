@@ -0,0 +1,63 @@
+package com.stanissudo.jycs_crafters.database.pojos;
+
+import androidx.annotation.NonNull;
+
+import com.stanissudo.jycs_crafters.database.entities.VehicleMonthStats;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One row of a car's cost breakdown: a calendar month, or, for history older than the recent
+ * months, a calendar year. Built from the month buckets, so the breakdown reads one row per month
+ * with fill-ups however long the log is.
+ */
+public class PeriodCost {
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("MMM yyyy", Locale.US);
+
+    /** First month bucket the row covers (see {@code EpochTime.epochMonth}). */
+    public final int firstMonth;
+    /** Whether the row sums a calendar year rather than a single month. */
+    public final boolean year;
+    @NonNull
+    public final CarCostStats stats;
+
+    PeriodCost(int firstMonth, boolean year, @NonNull CarCostStats stats) {
+        this.firstMonth = firstMonth;
+        this.year = year;
+        this.stats = stats;
+    }
+
+    /**
+     * Newest first: one row per month from {@code nowMonth - recentMonths + 1} on, then one row per
+     * earlier calendar year. A year that straddles the recent window only sums its months before
+     * the window. {@code buckets} must be oldest first, as the DAO returns them.
+     */
+    @NonNull
+    public static List<PeriodCost> breakdown(List<VehicleMonthStats> buckets, int nowMonth, int recentMonths) {
+        List<PeriodCost> rows = new ArrayList<>();
+        int firstRecent = nowMonth - recentMonths + 1;
+        int end = buckets.size();
+        while (end > 0) {
+            int last = buckets.get(end - 1).getMonth();
+            boolean year = last < firstRecent;
+            int first = year ? last - Math.floorMod(last, 12) : last;
+            int start = end - 1;
+            while (start > 0 && buckets.get(start - 1).getMonth() >= first) start--;
+            CarCostStats stats = CarCostStats.fromBuckets(buckets.subList(start, end), first);
+            if (stats != null) rows.add(new PeriodCost(first, year, stats));
+            end = start;
+        }
+        return rows;
+    }
+
+    /** "Mar 2025" for a month row, "2024" for a year row. */
+    public String label() {
+        int calendarYear = 1970 + Math.floorDiv(firstMonth, 12);
+        if (year) return String.valueOf(calendarYear);
+        return YearMonth.of(calendarYear, Math.floorMod(firstMonth, 12) + 1).format(MONTH_LABEL);
+    }
+}
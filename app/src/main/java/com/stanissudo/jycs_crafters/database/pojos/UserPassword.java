@@ -0,0 +1,15 @@
+package com.stanissudo.jycs_crafters.database.pojos;
+
+/**
+ * Just the id and stored password of a user, for maintenance passes that page through the
+ * user table without loading whole {@link com.stanissudo.jycs_crafters.database.entities.User} rows.
+ */
+public class UserPassword {
+    public int id;
+    public String password;
+
+    public UserPassword(int id, String password) {
+        this.id = id;
+        this.password = password;
+    }
+}
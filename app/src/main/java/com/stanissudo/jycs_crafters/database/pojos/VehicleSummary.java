@@ -0,0 +1,97 @@
+package com.stanissudo.jycs_crafters.database.pojos;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.stanissudo.jycs_crafters.utils.FixedPoint;
+
+import java.util.Objects;
+
+/**
+ * One row of the fleet overview: a vehicle with its lifetime totals, in the fuel log's
+ * fixed-point units (see {@link FixedPoint}). Filled by {@code VehicleDAO.getFleetSummaries}.
+ */
+public class VehicleSummary {
+    public int vehicleId;
+    public String name;
+    public String make;
+    public String model;
+    public int year;
+    public int fillUpsCount;
+    public long totalCostCents;
+    public long priceTenthCentsSum;
+    @Nullable public Integer minOdometer;
+    @Nullable public Integer maxOdometer;
+    /** Date of the newest fill-up; {@code null} for a car with an empty log. */
+    @Nullable public Long lastFillUpMillis;
+    /** Distance and fuel over the fill-ups that have an MPG figure. */
+    public long measuredDistance;
+    public long measuredGallonsMilli;
+
+    public int distance() {
+        return minOdometer == null || maxOdometer == null ? 0 : maxOdometer - minOdometer;
+    }
+
+    /** Total distance over total fuel, in milli-MPG; {@code null} before the second fill-up. */
+    @Nullable
+    public Long averageMpgMilli() {
+        return measuredGallonsMilli <= 0 ? null : FixedPoint.mpgMilli(measuredDistance, measuredGallonsMilli);
+    }
+
+    /** Same numbers as {@code FuelEntryDAO.getCostStatsForVehicle}; {@code null} for an empty log. */
+    @Nullable
+    public CarCostStats toCostStats() {
+        if (fillUpsCount == 0) return null;
+        CarCostStats s = new CarCostStats();
+        long n = fillUpsCount;
+        s.fillUpsCount = fillUpsCount;
+        s.totalCostCents = totalCostCents;
+        s.avgPriceTenthCents = (2 * priceTenthCentsSum + n) / (2 * n);
+        s.avgCostPerFillUpCents = (2 * totalCostCents + n) / (2 * n);
+        return s;
+    }
+
+    /** Same numbers as {@code FuelEntryDAO.getDistanceStatsForVehicle}; {@code null} for an empty log. */
+    @Nullable
+    public CarDistanceStats toDistanceStats() {
+        if (fillUpsCount == 0) return null;
+        CarDistanceStats s = new CarDistanceStats();
+        s.lastOdometer = maxOdometer == null ? 0 : maxOdometer;
+        s.totalDistance = distance();
+        // Integer division, like the lifetime query.
+        s.avgDistancePerFillUp = fillUpsCount > 1 ? s.totalDistance / (fillUpsCount - 1) : 0;
+        return s;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VehicleSummary that = (VehicleSummary) o;
+        return vehicleId == that.vehicleId && year == that.year && fillUpsCount == that.fillUpsCount
+                && totalCostCents == that.totalCostCents && priceTenthCentsSum == that.priceTenthCentsSum
+                && measuredDistance == that.measuredDistance && measuredGallonsMilli == that.measuredGallonsMilli
+                && Objects.equals(name, that.name) && Objects.equals(make, that.make)
+                && Objects.equals(model, that.model) && Objects.equals(minOdometer, that.minOdometer)
+                && Objects.equals(maxOdometer, that.maxOdometer) && Objects.equals(lastFillUpMillis, that.lastFillUpMillis);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(vehicleId, totalCostCents, fillUpsCount, lastFillUpMillis, measuredDistance);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "VehicleSummary{" +
+                "vehicleId=" + vehicleId +
+                ", name='" + name + '\'' +
+                ", fillUpsCount=" + fillUpsCount +
+                ", totalCostCents=" + totalCostCents +
+                ", distance=" + distance() +
+                ", lastFillUpMillis=" + lastFillUpMillis +
+                ", averageMpgMilli=" + averageMpgMilli() +
+                '}';
+    }
+}
@@ -4,6 +4,9 @@
  * <p>
  * Room does not support complex types like {@code LocalDateTime} natively,
  * so this converter enables storing date-time values as epoch milliseconds.
+ * Entities map {@code logDate} as a plain {@code long}; this remains for query parameters
+ * and other callers that still hold a {@code LocalDateTime}, and delegates to
+ * {@link EpochTime} so it shares the cached zone offsets.
  * </p>
  *
  * @author Stan Permiakov
@@ -15,21 +18,18 @@ package com.stanissudo.jycs_crafters.database.typeConverters;
 
 import androidx.room.TypeConverter;
 
-import java.time.Instant;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
 
 public class LocalDateTypeConverter {
     @TypeConverter
     public  Long convertDateToLong(LocalDateTime date){
-        ZonedDateTime zdt = ZonedDateTime.of(date, ZoneId.systemDefault());
-        return zdt.toInstant().toEpochMilli();
+        return EpochTime.toEpochMillis(date);
 
     }
     @TypeConverter
     public LocalDateTime convertLongToDate(Long epochMill){
-        Instant instant = Instant.ofEpochMilli(epochMill);
-        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        return EpochTime.toLocalDateTime(epochMill);
     }
-}
\ No newline at end of file
+}
@@ -10,9 +10,11 @@ import androidx.lifecycle.ViewModelProvider;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import com.stanissudo.jycs_crafters.R;
+import com.stanissudo.jycs_crafters.database.pojos.PeriodCost;
 import com.stanissudo.jycs_crafters.viewHolders.CostStatsViewModel;
 import com.stanissudo.jycs_crafters.viewHolders.SharedViewModel;
 
@@ -27,6 +29,7 @@ public class CostStatsFragment extends Fragment {
 
     private CostStatsViewModel costStatsViewModel;
     private TextView totalCostText, avgPriceText, avgFillUpText, totalFillUpsText;
+    private LinearLayout breakdownList;
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -35,6 +38,7 @@ public class CostStatsFragment extends Fragment {
         totalCostText = view.findViewById(R.id.total_cost_value);
         avgPriceText = view.findViewById(R.id.avg_price_value);
         avgFillUpText = view.findViewById(R.id.avg_fillup_cost_value);
+        breakdownList = view.findViewById(R.id.cost_breakdown_list);
         return view;
     }
 
@@ -51,17 +55,31 @@ public class CostStatsFragment extends Fragment {
         costStatsViewModel.stats.observe(getViewLifecycleOwner(), stats -> {
             if (stats != null) {
                 totalFillUpsText.setText(String.format(Locale.US, "%d", stats.fillUpsCount));
-                totalCostText.setText(String.format(Locale.US, "$%.2f", stats.totalCost));
-                avgPriceText.setText(String.format(Locale.US, "$%.2f", stats.avgPricePerGallon));
-                avgFillUpText.setText(String.format(Locale.US, "$%.2f", stats.avgCostPerFillUp));
+                totalCostText.setText("$" + stats.formatTotalCost());
+                avgPriceText.setText("$" + stats.formatAvgPricePerGallon());
+                avgFillUpText.setText("$" + stats.formatAvgCostPerFillUp());
             } else {
+                // No rollup row yet means the car has no fill-ups.
+                totalFillUpsText.setText("0");
                 totalCostText.setText("$0.00");
                 avgPriceText.setText("$0.00");
                 avgFillUpText.setText("$0.00");
             }
         });
 
+        costStatsViewModel.breakdown.observe(getViewLifecycleOwner(), rows -> {
+            breakdownList.removeAllViews();
+            for (PeriodCost row : rows) {
+                TextView line = new TextView(requireContext());
+                line.setTextSize(16);
+                line.setText(String.format(Locale.US, "%s   %d fill-ups   $%s",
+                        row.label(), row.stats.fillUpsCount, row.stats.formatTotalCost()));
+                breakdownList.addView(line);
+            }
+        });
+
         // 2) Drive the ViewModel with selection changes
+        StatsPeriodToggle.bind(view, costStatsViewModel.getPeriod().getValue(), costStatsViewModel::setPeriod);
         sharedViewModel.getSelectedCarId().observe(getViewLifecycleOwner(),
                 id -> {
                     if (id != null) costStatsViewModel.setVehicleId(id);
@@ -60,6 +60,7 @@ public class DistanceStatsFragment extends Fragment {
         });
 
         // 2) Drive the ViewModel with selection changes
+        StatsPeriodToggle.bind(view, distanceStatsViewModel.getPeriod().getValue(), distanceStatsViewModel::setPeriod);
         sharedViewModel.getSelectedCarId().observe(getViewLifecycleOwner(),
                 id -> {
                     if (id != null) distanceStatsViewModel.setVehicleId(id);
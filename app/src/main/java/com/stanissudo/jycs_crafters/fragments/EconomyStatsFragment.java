@@ -0,0 +1,78 @@
+package com.stanissudo.jycs_crafters.fragments;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import com.stanissudo.jycs_crafters.R;
+import com.stanissudo.jycs_crafters.utils.FixedPoint;
+import com.stanissudo.jycs_crafters.viewHolders.EconomyStatsViewModel;
+import com.stanissudo.jycs_crafters.viewHolders.SharedViewModel;
+
+import java.util.Locale;
+
+/**
+ * Fuel economy card: average, last, best and worst MPG over the car's whole log, read from the
+ * per-entry columns the DAO keeps up to date.
+ */
+public class EconomyStatsFragment extends Fragment {
+
+    private static final String NONE = "–";
+
+    private EconomyStatsViewModel economyStatsViewModel;
+    private TextView avgMpg, lastMpg, bestMpg, worstMpg, measuredFillUps;
+
+    @Override
+    public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+        View view = inflater.inflate(R.layout.fragment_economy_stats, container, false);
+        avgMpg = view.findViewById(R.id.avg_mpg_value);
+        lastMpg = view.findViewById(R.id.last_mpg_value);
+        bestMpg = view.findViewById(R.id.best_mpg_value);
+        worstMpg = view.findViewById(R.id.worst_mpg_value);
+        measuredFillUps = view.findViewById(R.id.measured_fill_ups_value);
+        return view;
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        economyStatsViewModel = new ViewModelProvider(this).get(EconomyStatsViewModel.class);
+
+        // Get the ViewModel that is scoped to the MainActivity
+        SharedViewModel sharedViewModel = new ViewModelProvider(requireActivity()).get(SharedViewModel.class);
+
+        economyStatsViewModel.stats.observe(getViewLifecycleOwner(), stats -> {
+            if (stats != null && stats.measuredFillUps > 0) {
+                avgMpg.setText(mpg(stats.averageMpgMilli()));
+                lastMpg.setText(mpg(stats.lastMpgMilli));
+                bestMpg.setText(mpg(stats.bestMpgMilli));
+                worstMpg.setText(mpg(stats.worstMpgMilli));
+                measuredFillUps.setText(String.format(Locale.US, "%d", stats.measuredFillUps));
+            } else {
+                avgMpg.setText(NONE);
+                lastMpg.setText(NONE);
+                bestMpg.setText(NONE);
+                worstMpg.setText(NONE);
+                measuredFillUps.setText("0");
+            }
+        });
+
+        sharedViewModel.getSelectedCarId().observe(getViewLifecycleOwner(),
+                id -> {
+                    if (id != null) economyStatsViewModel.setVehicleId(id);
+                });
+    }
+
+    private static String mpg(@Nullable Long mpgMilli) {
+        return mpgMilli == null ? NONE : FixedPoint.format(mpgMilli, FixedPoint.MPG_SCALE, 1, false);
+    }
+}
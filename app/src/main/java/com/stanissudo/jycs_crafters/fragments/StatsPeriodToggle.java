@@ -0,0 +1,39 @@
+package com.stanissudo.jycs_crafters.fragments;
+
+import android.view.View;
+
+import com.google.android.material.button.MaterialButtonToggleGroup;
+import com.stanissudo.jycs_crafters.R;
+import com.stanissudo.jycs_crafters.database.StatsPeriod;
+
+import java.util.function.Consumer;
+
+/**
+ * Wires the shared {@code view_stats_period_toggle} layout to a stats view model.
+ */
+final class StatsPeriodToggle {
+    private StatsPeriodToggle() {
+    }
+
+    static void bind(View root, StatsPeriod current, Consumer<StatsPeriod> onSelected) {
+        MaterialButtonToggleGroup group = root.findViewById(R.id.period_toggle);
+        group.check(buttonFor(current));
+        group.addOnButtonCheckedListener((g, checkedId, isChecked) -> {
+            if (!isChecked) return;
+            if (checkedId == R.id.period_this_month) onSelected.accept(StatsPeriod.THIS_MONTH);
+            else if (checkedId == R.id.period_this_year) onSelected.accept(StatsPeriod.THIS_YEAR);
+            else onSelected.accept(StatsPeriod.ALL_TIME);
+        });
+    }
+
+    private static int buttonFor(StatsPeriod period) {
+        switch (period) {
+            case THIS_MONTH:
+                return R.id.period_this_month;
+            case THIS_YEAR:
+                return R.id.period_this_year;
+            default:
+                return R.id.period_all_time;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/**
+ * Local pool of advice slips for the login screen, so the screen never waits on the network.
+ *
+ * How it works:
+ * - Slips fetched from the API are kept in a small ring (at most {@link #CAPACITY}) that is
+ *   saved to a text file in the app's files directory and read back on a background thread as
+ *   soon as {@link #get(Context)} is first called (from {@code FuelTrackApplication.onCreate}).
+ * - {@link #next()} never blocks: it hands out a slip that has not been shown yet if there is
+ *   one, otherwise the one shown longest ago, otherwise {@link #FALLBACK}.
+ * - When fewer than {@link #LOW_WATER} unseen slips are left, the pool fetches more on its
+ *   background thread. A failed or slow request just ends that refill; the ring keeps what it
+ *   has, so the app works offline with the last quotes it saw.
+ *
+ * Usage:
+ * binding.quoteText.setText(AdviceQuotePool.get(this).next());
+ */
+package com.stanissudo.jycs_crafters.network;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Response;
+
+public class AdviceQuotePool {
+
+    private static final String TAG = "AdviceQuotePool";
+
+    /** Name of the file the ring is saved to. */
+    static final String FILE_NAME = "advice_pool.txt";
+
+    /** Most slips kept; the oldest shown ones are dropped first. */
+    static final int CAPACITY = 20;
+
+    /** Refill once fewer unseen slips than this remain. */
+    static final int LOW_WATER = 5;
+
+    /** Upper bound on requests per refill, duplicates included. */
+    static final int MAX_REQUESTS_PER_REFILL = 8;
+
+    /** Shown when nothing has ever been fetched (first launch while offline). */
+    public static final String FALLBACK = "Keep your tires properly inflated. It saves fuel.";
+
+    private static volatile AdviceQuotePool instance;
+
+    /** One cached advice slip. */
+    static final class Quote {
+        final String id;
+        final String text;
+
+        Quote(String id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    private final AdviceService service;
+    private final File file;
+    private final Executor io;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
+    // Guarded by this.
+    private final ArrayDeque<Quote> unseen = new ArrayDeque<>();
+    private final ArrayDeque<Quote> seen = new ArrayDeque<>();
+    private boolean refilling;
+    private boolean savePending;
+
+    /**
+     * Returns the process-wide pool, creating it (and starting its load from disk) on first use.
+     *
+     * @param context Any context; only the application context is kept.
+     */
+    public static AdviceQuotePool get(Context context) {
+        if (instance == null) {
+            synchronized (AdviceQuotePool.class) {
+                if (instance == null) {
+                    Context app = context.getApplicationContext();
+                    instance = new AdviceQuotePool(
+                            RetrofitClient.getInstance(app).create(AdviceService.class),
+                            new File(app.getFilesDir(), FILE_NAME),
+                            Executors.newSingleThreadExecutor(r -> new Thread(r, "advice-io")));
+                }
+            }
+        }
+        return instance;
+    }
+
+    AdviceQuotePool(AdviceService service, File file, Executor io) {
+        this.service = service;
+        this.file = file;
+        this.io = io;
+        io.execute(() -> {
+            load();
+            synchronized (this) {
+                loaded.countDown();
+                refillIfLow();
+            }
+        });
+    }
+
+    /**
+     * Next quote to show, already wrapped in quotation marks. Never blocks and never touches the
+     * network; tops the pool up in the background when it runs low.
+     *
+     * @return A cached quote, or {@link #FALLBACK} if there is none yet.
+     */
+    @NonNull
+    public String next() {
+        Quote q;
+        synchronized (this) {
+            // Before the first load finishes there is nothing to show yet; do not wait for it.
+            if (loaded.getCount() > 0) return "“" + FALLBACK + "”";
+            q = unseen.poll();
+            if (q == null) q = seen.poll();
+            if (q == null) {
+                refillIfLow();
+                return "“" + FALLBACK + "”";
+            }
+            seen.add(q);
+            scheduleSave();
+            refillIfLow();
+        }
+        return "“" + q.text + "”";
+    }
+
+    /** Number of cached slips not shown yet. */
+    synchronized int unseenCount() {
+        return unseen.size();
+    }
+
+    /** Number of cached slips in total. */
+    synchronized int size() {
+        return unseen.size() + seen.size();
+    }
+
+    /** Waits for the initial load from disk; for tests. */
+    boolean awaitLoaded(long timeout, TimeUnit unit) throws InterruptedException {
+        return loaded.await(timeout, unit);
+    }
+
+    private void refillIfLow() {
+        // Caller holds the lock.
+        if (refilling || unseen.size() >= LOW_WATER) return;
+        refilling = true;
+        io.execute(this::refill);
+    }
+
+    /** Fetches slips until the pool is topped up, a request fails, or the request budget is spent. */
+    private void refill() {
+        int added = 0;
+        try {
+            for (int i = 0; i < MAX_REQUESTS_PER_REFILL; i++) {
+                synchronized (this) {
+                    if (unseen.size() >= CAPACITY - LOW_WATER) break;
+                }
+                Quote q = fetch();
+                if (q == null) break;
+                if (add(q)) added++;
+            }
+        } finally {
+            synchronized (this) {
+                refilling = false;
+            }
+        }
+        if (added > 0) save();
+    }
+
+    /** One request; {@code null} on any failure, so the caller stops refilling. */
+    private Quote fetch() {
+        try {
+            Response<AdviceResponse> response = service.getAdvice().execute();
+            AdviceResponse body = response.body();
+            if (!response.isSuccessful() || body == null || body.getSlip() == null) return null;
+            String text = clean(body.getSlip().getAdvice());
+            String id = clean(body.getSlip().getSlip_id());
+            return text.isEmpty() ? null : new Quote(id.isEmpty() ? text : id, text);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Advice fetch failed", e);
+            return null;
+        }
+    }
+
+    /** Adds {@code q} unless it is already cached; the API repeats itself for a couple of seconds. */
+    private synchronized boolean add(Quote q) {
+        for (Quote c : unseen) if (c.id.equals(q.id)) return false;
+        for (Quote c : seen) if (c.id.equals(q.id)) return false;
+        unseen.add(q);
+        trim();
+        return true;
+    }
+
+    private void trim() {
+        // Caller holds the lock.
+        while (unseen.size() + seen.size() > CAPACITY) {
+            if (seen.poll() == null) unseen.poll();
+        }
+    }
+
+    // ---- Persistence (io thread only) ----
+
+    /** Reads the saved ring; a missing or damaged file just means an empty pool. */
+    private void load() {
+        if (!file.exists()) return;
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            synchronized (this) {
+                while ((line = in.readLine()) != null) {
+                    // seen-flag <TAB> id <TAB> text
+                    String[] parts = line.split("\t", 3);
+                    if (parts.length != 3 || parts[2].isEmpty()) continue;
+                    Quote q = new Quote(parts[1], parts[2]);
+                    if ("1".equals(parts[0])) seen.add(q); else unseen.add(q);
+                }
+                trim();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read " + file, e);
+        }
+    }
+
+    private synchronized void scheduleSave() {
+        if (savePending) return;
+        savePending = true;
+        io.execute(this::save);
+    }
+
+    /** Writes the ring to a temporary file and renames it over the old one. */
+    private void save() {
+        StringBuilder sb = new StringBuilder();
+        synchronized (this) {
+            savePending = false;
+            for (Quote q : unseen) sb.append("0\t").append(q.id).append('\t').append(q.text).append('\n');
+            for (Quote q : seen) sb.append("1\t").append(q.id).append('\t').append(q.text).append('\n');
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (BufferedWriter out = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+            out.write(sb.toString());
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write " + tmp, e);
+            return;
+        }
+        if (!tmp.renameTo(file)) Log.w(TAG, "Could not replace " + file);
+    }
+
+    /** Keeps a field on one line of the pool file. */
+    private static String clean(String s) {
+        return s == null ? "" : s.replaceAll("\\s+", " ").trim();
+    }
+}
@@ -6,16 +6,28 @@
  * This class creates and configures a Retrofit instance with:
  * - Base URL pointing to the Advice Slip API
  * - Gson converter for automatic JSON parsing
+ * - An OkHttp client with short timeouts and a small on-disk HTTP cache, so a slow or absent
+ *   network fails fast and repeated requests can be answered without it
  *
  * Usage:
- * - Call {@link #getInstance()} to obtain the Retrofit instance.
+ * - Call {@link #getInstance(Context)} to obtain the Retrofit instance.
  * - Use the instance to create service interfaces (e.g., {@code AdviceService}).
+ * - Screens should not call the API directly; {@link AdviceQuotePool} serves quotes from disk.
  *
  * Example:
- * AdviceService service = RetrofitClient.getInstance().create(AdviceService.class);
+ * AdviceService service = RetrofitClient.getInstance(context).create(AdviceService.class);
  */
 package com.stanissudo.jycs_crafters.network;
 
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
@@ -24,25 +36,64 @@ public class RetrofitClient {
     /** Base URL for the Advice Slip API. */
     private static final String BASE_URL = "https://api.adviceslip.com/";
 
+    /** Size of the HTTP response cache; advice slips are tiny. */
+    private static final long CACHE_BYTES = 512 * 1024;
+
+    /** Timeouts: the advice is decoration, so give up quickly. */
+    static final long CONNECT_TIMEOUT_SECONDS = 5;
+    static final long READ_TIMEOUT_SECONDS = 5;
+    static final long CALL_TIMEOUT_SECONDS = 10;
+
     /** Singleton Retrofit instance. */
-    private static Retrofit retrofit;
+    private static volatile Retrofit retrofit;
 
     /** Private constructor to prevent instantiation. */
     private RetrofitClient() {}
 
     /**
      * Returns the singleton Retrofit instance.
-     * If the instance does not exist yet, it is created and configured.
+     * If the instance does not exist yet, it is created and configured, with its HTTP cache in
+     * the app's cache directory.
      *
+     * @param context Any context; only the application context is kept.
      * @return A configured Retrofit instance for making API calls.
      */
-    public static Retrofit getInstance() {
+    public static Retrofit getInstance(Context context) {
         if (retrofit == null) {
-            retrofit = new Retrofit.Builder()
-                    .baseUrl(BASE_URL)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .build();
+            synchronized (RetrofitClient.class) {
+                if (retrofit == null) {
+                    File dir = new File(context.getApplicationContext().getCacheDir(), "http");
+                    retrofit = newRetrofit(BASE_URL, newHttpClient(new Cache(dir, CACHE_BYTES)));
+                }
+            }
         }
         return retrofit;
     }
+
+    /**
+     * Builds the OkHttp client used for the API.
+     *
+     * @param cache On-disk response cache, or {@code null} for none.
+     * @return A client with the timeouts above.
+     */
+    static OkHttpClient newHttpClient(@Nullable Cache cache) {
+        return new OkHttpClient.Builder()
+                .cache(cache)
+                .connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .callTimeout(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Builds a Retrofit instance for {@code baseUrl} on top of {@code client}.
+     * Tests point this at a local mock server.
+     */
+    static Retrofit newRetrofit(String baseUrl, OkHttpClient client) {
+        return new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create())
+                .build();
+    }
 }
@@ -0,0 +1,174 @@
+package com.stanissudo.jycs_crafters.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.WriteBatch;
+import com.stanissudo.jycs_crafters.database.entities.ChangeLog;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link RemoteBackupStore} on Cloud Firestore. Each account's backup is the collection
+ * {@code backups/{accountId}/changes}, with one document per vehicle or fuel entry named by
+ * {@link RemoteChange#key()}. Every write stamps {@code updatedAt} with the server's time, and
+ * pulls page through the collection ordered by {@code (updatedAt, document id)}, so the cursor is
+ * that pair and device clocks never matter.
+ * <p>
+ * Pulls read from the server, not the local Firestore cache. The ordering assumes one device
+ * writes to an account at a time: a batch that commits while another device is mid-pull can be
+ * stamped before that pull's cursor and be skipped by it.
+ */
+public class FirestoreBackupStore implements RemoteBackupStore {
+
+    /** Firestore allows 500 writes per batch; stay below it. */
+    static final int MAX_BATCH = 400;
+    static final long TIMEOUT_SECONDS = 30;
+
+    static final String F_TYPE = "type";
+    static final String F_KEY = "key";
+    static final String F_DELETED = "deleted";
+    static final String F_CHANGED_AT = "changedAt";
+    static final String F_UPDATED_AT = "updatedAt";
+
+    private final FirebaseFirestore firestore;
+    private final CollectionReference changes;
+
+    public FirestoreBackupStore(FirebaseFirestore firestore, String accountId) {
+        this.firestore = firestore;
+        this.changes = firestore.collection("backups").document(accountId).collection("changes");
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return MAX_BATCH;
+    }
+
+    @Override
+    public void push(@NonNull List<RemoteChange> batch) throws IOException {
+        WriteBatch write = firestore.batch();
+        for (RemoteChange c : batch) write.set(changes.document(c.key()), toDocument(c));
+        await(write.commit());
+    }
+
+    @NonNull
+    @Override
+    public Page pull(@Nullable String cursor, int limit) throws IOException {
+        Query query = changes.orderBy(F_UPDATED_AT).orderBy(FieldPath.documentId()).limit(limit);
+        if (cursor != null) {
+            // seconds:nanos:documentId
+            String[] parts = cursor.split(":", 3);
+            query = query.startAfter(new Timestamp(Long.parseLong(parts[0]), Integer.parseInt(parts[1])), parts[2]);
+        }
+        QuerySnapshot snapshot = await(query.get(Source.SERVER));
+
+        List<RemoteChange> page = new ArrayList<>(snapshot.size());
+        String next = cursor;
+        for (DocumentSnapshot d : snapshot.getDocuments()) {
+            RemoteChange c = fromDocument(d);
+            if (c != null) page.add(c);
+            Timestamp at = d.getTimestamp(F_UPDATED_AT);
+            if (at != null) next = at.getSeconds() + ":" + at.getNanoseconds() + ":" + d.getId();
+        }
+        return new Page(page, next, snapshot.size() == limit);
+    }
+
+    private static Map<String, Object> toDocument(RemoteChange c) {
+        Map<String, Object> doc = new HashMap<>();
+        doc.put(F_TYPE, c.type);
+        doc.put(F_KEY, c.syncKey);
+        doc.put(F_DELETED, c.deleted);
+        doc.put(F_CHANGED_AT, c.changedAt);
+        doc.put(F_UPDATED_AT, FieldValue.serverTimestamp());
+        if (c.vehicle != null) {
+            doc.put("name", c.vehicle.getName());
+            doc.put("make", c.vehicle.getMake());
+            doc.put("model", c.vehicle.getModel());
+            doc.put("year", c.vehicle.getYear());
+        }
+        if (c.fuelEntry != null) {
+            FuelEntry e = c.fuelEntry;
+            doc.put("carKey", c.carKey);
+            doc.put("logDate", e.getLogDateMillis());
+            doc.put("odometer", e.getOdometer());
+            doc.put("gallonsMilli", e.getGallonsMilli());
+            doc.put("priceTenthCents", e.getPriceTenthCents());
+            doc.put("totalCostCents", e.getTotalCostCents());
+        }
+        return doc;
+    }
+
+    /** {@code null} for a document this version does not understand. */
+    @Nullable
+    private static RemoteChange fromDocument(DocumentSnapshot d) {
+        Long type = d.getLong(F_TYPE);
+        String key = d.getString(F_KEY);
+        if (type == null || key == null) return null;
+        long changedAt = orZero(d.getLong(F_CHANGED_AT));
+        if (Boolean.TRUE.equals(d.getBoolean(F_DELETED))) {
+            return RemoteChange.deleted(type.intValue(), key, changedAt);
+        }
+        if (type == ChangeLog.VEHICLE) {
+            Vehicle v = new Vehicle();
+            v.setSyncId(key);
+            v.setName(d.getString("name"));
+            v.setMake(d.getString("make"));
+            v.setModel(d.getString("model"));
+            v.setYear((int) orZero(d.getLong("year")));
+            return RemoteChange.of(v, changedAt);
+        }
+        if (type == ChangeLog.FUEL_ENTRY) {
+            String carKey = d.getString("carKey");
+            if (carKey == null) return null;
+            FuelEntry e = new FuelEntry();
+            e.setSyncId(key);
+            e.setLogDateMillis(orZero(d.getLong("logDate")));
+            Long odometer = d.getLong("odometer");
+            e.setOdometer(odometer == null ? null : odometer.intValue());
+            e.setGallonsMilli(orZero(d.getLong("gallonsMilli")));
+            e.setPriceTenthCents(orZero(d.getLong("priceTenthCents")));
+            e.setTotalCostCents(orZero(d.getLong("totalCostCents")));
+            return RemoteChange.of(e, carKey, changedAt);
+        }
+        return null;
+    }
+
+    private static long orZero(@Nullable Long value) {
+        return value == null ? 0 : value;
+    }
+
+    /** Blocks on a Firestore task; every failure, including a timeout, becomes an IOException. */
+    private static <T> T await(Task<T> task) throws IOException {
+        try {
+            return Tasks.await(task, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw new IOException("Firestore request failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Firestore request timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for Firestore");
+        }
+    }
+}
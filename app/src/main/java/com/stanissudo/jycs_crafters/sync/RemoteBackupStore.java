@@ -0,0 +1,52 @@
+package com.stanissudo.jycs_crafters.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * One account's backup, as {@link SyncEngine} sees it. {@link FirestoreBackupStore} is the real
+ * one; tests use an in-memory stand-in. Calls block and are made from a background worker.
+ */
+public interface RemoteBackupStore {
+
+    /**
+     * Stores {@code changes} as one atomic batch: afterwards each key holds the given state. A
+     * batch never has more than {@link #maxBatchSize()} changes.
+     *
+     * @throws IOException if the batch may not have been stored; the caller retries it whole
+     */
+    @WorkerThread
+    void push(@NonNull List<RemoteChange> changes) throws IOException;
+
+    /**
+     * Changes stored after {@code cursor}, oldest first, at most {@code limit} of them. The order
+     * is the store's own (its commit order), not the devices' clocks.
+     *
+     * @param cursor {@link Page#nextCursor} of the previous page, or {@code null} for everything
+     */
+    @NonNull
+    @WorkerThread
+    Page pull(@Nullable String cursor, int limit) throws IOException;
+
+    /** Most changes one {@link #push} may carry. */
+    int maxBatchSize();
+
+    /** One slice of {@link #pull}. */
+    final class Page {
+        @NonNull public final List<RemoteChange> changes;
+        /** Where the next pull starts; the old cursor again if the page was empty. */
+        @Nullable public final String nextCursor;
+        /** Whether more changes may follow right away. */
+        public final boolean hasMore;
+
+        public Page(@NonNull List<RemoteChange> changes, @Nullable String nextCursor, boolean hasMore) {
+            this.changes = changes;
+            this.nextCursor = nextCursor;
+            this.hasMore = hasMore;
+        }
+    }
+}
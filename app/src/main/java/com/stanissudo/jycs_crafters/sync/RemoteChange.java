@@ -0,0 +1,66 @@
+package com.stanissudo.jycs_crafters.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.stanissudo.jycs_crafters.database.entities.ChangeLog;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+
+/**
+ * State of one vehicle or fuel entry as the backup stores it: the whole row, or a tombstone when
+ * it was deleted. A change replaces whatever the backup had under the same {@link #key()}.
+ * <p>
+ * Rows are named by their {@code SyncId}, never by local row ids, which every install hands out
+ * on its own. An entry names its vehicle by the vehicle's key ({@link #carKey}); the install that
+ * applies it maps that to its own row. Vehicles are sent without their owner: the local user id
+ * means nothing elsewhere, and the backup is already kept per account.
+ */
+public final class RemoteChange {
+    /** {@link ChangeLog#VEHICLE} or {@link ChangeLog#FUEL_ENTRY}. */
+    public final int type;
+    /** The row's {@code SyncId}. */
+    @NonNull public final String syncKey;
+    public final boolean deleted;
+    /** When the device recorded the change, epoch millis; informational only. */
+    public final long changedAt;
+    @Nullable public final Vehicle vehicle;
+    @Nullable public final FuelEntry fuelEntry;
+    /** Key of the entry's vehicle; {@code null} for vehicles and tombstones. */
+    @Nullable public final String carKey;
+
+    private RemoteChange(int type, @NonNull String syncKey, boolean deleted, long changedAt,
+                         @Nullable Vehicle vehicle, @Nullable FuelEntry fuelEntry, @Nullable String carKey) {
+        this.type = type;
+        this.syncKey = syncKey;
+        this.deleted = deleted;
+        this.changedAt = changedAt;
+        this.vehicle = vehicle;
+        this.fuelEntry = fuelEntry;
+        this.carKey = carKey;
+    }
+
+    public static RemoteChange of(@NonNull Vehicle vehicle, long changedAt) {
+        return new RemoteChange(ChangeLog.VEHICLE, vehicle.getSyncId(), false, changedAt, vehicle, null, null);
+    }
+
+    public static RemoteChange of(@NonNull FuelEntry entry, @NonNull String carKey, long changedAt) {
+        return new RemoteChange(ChangeLog.FUEL_ENTRY, entry.getSyncId(), false, changedAt, null, entry, carKey);
+    }
+
+    public static RemoteChange deleted(int type, @NonNull String syncKey, long changedAt) {
+        return new RemoteChange(type, syncKey, true, changedAt, null, null, null);
+    }
+
+    /** Identity in the backup, e.g. {@code "2_0b6c…"}; also a valid Firestore document id. */
+    @NonNull
+    public String key() {
+        return type + "_" + syncKey;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "RemoteChange{" + key() + (deleted ? ", deleted" : "") + ", changedAt=" + changedAt + '}';
+    }
+}
@@ -0,0 +1,267 @@
+package com.stanissudo.jycs_crafters.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.stanissudo.jycs_crafters.database.ChangeLogDAO;
+import com.stanissudo.jycs_crafters.database.FuelEntryDAO;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppDatabase;
+import com.stanissudo.jycs_crafters.database.VehicleDAO;
+import com.stanissudo.jycs_crafters.database.entities.ChangeLog;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Moves one user's vehicles and fuel log between the local database and a
+ * {@link RemoteBackupStore}.
+ * <p>
+ * Push reads the oldest outbox rows ({@link ChangeLogDAO#getPending}), loads the current state
+ * of those entities in two {@code IN} queries, sends them as one batch and then drops the rows it
+ * sent. If the push fails nothing is dropped, and the next attempt sends the same changes again;
+ * the store keeps one document per entity, so repeats are harmless.
+ * <p>
+ * Pull applies the store's changes after a cursor, a page per transaction, through the DAOs'
+ * non-tracking writers so applied changes are not pushed back. Changes find their local row by
+ * backup key among {@code userId}'s rows only: rows of other users on this install are never
+ * touched, and a change without a local row becomes a new row with a local id of its own. An
+ * entity with an unpushed local change keeps the local version; it overwrites the backup on the
+ * next push. Rows that already match are skipped, so pulling back what this device pushed costs
+ * one read per page. Pages are ordered by when each document last changed, so an entry can arrive
+ * before its vehicle; the vehicle then gets a placeholder row (the foreign key needs one) that
+ * its own change fills in.
+ * <p>
+ * Writes run on {@code writer} (the database's write executor in the app); reads run on the
+ * calling thread.
+ */
+public class SyncEngine {
+
+    /** Changes per pull page; one transaction each. */
+    static final int PULL_PAGE_SIZE = 500;
+
+    private final FuelTrackAppDatabase db;
+    private final FuelEntryDAO fuelEntryDAO;
+    private final VehicleDAO vehicleDAO;
+    private final ChangeLogDAO changeLogDAO;
+    private final Executor writer;
+    private final RemoteBackupStore remote;
+    private final int userId;
+
+    public SyncEngine(FuelTrackAppDatabase db, Executor writer, RemoteBackupStore remote, int userId) {
+        this.db = db;
+        this.fuelEntryDAO = db.fuelEntryDAO();
+        this.vehicleDAO = db.vehicleDAO();
+        this.changeLogDAO = db.changeLogDAO();
+        this.writer = writer;
+        this.remote = remote;
+        this.userId = userId;
+    }
+
+    /**
+     * Pushes the oldest batch of pending changes.
+     *
+     * @return number of changes pushed; 0 once the outbox is empty
+     */
+    @WorkerThread
+    public int pushBatch() throws IOException, InterruptedException {
+        List<ChangeLog> pending = changeLogDAO.getPending(userId, remote.maxBatchSize());
+        if (pending.isEmpty()) return 0;
+
+        Set<Integer> vehicleIds = new HashSet<>();
+        List<Long> entryIds = new ArrayList<>();
+        for (ChangeLog c : pending) {
+            if (c.getEntityType() == ChangeLog.VEHICLE) vehicleIds.add((int) c.getEntityId());
+            else entryIds.add(c.getEntityId());
+        }
+        Map<Long, FuelEntry> entries = new HashMap<>();
+        if (!entryIds.isEmpty()) {
+            for (FuelEntry e : fuelEntryDAO.getEntriesByIds(entryIds)) {
+                entries.put(e.getLogID(), e);
+                vehicleIds.add(e.getCarID()); // for the entry's car key
+            }
+        }
+        Map<Long, Vehicle> vehicles = new HashMap<>();
+        if (!vehicleIds.isEmpty()) {
+            for (Vehicle v : vehicleDAO.getVehiclesByIds(new ArrayList<>(vehicleIds))) {
+                vehicles.put((long) v.getVehicleID(), v);
+            }
+        }
+        // A car written around the DAO wrappers has no key yet; its entries need one to name it.
+        List<Vehicle> keyless = new ArrayList<>();
+        for (Vehicle v : vehicles.values()) {
+            if (v.getSyncId() == null) keyless.add(v);
+        }
+        if (!keyless.isEmpty()) {
+            onWriter(() -> {
+                for (Vehicle v : keyless) {
+                    v.setSyncId(ChangeLog.newSyncKey());
+                    vehicleDAO.setSyncKey(v.getVehicleID(), v.getSyncId());
+                }
+                return null;
+            });
+        }
+
+        List<RemoteChange> batch = new ArrayList<>(pending.size());
+        for (ChangeLog c : pending) {
+            long id = c.getEntityId();
+            if (c.getEntityType() == ChangeLog.VEHICLE) {
+                Vehicle v = vehicles.get(id);
+                batch.add(v == null ? RemoteChange.deleted(ChangeLog.VEHICLE, c.getSyncKey(), c.getChangedAt())
+                        : RemoteChange.of(v, c.getChangedAt()));
+            } else {
+                FuelEntry e = entries.get(id);
+                Vehicle car = e == null ? null : vehicles.get((long) e.getCarID());
+                batch.add(car == null ? RemoteChange.deleted(ChangeLog.FUEL_ENTRY, c.getSyncKey(), c.getChangedAt())
+                        : RemoteChange.of(e, car.getSyncId(), c.getChangedAt()));
+            }
+        }
+        remote.push(batch);
+
+        long upToSeq = pending.get(pending.size() - 1).getSeq();
+        onWriter(() -> changeLogDAO.acknowledge(userId, upToSeq));
+        return batch.size();
+    }
+
+    /** Pushes until the outbox is empty; returns the number of changes pushed. */
+    @WorkerThread
+    public int pushAll() throws IOException, InterruptedException {
+        int total = 0;
+        int n;
+        while ((n = pushBatch()) > 0) total += n;
+        return total;
+    }
+
+    /**
+     * Fetches and applies one page of changes after {@code cursor}.
+     *
+     * @return the page; store its {@code nextCursor} once this returns
+     */
+    @NonNull
+    @WorkerThread
+    public RemoteBackupStore.Page pullPage(@Nullable String cursor) throws IOException, InterruptedException {
+        RemoteBackupStore.Page page = remote.pull(cursor, PULL_PAGE_SIZE);
+        if (!page.changes.isEmpty()) {
+            onWriter(() -> {
+                db.runInTransaction(() -> apply(page.changes));
+                return null;
+            });
+        }
+        return page;
+    }
+
+    /** Pulls until the store has nothing newer; returns the cursor to resume from next time. */
+    @Nullable
+    @WorkerThread
+    public String pullAll(@Nullable String cursor) throws IOException, InterruptedException {
+        RemoteBackupStore.Page page;
+        do {
+            page = pullPage(cursor);
+            cursor = page.nextCursor;
+        } while (page.hasMore);
+        return cursor;
+    }
+
+    /** Runs inside the page's transaction. Vehicles go first so entries find their car. */
+    private void apply(List<RemoteChange> changes) {
+        for (RemoteChange c : changes) {
+            if (c.type == ChangeLog.VEHICLE) applyVehicle(c);
+        }
+        List<RemoteChange> entryChanges = new ArrayList<>();
+        Map<String, Integer> carIds = new HashMap<>();
+        for (RemoteChange c : changes) {
+            if (c.type != ChangeLog.FUEL_ENTRY || changeLogDAO.isPending(userId, c.type, c.syncKey)) continue;
+            if (!c.deleted) {
+                // Not cached when dropped, which only happens to entries of a car deleted here.
+                Integer carId = carIds.computeIfAbsent(c.carKey, this::ensureVehicle);
+                if (carId == null) continue;
+                c.fuelEntry.setCarID(carId);
+            }
+            entryChanges.add(c);
+        }
+        if (entryChanges.isEmpty()) return;
+
+        List<String> keys = new ArrayList<>(entryChanges.size());
+        for (RemoteChange c : entryChanges) keys.add(c.syncKey);
+        Map<String, FuelEntry> local = new HashMap<>();
+        for (FuelEntry e : fuelEntryDAO.getEntriesBySyncKeys(userId, keys)) local.put(e.getSyncId(), e);
+
+        // New rows go in as one batch, which rolls the stats up once per car.
+        List<FuelEntry> added = new ArrayList<>();
+        for (RemoteChange c : entryChanges) {
+            FuelEntry current = local.get(c.syncKey);
+            if (c.deleted) {
+                if (current != null) fuelEntryDAO.removeEntry(current.getLogID());
+            } else if (current == null) {
+                added.add(c.fuelEntry);
+            } else if (!sameLogData(current, c.fuelEntry)) {
+                c.fuelEntry.setLogID(current.getLogID());
+                fuelEntryDAO.storeEntry(c.fuelEntry);
+            }
+        }
+        fuelEntryDAO.storeEntries(added);
+    }
+
+    private void applyVehicle(RemoteChange c) {
+        if (changeLogDAO.isPending(userId, c.type, c.syncKey)) return;
+        Vehicle current = vehicleDAO.findBySyncKey(userId, c.syncKey);
+        if (c.deleted) {
+            if (current != null) vehicleDAO.deleteVehicleById(current.getVehicleID());
+            return;
+        }
+        Vehicle incoming = c.vehicle;
+        incoming.setUserId(userId);
+        if (current != null) incoming.setVehicleID(current.getVehicleID());
+        if (!incoming.equals(current)) vehicleDAO.upsertVehicle(incoming);
+    }
+
+    /**
+     * The local id of the user's vehicle with backup key {@code carKey}, inserting a placeholder if
+     * there is none, unless it was deleted here and that is not pushed yet: then its entries are
+     * dropped with it.
+     *
+     * @return the vehicle's local id, or {@code null} if its entries are dropped
+     */
+    @Nullable
+    private Integer ensureVehicle(String carKey) {
+        Vehicle existing = vehicleDAO.findBySyncKey(userId, carKey);
+        if (existing != null) return existing.getVehicleID();
+        if (changeLogDAO.isPending(userId, ChangeLog.VEHICLE, carKey)) return null;
+        Vehicle placeholder = new Vehicle(userId, "Vehicle", null, null, 0);
+        placeholder.setSyncId(carKey);
+        return (int) vehicleDAO.upsertVehicle(placeholder);
+    }
+
+    /** Compares the stored columns; the economy columns are derived locally and never sent. */
+    private static boolean sameLogData(FuelEntry a, FuelEntry b) {
+        return Objects.equals(a.getCarID(), b.getCarID()) && a.getLogDateMillis() == b.getLogDateMillis()
+                && Objects.equals(a.getOdometer(), b.getOdometer()) && a.getGallonsMilli() == b.getGallonsMilli()
+                && a.getPriceTenthCents() == b.getPriceTenthCents() && a.getTotalCostCents() == b.getTotalCostCents();
+    }
+
+    /** Runs {@code work} on the writer and waits for it. */
+    private <T> T onWriter(Callable<T> work) throws InterruptedException {
+        FutureTask<T> task = new FutureTask<>(work);
+        writer.execute(task);
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
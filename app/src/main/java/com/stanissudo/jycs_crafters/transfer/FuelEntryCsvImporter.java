@@ -0,0 +1,312 @@
+package com.stanissudo.jycs_crafters.transfer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.stanissudo.jycs_crafters.database.FuelEntryDAO;
+import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.utils.FixedPoint;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Streams fuel log rows from CSV into the database.
+ * <p>
+ * The file is read one line at a time and rows are written in batches through
+ * {@link FuelEntryDAO#insertRecords(List)}, so memory stays bounded by the batch size no matter
+ * how long the history is. Each row is checked against the previous accepted row for the same
+ * car (seeded from the newest row already in the database): the date may not go backwards and the
+ * odometer must strictly increase. Rows for a car that does not exist, and other invalid rows, are
+ * skipped and counted.
+ * <p>
+ * Given a writer executor, only the batch transactions run there: the file is read and parsed on
+ * the calling thread, and the next batch is parsed while the previous one is being written, so a
+ * long import does not hold the writer between batches. Any failure, including a database error,
+ * ends the import with a finished progress that carries the reason.
+ * <p>
+ * Expected header (any column order, case-insensitive):
+ * <pre>CarID,logDate,Odometer,Gallons,PricePerGallon[,TotalCost]</pre>
+ * {@code logDate} is ISO-8601 local date-time (e.g. {@code 2025-08-12T07:30}). A missing
+ * {@code TotalCost} is computed from gallons and price.
+ */
+public class FuelEntryCsvImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    /** Only the first few rejections are kept with their reason; the rest are just counted. */
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    /** Snapshot of an import, posted after every batch. */
+    public static final class Progress {
+        public final long linesRead;
+        public final long imported;
+        public final long rejected;
+        public final boolean finished;
+        @Nullable public final String failure;
+        @NonNull public final List<String> errors;
+
+        Progress(long linesRead, long imported, long rejected, boolean finished,
+                 @Nullable String failure, @NonNull List<String> errors) {
+            this.linesRead = linesRead;
+            this.imported = imported;
+            this.rejected = rejected;
+            this.finished = finished;
+            this.failure = failure;
+            this.errors = errors;
+        }
+    }
+
+    /** Last accepted position in a car's log. */
+    private static final class Last {
+        boolean noVehicle;
+        LocalDateTime date;
+        int odometer;
+    }
+
+    private final FuelEntryDAO dao;
+    private final int batchSize;
+    /** Runs the batch inserts; {@code null} to write on the calling thread. */
+    @Nullable
+    private final ExecutorService writer;
+    /** The batch being written, at most one at a time. */
+    @Nullable
+    private Future<Integer> pending;
+    private final MutableLiveData<Progress> progress = new MutableLiveData<>();
+
+    private final Map<Integer, Last> lastByCar = new HashMap<>();
+    private final List<String> errors = new ArrayList<>();
+    private long linesRead;
+    private long imported;
+    private long rejected;
+
+    public FuelEntryCsvImporter(FuelEntryDAO dao, int batchSize) {
+        this(dao, batchSize, null);
+    }
+
+    public FuelEntryCsvImporter(FuelEntryDAO dao, int batchSize, @Nullable ExecutorService writer) {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be positive");
+        this.dao = dao;
+        this.batchSize = batchSize;
+        this.writer = writer;
+    }
+
+    public LiveData<Progress> getProgress() {
+        return progress;
+    }
+
+    /**
+     * Imports every row from {@code in}. Blocks until done; call it from a background thread.
+     * The reader is not closed.
+     *
+     * @return the final progress, also posted to {@link #getProgress()}
+     */
+    @WorkerThread
+    public Progress importFrom(Reader in) {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        try {
+            String header = reader.readLine();
+            if (header == null) return finish(null);
+            linesRead++;
+            int[] cols = mapHeader(splitCsv(header, new ArrayList<>()));
+
+            List<FuelEntry> batch = new ArrayList<>(batchSize);
+            List<String> fields = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                linesRead++;
+                if (line.isEmpty()) continue;
+                FuelEntry e = parseRow(splitCsv(line, fields), cols);
+                if (e == null) continue;
+                batch.add(e);
+                if (batch.size() == batchSize) batch = flush(batch);
+            }
+            flush(batch);
+            awaitPending();
+            return finish(null);
+        } catch (IOException | RuntimeException e) {
+            return finish(e.getMessage() != null ? e.getMessage() : e.toString());
+        } catch (ExecutionException e) {
+            return finish(e.getCause() != null ? String.valueOf(e.getCause()) : e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return finish("interrupted");
+        } finally {
+            if (pending != null) pending.cancel(false);
+        }
+    }
+
+    /**
+     * Writes {@code batch}, on the writer once the previous batch is committed when there is one.
+     *
+     * @return the list to fill next
+     */
+    private List<FuelEntry> flush(List<FuelEntry> batch) throws InterruptedException, ExecutionException {
+        if (batch.isEmpty()) return batch;
+        if (writer == null) {
+            dao.insertRecords(batch);
+            committed(batch.size());
+            batch.clear();
+            return batch;
+        }
+        awaitPending();
+        pending = writer.submit(() -> {
+            dao.insertRecords(batch);
+            return batch.size();
+        });
+        return new ArrayList<>(batchSize);
+    }
+
+    private void awaitPending() throws InterruptedException, ExecutionException {
+        if (pending == null) return;
+        int n = pending.get();
+        pending = null;
+        committed(n);
+    }
+
+    private void committed(int rows) {
+        imported += rows;
+        progress.postValue(snapshot(false, null));
+    }
+
+    private Progress finish(@Nullable String failure) {
+        Progress p = snapshot(true, failure);
+        progress.postValue(p);
+        return p;
+    }
+
+    private Progress snapshot(boolean finished, @Nullable String failure) {
+        return new Progress(linesRead, imported, rejected, finished, failure,
+                Collections.unmodifiableList(new ArrayList<>(errors)));
+    }
+
+    // ---- Row handling ----
+
+    private static final String[] COLUMNS = {"carid", "logdate", "odometer", "gallons", "pricepergallon", "totalcost"};
+    private static final int CAR = 0, DATE = 1, ODO = 2, GALLONS = 3, PRICE = 4, TOTAL = 5;
+
+    private static int[] mapHeader(List<String> header) {
+        int[] cols = new int[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            cols[c] = -1;
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).trim().toLowerCase(Locale.US).equals(COLUMNS[c])) cols[c] = i;
+            }
+            if (cols[c] == -1 && c != TOTAL) {
+                throw new IllegalArgumentException("Missing column: " + COLUMNS[c]);
+            }
+        }
+        return cols;
+    }
+
+    @Nullable
+    private FuelEntry parseRow(List<String> f, int[] cols) {
+        int carId, odometer;
+        long gallons, price, total;
+        LocalDateTime date;
+        try {
+            carId = Integer.parseInt(field(f, cols[CAR]));
+            date = LocalDateTime.parse(field(f, cols[DATE]));
+            odometer = Integer.parseInt(field(f, cols[ODO]));
+            // Parsed straight to fixed-point; no double round-trip.
+            gallons = FixedPoint.parse(field(f, cols[GALLONS]), FixedPoint.GALLONS_SCALE);
+            price = FixedPoint.parse(field(f, cols[PRICE]), FixedPoint.PRICE_SCALE);
+            String t = cols[TOTAL] < 0 ? "" : field(f, cols[TOTAL]);
+            total = t.isEmpty() ? FixedPoint.totalCents(gallons, price) : FixedPoint.parse(t, FixedPoint.COST_SCALE);
+        } catch (NumberFormatException | ArithmeticException | DateTimeParseException | IndexOutOfBoundsException e) {
+            return reject("malformed row");
+        }
+        if (gallons <= 0 || price < 0 || odometer < 0) return reject("values out of range");
+
+        Last last = lastByCar.get(carId);
+        if (last == null) {
+            last = new Last();
+            last.noVehicle = !dao.vehicleExists(carId);
+            List<FuelEntry> newest = dao.getFirstEntriesPage(carId, 1);
+            if (!newest.isEmpty()) {
+                last.date = newest.get(0).getLogDate();
+                last.odometer = newest.get(0).getOdometer() == null ? -1 : newest.get(0).getOdometer();
+            } else {
+                last.odometer = -1;
+            }
+            lastByCar.put(carId, last);
+        }
+        if (last.noVehicle) return reject("no vehicle with id " + carId);
+        if (last.date != null && date.isBefore(last.date)) {
+            return reject("date " + date + " is before " + last.date + " for car " + carId);
+        }
+        if (odometer <= last.odometer) {
+            return reject("odometer " + odometer + " is not above " + last.odometer + " for car " + carId);
+        }
+        last.date = date;
+        last.odometer = odometer;
+
+        FuelEntry e = new FuelEntry();
+        e.setCarID(carId);
+        e.setLogDate(date);
+        e.setOdometer(odometer);
+        e.setGallonsMilli(gallons);
+        e.setPriceTenthCents(price);
+        e.setTotalCostCents(total);
+        return e;
+    }
+
+    @Nullable
+    private FuelEntry reject(String reason) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) errors.add("Line " + linesRead + ": " + reason);
+        return null;
+    }
+
+    private static String field(List<String> f, int i) {
+        return f.get(i).trim();
+    }
+
+    /**
+     * Splits one CSV line into {@code out} (cleared first). Handles quoted fields with
+     * {@code ""} escapes; quoted line breaks are not supported.
+     */
+    static List<String> splitCsv(String line, List<String> out) {
+        out.clear();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        sb.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    sb.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                out.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(ch);
+            }
+        }
+        out.add(sb.toString());
+        return out;
+    }
+}
@@ -0,0 +1,134 @@
+package com.stanissudo.jycs_crafters.transfer;
+
+import android.database.Cursor;
+
+import androidx.annotation.WorkerThread;
+
+import com.stanissudo.jycs_crafters.database.typeConverters.LocalDateTypeConverter;
+import com.stanissudo.jycs_crafters.utils.FixedPoint;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Writes fuel log rows from a {@link Cursor} straight to an {@link OutputStream} as CSV or
+ * newline-delimited JSON.
+ * <p>
+ * Rows are never collected into a list: SQLite fills the cursor window page by page and each row
+ * is written as soon as it is read, so memory use does not depend on the size of the log. The CSV
+ * layout matches what {@link FuelEntryCsvImporter} reads back.
+ */
+public final class FuelEntryExporter {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        public final String mimeType;
+        public final String extension;
+
+        Format(String mimeType, String extension) {
+            this.mimeType = mimeType;
+            this.extension = extension;
+        }
+    }
+
+    private static final String CSV_HEADER = "LogID,CarID,logDate,Odometer,Gallons,PricePerGallon,TotalCost\n";
+    /** How many rows to write between cancellation checks. */
+    private static final int CANCEL_CHECK_INTERVAL = 256;
+
+    private final LocalDateTypeConverter dates = new LocalDateTypeConverter();
+
+    /**
+     * Exports every row of {@code cursor}. The cursor is read but not closed; the stream is
+     * flushed but not closed.
+     *
+     * @param cancelled polled every few hundred rows; when it returns true the export stops
+     * @return number of rows written
+     * @throws CancellationException if {@code cancelled} reported true before the end
+     */
+    @WorkerThread
+    public long export(Cursor cursor, OutputStream out, Format format, BooleanSupplier cancelled)
+            throws IOException {
+        Columns c = new Columns(cursor);
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) w.write(CSV_HEADER);
+
+        long rows = 0;
+        while (cursor.moveToNext()) {
+            if (rows % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) {
+                w.flush();
+                throw new CancellationException("Export cancelled after " + rows + " rows");
+            }
+            if (format == Format.CSV) {
+                writeCsvRow(cursor, c, w);
+            } else {
+                writeJsonRow(cursor, c, w);
+            }
+            rows++;
+        }
+        w.flush();
+        return rows;
+    }
+
+    private void writeCsvRow(Cursor cursor, Columns c, Writer w) throws IOException {
+        w.write(Long.toString(cursor.getLong(c.logId)));
+        w.write(',');
+        w.write(Integer.toString(cursor.getInt(c.carId)));
+        w.write(',');
+        w.write(dates.convertLongToDate(cursor.getLong(c.logDate)).toString());
+        w.write(',');
+        if (!cursor.isNull(c.odometer)) w.write(Integer.toString(cursor.getInt(c.odometer)));
+        w.write(',');
+        writeCsvDecimals(cursor, c, w);
+        w.write('\n');
+    }
+
+    private void writeJsonRow(Cursor cursor, Columns c, Writer w) throws IOException {
+        w.write("{\"LogID\":");
+        w.write(Long.toString(cursor.getLong(c.logId)));
+        w.write(",\"CarID\":");
+        w.write(Integer.toString(cursor.getInt(c.carId)));
+        w.write(",\"logDate\":\"");
+        w.write(dates.convertLongToDate(cursor.getLong(c.logDate)).toString());
+        w.write("\",\"Odometer\":");
+        w.write(cursor.isNull(c.odometer) ? "null" : Integer.toString(cursor.getInt(c.odometer)));
+        w.write(",\"Gallons\":");
+        w.write(FixedPoint.upTo3(cursor.getLong(c.gallons), FixedPoint.GALLONS_SCALE));
+        w.write(",\"PricePerGallon\":");
+        w.write(FixedPoint.upTo3(cursor.getLong(c.price), FixedPoint.PRICE_SCALE));
+        w.write(",\"TotalCost\":");
+        w.write(FixedPoint.upTo2(cursor.getLong(c.total), FixedPoint.COST_SCALE));
+        w.write("}\n");
+    }
+
+    /** Gallons, price and total as exact decimals straight from the fixed-point columns. */
+    private static void writeCsvDecimals(Cursor cursor, Columns c, Writer w) throws IOException {
+        w.write(FixedPoint.upTo3(cursor.getLong(c.gallons), FixedPoint.GALLONS_SCALE));
+        w.write(',');
+        w.write(FixedPoint.upTo3(cursor.getLong(c.price), FixedPoint.PRICE_SCALE));
+        w.write(',');
+        w.write(FixedPoint.upTo2(cursor.getLong(c.total), FixedPoint.COST_SCALE));
+    }
+
+    /** Column indices, resolved once per export instead of once per row. */
+    private static final class Columns {
+        final int logId, carId, logDate, odometer, gallons, price, total;
+
+        Columns(Cursor cursor) {
+            logId = cursor.getColumnIndexOrThrow("LogID");
+            carId = cursor.getColumnIndexOrThrow("CarID");
+            logDate = cursor.getColumnIndexOrThrow("logDate");
+            odometer = cursor.getColumnIndexOrThrow("Odometer");
+            gallons = cursor.getColumnIndexOrThrow("GallonsMilli");
+            price = cursor.getColumnIndexOrThrow("PriceTenthCents");
+            total = cursor.getColumnIndexOrThrow("TotalCostCents");
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+/**
+ * Epoch-millisecond helpers for the fuel log's {@code logDate} column, in the device's zone.
+ * <p>
+ * {@code ZonedDateTime.of(ldt, ZoneId.systemDefault())} allocates a zone ID, a zoned date-time and
+ * an instant, and looks the offset up in the zone rules, for every row. Here the zone's offset
+ * transitions for a century around today are flattened once into two primitive arrays, so
+ * converting, bucketing by day or month and formatting a timestamp are a binary search plus
+ * arithmetic on {@code long}s. Local times within a day of a transition, where a wall-clock time
+ * can be skipped or repeated, and instants outside the table go through {@code java.time} so the
+ * results always match it exactly.
+ * <p>
+ * Call {@link #resetZone()} when the device's time zone changes.
+ */
+public final class EpochTime {
+    private EpochTime() {
+    }
+
+    public static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    /** Table span on each side of "now"; logs are never this old or this far ahead. */
+    private static final long TABLE_HALF_SPAN_MILLIS = 50L * 366 * MILLIS_PER_DAY;
+
+    /**
+     * Offset {@code offsets[i]} is in force from {@code starts[i]} (inclusive) to
+     * {@code starts[i + 1]} (exclusive); {@code starts[0]} and the last entry bound the table.
+     */
+    private static final class Table {
+        final ZoneId zone;
+        final long[] starts;
+        final int[] offsets;
+        /** Last segment hit. Rows arrive in date order, so this usually skips the search; races are benign. */
+        private int hint;
+
+        Table(ZoneId zone, long[] starts, int[] offsets) {
+            this.zone = zone;
+            this.starts = starts;
+            this.offsets = offsets;
+        }
+
+        static Table build(ZoneId zone, long centerMillis) {
+            ZoneRules rules = zone.getRules();
+            long lo = centerMillis - TABLE_HALF_SPAN_MILLIS;
+            long hi = centerMillis + TABLE_HALF_SPAN_MILLIS;
+            long[] starts = new long[64];
+            int[] offsets = new int[64];
+            int n = 0;
+            starts[n] = lo;
+            offsets[n++] = rules.getOffset(Instant.ofEpochMilli(lo)).getTotalSeconds() * 1000;
+            ZoneOffsetTransition t = rules.nextTransition(Instant.ofEpochMilli(lo));
+            while (t != null && t.toEpochSecond() * 1000 < hi) {
+                if (n + 1 >= starts.length) {
+                    starts = Arrays.copyOf(starts, n * 2);
+                    offsets = Arrays.copyOf(offsets, n * 2);
+                }
+                starts[n] = t.toEpochSecond() * 1000;
+                offsets[n++] = t.getOffsetAfter().getTotalSeconds() * 1000;
+                t = rules.nextTransition(t.getInstant());
+            }
+            starts[n] = hi; // end sentinel; its offset slot is unused
+            return new Table(zone, Arrays.copyOf(starts, n + 1), Arrays.copyOf(offsets, n));
+        }
+
+        /** Segment containing {@code utcMillis}, or -1 outside the table. */
+        int indexOf(long utcMillis) {
+            int last = offsets.length;
+            if (utcMillis < starts[0] || utcMillis >= starts[last]) return -1;
+            int h = hint;
+            if (starts[h] <= utcMillis && utcMillis < starts[h + 1]) return h;
+            int lo = 0;
+            int hi = last - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (starts[mid] <= utcMillis) lo = mid; else hi = mid - 1;
+            }
+            hint = lo;
+            return lo;
+        }
+    }
+
+    private static volatile Table table = Table.build(ZoneId.systemDefault(), System.currentTimeMillis());
+
+    /** Re-reads the system default zone; call after {@code ACTION_TIMEZONE_CHANGED}. */
+    public static void resetZone() {
+        setZone(ZoneId.systemDefault());
+    }
+
+    /** Uses {@code zone} instead of the system default (tests, or a user-picked zone). */
+    public static void setZone(ZoneId zone) {
+        table = Table.build(zone, System.currentTimeMillis());
+    }
+
+    public static ZoneId zone() {
+        return table.zone;
+    }
+
+    // ---- Offsets ----
+
+    /** UTC offset in force at {@code utcMillis}, in milliseconds. */
+    public static int offsetMillis(long utcMillis) {
+        Table tb = table;
+        int i = tb.indexOf(utcMillis);
+        if (i >= 0) return tb.offsets[i];
+        return tb.zone.getRules().getOffset(Instant.ofEpochMilli(utcMillis)).getTotalSeconds() * 1000;
+    }
+
+    /** Wall-clock time at {@code utcMillis}, as milliseconds since 1970-01-01T00:00 local. */
+    public static long toLocalMillis(long utcMillis) {
+        return utcMillis + offsetMillis(utcMillis);
+    }
+
+    /**
+     * Instant at which the wall clock reads {@code localMillis}. Skipped local times move forward
+     * by the length of the gap and repeated ones take the earlier offset, as in
+     * {@link ZonedDateTime#of}.
+     */
+    public static long fromLocalMillis(long localMillis) {
+        Table tb = table;
+        int i = tb.indexOf(localMillis - offsetMillis(localMillis));
+        if (i >= 0) {
+            long utc = localMillis - tb.offsets[i];
+            // More than a day from both ends of the segment, no other offset can map here.
+            if (utc - tb.starts[i] >= MILLIS_PER_DAY && tb.starts[i + 1] - utc > MILLIS_PER_DAY) {
+                return utc;
+            }
+        }
+        return ZonedDateTime.of(localDateTimeOf(localMillis), tb.zone).toInstant().toEpochMilli();
+    }
+
+    // ---- LocalDateTime views ----
+
+    public static long toEpochMillis(LocalDateTime ldt) {
+        long local = ldt.toLocalDate().toEpochDay() * MILLIS_PER_DAY
+                + ldt.toLocalTime().toNanoOfDay() / 1_000_000L;
+        return fromLocalMillis(local);
+    }
+
+    public static LocalDateTime toLocalDateTime(long utcMillis) {
+        return localDateTimeOf(toLocalMillis(utcMillis));
+    }
+
+    private static LocalDateTime localDateTimeOf(long localMillis) {
+        long seconds = Math.floorDiv(localMillis, 1000L);
+        int nanos = (int) Math.floorMod(localMillis, 1000L) * 1_000_000;
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    // ---- Buckets ----
+
+    /** Local calendar day of {@code utcMillis}, as days since 1970-01-01. */
+    public static long epochDay(long utcMillis) {
+        return Math.floorDiv(toLocalMillis(utcMillis), MILLIS_PER_DAY);
+    }
+
+    /** Local calendar month of {@code utcMillis}, as months since 1970-01. */
+    public static int epochMonth(long utcMillis) {
+        int civil = civilFromDays(epochDay(utcMillis));
+        return (civilYear(civil) - 1970) * 12 + civilMonth(civil) - 1;
+    }
+
+    /** First instant of local day {@code epochDay}. */
+    public static long startOfDay(long epochDay) {
+        return fromLocalMillis(epochDay * MILLIS_PER_DAY);
+    }
+
+    /** First instant of local month {@code epochMonth} (see {@link #epochMonth}). */
+    public static long startOfMonth(int epochMonth) {
+        int year = 1970 + Math.floorDiv(epochMonth, 12);
+        int month = Math.floorMod(epochMonth, 12) + 1;
+        return startOfDay(daysFromCivil(year, month, 1));
+    }
+
+    // ---- Formatting ----
+
+    /** Appends {@code utcMillis} as local {@code MM/dd/yyyy h:mm AM}, without a formatter. */
+    public static StringBuilder appendDateTime(StringBuilder sb, long utcMillis) {
+        long local = toLocalMillis(utcMillis);
+        int civil = civilFromDays(Math.floorDiv(local, MILLIS_PER_DAY));
+        int minuteOfDay = (int) (Math.floorMod(local, MILLIS_PER_DAY) / MILLIS_PER_MINUTE);
+        int hour = minuteOfDay / 60;
+        int minute = minuteOfDay % 60;
+        int hour12 = hour % 12 == 0 ? 12 : hour % 12;
+
+        pad2(sb, civilMonth(civil)).append('/');
+        pad2(sb, civilDay(civil)).append('/');
+        sb.append(civilYear(civil)).append(' ');
+        sb.append(hour12).append(':');
+        pad2(sb, minute).append(hour < 12 ? " AM" : " PM");
+        return sb;
+    }
+
+    public static String formatDateTime(long utcMillis) {
+        return appendDateTime(new StringBuilder(19), utcMillis).toString();
+    }
+
+    private static StringBuilder pad2(StringBuilder sb, int v) {
+        if (v < 10) sb.append('0');
+        return sb.append(v);
+    }
+
+    // ---- Proleptic Gregorian calendar arithmetic (H. Hinnant's days/civil algorithms) ----
+
+    /** Days since 1970-01-01 for a calendar date. */
+    static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146_097 + doe - 719_468;
+    }
+
+    /** Calendar date of {@code epochDay}, packed as {@code year << 9 | month << 5 | day}. */
+    static int civilFromDays(long epochDay) {
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long doe = z - era * 146_097;
+        long yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+        return year << 9 | month << 5 | day;
+    }
+
+    static int civilYear(int civil) {
+        return civil >> 9;
+    }
+
+    static int civilMonth(int civil) {
+        return (civil >> 5) & 0xF;
+    }
+
+    static int civilDay(int civil) {
+        return civil & 0x1F;
+    }
+}
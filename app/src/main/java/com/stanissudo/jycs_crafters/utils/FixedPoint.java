@@ -0,0 +1,192 @@
+package com.stanissudo.jycs_crafters.utils;
+
+/**
+ * Decimal arithmetic on scaled {@code long}s, used for the fuel log's money and volume columns.
+ * <p>
+ * A value {@code v} at scale {@code s} means {@code v / s}; e.g. 4.399 $/gal at
+ * {@link #PRICE_SCALE} is {@code 4399}. Everything here is static and works on primitives, so
+ * the cursor-to-entity path and the auto-calc watchers never allocate wrapper objects, and sums
+ * of stored values are exact. Rounding is half away from zero throughout.
+ */
+public final class FixedPoint {
+    private FixedPoint() {
+    }
+
+    /** Gallons are stored in milli-gallons. */
+    public static final int GALLONS_SCALE = 1000;
+    /** Price per gallon is stored in tenth-cents ($0.001), as pumps display it. */
+    public static final int PRICE_SCALE = 1000;
+    /** Totals are stored in cents. */
+    public static final int COST_SCALE = 100;
+    /** Fuel economy is stored in milli-MPG. */
+    public static final int MPG_SCALE = 1000;
+
+    // ---- Conversion ----
+
+    /**
+     * Parses a plain decimal string ("12", "-3.5", ".25") straight to a scaled value without
+     * going through {@code double}. Digits beyond the scale are rounded.
+     *
+     * @throws NumberFormatException if {@code s} is not a plain decimal number
+     */
+    public static long parse(String s, int scale) {
+        if (s == null) throw new NumberFormatException("null");
+        int len = s.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < len && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        long whole = 0;
+        long frac = 0;
+        int fracDigits = digits(scale);
+        int seen = 0;
+        boolean any = false;
+        boolean roundUp = false;
+        for (; i < len && s.charAt(i) != '.'; i++) {
+            whole = Math.addExact(Math.multiplyExact(whole, 10), digit(s, i));
+            any = true;
+        }
+        if (i < len) { // at '.'
+            for (i++; i < len; i++) {
+                int d = digit(s, i);
+                any = true;
+                if (seen < fracDigits) {
+                    frac = frac * 10 + d;
+                } else if (seen == fracDigits) {
+                    roundUp = d >= 5;
+                }
+                seen++;
+            }
+        }
+        if (!any) throw new NumberFormatException("No digits in \"" + s + "\"");
+        for (; seen < fracDigits; seen++) frac *= 10;
+        long v = Math.addExact(Math.multiplyExact(whole, scale), frac) + (roundUp ? 1 : 0);
+        return negative ? -v : v;
+    }
+
+    /** Nearest scaled value to {@code v}; for values that only exist as doubles (legacy data, sensors). */
+    public static long fromDouble(double v, int scale) {
+        return Math.round(v * scale);
+    }
+
+    public static double toDouble(long v, int scale) {
+        return (double) v / scale;
+    }
+
+    /** Re-expresses {@code v} at another scale, rounding if precision is lost. */
+    public static long rescale(long v, int from, int to) {
+        if (from == to) return v;
+        return roundDiv(Math.multiplyExact(v, (long) to), from);
+    }
+
+    // ---- Arithmetic ----
+
+    /** {@code a * b}, with each operand at its own scale and the product at {@code outScale}. */
+    public static long multiply(long a, int scaleA, long b, int scaleB, int outScale) {
+        return roundDiv(Math.multiplyExact(Math.multiplyExact(a, b), (long) outScale), (long) scaleA * scaleB);
+    }
+
+    /**
+     * {@code num / den}, with each operand at its own scale and the quotient at {@code outScale}.
+     *
+     * @throws ArithmeticException if {@code den} is zero
+     */
+    public static long divide(long num, int scaleNum, long den, int scaleDen, int outScale) {
+        if (den == 0) throw new ArithmeticException("Division by zero");
+        return roundDiv(Math.multiplyExact(Math.multiplyExact(num, (long) scaleDen), (long) outScale),
+                Math.multiplyExact(den, (long) scaleNum));
+    }
+
+    /** Total in cents for {@code gallonsMilli} at {@code priceTenthCents} per gallon. */
+    public static long totalCents(long gallonsMilli, long priceTenthCents) {
+        return multiply(gallonsMilli, GALLONS_SCALE, priceTenthCents, PRICE_SCALE, COST_SCALE);
+    }
+
+    /** Milli-MPG for {@code distance} miles on {@code gallonsMilli}; {@code gallonsMilli} must be positive. */
+    public static long mpgMilli(long distance, long gallonsMilli) {
+        return divide(distance, 1, gallonsMilli, GALLONS_SCALE, MPG_SCALE);
+    }
+
+    /** {@code n / d} rounded half away from zero. */
+    static long roundDiv(long n, long d) {
+        if (d < 0) {
+            n = -n;
+            d = -d;
+        }
+        long q = n / d;
+        long r = n % d;
+        if (Math.abs(r) * 2 >= d) q += n < 0 ? -1 : 1;
+        return q;
+    }
+
+    // ---- Formatting ----
+
+    /**
+     * Formats {@code v} with at most {@code decimals} fraction digits, rounding if the scale has
+     * more. With {@code trimZeros} trailing zeros (and a bare dot) are dropped, matching
+     * {@link NumberFormatter#upTo2}; without it exactly {@code decimals} digits are written.
+     */
+    public static String format(long v, int scale, int decimals, boolean trimZeros) {
+        int target = pow10(decimals);
+        long scaled = rescale(v, scale, target);
+        StringBuilder sb = new StringBuilder(24);
+        if (scaled < 0) {
+            sb.append('-');
+            scaled = -scaled;
+        }
+        sb.append(scaled / target);
+        if (decimals == 0) return sb.toString();
+
+        long frac = scaled % target;
+        int keep = decimals;
+        if (trimZeros) {
+            while (keep > 0 && frac % 10 == 0) {
+                frac /= 10;
+                keep--;
+            }
+            if (keep == 0) return sb.toString();
+        }
+        sb.append('.');
+        String digits = Long.toString(frac);
+        for (int pad = keep - digits.length(); pad > 0; pad--) sb.append('0');
+        return sb.append(digits).toString();
+    }
+
+    /** Up to 2 decimals, e.g. cents 250 → "2.5". */
+    public static String upTo2(long v, int scale) {
+        return format(v, scale, 2, true);
+    }
+
+    /** Up to 3 decimals, e.g. milli-gallons 12345 → "12.345". */
+    public static String upTo3(long v, int scale) {
+        return format(v, scale, 3, true);
+    }
+
+    /** Exactly 2 decimals, e.g. cents 250 → "2.50". */
+    public static String fixed2(long v, int scale) {
+        return format(v, scale, 2, false);
+    }
+
+    // ---- Helpers ----
+
+    private static int digit(String s, int i) {
+        char c = s.charAt(i);
+        if (c < '0' || c > '9') throw new NumberFormatException("Bad character in \"" + s + "\"");
+        return c - '0';
+    }
+
+    private static int digits(int scale) {
+        int n = 0;
+        for (int s = scale; s > 1; s /= 10) n++;
+        if (pow10(n) != scale) throw new IllegalArgumentException("Scale must be a power of 10: " + scale);
+        return n;
+    }
+
+    private static int pow10(int n) {
+        int p = 1;
+        for (int i = 0; i < n; i++) p *= 10;
+        return p;
+    }
+}
@@ -0,0 +1,165 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of one car's odometer readings, oldest first, for checking an odometer while it is
+ * being typed.
+ * <p>
+ * The readings live in three parallel primitive arrays sorted by {@code (logDate, LogID)}, so
+ * finding the neighbours of a date is a binary search with no database access and no boxing.
+ * The bounds follow {@code FuelEntryDAO.validateAndSave}: the previous reading is the latest one
+ * dated strictly before the entry, the next one the earliest dated strictly after it, and the
+ * entry being edited is ignored. The save still runs that check in its transaction; this is only
+ * early feedback. Entries without an odometer are left out.
+ */
+public final class OdometerIndex {
+
+    /** No car selected, or nothing loaded yet. */
+    public static final OdometerIndex EMPTY =
+            new OdometerIndex(-1, new long[0], new long[0], new int[0], 0, null);
+
+    private final int carId;
+    private final long[] logIds;
+    private final long[] dates;
+    private final int[] odometers;
+    private final int size;
+    /** Price of the newest entry, in tenths of a cent; {@code null} when the car has no entries. */
+    @Nullable private final Long latestPriceTenthCents;
+
+    private OdometerIndex(int carId, long[] logIds, long[] dates, int[] odometers, int size,
+                          @Nullable Long latestPriceTenthCents) {
+        this.carId = carId;
+        this.logIds = logIds;
+        this.dates = dates;
+        this.odometers = odometers;
+        this.size = size;
+        this.latestPriceTenthCents = latestPriceTenthCents;
+    }
+
+    public int getCarId() {
+        return carId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Odometer of the latest entry dated before {@code logDateMillis}, other than {@code excludeLogId}. */
+    @Nullable
+    public Integer previousOdometer(long logDateMillis, long excludeLogId) {
+        for (int i = firstAtOrAfter(logDateMillis) - 1; i >= 0; i--) {
+            if (logIds[i] != excludeLogId) return odometers[i];
+        }
+        return null;
+    }
+
+    /** Odometer of the earliest entry dated after {@code logDateMillis}, other than {@code excludeLogId}. */
+    @Nullable
+    public Integer nextOdometer(long logDateMillis, long excludeLogId) {
+        for (int i = firstAfter(logDateMillis); i < size; i++) {
+            if (logIds[i] != excludeLogId) return odometers[i];
+        }
+        return null;
+    }
+
+    /** Whether {@code odometer} lies strictly between the neighbours of {@code logDateMillis}. */
+    public boolean accepts(int odometer, long logDateMillis, long excludeLogId) {
+        Integer prev = previousOdometer(logDateMillis, excludeLogId);
+        Integer next = nextOdometer(logDateMillis, excludeLogId);
+        return (prev == null || odometer > prev) && (next == null || odometer < next);
+    }
+
+    /** Odometer of the newest entry, or {@code null} if there is none. */
+    @Nullable
+    public Integer latestOdometer() {
+        return size == 0 ? null : odometers[size - 1];
+    }
+
+    @Nullable
+    public Long latestPriceTenthCents() {
+        return latestPriceTenthCents;
+    }
+
+    /**
+     * Likely reading at the next fill-up: the newest reading plus the average distance between
+     * fill-ups. {@code null} until the car has two readings.
+     */
+    @Nullable
+    public Integer suggestedOdometer() {
+        if (size < 2) return null;
+        long span = (long) odometers[size - 1] - odometers[0];
+        if (span <= 0) return null;
+        return (int) (odometers[size - 1] + (span + (size - 1) / 2) / (size - 1));
+    }
+
+    /** First index whose date is {@code >= logDateMillis}. */
+    private int firstAtOrAfter(long logDateMillis) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dates[mid] < logDateMillis) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** First index whose date is {@code > logDateMillis}. */
+    private int firstAfter(long logDateMillis) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dates[mid] <= logDateMillis) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Collects readings in {@code (logDate, LogID)} order; the arrays grow by doubling. */
+    public static final class Builder {
+        private final int carId;
+        private long[] logIds;
+        private long[] dates;
+        private int[] odometers;
+        private int size;
+        @Nullable private Long latestPriceTenthCents;
+
+        public Builder(int carId, int expectedSize) {
+            int capacity = Math.max(expectedSize, 8);
+            this.carId = carId;
+            logIds = new long[capacity];
+            dates = new long[capacity];
+            odometers = new int[capacity];
+        }
+
+        /**
+         * Adds the next entry. Rows must arrive oldest first.
+         *
+         * @param odometer the entry's reading, or {@code null} to only record its price
+         */
+        public Builder add(long logId, long logDateMillis, @Nullable Integer odometer, long priceTenthCents) {
+            latestPriceTenthCents = priceTenthCents;
+            if (odometer == null) return this;
+            if (size > 0 && (logDateMillis < dates[size - 1]
+                    || (logDateMillis == dates[size - 1] && logId < logIds[size - 1]))) {
+                throw new IllegalArgumentException("Entries must be added in (logDate, LogID) order");
+            }
+            if (size == logIds.length) {
+                logIds = Arrays.copyOf(logIds, size * 2);
+                dates = Arrays.copyOf(dates, size * 2);
+                odometers = Arrays.copyOf(odometers, size * 2);
+            }
+            logIds[size] = logId;
+            dates[size] = logDateMillis;
+            odometers[size] = odometer;
+            size++;
+            return this;
+        }
+
+        public OdometerIndex build() {
+            return new OdometerIndex(carId, logIds, dates, odometers, size, latestPriceTenthCents);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Single place for hashing and checking passwords.
+ * <p>
+ * Stored passwords come in three shapes: legacy plaintext, unsalted SHA-256 hex, and PBKDF2
+ * strings ({@code pbkdf2-sha256$iterations$salt$hash}). {@link #verify} accepts all three;
+ * {@link #hashForStorage} produces whatever the current storage {@link Kdf} is (SHA-256 unless
+ * {@link #setStorageKdf} says otherwise), and {@link #needsUpgrade} tells callers when a stored
+ * value should be re-hashed after a successful login. Accounts that only sign in through Google
+ * store {@link #NO_PASSWORD}, which no attempt verifies against.
+ */
+public final class PasswordHasher {
+    private PasswordHasher() {
+    }
+
+    /** A password hashing scheme that can recognise its own output. */
+    public interface Kdf {
+        String hash(String password);
+
+        boolean verify(String password, String stored);
+
+        boolean recognizes(String stored);
+    }
+
+    // Compiled once; the old code recompiled this regex on every String.matches call.
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-fA-F]{64}");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    // MessageDigest is not thread-safe, so each thread keeps its own instead of looking one up per call.
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    /** Unsalted SHA-256 hex; what every existing hashed row uses. */
+    public static final Kdf SHA256_HEX_KDF = new Kdf() {
+        @Override
+        public String hash(String password) {
+            return sha256Hex(password);
+        }
+
+        @Override
+        public boolean verify(String password, String stored) {
+            byte[] attempt = sha256Hex(password).getBytes(StandardCharsets.US_ASCII);
+            byte[] expected = stored.toLowerCase(java.util.Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+            return MessageDigest.isEqual(attempt, expected);
+        }
+
+        @Override
+        public boolean recognizes(String stored) {
+            return isSha256Hex(stored);
+        }
+    };
+
+    /** Salted, slow PBKDF2-HMAC-SHA256 with an iteration count calibrated on this device. */
+    public static final Pbkdf2 PBKDF2 = new Pbkdf2();
+
+    private static volatile Kdf storageKdf = SHA256_HEX_KDF;
+
+    /**
+     * Stored for accounts without a password. Not a hash and never compared as plaintext, so
+     * nothing typed at the login screen matches it.
+     */
+    public static final String NO_PASSWORD = "!no-password";
+
+    // ---- Public helpers ----
+
+    /** True for a 64-character hex string, i.e. a legacy SHA-256 hash. */
+    public static boolean isSha256Hex(String s) {
+        return s != null && s.length() == 64 && SHA256_HEX.matcher(s).matches();
+    }
+
+    /** Lowercase hex SHA-256 of the UTF-8 bytes of {@code s}. */
+    public static String sha256Hex(String s) {
+        MessageDigest md = SHA256.get();
+        md.reset();
+        return toHex(md.digest(s.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** True if {@code stored} is any hash this class produces (as opposed to legacy plaintext). */
+    public static boolean isHashed(String stored) {
+        return stored != null && (SHA256_HEX_KDF.recognizes(stored) || PBKDF2.recognizes(stored));
+    }
+
+    /** Hashes a new password with the current storage scheme. */
+    public static String hashForStorage(String password) {
+        return storageKdf.hash(password);
+    }
+
+    /** True if the account has no password and only signs in through Google. */
+    public static boolean isNoPassword(String stored) {
+        return NO_PASSWORD.equals(stored);
+    }
+
+    /** Returns {@code password} unchanged if it is already a hash, otherwise hashes it. */
+    public static String hashIfNeeded(String password) {
+        return isHashed(password) ? password : hashForStorage(password);
+    }
+
+    /** Checks a login attempt against a stored value of any supported shape; never matches {@link #NO_PASSWORD}. */
+    public static boolean verify(String attempt, String stored) {
+        if (attempt == null || stored == null || isNoPassword(stored)) return false;
+        if (PBKDF2.recognizes(stored)) return PBKDF2.verify(attempt, stored);
+        if (SHA256_HEX_KDF.recognizes(stored)) return SHA256_HEX_KDF.verify(attempt, stored);
+        return stored.equals(attempt); // legacy plaintext
+    }
+
+    /** True if {@code stored} should be re-hashed with the current storage scheme. */
+    public static boolean needsUpgrade(String stored) {
+        return stored == null || !storageKdf.recognizes(stored);
+    }
+
+    /** Switches the scheme used for newly stored passwords. Existing hashes keep verifying. */
+    public static void setStorageKdf(Kdf kdf) {
+        storageKdf = kdf;
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xff;
+            out[i * 2] = HEX[v >>> 4];
+            out[i * 2 + 1] = HEX[v & 0x0f];
+        }
+        return new String(out);
+    }
+
+    /**
+     * PBKDF2 path. The iteration count is picked by timing this device the first time a hash is
+     * made (see {@link #calibrate}) and is stored inside each hash, so verifying never depends on
+     * the current calibration.
+     */
+    public static final class Pbkdf2 implements Kdf {
+        static final String PREFIX = "pbkdf2-sha256$";
+        static final int MIN_ITERATIONS = 10_000;
+        static final int MAX_ITERATIONS = 2_000_000;
+        /** Target time for one hash; slow enough to hurt brute force, fast enough for a login. */
+        static final long DEFAULT_TARGET_MILLIS = 150;
+        private static final int SALT_BYTES = 16;
+        private static final int KEY_BITS = 256;
+        private static final int PROBE_ITERATIONS = 20_000;
+
+        private final SecureRandom random = new SecureRandom();
+        private volatile int iterations;
+
+        Pbkdf2() {
+        }
+
+        /**
+         * Times a probe derivation and sets the iteration count so one hash takes about
+         * {@code targetMillis} on this device.
+         *
+         * @return the chosen iteration count
+         */
+        public int calibrate(long targetMillis) {
+            byte[] salt = new byte[SALT_BYTES];
+            derive("calibration".toCharArray(), salt, PROBE_ITERATIONS / 10); // warm up the provider
+            long start = System.nanoTime();
+            derive("calibration".toCharArray(), salt, PROBE_ITERATIONS);
+            long nanos = Math.max(1, System.nanoTime() - start);
+            double scaled = (double) PROBE_ITERATIONS * targetMillis * 1_000_000L / nanos;
+            int chosen = (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, scaled));
+            iterations = chosen;
+            return chosen;
+        }
+
+        /** Current iteration count for new hashes, calibrating first if needed. */
+        public int iterations() {
+            int n = iterations;
+            return n != 0 ? n : calibrate(DEFAULT_TARGET_MILLIS);
+        }
+
+        @Override
+        public String hash(String password) {
+            byte[] salt = new byte[SALT_BYTES];
+            random.nextBytes(salt);
+            int n = iterations();
+            Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+            return PREFIX + n + '$' + b64.encodeToString(salt) + '$'
+                    + b64.encodeToString(derive(password.toCharArray(), salt, n));
+        }
+
+        @Override
+        public boolean verify(String password, String stored) {
+            String[] parts = stored.substring(PREFIX.length()).split("\\$");
+            if (parts.length != 3) return false;
+            try {
+                int n = Integer.parseInt(parts[0]);
+                byte[] salt = Base64.getDecoder().decode(parts[1]);
+                byte[] expected = Base64.getDecoder().decode(parts[2]);
+                return MessageDigest.isEqual(expected, derive(password.toCharArray(), salt, n));
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public boolean recognizes(String stored) {
+            return stored != null && stored.startsWith(PREFIX);
+        }
+
+        private static byte[] derive(char[] password, byte[] salt, int iterations) {
+            PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, KEY_BITS);
+            try {
+                return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+            } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                spec.clearPassword();
+            }
+        }
+    }
+}
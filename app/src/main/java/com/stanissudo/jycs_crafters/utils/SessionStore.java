@@ -0,0 +1,234 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Looper;
+import android.os.StrictMode;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Typed, in-memory view of the login session kept in {@code login_prefs}.
+ * <p>
+ * The preferences file is opened and read once, on a background thread, as soon as
+ * {@link #get(Context)} is first called (from {@code FuelTrackApplication.onCreate}). After that
+ * every read is a field access. Writes update the in-memory {@link Session} immediately, notify
+ * {@link #observe()}, and are flushed to disk in one {@code commit()} on the same background
+ * thread; several writes in quick succession share a single flush.
+ * <p>
+ * Activities should go through this class rather than {@code getSharedPreferences}; a read made
+ * before the initial load has finished waits for it instead of opening the file itself, and on the
+ * main thread that wait is reported to StrictMode as a slow call.
+ */
+public final class SessionStore {
+    private static final String TAG = "SessionStore";
+
+    static final String PREFS = "login_prefs";
+    static final String KEY_USER_ID = "userId";
+    static final String KEY_USERNAME = "username";
+    static final String KEY_IS_ADMIN = "isAdmin";
+    static final String KEY_LOGGED_IN = "isLoggedIn";
+    static final String KEY_LAST_VEHICLE = "lastSelectedVehicleId";
+
+    private static volatile SessionStore INSTANCE;
+
+    /** Immutable snapshot of the session. */
+    public static final class Session {
+        public static final Session LOGGED_OUT = new Session(-1, "", false, false, -1);
+
+        public final int userId;
+        @NonNull public final String username;
+        public final boolean isAdmin;
+        public final boolean loggedIn;
+        public final int lastVehicleId;
+
+        Session(int userId, String username, boolean isAdmin, boolean loggedIn, int lastVehicleId) {
+            this.userId = userId;
+            this.username = username == null ? "" : username;
+            this.isAdmin = isAdmin;
+            this.loggedIn = loggedIn;
+            this.lastVehicleId = lastVehicleId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Session)) return false;
+            Session s = (Session) o;
+            return userId == s.userId && isAdmin == s.isAdmin && loggedIn == s.loggedIn
+                    && lastVehicleId == s.lastVehicleId && username.equals(s.username);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, username, isAdmin, loggedIn, lastVehicleId);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Session{userId=" + userId + ", username='" + username + "', isAdmin=" + isAdmin
+                    + ", loggedIn=" + loggedIn + ", lastVehicleId=" + lastVehicleId + '}';
+        }
+    }
+
+    private final Executor io;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final MutableLiveData<Session> live = new MutableLiveData<>();
+    private final Object lock = new Object();
+    private SharedPreferences prefs; // touched on the io thread only
+    private volatile Session session = Session.LOGGED_OUT;
+    private boolean flushPending; // guarded by lock
+
+    public static SessionStore get(Context context) {
+        if (INSTANCE == null) {
+            synchronized (SessionStore.class) {
+                if (INSTANCE == null) {
+                    Context app = context.getApplicationContext();
+                    INSTANCE = new SessionStore(
+                            () -> app.getSharedPreferences(PREFS, Context.MODE_PRIVATE),
+                            Executors.newSingleThreadExecutor(r -> new Thread(r, "session-io")));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    SessionStore(Supplier<SharedPreferences> prefsSource, Executor io) {
+        this.io = io;
+        io.execute(() -> load(prefsSource.get()));
+    }
+
+    private void load(SharedPreferences sp) {
+        prefs = sp;
+        session = new Session(
+                sp.getInt(KEY_USER_ID, -1),
+                sp.getString(KEY_USERNAME, ""),
+                sp.getBoolean(KEY_IS_ADMIN, false),
+                sp.getBoolean(KEY_LOGGED_IN, false),
+                sp.getInt(KEY_LAST_VEHICLE, -1));
+        loaded.countDown();
+        live.postValue(session);
+    }
+
+    // ---- Reads ----
+
+    /** The current session; waits for the initial load if it has not finished yet. */
+    @NonNull
+    public Session current() {
+        awaitLoaded();
+        return session;
+    }
+
+    /** Emits the session once loaded and after every change. */
+    public LiveData<Session> observe() {
+        return live;
+    }
+
+    public boolean isLoggedIn() {
+        return current().loggedIn;
+    }
+
+    public int getUserId() {
+        return current().userId;
+    }
+
+    @NonNull
+    public String getUsername() {
+        return current().username;
+    }
+
+    public boolean isAdmin() {
+        return current().isAdmin;
+    }
+
+    public int getLastSelectedVehicleId() {
+        return current().lastVehicleId;
+    }
+
+    // ---- Writes ----
+
+    /**
+     * Starts a session. The last selected vehicle is kept only when the same user logs back in;
+     * another account must not start out on the previous user's car.
+     */
+    public void login(int userId, String username, boolean isAdmin) {
+        update(s -> new Session(userId, username, isAdmin, true, s.userId == userId ? s.lastVehicleId : -1));
+    }
+
+    /** Ends the session. The user and vehicle IDs are kept, as before, for the next login. */
+    public void logout() {
+        update(s -> new Session(s.userId, "", false, false, s.lastVehicleId));
+    }
+
+    public void setUsername(String username) {
+        update(s -> new Session(s.userId, username, s.isAdmin, s.loggedIn, s.lastVehicleId));
+    }
+
+    public void setLastSelectedVehicleId(int vehicleId) {
+        update(s -> new Session(s.userId, s.username, s.isAdmin, s.loggedIn, vehicleId));
+    }
+
+    private void update(UnaryOperator<Session> change) {
+        awaitLoaded();
+        Session next;
+        boolean schedule;
+        synchronized (lock) {
+            Session prev = session;
+            next = change.apply(prev);
+            if (next.equals(prev)) return;
+            session = next;
+            schedule = !flushPending;
+            flushPending = true;
+        }
+        live.postValue(next);
+        if (schedule) io.execute(this::flush);
+    }
+
+    /** Writes whatever the latest session is; earlier queued changes are folded into it. */
+    private void flush() {
+        Session s;
+        synchronized (lock) {
+            flushPending = false;
+            s = session;
+        }
+        SharedPreferences.Editor ed = prefs.edit()
+                .putInt(KEY_USER_ID, s.userId)
+                .putBoolean(KEY_LOGGED_IN, s.loggedIn)
+                .putInt(KEY_LAST_VEHICLE, s.lastVehicleId);
+        if (s.loggedIn) {
+            ed.putString(KEY_USERNAME, s.username).putBoolean(KEY_IS_ADMIN, s.isAdmin);
+        } else {
+            ed.remove(KEY_USERNAME).remove(KEY_IS_ADMIN);
+        }
+        // Already off the main thread, so commit() here avoids apply()'s wait in onStop.
+        if (!ed.commit()) Log.w(TAG, "Failed to persist session");
+    }
+
+    private void awaitLoaded() {
+        if (loaded.getCount() == 0) return;
+        Log.d(TAG, "Session read before preload finished; waiting");
+        // Shows up under StrictMode's detectCustomSlowCalls() like a disk read would.
+        if (Looper.getMainLooper().isCurrentThread()) StrictMode.noteSlowCall("SessionStore waited for its preload");
+        boolean interrupted = false;
+        while (true) {
+            try {
+                loaded.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+}
@@ -0,0 +1,201 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import android.content.Context;
+import android.widget.ArrayAdapter;
+import android.widget.AutoCompleteTextView;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.stanissudo.jycs_crafters.R;
+import com.stanissudo.jycs_crafters.database.entities.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * App-wide holder for the user's vehicles and the currently selected one.
+ * <p>
+ * Vehicles are indexed by ID, so resolving the selection is a map lookup rather than a scan over
+ * display names, and two cars with the same name stay distinct. The selection is exposed as
+ * {@link LiveData}; screens observe {@link #getSelectedId()} instead of re-reading preferences in
+ * {@code onResume}. The last choice is kept in {@link SessionStore}, which persists it off the
+ * caller's thread.
+ * <p>
+ * All mutators must be called on the main thread.
+ */
+public final class VehicleSelectionStore {
+
+    public static final int NO_VEHICLE = -1;
+
+    private static volatile VehicleSelectionStore INSTANCE;
+
+    /** Called when the user picks a vehicle from a dropdown bound with {@link #bindDropdown}. */
+    public interface OnVehicleSelected {
+        void onSelected(int vehicleId);
+    }
+
+    private final SessionStore session;
+    private final Map<Integer, Vehicle> byId = new LinkedHashMap<>();
+    private final MutableLiveData<List<Vehicle>> vehicles = new MutableLiveData<>(Collections.emptyList());
+    private final MutableLiveData<Integer> selectedId = new MutableLiveData<>();
+    // Mirrors selectedId so non-observing callers (nav drawer, save) read it without unboxing LiveData.
+    private volatile int current;
+
+    public static VehicleSelectionStore get(Context context) {
+        if (INSTANCE == null) {
+            synchronized (VehicleSelectionStore.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new VehicleSelectionStore(SessionStore.get(context));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    VehicleSelectionStore(SessionStore session) {
+        this.session = session;
+        this.current = session.getLastSelectedVehicleId();
+    }
+
+    // ---- Observation ----
+
+    /** The current vehicle list, in the order it was last {@link #setVehicles set}. */
+    public LiveData<List<Vehicle>> getVehicles() {
+        return vehicles;
+    }
+
+    /**
+     * Emits the selected vehicle ID whenever it changes; never emits for an unknown ID. Holds
+     * {@code null} after {@link #reset()} until the next account's vehicles are loaded.
+     */
+    public LiveData<Integer> getSelectedId() {
+        return selectedId;
+    }
+
+    /** The selected vehicle ID right now, or {@link #NO_VEHICLE}. */
+    public int getSelectedIdNow() {
+        return byId.isEmpty() ? NO_VEHICLE : current;
+    }
+
+    /** The selected vehicle, or {@code null} if there is none. */
+    @Nullable
+    public Vehicle getSelectedVehicle() {
+        return byId.get(current);
+    }
+
+    @Nullable
+    public Vehicle getVehicle(int vehicleId) {
+        return byId.get(vehicleId);
+    }
+
+    // ---- Mutation ----
+
+    /**
+     * Replaces the known vehicles. The selection is kept if that vehicle is still present, else
+     * the one remembered in the session is restored; otherwise it falls back to the first vehicle
+     * (or {@link #NO_VEHICLE} for an empty list).
+     */
+    @MainThread
+    public void setVehicles(@Nullable List<Vehicle> list) {
+        byId.clear();
+        if (list != null) {
+            for (Vehicle v : list) byId.put(v.getVehicleID(), v);
+        }
+        vehicles.setValue(new ArrayList<>(byId.values()));
+
+        int remembered = session.getLastSelectedVehicleId();
+        if (byId.containsKey(current)) {
+            publish(current, false);
+        } else if (byId.containsKey(remembered)) {
+            publish(remembered, false);
+        } else if (!byId.isEmpty()) {
+            publish(byId.keySet().iterator().next(), true);
+        }
+    }
+
+    /**
+     * Selects {@code vehicleId} and persists it.
+     *
+     * @return {@code false} if the ID is not one of the loaded vehicles
+     */
+    @MainThread
+    public boolean select(int vehicleId) {
+        if (!byId.containsKey(vehicleId)) return false;
+        publish(vehicleId, vehicleId != current);
+        return true;
+    }
+
+    /**
+     * Forgets the vehicles and the selection, so nothing of one account is shown to the next.
+     * Call it whenever a session starts or ends.
+     */
+    @MainThread
+    public void reset() {
+        byId.clear();
+        current = NO_VEHICLE;
+        vehicles.setValue(Collections.emptyList());
+        selectedId.setValue(null);
+    }
+
+    private void publish(int id, boolean persist) {
+        current = id;
+        if (persist) session.setLastSelectedVehicleId(id);
+        Integer shown = selectedId.getValue();
+        if (shown == null || shown != id) selectedId.setValue(id);
+    }
+
+    // ---- UI ----
+
+    /**
+     * Wires a toolbar dropdown to the store for the lifetime of {@code owner}: the adapter is
+     * rebuilt only when the vehicle list changes, the text follows the selection, and picking an
+     * item selects that item's vehicle by ID (so duplicate names resolve correctly).
+     *
+     * @param onSelected optional callback after a user pick; may be {@code null}
+     */
+    @MainThread
+    public void bindDropdown(@NonNull LifecycleOwner owner, @NonNull AutoCompleteTextView dropdown,
+                             @Nullable OnVehicleSelected onSelected) {
+        vehicles.observe(owner, list -> {
+            List<Option> options = new ArrayList<>(list.size());
+            for (Vehicle v : list) options.add(new Option(v.getVehicleID(), v.getName()));
+            dropdown.setAdapter(new ArrayAdapter<>(dropdown.getContext(), R.layout.car_selector_dropdown, options));
+            Vehicle selected = getSelectedVehicle();
+            dropdown.setText(selected != null ? selected.getName() : "No Vehicle", false);
+        });
+        selectedId.observe(owner, id -> {
+            Vehicle v = byId.get(id);
+            if (v != null) dropdown.setText(v.getName(), false);
+        });
+        dropdown.setOnClickListener(v -> dropdown.showDropDown());
+        dropdown.setOnItemClickListener((parent, view, position, rowId) -> {
+            Option picked = (Option) parent.getItemAtPosition(position);
+            if (select(picked.id) && onSelected != null) onSelected.onSelected(picked.id);
+        });
+    }
+
+    /** Dropdown row: shows the name, remembers the ID. */
+    static final class Option {
+        final int id;
+        final String name;
+
+        Option(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
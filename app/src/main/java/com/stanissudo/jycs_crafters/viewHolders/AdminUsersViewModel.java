@@ -0,0 +1,144 @@
+package com.stanissudo.jycs_crafters.viewHolders;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+import androidx.paging.PagingSource;
+
+import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
+import com.stanissudo.jycs_crafters.database.UserFilter;
+import com.stanissudo.jycs_crafters.database.UserPagingSource;
+import com.stanissudo.jycs_crafters.database.entities.User;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import kotlinx.coroutines.CoroutineScope;
+import kotlinx.coroutines.CoroutineScopeKt;
+import kotlinx.coroutines.Job;
+import kotlinx.coroutines.JobKt;
+
+/**
+ * ViewModel for the admin user list: a paged stream of accounts for the chosen
+ * {@link UserFilter} and search text.
+ * <p>
+ * Search text is applied {@link #SEARCH_DEBOUNCE_MS} after the last keystroke, so typing a name
+ * starts one query instead of one per letter; switching the filter applies at once. Each change
+ * builds a new {@link Pager} over a {@link UserPagingSource} and closes the previous one.
+ */
+public class AdminUsersViewModel extends AndroidViewModel {
+
+    /** Filter and search text the list currently shows. */
+    private static final class Query {
+        final UserFilter filter;
+        final String search;
+
+        Query(UserFilter filter, String search) {
+            this.filter = filter;
+            this.search = search;
+        }
+    }
+
+    /** Pause in typing after which the search runs. */
+    static final long SEARCH_DEBOUNCE_MS = 300;
+    /** Rows per window; a few screens of two-line items. */
+    private static final int PAGE_SIZE = 50;
+
+    private final FuelTrackAppRepository repository;
+    private final MutableLiveData<Query> query = new MutableLiveData<>(new Query(UserFilter.ALL, ""));
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private String pendingSearch = "";
+    private final Runnable applySearch = () -> apply(current().filter, pendingSearch);
+
+    /** Paged users for the current filter and search. */
+    public final LiveData<PagingData<User>> pagedUsers;
+
+    /** Scope the current query's pager is cached in; cancelled when the query changes. */
+    private Job pagerJob;
+    /** The source the current query's pager loaded last, invalidated along with its scope. */
+    private AtomicReference<PagingSource<?, ?>> pagerSource;
+
+    public AdminUsersViewModel(@NonNull Application app) {
+        super(app);
+        repository = FuelTrackAppRepository.getRepository(app);
+        pagedUsers = Transformations.switchMap(query, q -> {
+            closePager();
+            return pagerFor(q);
+        });
+    }
+
+    /** Cached in a child of the ViewModel scope, so rotation keeps the loaded windows. */
+    private LiveData<PagingData<User>> pagerFor(Query q) {
+        CoroutineScope parent = ViewModelKt.getViewModelScope(this);
+        pagerJob = JobKt.Job(JobKt.getJob(parent.getCoroutineContext()));
+        AtomicReference<PagingSource<?, ?>> last = new AtomicReference<>();
+        pagerSource = last;
+        PagingConfig config = new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, PAGE_SIZE * 2);
+        Pager<String, User> pager = new Pager<>(config, () -> {
+            PagingSource<String, User> source = repository.newUsersPagingSource(q.filter, q.search);
+            last.set(source);
+            return source;
+        });
+        return PagingLiveData.cachedIn(PagingLiveData.getLiveData(pager),
+                CoroutineScopeKt.CoroutineScope(parent.getCoroutineContext().plus(pagerJob)));
+    }
+
+    /**
+     * Stops the previous query's pager, so its cached flow and its source's invalidation observer
+     * do not stay alive, reloading on every user write, until the ViewModel is cleared.
+     */
+    private void closePager() {
+        if (pagerJob == null) return;
+        pagerJob.cancel((CancellationException) null);
+        PagingSource<?, ?> source = pagerSource.get();
+        if (source != null) source.invalidate();
+        pagerJob = null;
+        pagerSource = null;
+    }
+
+    /** Called on every edit of the search box; the list follows once typing pauses. */
+    public void setSearch(String text) {
+        pendingSearch = text == null ? "" : text.trim();
+        handler.removeCallbacks(applySearch);
+        handler.postDelayed(applySearch, SEARCH_DEBOUNCE_MS);
+    }
+
+    public void setFilter(UserFilter filter) {
+        apply(filter, current().search);
+    }
+
+    public UserFilter getFilter() {
+        return current().filter;
+    }
+
+    private Query current() {
+        return Objects.requireNonNull(query.getValue());
+    }
+
+    /**
+     * Publishes a new query unless it would list the same rows; "jane" and "jane." search alike,
+     * so punctuation alone does not reload the list.
+     */
+    private void apply(UserFilter filter, String search) {
+        Query cur = current();
+        boolean sameSearch = Objects.equals(UserPagingSource.matchQuery(search), UserPagingSource.matchQuery(cur.search));
+        if (filter != cur.filter || !sameSearch) query.setValue(new Query(filter, search));
+    }
+
+    @Override
+    protected void onCleared() {
+        handler.removeCallbacks(applySearch);
+    }
+}
@@ -4,25 +4,51 @@ import android.app.Application;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
 
 import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
+import com.stanissudo.jycs_crafters.database.StatsPeriod;
 import com.stanissudo.jycs_crafters.database.pojos.CarCostStats;
+import com.stanissudo.jycs_crafters.database.pojos.PeriodCost;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
+
+import java.util.Collections;
+import java.util.List;
 
 public class CostStatsViewModel extends AndroidViewModel {
     private final FuelTrackAppRepository repository;
     private final MutableLiveData<Integer> vehicleId = new MutableLiveData<>();
+    private final MutableLiveData<StatsPeriod> period = new MutableLiveData<>(StatsPeriod.ALL_TIME);
 
     public final LiveData<CarCostStats> stats;
+    /** Month rows for the last year, then year rows; independent of the period toggle. */
+    public final LiveData<List<PeriodCost>> breakdown;
 
     public CostStatsViewModel(@NonNull Application application) {
         super(application);
         repository = FuelTrackAppRepository.getRepository(application);
 
-        stats = Transformations.switchMap(vehicleId, id -> {
+        // Re-query when either the car or the period changes.
+        MediatorLiveData<Integer> selection = new MediatorLiveData<>();
+        selection.addSource(vehicleId, selection::setValue);
+        selection.addSource(period, p -> selection.setValue(vehicleId.getValue()));
+
+        stats = Transformations.switchMap(selection, id -> {
             if (id == null || id == -1) return emptyLiveData();
-            return repository.getCostStatsForVehicle(id);
+            StatsPeriod p = period.getValue();
+            if (p == StatsPeriod.ALL_TIME) {
+                // Lifetime totals come from the already-loaded fleet summary: no query per car.
+                return Transformations.map(repository.getFleetSummary(SessionStore.get(application).getUserId()),
+                        fleet -> fleet.costStats(id));
+            }
+            return repository.getCostStatsForVehicle(id, p);
+        });
+
+        breakdown = Transformations.switchMap(vehicleId, id -> {
+            if (id == null || id == -1) return new MutableLiveData<>(Collections.emptyList());
+            return repository.getCostBreakdownForVehicle(id);
         });
     }
 
@@ -32,6 +58,14 @@ public class CostStatsViewModel extends AndroidViewModel {
 
     public void setVehicleId(int id) { vehicleId.setValue(id); }
 
+    public void setPeriod(StatsPeriod p) {
+        if (p != period.getValue()) period.setValue(p);
+    }
+
+    public LiveData<StatsPeriod> getPeriod() {
+        return period;
+    }
+
     // small helper to return a LiveData that emits null
     private static <T> LiveData<T> emptyLiveData() {
         MutableLiveData<T> m = new MutableLiveData<>();
@@ -4,16 +4,20 @@ import android.app.Application;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
 
 import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
+import com.stanissudo.jycs_crafters.database.StatsPeriod;
 import com.stanissudo.jycs_crafters.database.pojos.CarCostStats;
 import com.stanissudo.jycs_crafters.database.pojos.CarDistanceStats;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
 
 public class DistanceStatsViewModel  extends AndroidViewModel {
     private final FuelTrackAppRepository repository;
     private final MutableLiveData<Integer> vehicleId = new MutableLiveData<>();
+    private final MutableLiveData<StatsPeriod> period = new MutableLiveData<>(StatsPeriod.ALL_TIME);
 
     public final LiveData<CarDistanceStats> stats;
 
@@ -21,9 +25,20 @@ public class DistanceStatsViewModel  extends AndroidViewModel {
         super(application);
         repository = FuelTrackAppRepository.getRepository(application);
 
-        stats = Transformations.switchMap(vehicleId, id -> {
+        // Re-query when either the car or the period changes.
+        MediatorLiveData<Integer> selection = new MediatorLiveData<>();
+        selection.addSource(vehicleId, selection::setValue);
+        selection.addSource(period, p -> selection.setValue(vehicleId.getValue()));
+
+        stats = Transformations.switchMap(selection, id -> {
             if (id == null || id == -1) return emptyLiveData();
-            return repository.getDistanceStatsForVehicle(id);
+            StatsPeriod p = period.getValue();
+            if (p == StatsPeriod.ALL_TIME) {
+                // Lifetime totals come from the already-loaded fleet summary: no query per car.
+                return Transformations.map(repository.getFleetSummary(SessionStore.get(application).getUserId()),
+                        fleet -> fleet.distanceStats(id));
+            }
+            return repository.getDistanceStatsForVehicle(id, p);
         });
     }
 
@@ -33,6 +48,14 @@ public class DistanceStatsViewModel  extends AndroidViewModel {
 
     public void setVehicleId(int id) { vehicleId.setValue(id); }
 
+    public void setPeriod(StatsPeriod p) {
+        if (p != period.getValue()) period.setValue(p);
+    }
+
+    public LiveData<StatsPeriod> getPeriod() {
+        return period;
+    }
+
     // small helper to return a LiveData that emits null
     private static <T> LiveData<T> emptyLiveData() {
         MutableLiveData<T> m = new MutableLiveData<>();
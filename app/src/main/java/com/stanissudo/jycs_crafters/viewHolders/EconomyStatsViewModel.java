@@ -0,0 +1,40 @@
+package com.stanissudo.jycs_crafters.viewHolders;
+
+import android.app.Application;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+
+import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
+import com.stanissudo.jycs_crafters.database.pojos.CarEconomyStats;
+
+public class EconomyStatsViewModel extends AndroidViewModel {
+    private final FuelTrackAppRepository repository;
+    private final MutableLiveData<Integer> vehicleId = new MutableLiveData<>();
+
+    public final LiveData<CarEconomyStats> stats;
+
+    public EconomyStatsViewModel(@NonNull Application application) {
+        super(application);
+        repository = FuelTrackAppRepository.getRepository(application);
+
+        // Reads the stored per-entry MPG; nothing is recomputed here.
+        stats = Transformations.switchMap(vehicleId, id -> {
+            if (id == null || id == -1) return emptyLiveData();
+            return repository.getEconomyStatsForVehicle(id);
+        });
+    }
+
+    public void setVehicleId(int id) {
+        if (!Integer.valueOf(id).equals(vehicleId.getValue())) vehicleId.setValue(id);
+    }
+
+    // small helper to return a LiveData that emits null
+    private static <T> LiveData<T> emptyLiveData() {
+        MutableLiveData<T> m = new MutableLiveData<>();
+        m.setValue(null);
+        return m;
+    }
+}
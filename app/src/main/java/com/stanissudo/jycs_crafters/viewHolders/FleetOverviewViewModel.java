@@ -0,0 +1,75 @@
+package com.stanissudo.jycs_crafters.viewHolders;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.paging.PagingData;
+
+import com.stanissudo.jycs_crafters.database.FleetSort;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
+import com.stanissudo.jycs_crafters.database.pojos.FleetSummary;
+import com.stanissudo.jycs_crafters.database.pojos.VehicleSummary;
+
+/**
+ * ViewModel for the fleet overview: the user's {@link FleetSummary}, sorted by the chosen metric.
+ * <p>
+ * The summary is one rollup query for all vehicles; changing the sort re-sorts the loaded rows
+ * and never queries again. Rows are handed to the adapter as {@link PagingData} so the list diffs
+ * on a background thread like the fuel log does.
+ */
+public class FleetOverviewViewModel extends AndroidViewModel {
+    private final FuelTrackAppRepository repository;
+    private final MutableLiveData<Integer> userId = new MutableLiveData<>();
+    private final MutableLiveData<FleetSort> sort = new MutableLiveData<>(FleetSort.NAME);
+    private final MutableLiveData<Boolean> reversed = new MutableLiveData<>(false);
+    private final MediatorLiveData<PagingData<VehicleSummary>> rows = new MediatorLiveData<>();
+    private LiveData<FleetSummary> fleet;
+
+    public FleetOverviewViewModel(@NonNull Application application) {
+        super(application);
+        repository = FuelTrackAppRepository.getRepository(application);
+        rows.addSource(sort, s -> publish());
+        rows.addSource(reversed, r -> publish());
+    }
+
+    public void loadFleet(int id) {
+        if (Integer.valueOf(id).equals(userId.getValue())) return;
+        userId.setValue(id);
+        if (fleet != null) rows.removeSource(fleet);
+        fleet = repository.getFleetSummary(id);
+        rows.addSource(fleet, f -> publish());
+    }
+
+    /** Rows in the current order. */
+    public LiveData<PagingData<VehicleSummary>> getRows() {
+        return rows;
+    }
+
+    public LiveData<FleetSort> getSort() {
+        return sort;
+    }
+
+    public LiveData<Boolean> isReversed() {
+        return reversed;
+    }
+
+    /** Picking the current metric again flips its direction. */
+    public void sortBy(FleetSort s) {
+        if (s == sort.getValue()) {
+            reversed.setValue(!Boolean.TRUE.equals(reversed.getValue()));
+        } else {
+            reversed.setValue(false);
+            sort.setValue(s);
+        }
+    }
+
+    private void publish() {
+        FleetSummary f = fleet == null ? null : fleet.getValue();
+        if (f == null) f = FleetSummary.EMPTY;
+        rows.setValue(PagingData.from(f.sorted(sort.getValue(), Boolean.TRUE.equals(reversed.getValue()))));
+    }
+}
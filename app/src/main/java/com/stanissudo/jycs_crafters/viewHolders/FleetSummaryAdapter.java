@@ -0,0 +1,86 @@
+package com.stanissudo.jycs_crafters.viewHolders;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.stanissudo.jycs_crafters.R;
+import com.stanissudo.jycs_crafters.database.pojos.VehicleSummary;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+import com.stanissudo.jycs_crafters.utils.FixedPoint;
+
+import java.util.Locale;
+
+/**
+ * Renders one {@link VehicleSummary} per row: name, cost and distance, last fill-up and MPG.
+ * Rows are diffed by vehicle id, so a write to one car's log rebinds only that row.
+ */
+public class FleetSummaryAdapter extends PagingDataAdapter<VehicleSummary, FleetSummaryAdapter.VH> {
+
+    /** Row tap: the user picked this vehicle. */
+    public interface Callbacks {
+        void onVehicleClicked(int vehicleId);
+    }
+
+    static final DiffUtil.ItemCallback<VehicleSummary> DIFF = new DiffUtil.ItemCallback<VehicleSummary>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull VehicleSummary oldItem, @NonNull VehicleSummary newItem) {
+            return oldItem.vehicleId == newItem.vehicleId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull VehicleSummary oldItem, @NonNull VehicleSummary newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    private final Callbacks callbacks;
+
+    public FleetSummaryAdapter(@NonNull Callbacks callbacks) {
+        super(DIFF);
+        this.callbacks = callbacks;
+    }
+
+    @NonNull
+    @Override
+    public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View v = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.fleet_summary_item, parent, false);
+        return new VH(v);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull VH h, int position) {
+        VehicleSummary s = getItem(position);
+        if (s == null) return;
+
+        h.nameText.setText(s.name);
+        h.totalsText.setText(String.format(Locale.US, "Cost: $%s • Distance: %d mi • Fill-ups: %d",
+                FixedPoint.fixed2(s.totalCostCents, FixedPoint.COST_SCALE), s.distance(), s.fillUpsCount));
+        Long mpg = s.averageMpgMilli();
+        h.recentText.setText(String.format(Locale.US, "Last fill-up: %s • MPG: %s",
+                s.lastFillUpMillis == null ? "never" : EpochTime.formatDateTime(s.lastFillUpMillis),
+                mpg == null ? "–" : FixedPoint.format(mpg, FixedPoint.MPG_SCALE, 1, false)));
+
+        int id = s.vehicleId;
+        h.itemView.setOnClickListener(v -> callbacks.onVehicleClicked(id));
+    }
+
+    static class VH extends RecyclerView.ViewHolder {
+        final TextView nameText;
+        final TextView totalsText;
+        final TextView recentText;
+        VH(View v) {
+            super(v);
+            nameText   = v.findViewById(R.id.fleetNameText);
+            totalsText = v.findViewById(R.id.fleetTotalsText);
+            recentText = v.findViewById(R.id.fleetRecentText);
+        }
+    }
+}
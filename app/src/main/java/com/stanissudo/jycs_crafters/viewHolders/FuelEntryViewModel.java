@@ -4,9 +4,12 @@ import android.app.Application;
 
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 
 import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
 import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
+import com.stanissudo.jycs_crafters.utils.OdometerIndex;
 
 /**
  * @author Ysabelle Kim
@@ -17,12 +20,23 @@ import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
  */
 public class FuelEntryViewModel extends AndroidViewModel {
     private final FuelTrackAppRepository repository;
+    private final MutableLiveData<Integer> carId = new MutableLiveData<>();
+    /** Odometer readings of the selected car, loaded once and refreshed when its log changes. */
+    public final LiveData<OdometerIndex> odometerIndex;
+
     public FuelEntryViewModel(Application application) {
         super(application);
         repository = FuelTrackAppRepository.getRepository(application);
+        odometerIndex = Transformations.switchMap(carId, id -> {
+            if (id == null || id <= 0) return new MutableLiveData<>(OdometerIndex.EMPTY);
+            return repository.getOdometerIndex(id);
+        });
     }
     public LiveData<FuelEntry> getById(int id) { return repository.getRecordById(id); }
     public void update(FuelEntry e) { repository.updateFuelEntry(e); }
     public void insert(FuelEntry e) { repository.insertFuelEntry(e); }
+    public void setCarId(int id) {
+        if (!Integer.valueOf(id).equals(carId.getValue())) carId.setValue(id);
+    }
 
 }
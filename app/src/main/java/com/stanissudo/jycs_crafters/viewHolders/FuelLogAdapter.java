@@ -7,16 +7,15 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.stanissudo.jycs_crafters.R;
 import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
-import com.stanissudo.jycs_crafters.utils.NumberFormatter;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+import com.stanissudo.jycs_crafters.utils.FixedPoint;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Locale;
 
 /**
@@ -24,23 +23,23 @@ import java.util.Locale;
  * *  created: 8/12/2025
  * *  @project JYCS-Crafters
  * *
- * RecyclerView adapter that renders {@link FuelEntry} rows with Edit/Delete actions.
+ * Paging adapter that renders {@link FuelEntry} rows with Edit/Delete actions.
  * <p>
  * Responsibilities:
  * <ul>
- *   <li>Own a mutable list of {@link FuelEntry} items (updated via {@link #submitList(List)}).</li>
- *   <li>Bind date, odometer, and detail summary to the row views.</li>
+ *   <li>Receive windows of {@link FuelEntry} items from {@code PagingData} (via {@code submitData}).</li>
+ *   <li>Bind date, odometer, detail summary and economy since the previous fill-up to the row views.</li>
  *   <li>Expose callbacks for Edit/Delete button clicks.</li>
  * </ul>
  * <p>
  * Notes:
  * <ul>
- *   <li>Adapter uses stable IDs so RecyclerView can animate changes predictably.</li>
- *   <li>For large lists or frequent updates, consider migrating to {@code ListAdapter}
- *       with {@code DiffUtil.ItemCallback}.</li>
+ *   <li>Rows are diffed on a background thread keyed by {@code LogID}, so an edit rebinds only
+ *       the changed row.</li>
+ *   <li>{@link PagingDataAdapter} does not support stable IDs; the diff callback takes their place.</li>
  * </ul>
  */
-public class FuelLogAdapter extends RecyclerView.Adapter<FuelLogAdapter.VH> {
+public class FuelLogAdapter extends PagingDataAdapter<FuelEntry, FuelLogAdapter.VH> {
 
     /** Interaction hooks for row actions. */
     public interface Callbacks {
@@ -48,33 +47,29 @@ public class FuelLogAdapter extends RecyclerView.Adapter<FuelLogAdapter.VH> {
         void onEditClicked(long id);
     }
 
-    /** Internal storage for items currently displayed. */
-    private final List<FuelEntry> items = new ArrayList<>();
+    /** Rows are the same item when their primary keys match; contents compare all columns. */
+    static final DiffUtil.ItemCallback<FuelEntry> DIFF = new DiffUtil.ItemCallback<FuelEntry>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull FuelEntry oldItem, @NonNull FuelEntry newItem) {
+            return oldItem.getLogID() == newItem.getLogID();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull FuelEntry oldItem, @NonNull FuelEntry newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
 
     /** Receiver for row action events. */
     private final Callbacks callbacks;
 
-    /** Single shared formatter for date/time display. */
-    private static final DateTimeFormatter DATE_TIME_FMT =
-            DateTimeFormatter.ofPattern("MM/dd/yyyy h:mm a", Locale.US);
-
     /**
      * Create the adapter.
      * @param callbacks Non-null callbacks for edit/delete actions.
      */
     public FuelLogAdapter(@NonNull Callbacks callbacks) {
+        super(DIFF);
         this.callbacks = callbacks;
-        setHasStableIds(true);
-    }
-
-    /**
-     * Replace the current list of items.
-     * @param newItems New data (null treated as empty)
-     */
-    public void submitList(List<FuelEntry> newItems) {
-        items.clear();
-        if (newItems != null) items.addAll(newItems);
-        notifyDataSetChanged();
     }
 
     @NonNull
@@ -87,12 +82,16 @@ public class FuelLogAdapter extends RecyclerView.Adapter<FuelLogAdapter.VH> {
 
     @Override
     public void onBindViewHolder(@NonNull VH h, int position) {
-        FuelEntry e = items.get(position);
+        FuelEntry e = getItem(position);
+        if (e == null) return; // placeholders are disabled, but the API allows nulls
 
         // Texts
-        h.dateText.setText(formatDate(e.getLogDate()));
+        h.dateText.setText(EpochTime.formatDateTime(e.getLogDateMillis()));
         h.odometerText.setText(buildOdometer(e));
         h.detailText.setText(buildDetails(e));
+        String economy = buildEconomy(e);
+        h.economyText.setText(economy);
+        h.economyText.setVisibility(economy == null ? View.GONE : View.VISIBLE);
 
         // Actions
         long id = getStableId(e);
@@ -100,17 +99,6 @@ public class FuelLogAdapter extends RecyclerView.Adapter<FuelLogAdapter.VH> {
         h.btnEdit.setOnClickListener(v -> callbacks.onEditClicked(id));
     }
 
-    @Override
-    public int getItemCount() { return items.size(); }
-
-    /**
-     * Provide a stable item id derived from the entity's primary key.
-     */
-    @Override
-    public long getItemId(int position) {
-        return getStableId(items.get(position));
-    }
-
     // --------------------------------------------------------------------------------------------
     // ViewHolder
     // --------------------------------------------------------------------------------------------
@@ -120,6 +108,7 @@ public class FuelLogAdapter extends RecyclerView.Adapter<FuelLogAdapter.VH> {
         final TextView dateText;
         final TextView odometerText;
         final TextView detailText;
+        final TextView economyText;
         final ImageButton btnDelete;
         final ImageButton btnEdit;
         VH(View v) {
@@ -127,6 +116,7 @@ public class FuelLogAdapter extends RecyclerView.Adapter<FuelLogAdapter.VH> {
             dateText     = v.findViewById(R.id.dateText);
             odometerText = v.findViewById(R.id.odometerText);
             detailText   = v.findViewById(R.id.detailText);
+            economyText  = v.findViewById(R.id.economyText);
             btnDelete    = v.findViewById(R.id.btnDelete);
             btnEdit      = v.findViewById(R.id.btnEdit);
         }
@@ -137,19 +127,12 @@ public class FuelLogAdapter extends RecyclerView.Adapter<FuelLogAdapter.VH> {
     // --------------------------------------------------------------------------------------------
 
     /**
-     * Return a stable long id for RecyclerView animations (uses entity LogID).
+     * Return the id passed to row callbacks (uses entity LogID).
      */
     private long getStableId(FuelEntry e) {
         return e.getLogID();
     }
 
-    /**
-     * Format the entry date/time for display; returns empty string if null.
-     */
-    private String formatDate(LocalDateTime dt) {
-        return dt == null ? "" : dt.format(DATE_TIME_FMT);
-    }
-
     /**
      * Build the odometer label like: "Odometer: 123,456".
      */
@@ -164,9 +147,25 @@ public class FuelLogAdapter extends RecyclerView.Adapter<FuelLogAdapter.VH> {
         return String.format(
                 Locale.US,
                 "Gas: %s gal • $/gal: %s • Total: $%s",
-                NumberFormatter.upTo3(e.getGallons()),
-                NumberFormatter.upTo2(e.getPricePerGallon()),
-                NumberFormatter.upTo2(e.getTotalCost())
+                FixedPoint.upTo3(e.getGallonsMilli(), FixedPoint.GALLONS_SCALE),
+                FixedPoint.upTo2(e.getPriceTenthCents(), FixedPoint.PRICE_SCALE),
+                FixedPoint.upTo2(e.getTotalCostCents(), FixedPoint.COST_SCALE)
+        );
+    }
+
+    /**
+     * Build the economy line like: "Since last: 312 mi • 28.4 MPG", or null for a car's first entry.
+     */
+    private String buildEconomy(FuelEntry e) {
+        if (e.getDistanceSincePrev() == null) return null;
+        if (e.getMpgMilli() == null) {
+            return String.format(Locale.US, "Since last: %d mi", e.getDistanceSincePrev());
+        }
+        return String.format(
+                Locale.US,
+                "Since last: %d mi • %s MPG",
+                e.getDistanceSincePrev(),
+                FixedPoint.format(e.getMpgMilli(), FixedPoint.MPG_SCALE, 1, false)
         );
     }
 }
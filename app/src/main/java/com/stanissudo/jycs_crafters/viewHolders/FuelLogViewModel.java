@@ -7,32 +7,42 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+import androidx.paging.PagingSource;
 
+import com.stanissudo.jycs_crafters.database.FuelEntryPagingSource;
 import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
 import com.stanissudo.jycs_crafters.database.entities.FuelEntry;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import kotlinx.coroutines.CoroutineScope;
+import kotlinx.coroutines.CoroutineScopeKt;
+import kotlinx.coroutines.Job;
+import kotlinx.coroutines.JobKt;
 
 /**
  * *  @author Stan Permiakov
  * *  created: 8/12/2025
  * *  @project JYCS-Crafters
  * *
- * ViewModel that exposes a list of {@link FuelEntry} items for the currently selected vehicle.
+ * ViewModel that exposes a paged stream of {@link FuelEntry} items for the currently selected vehicle.
  * <p>
  * <b>Responsibilities</b>
  * <ul>
  *   <li>Holds the selected car id as UI state.</li>
- *   <li>Maps the selected car id to the corresponding list of entries</li>
- *   <li>Runs destructive operations (e.g., delete) on a background thread.</li>
+ *   <li>Maps the selected car id to a {@link Pager} that loads the log in windows on demand.</li>
+ *   <li>Forwards destructive operations (e.g., delete) to the repository's write executor.</li>
  * </ul>
  *
  * <b>Usage</b>
  * <pre>{@code
- * viewModel.entries.observe(this, adapter::submitList);
+ * viewModel.pagedEntries.observe(this, data -> adapter.submitData(getLifecycle(), data));
  * viewModel.setSelectedCarId(carId);
  * }</pre>
  */
@@ -40,17 +50,22 @@ public class FuelLogViewModel extends AndroidViewModel {
     /** Data repository used to load and modify fuel log entries. */
     private final FuelTrackAppRepository repository;
 
-    /** Single-thread executor for IO-bound work (e.g., deletions). */
-    private final ExecutorService io = Executors.newSingleThreadExecutor();
-
     /** Currently selected car id; drives which entries are exposed. */
     private final MutableLiveData<Integer> selectedCarId = new MutableLiveData<>();
 
-    /** LiveData stream of entries for the selected car (empty when no car is selected). */
-    public final LiveData<List<FuelEntry>> entries;
+    /** Rows per window; roughly two screens of fuel log items. */
+    private static final int PAGE_SIZE = 30;
+
+    /** Paged stream of entries for the selected car (empty when no car is selected). */
+    public final LiveData<PagingData<FuelEntry>> pagedEntries;
+
+    /** Scope the selected car's pager is cached in; cancelled when another car is selected. */
+    private Job pagerJob;
+    /** The source the selected car's pager loaded last, invalidated along with its scope. */
+    private AtomicReference<PagingSource<?, ?>> pagerSource;
 
     /**
-     * Constructs the ViewModel and wires the {@link #entries} stream to the selected car id.
+     * Constructs the ViewModel and wires the {@link #pagedEntries} stream to the selected car id.
      *
      * @param app Application context provided by the framework
      */
@@ -58,14 +73,49 @@ public class FuelLogViewModel extends AndroidViewModel {
         super(app);
         repository = FuelTrackAppRepository.getRepository(app);
 
-        entries = Transformations.switchMap(
+        pagedEntries = Transformations.switchMap(
                 selectedCarId,
-                id -> (id == null || id <= 0)
-                        ? new MutableLiveData<>(Collections.emptyList())
-                        : repository.getEntriesForCar(id)
+                id -> {
+                    closePager();
+                    return (id == null || id <= 0)
+                            ? new MutableLiveData<>(PagingData.empty())
+                            : pagerFor(id);
+                }
         );
     }
 
+    /**
+     * Builds the paged stream for one car, cached in a child of the ViewModel scope so rotation
+     * does not reload windows that are already in memory.
+     */
+    private LiveData<PagingData<FuelEntry>> pagerFor(int carId) {
+        CoroutineScope parent = ViewModelKt.getViewModelScope(this);
+        pagerJob = JobKt.Job(JobKt.getJob(parent.getCoroutineContext()));
+        AtomicReference<PagingSource<?, ?>> last = new AtomicReference<>();
+        pagerSource = last;
+        PagingConfig config = new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, PAGE_SIZE * 2);
+        Pager<FuelEntryPagingSource.Key, FuelEntry> pager = new Pager<>(config, () -> {
+            PagingSource<FuelEntryPagingSource.Key, FuelEntry> source = repository.newEntriesPagingSource(carId);
+            last.set(source);
+            return source;
+        });
+        return PagingLiveData.cachedIn(PagingLiveData.getLiveData(pager),
+                CoroutineScopeKt.CoroutineScope(parent.getCoroutineContext().plus(pagerJob)));
+    }
+
+    /**
+     * Stops the previous car's pager, so its cached flow and its source's invalidation observer
+     * do not stay alive, reloading on every write, until the ViewModel is cleared.
+     */
+    private void closePager() {
+        if (pagerJob == null) return;
+        pagerJob.cancel((CancellationException) null);
+        PagingSource<?, ?> source = pagerSource.get();
+        if (source != null) source.invalidate();
+        pagerJob = null;
+        pagerSource = null;
+    }
+
     /**
      * Sets the id of the car whose entries should be observed and displayed.
      * No update occurs if the id is unchanged.
@@ -78,18 +128,11 @@ public class FuelLogViewModel extends AndroidViewModel {
     }
 
     /**
-     * Deletes a single entry by its id on a background thread.
+     * Deletes a single entry by its id on the database write executor.
      *
      * @param id Primary key of the {@link FuelEntry} to remove
      */
     public void deleteById(long id) {
-        io.execute(() -> repository.deleteRecordByID(id));
-    }
-
-    /**
-     * Called when the ViewModel is about to be destroyed. Shuts down the executor.
-     */
-    @Override protected void onCleared() {
-        io.shutdown(); // optional
+        repository.deleteRecordByID(id);
     }
 }
@@ -7,23 +7,23 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.stanissudo.jycs_crafters.R;
 import com.stanissudo.jycs_crafters.database.entities.Vehicle;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
 
 /**
  * @author Ysabelle Kim
  * created: 8/11/2025 - 1:48 AM
  * Explanation: Adapter for GarageActivity, populates it with the user's vehicles.
+ * Lists are diffed on a background thread keyed by VehicleID, so a single edit rebinds one row.
  * @project JYCS-Crafters
  * @name GarageAdapter.java
  */
-public class GarageAdapter extends RecyclerView.Adapter<GarageAdapter.VH> {
+public class GarageAdapter extends ListAdapter<Vehicle, GarageAdapter.VH> {
 
     /** Interaction hooks for row actions. */
     public interface Callbacks {
@@ -31,8 +31,18 @@ public class GarageAdapter extends RecyclerView.Adapter<GarageAdapter.VH> {
         void onEditClicked(long id);
     }
 
-    /** Internal storage for items currently displayed. */
-    private final List<Vehicle> items = new ArrayList<>();
+    /** Rows are the same item when their primary keys match; contents compare all columns. */
+    static final DiffUtil.ItemCallback<Vehicle> DIFF = new DiffUtil.ItemCallback<Vehicle>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Vehicle oldItem, @NonNull Vehicle newItem) {
+            return oldItem.getVehicleID() == newItem.getVehicleID();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Vehicle oldItem, @NonNull Vehicle newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
 
     /** Receiver for row action events. */
     private final Callbacks callbacks;
@@ -42,20 +52,11 @@ public class GarageAdapter extends RecyclerView.Adapter<GarageAdapter.VH> {
      * @param callbacks Non-null callbacks for edit/delete actions.
      */
     public GarageAdapter(@NonNull Callbacks callbacks) {
+        super(DIFF);
         this.callbacks = callbacks;
         setHasStableIds(true);
     }
 
-    /**
-     * Replace the current list of items.
-     * @param newItems New data (null treated as empty)
-     */
-    public void submitList(List<Vehicle> newItems) {
-        items.clear();
-        if (newItems != null) items.addAll(newItems);
-        notifyDataSetChanged();
-    }
-
     @NonNull
     @Override
     public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -66,7 +67,7 @@ public class GarageAdapter extends RecyclerView.Adapter<GarageAdapter.VH> {
 
     @Override
     public void onBindViewHolder(@NonNull GarageAdapter.VH h, int position) {
-        Vehicle e = items.get(position);
+        Vehicle e = getItem(position);
 
         // Texts
         h.vehicleNameText.setText(e.getName());
@@ -85,13 +86,9 @@ public class GarageAdapter extends RecyclerView.Adapter<GarageAdapter.VH> {
      */
     @Override
     public long getItemId(int position) {
-        return getStableId(items.get(position));
+        return getStableId(getItem(position));
     }
 
-
-    @Override
-    public int getItemCount() { return items.size(); }
-
     // --------------------------------------------------------------------------------------------
     // ViewHolder
     // --------------------------------------------------------------------------------------------
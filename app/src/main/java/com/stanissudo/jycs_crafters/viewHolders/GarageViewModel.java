@@ -13,8 +13,6 @@ import com.stanissudo.jycs_crafters.database.entities.Vehicle;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * @author Ysabelle Kim
@@ -28,9 +26,6 @@ public class GarageViewModel extends AndroidViewModel {
     private final FuelTrackAppRepository repository;
     private LiveData<List<Vehicle>> userVehicles;
 
-    /** Single-thread executor for IO-bound work (e.g., deletions). */
-    private final ExecutorService io = Executors.newSingleThreadExecutor();
-
     // To hold the currently selected vehicle across the app if needed
     private final MutableLiveData<Vehicle> selectedVehicle = new MutableLiveData<>();
 
@@ -68,7 +63,7 @@ public class GarageViewModel extends AndroidViewModel {
     }
 
     public void deleteById(long id) {
-        io.execute(() -> repository.deleteVehicleById(id));
+        repository.deleteVehicleById(id); // already runs on the database write executor
     }
     public LiveData<Vehicle> getVehicleByID(int id) {
         return repository.getVehicleByID(id);
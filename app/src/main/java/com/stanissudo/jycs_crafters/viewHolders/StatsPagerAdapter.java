@@ -6,6 +6,7 @@ import androidx.fragment.app.FragmentActivity;
 import androidx.viewpager2.adapter.FragmentStateAdapter;
 import com.stanissudo.jycs_crafters.fragments.CostStatsFragment;
 import com.stanissudo.jycs_crafters.fragments.DistanceStatsFragment;
+import com.stanissudo.jycs_crafters.fragments.EconomyStatsFragment;
 
 public class StatsPagerAdapter extends FragmentStateAdapter {
 
@@ -20,11 +21,14 @@ public class StatsPagerAdapter extends FragmentStateAdapter {
         if (position == 1) {
             return new DistanceStatsFragment();
         }
+        if (position == 2) {
+            return new EconomyStatsFragment();
+        }
         return new CostStatsFragment();
     }
 
     @Override
     public int getItemCount() {
-        return 2; // We have 2 tabs
+        return 3; // We have 3 tabs
     }
 }
@@ -0,0 +1,106 @@
+package com.stanissudo.jycs_crafters.workers;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.stanissudo.jycs_crafters.MainActivity;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
+import com.stanissudo.jycs_crafters.sync.FirestoreBackupStore;
+import com.stanissudo.jycs_crafters.sync.RemoteBackupStore;
+import com.stanissudo.jycs_crafters.sync.SyncEngine;
+import com.stanissudo.jycs_crafters.utils.SessionStore;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backs the signed-in Google user's vehicles and fuel log up to Firestore and pulls back what the
+ * backup has that this install does not (e.g. after moving to a new phone).
+ * <p>
+ * Runs hourly while online. Changes made between runs sit in the outbox, where repeated edits of
+ * the same row collapse into one, so each run ships only the net delta. A failed request makes
+ * the run return {@code retry()}, and WorkManager backs off exponentially before the next try;
+ * batches already pushed stay pushed and the pull cursor is saved after every page, so a retry
+ * carries on where the failure happened. Local-only accounts are skipped.
+ */
+public class BackupSyncWorker extends Worker {
+
+    static final String PREFS = "backup_sync_prefs";
+    static final String KEY_PULL_CURSOR_PREFIX = "backupPullCursor_";
+    private static final String UNIQUE_NAME = "backup-sync";
+    private static final long INTERVAL_HOURS = 1;
+    private static final long BACKOFF_SECONDS = 30;
+
+    public BackupSyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /** Schedules the periodic sync; keeps the existing schedule if there is one. */
+    public static void schedule(Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(BackupSyncWorker.class,
+                INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .setRequiresBatteryNotLow(true)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(UNIQUE_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        SessionStore.Session session = SessionStore.get(context).current();
+        FirebaseUser account = FirebaseAuth.getInstance().getCurrentUser();
+        // Google accounts are stored locally under their e-mail address.
+        if (!session.loggedIn || account == null || !session.username.equals(account.getEmail())) {
+            return Result.success();
+        }
+
+        SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        String cursorKey = KEY_PULL_CURSOR_PREFIX + account.getUid();
+        RemoteBackupStore remote = new FirestoreBackupStore(FirebaseFirestore.getInstance(), account.getUid());
+        SyncEngine engine = FuelTrackAppRepository.getRepository((Application) context)
+                .newSyncEngine(remote, session.userId);
+        try {
+            int pushed = 0;
+            int n;
+            while (!isStopped() && (n = engine.pushBatch()) > 0) pushed += n;
+
+            String cursor = prefs.getString(cursorKey, null);
+            RemoteBackupStore.Page page;
+            do {
+                if (isStopped()) return Result.retry();
+                page = engine.pullPage(cursor);
+                cursor = page.nextCursor;
+                prefs.edit().putString(cursorKey, cursor).commit();
+            } while (page.hasMore);
+            Log.i(MainActivity.TAG, "Backup sync pushed " + pushed + " changes");
+            return Result.success();
+        } catch (IOException e) {
+            Log.w(MainActivity.TAG, "Backup sync failed, will retry", e);
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.stanissudo.jycs_crafters.workers;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.stanissudo.jycs_crafters.MainActivity;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-shot job that fills {@code DistanceSincePrev} and {@code MpgMilli} for logs written before
+ * those columns existed (database version 8).
+ * <p>
+ * Cars are visited in id order, one car's log per transaction, and the last car finished is saved
+ * after each, so a stopped run resumes from there. Entries written after the upgrade are kept up
+ * to date by the DAO, so once the end is reached the job marks itself done and later runs return
+ * without work.
+ */
+public class EconomyBackfillWorker extends Worker {
+
+    static final String PREFS = "economy_backfill_prefs";
+    static final String KEY_LAST_CAR_ID = "economyBackfillLastCarId";
+    static final String KEY_DONE = "economyBackfillDone";
+    private static final String UNIQUE_NAME = "economy-backfill";
+    /** Each car is one write transaction; wait until the first screen has loaded its stats. */
+    private static final long START_DELAY_SECONDS = 30;
+
+    public EconomyBackfillWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Queues the backfill if no run is pending. Once it has finished on this install the queued
+     * run sees {@link #KEY_DONE} and exits without touching the database.
+     */
+    public static void enqueueIfNeeded(Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(EconomyBackfillWorker.class)
+                .setInitialDelay(START_DELAY_SECONDS, TimeUnit.SECONDS)
+                .setConstraints(new Constraints.Builder().setRequiresBatteryNotLow(true).build())
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(UNIQUE_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        SharedPreferences prefs = getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        FuelTrackAppRepository repository =
+                FuelTrackAppRepository.getRepository((Application) getApplicationContext());
+
+        if (prefs.getBoolean(KEY_DONE, false)) return Result.success();
+        int lastCarId = prefs.getInt(KEY_LAST_CAR_ID, 0);
+        try {
+            while (!isStopped()) {
+                Integer carId = repository.backfillEconomy(lastCarId);
+                if (carId == null) {
+                    prefs.edit().putBoolean(KEY_DONE, true).remove(KEY_LAST_CAR_ID).commit();
+                    return Result.success();
+                }
+                lastCarId = carId;
+                prefs.edit().putInt(KEY_LAST_CAR_ID, lastCarId).commit();
+            }
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        } catch (ExecutionException e) {
+            Log.e(MainActivity.TAG, "Economy backfill failed after car " + lastCarId, e.getCause());
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.stanissudo.jycs_crafters.workers;
+
+import android.app.Application;
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Data;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.stanissudo.jycs_crafters.MainActivity;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
+import com.stanissudo.jycs_crafters.transfer.FuelEntryExporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Background export of the fuel log to a document the user picked (SAF {@code content://} URI)
+ * or a {@code file://} URI. Stopping the work cancels the export between rows.
+ */
+public class FuelLogExportWorker extends Worker {
+
+    public static final String KEY_URI = "uri";
+    public static final String KEY_FORMAT = "format";
+    public static final String KEY_CAR_ID = "carId";
+    /** Output key: rows written. */
+    public static final String KEY_ROWS = "rows";
+
+    public FuelLogExportWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Queues an export of one car's log. The work fails if {@code carId} is not a vehicle id.
+     *
+     * @return id of the work request, for observing its state
+     */
+    public static UUID enqueue(Context context, Uri target, FuelEntryExporter.Format format, int carId) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(FuelLogExportWorker.class)
+                .setInputData(new Data.Builder()
+                        .putString(KEY_URI, target.toString())
+                        .putString(KEY_FORMAT, format.name())
+                        .putInt(KEY_CAR_ID, carId)
+                        .build())
+                .build();
+        WorkManager.getInstance(context).enqueue(request);
+        return request.getId();
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String uri = getInputData().getString(KEY_URI);
+        String format = getInputData().getString(KEY_FORMAT);
+        int carId = getInputData().getInt(KEY_CAR_ID, -1);
+        if (uri == null || format == null) return Result.failure();
+
+        FuelTrackAppRepository repository =
+                FuelTrackAppRepository.getRepository((Application) getApplicationContext());
+        // "wt" truncates when overwriting an existing document. The exporter buffers its writes.
+        try (OutputStream out = getApplicationContext().getContentResolver().openOutputStream(Uri.parse(uri), "wt")) {
+            if (out == null) return Result.failure();
+            long rows = repository.exportFuelLog(carId, out, FuelEntryExporter.Format.valueOf(format), this::isStopped);
+            return Result.success(new Data.Builder().putLong(KEY_ROWS, rows).build());
+        } catch (CancellationException e) {
+            Log.i(MainActivity.TAG, "Fuel log export stopped: " + e.getMessage());
+            return Result.failure();
+        } catch (IOException | SecurityException | IllegalArgumentException e) {
+            Log.e(MainActivity.TAG, "Fuel log export failed", e);
+            return Result.failure();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.stanissudo.jycs_crafters.workers;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.stanissudo.jycs_crafters.MainActivity;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
+import com.stanissudo.jycs_crafters.database.OrphanPurge;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-shot job that deletes the fuel entries, vehicles, rollup and outbox rows whose parent was
+ * deleted before the foreign keys existed (database version 11). Since then the cascade removes
+ * them with the parent, so once nothing is left the job marks itself done and does nothing on
+ * later starts.
+ * <p>
+ * Each batch is its own short transaction on the write executor, so UI writes slip in between.
+ * The rows deleted and the bytes freed are added up across runs, logged at the end and returned
+ * as the work's output. With auto-vacuum, which Android databases use by default, each commit
+ * cuts the emptied pages off the end of the file; without it they stay on the free list for later
+ * writes. Both count as freed. No VACUUM is run: it holds the lock for a rewrite of the whole
+ * database.
+ */
+public class OrphanPurgeWorker extends Worker {
+
+    static final String PREFS = "orphan_purge_prefs";
+    static final String KEY_ROWS = "orphanPurgeRows";
+    static final String KEY_BYTES = "orphanPurgeBytes";
+    static final String KEY_DONE = "orphanPurgeDone";
+    public static final String OUTPUT_ROWS = "rows";
+    public static final String OUTPUT_BYTES = "bytes";
+    private static final String UNIQUE_NAME = "orphan-purge";
+    private static final int BATCH_SIZE = 500;
+    /** Orphans are harmless until purged, so there is no reason to compete with startup. */
+    private static final long START_DELAY_SECONDS = 30;
+
+    public OrphanPurgeWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /** Queues the purge unless one is pending; a run after the purge has finished is a no-op. */
+    public static void enqueueIfNeeded(Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(OrphanPurgeWorker.class)
+                .setInitialDelay(START_DELAY_SECONDS, TimeUnit.SECONDS)
+                .setConstraints(new Constraints.Builder().setRequiresBatteryNotLow(true).build())
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(UNIQUE_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        SharedPreferences prefs = getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        FuelTrackAppRepository repository =
+                FuelTrackAppRepository.getRepository((Application) getApplicationContext());
+
+        if (prefs.getBoolean(KEY_DONE, false)) return Result.success();
+        long rows = prefs.getLong(KEY_ROWS, 0);
+        long bytes = prefs.getLong(KEY_BYTES, 0);
+        try {
+            while (!isStopped()) {
+                OrphanPurge.Batch batch = repository.purgeOrphans(BATCH_SIZE);
+                rows += batch.rows;
+                bytes += batch.bytesFreed;
+                if (batch.rows == 0) {
+                    prefs.edit().putBoolean(KEY_DONE, true).remove(KEY_ROWS).remove(KEY_BYTES).commit();
+                    Log.i(MainActivity.TAG, "Orphan purge deleted " + rows + " rows, freed " + bytes + " bytes");
+                    return Result.success(new Data.Builder()
+                            .putLong(OUTPUT_ROWS, rows)
+                            .putLong(OUTPUT_BYTES, bytes)
+                            .build());
+                }
+                prefs.edit().putLong(KEY_ROWS, rows).putLong(KEY_BYTES, bytes).commit();
+            }
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        } catch (ExecutionException e) {
+            Log.e(MainActivity.TAG, "Orphan purge failed after " + rows + " rows", e.getCause());
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.stanissudo.jycs_crafters.workers;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.stanissudo.jycs_crafters.MainActivity;
+import com.stanissudo.jycs_crafters.database.FuelTrackAppRepository;
+import com.stanissudo.jycs_crafters.database.LegacyPasswordMigration;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-shot migration that hashes legacy plaintext passwords, replacing the sweep that used to run
+ * on every process start.
+ * <p>
+ * Users are visited in id order, one batch per transaction. The last id reached is saved after
+ * every batch, so a stopped run resumes from there, and once the end of the table is reached the
+ * job records that it is done; later runs see that and stop at once. Anything created afterwards
+ * is hashed on write, and login still accepts a legacy plaintext password until its row has been
+ * migrated.
+ */
+public class PasswordRehashWorker extends Worker {
+
+    static final String PREFS = "password_rehash_prefs";
+    static final String KEY_LAST_ID = "passwordRehashLastId";
+    static final String KEY_DONE = "passwordRehashDone";
+    private static final String UNIQUE_NAME = "password-rehash";
+    private static final int BATCH_SIZE = 200;
+    /** Keeps the job out of the way of the first screen's queries. */
+    private static final long START_DELAY_SECONDS = 30;
+
+    public PasswordRehashWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedules the migration unless a run is already pending. Safe on the main thread: whether
+     * it already finished is only read by {@link #doWork()}, which then returns at once.
+     */
+    public static void enqueueIfNeeded(Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(PasswordRehashWorker.class)
+                .setInitialDelay(START_DELAY_SECONDS, TimeUnit.SECONDS)
+                .setConstraints(new Constraints.Builder().setRequiresBatteryNotLow(true).build())
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(UNIQUE_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        SharedPreferences prefs = getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        FuelTrackAppRepository repository =
+                FuelTrackAppRepository.getRepository((Application) getApplicationContext());
+
+        if (prefs.getBoolean(KEY_DONE, false)) return Result.success();
+        int lastId = prefs.getInt(KEY_LAST_ID, 0);
+        try {
+            while (!isStopped()) {
+                int next = repository.rehashLegacyPasswords(lastId, BATCH_SIZE);
+                if (next == LegacyPasswordMigration.DONE) {
+                    prefs.edit().putBoolean(KEY_DONE, true).remove(KEY_LAST_ID).commit();
+                    return Result.success();
+                }
+                lastId = next;
+                prefs.edit().putInt(KEY_LAST_ID, lastId).commit();
+            }
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        } catch (ExecutionException e) {
+            Log.e(MainActivity.TAG, "Password re-hash batch failed after id " + lastId, e.getCause());
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.stanissudo.jycs_crafters;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Activities, fragments and the {@code Application} run their lifecycle on the main thread, so they
+ * must read the session through {@code SessionStore} (loaded in the background at process start)
+ * instead of opening {@code SharedPreferences} themselves. This scans the app sources and fails on
+ * any such class that does. Helpers they call are not visible to a source scan;
+ * {@code MainThreadDiskReadTest} runs startup under StrictMode to catch those.
+ */
+public class NoMainThreadPrefsTest {
+
+    private static final Pattern UI_CLASS =
+            Pattern.compile("\\bclass\\s+\\w+\\s+extends\\s+\\w*(Activity|Fragment|Application)\\b");
+    private static final Pattern PREFS_ACCESS =
+            Pattern.compile("\\bgetSharedPreferences\\s*\\(|\\bgetDefaultSharedPreferences\\s*\\(|\\bSharedPreferences\\b");
+
+    @Test
+    public void noMainThreadClassTouchesSharedPreferences() throws IOException {
+        List<File> sources = new ArrayList<>();
+        collect(sourceRoot(), sources);
+
+        int uiClasses = 0;
+        List<String> offenders = new ArrayList<>();
+        for (File f : sources) {
+            String src = new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+            if (!UI_CLASS.matcher(src).find()) continue;
+            uiClasses++;
+            String code = stripComments(src);
+            if (PREFS_ACCESS.matcher(code).find()) offenders.add(f.getName());
+        }
+
+        assertTrue("Scan found no activities; wrong source root?", uiClasses > 5);
+        assertTrue("Use SessionStore instead of SharedPreferences in: " + offenders, offenders.isEmpty());
+    }
+
+    /** Gradle runs unit tests from the module directory; IDEs sometimes use the project root. */
+    private static File sourceRoot() {
+        for (String candidate : new String[]{"src/main/java", "app/src/main/java"}) {
+            File f = new File(candidate);
+            if (f.isDirectory()) return f;
+        }
+        throw new AssertionError("Cannot find app sources from " + new File("").getAbsolutePath());
+    }
+
+    private static void collect(File dir, List<File> out) {
+        File[] children = dir.listFiles();
+        if (children == null) return;
+        for (File c : children) {
+            if (c.isDirectory()) collect(c, out);
+            else if (c.getName().endsWith(".java")) out.add(c);
+        }
+    }
+
+    private static String stripComments(String src) {
+        return src.replaceAll("(?s)/\\*.*?\\*/", "").replaceAll("//[^\\n]*", "");
+    }
+}
@@ -0,0 +1,78 @@
+package com.stanissudo.jycs_crafters.database;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queue depth and wait-time accounting of {@link MeteredExecutor}.
+ */
+public class MeteredExecutorTest {
+
+    private final MeteredExecutor executor = new MeteredExecutor("test-writer", 1);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void reportsQueuedTasksBehindABusyWriter() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+        executor.execute(() -> {
+            awaitQuietly(release);
+            done.countDown();
+        });
+        for (int i = 0; i < 3; i++) executor.execute(done::countDown);
+
+        Thread.sleep(50);
+        assertEquals(3, executor.stats().queueDepth);
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        waitForCompleted(4);
+
+        MeteredExecutor.Stats stats = executor.stats();
+        assertEquals(0, stats.queueDepth);
+        // The three queued tasks sat behind the blocked one for at least the 50ms sleep.
+        assertTrue(stats.maxWaitMicros >= TimeUnit.MILLISECONDS.toMicros(50));
+        assertTrue(stats.avgWaitMicros <= stats.maxWaitMicros);
+    }
+
+    @Test
+    public void singleWriterRunsTasksInOrder() throws InterruptedException {
+        AtomicInteger last = new AtomicInteger(-1);
+        AtomicInteger outOfOrder = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1000);
+        for (int i = 0; i < 1000; i++) {
+            final int n = i;
+            executor.execute(() -> {
+                if (last.getAndSet(n) != n - 1) outOfOrder.incrementAndGet();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, outOfOrder.get());
+    }
+
+    private void waitForCompleted(long n) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.stats().completed < n && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
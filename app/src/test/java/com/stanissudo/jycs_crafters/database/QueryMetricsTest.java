@@ -0,0 +1,173 @@
+package com.stanissudo.jycs_crafters.database;
+
+import static org.junit.Assert.*;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Statement timing, sampling and the rings of {@link QueryMetrics}, on a hand-driven clock, and
+ * what {@link MeteredOpenHelper} adds to each statement.
+ */
+public class QueryMetricsTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong();
+
+    private QueryMetrics metrics(int ringSize, int sampleEvery) {
+        return new QueryMetrics(ringSize, 4, 50 * MS, sampleEvery, now::get);
+    }
+
+    @Test
+    public void overlappingStatementsAreTimedFromTheirOwnStart() {
+        QueryMetrics m = metrics(16, 1);
+        m.taskStarted("db-reader-1", 3 * MS);
+        long a = m.start();
+        now.addAndGet(2 * MS);
+        // Runs while the first query's cursor is still open.
+        long b = m.start();
+        now.addAndGet(7 * MS);
+        m.finished("SELECT b", b, -1);
+        now.addAndGet(MS);
+        m.finished("SELECT a", a, 15);
+        // Work after the task's last statement is not charged to it.
+        now.addAndGet(40 * MS);
+        m.taskFinished();
+
+        QueryMetrics.Report r = m.report();
+        assertEquals(2, r.timed);
+        assertEquals(2, r.statements.size());
+        QueryMetrics.StatementStats slowest = r.statements.get(0);
+        assertEquals("SELECT a", slowest.sql);
+        assertEquals(10_000, slowest.p99Micros);
+        assertEquals(15, slowest.avgRows);
+        assertEquals(3_000, slowest.maxWaitMicros);
+        QueryMetrics.StatementStats inner = r.statements.get(1);
+        assertEquals(7_000, inner.p50Micros);
+        assertEquals(-1, inner.avgRows);
+        assertTrue(r.slow.isEmpty());
+    }
+
+    @Test
+    public void statementsOutsideExecutorTasksAreTaggedWithTheirThread() {
+        QueryMetrics m = metrics(16, 1);
+        m.taskStarted("db-writer", 5 * MS);
+        m.taskFinished();
+        long start = m.start();
+        now.addAndGet(60 * MS);
+        m.finished("DELETE FROM orphans", start, 3);
+
+        QueryMetrics.Report r = m.report();
+        assertEquals(1, r.timed);
+        QueryMetrics.Sample sample = r.slow.get(0);
+        assertEquals(Thread.currentThread().getName(), sample.executor);
+        assertEquals(0, sample.waitMicros);
+        assertEquals(3, sample.rows);
+    }
+
+    @Test
+    public void onlyOneInNIsSampledButEverySlowStatementIsLogged() {
+        QueryMetrics m = metrics(64, 4);
+        m.taskStarted("db-writer", 0);
+        for (int i = 0; i < 20; i++) {
+            long start = m.start();
+            now.addAndGet(i % 10 == 4 ? 60 * MS : MS);
+            m.finished("UPDATE t", start, 1);
+        }
+        m.taskFinished();
+
+        QueryMetrics.Report r = m.report();
+        assertEquals(20, r.timed);
+        assertEquals(5, r.statements.get(0).samples);
+        // Statements 4 and 14 were slow; neither fell on a sample, so the ring holds only 1ms runs.
+        assertEquals(1_000, r.statements.get(0).p99Micros);
+        assertEquals(2, r.slow.size());
+        assertEquals(60_000, r.slow.get(0).latencyMicros);
+    }
+
+    @Test
+    public void ringsKeepTheMostRecentSamples() {
+        QueryMetrics m = metrics(8, 1);
+        m.taskStarted("db-reader-1", 0);
+        for (int i = 1; i <= 20; i++) {
+            long start = m.start();
+            now.addAndGet(i * 10 * MS);
+            m.finished("SELECT x", start, -1);
+        }
+        m.taskFinished();
+
+        QueryMetrics.Report r = m.report();
+        assertEquals(8, r.statements.get(0).samples);
+        assertEquals(160_000, r.statements.get(0).p50Micros); // runs 13..20 remain
+        // Runs 5..20 were slow; the slow ring holds the last 4, newest first.
+        assertEquals(4, r.slow.size());
+        assertEquals(200_000, r.slow.get(0).latencyMicros);
+        assertEquals(170_000, r.slow.get(3).latencyMicros);
+    }
+
+    @Test
+    public void percentileIsNearestRank() {
+        long[] v = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        assertEquals(5, QueryMetrics.percentile(v, 50));
+        assertEquals(10, QueryMetrics.percentile(v, 95));
+        assertEquals(10, QueryMetrics.percentile(v, 99));
+        assertEquals(7, QueryMetrics.percentile(new long[]{7}, 50));
+    }
+
+    @Test
+    public void openHelperWrapsEachDatabaseOnce() {
+        AtomicReference<SupportSQLiteDatabase> current =
+                new AtomicReference<>(fake(SupportSQLiteDatabase.class, () -> null));
+        MeteredOpenHelper helper =
+                new MeteredOpenHelper(fake(SupportSQLiteOpenHelper.class, current::get), metrics(16, 1));
+
+        SupportSQLiteDatabase first = helper.getWritableDatabase();
+        assertSame(first, helper.getReadableDatabase());
+        assertSame(first, helper.getWritableDatabase());
+
+        // Reopened by the delegate: the old wrapper would run statements on a closed database.
+        current.set(fake(SupportSQLiteDatabase.class, () -> null));
+        assertNotSame(first, helper.getWritableDatabase());
+    }
+
+    /**
+     * The per-statement cost with the real clock and default sampling, as Room pays it: getting
+     * the database from the open helper, wrapping the cursor and timing it until it closes. The
+     * fake database answers through a proxy, so this is an upper bound; prints ns per statement.
+     */
+    @Test
+    public void timingOverheadIsSmall() {
+        QueryMetrics m = new QueryMetrics(QueryMetrics.RING_SIZE, QueryMetrics.SLOW_RING_SIZE,
+                TimeUnit.MILLISECONDS.toNanos(QueryMetrics.SLOW_QUERY_MS), QueryMetrics.SAMPLE_EVERY, System::nanoTime);
+        SupportSQLiteDatabase db = fake(SupportSQLiteDatabase.class, () -> null);
+        MeteredOpenHelper helper = new MeteredOpenHelper(fake(SupportSQLiteOpenHelper.class, () -> db), m);
+        int statements = 1_000_000;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            m.taskStarted("bench", 0);
+            for (int i = 0; i < statements; i++) helper.getWritableDatabase().query("SELECT 1").close();
+            m.taskFinished();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long perStatement = best / statements;
+        System.out.println("QueryMetrics overhead: " + perStatement + " ns/statement");
+        assertTrue(perStatement + " ns/statement", perStatement < 2_000);
+    }
+
+    /** Answers every object-returning call with what {@code answer} supplies at the time. */
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, Supplier<Object> answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> answer.get());
+    }
+}
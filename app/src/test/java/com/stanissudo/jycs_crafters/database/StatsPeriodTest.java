@@ -0,0 +1,130 @@
+package com.stanissudo.jycs_crafters.database;
+
+import static org.junit.Assert.*;
+
+import com.stanissudo.jycs_crafters.database.entities.VehicleMonthStats;
+import com.stanissudo.jycs_crafters.database.pojos.CarCostStats;
+import com.stanissudo.jycs_crafters.database.pojos.CarDistanceStats;
+import com.stanissudo.jycs_crafters.database.pojos.PeriodCost;
+import com.stanissudo.jycs_crafters.utils.EpochTime;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Period bounds of {@link StatsPeriod} and how month buckets are folded into the stats the tabs
+ * show.
+ */
+public class StatsPeriodTest {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Los_Angeles");
+
+    @After
+    public void tearDown() {
+        EpochTime.resetZone();
+    }
+
+    @Test
+    public void calendarPeriodsFollowTheLocalCalendar() {
+        EpochTime.setZone(ZONE);
+        // 2025-01-01 06:30 UTC is still New Year's Eve in Los Angeles.
+        long now = LocalDateTime.of(2024, 12, 31, 22, 30).atZone(ZONE).toInstant().toEpochMilli();
+        int dec2024 = (2024 - 1970) * 12 + 11;
+
+        assertEquals(dec2024, StatsPeriod.THIS_MONTH.firstMonth(now));
+        assertEquals(dec2024, StatsPeriod.THIS_MONTH.lastMonth(now));
+        assertEquals(dec2024 - 11, StatsPeriod.THIS_YEAR.firstMonth(now));
+        assertEquals(dec2024, StatsPeriod.THIS_YEAR.lastMonth(now));
+        assertEquals(Integer.MIN_VALUE, StatsPeriod.ALL_TIME.firstMonth(now));
+    }
+
+    @Test
+    public void costSumsOnlyThePeriodAndRoundsLikeTheQuery() {
+        CarCostStats s = CarCostStats.fromBuckets(Arrays.asList(
+                bucket(9, 4, 20_000, 16_000, 100, 400),   // before the period: baseline only
+                bucket(10, 2, 9_001, 7_000, 500, 800),
+                bucket(11, 1, 4_000, 3_001, 900, 900)), 10);
+
+        assertNotNull(s);
+        assertEquals(3, s.fillUpsCount);
+        assertEquals(13_001, s.totalCostCents);
+        assertEquals(3_334, s.avgPriceTenthCents);     // 10001 / 3 = 3333.67
+        assertEquals(4_334, s.avgCostPerFillUpCents);  // 13001 / 3 = 4333.67
+    }
+
+    @Test
+    public void distanceStartsFromThePreviousBucket() {
+        CarDistanceStats s = CarDistanceStats.fromBuckets(Arrays.asList(
+                bucket(9, 4, 0, 0, 100, 400),
+                bucket(10, 2, 0, 0, 500, 800),
+                bucket(11, 1, 0, 0, 900, 900)), 10);
+
+        assertNotNull(s);
+        assertEquals(900, s.lastOdometer);
+        assertEquals(500, s.totalDistance);   // 400 -> 900, including the drive to the first fill-up
+        assertEquals(166, s.avgDistancePerFillUp, 0);
+    }
+
+    @Test
+    public void distanceWithoutHistoryStartsAtTheFirstReading() {
+        CarDistanceStats s = CarDistanceStats.fromBuckets(Collections.singletonList(
+                bucket(10, 3, 0, 0, 500, 800)), 10);
+
+        assertNotNull(s);
+        assertEquals(300, s.totalDistance);
+        assertEquals(150, s.avgDistancePerFillUp, 0);
+    }
+
+    @Test
+    public void emptyPeriodHasNoStats() {
+        assertNull(CarCostStats.fromBuckets(Collections.singletonList(bucket(9, 4, 1, 1, 1, 2)), 10));
+        assertNull(CarDistanceStats.fromBuckets(Collections.emptyList(), 10));
+    }
+
+    @Test
+    public void breakdownListsRecentMonthsThenEarlierYears() {
+        int jan2023 = (2023 - 1970) * 12;
+        int mar2025 = jan2023 + 26;
+        List<PeriodCost> rows = PeriodCost.breakdown(Arrays.asList(
+                bucket(jan2023 - 1, 1, 1_000, 0, 0, 0),     // Dec 2022
+                bucket(jan2023 + 2, 2, 2_000, 0, 0, 0),     // Mar 2023
+                bucket(jan2023 + 11, 1, 3_000, 0, 0, 0),    // Dec 2023
+                bucket(jan2023 + 14, 1, 4_000, 0, 0, 0),    // Mar 2024, just before the window
+                bucket(jan2023 + 15, 2, 4_500, 0, 0, 0),    // Apr 2024, the window's first month
+                bucket(mar2025 - 1, 3, 5_000, 0, 0, 0),     // Feb 2025
+                bucket(mar2025, 1, 6_000, 0, 0, 0)), mar2025, 12);
+
+        assertEquals(6, rows.size());
+        assertEquals("Mar 2025", rows.get(0).label());
+        assertEquals(6_000, rows.get(0).stats.totalCostCents);
+        assertEquals("Feb 2025", rows.get(1).label());
+        assertEquals(3, rows.get(1).stats.fillUpsCount);
+        assertEquals("Apr 2024", rows.get(2).label());
+        assertFalse(rows.get(2).year);
+        // 2024 straddles the window: its row only holds the months before April.
+        assertEquals("2024", rows.get(3).label());
+        assertTrue(rows.get(3).year);
+        assertEquals(4_000, rows.get(3).stats.totalCostCents);
+        assertEquals("2023", rows.get(4).label());
+        assertEquals(3, rows.get(4).stats.fillUpsCount);
+        assertEquals(5_000, rows.get(4).stats.totalCostCents);
+        assertEquals("2022", rows.get(5).label());
+        assertTrue(PeriodCost.breakdown(Collections.emptyList(), mar2025, 12).isEmpty());
+    }
+
+    private static VehicleMonthStats bucket(int month, int fills, long costCents, long priceSum, int minOdo, int maxOdo) {
+        VehicleMonthStats b = new VehicleMonthStats(1, month);
+        b.setFillUpsCount(fills);
+        b.setTotalCostCents(costCents);
+        b.setPriceTenthCentsSum(priceSum);
+        b.setMinOdometer(minOdo);
+        b.setMaxOdometer(maxOdo);
+        return b;
+    }
+}
@@ -0,0 +1,197 @@
+package com.stanissudo.jycs_crafters.network;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Response;
+
+/**
+ * {@link AdviceQuotePool} against a local {@link MockWebServer} standing in for the Advice Slip
+ * API: refills, duplicate slips, server errors, a slow server and no server at all. The login
+ * screen must always get a quote from local data without waiting.
+ */
+public class AdviceQuotePoolTest {
+
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    private MockWebServer server;
+    private AdviceService service;
+    private File poolFile;
+    private final QueuedExecutor io = new QueuedExecutor();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        service = serviceFor(RetrofitClient.newHttpClient(null));
+        poolFile = new File(tmp.getRoot(), AdviceQuotePool.FILE_NAME);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void emptyPoolFillsFromServerAndServesFromMemory() throws Exception {
+        for (int i = 1; i <= AdviceQuotePool.MAX_REQUESTS_PER_REFILL; i++) server.enqueue(slip(i));
+        AdviceQuotePool pool = new AdviceQuotePool(service, poolFile, io);
+        assertEquals("Nothing loaded yet, so the fallback is shown", quoted(AdviceQuotePool.FALLBACK), pool.next());
+
+        io.runAll();
+
+        assertEquals(AdviceQuotePool.MAX_REQUESTS_PER_REFILL, pool.size());
+        assertEquals(quoted("Advice 1"), pool.next());
+        assertEquals(quoted("Advice 2"), pool.next());
+        assertEquals("next() must not hit the network", AdviceQuotePool.MAX_REQUESTS_PER_REFILL, server.getRequestCount());
+        assertTrue(poolFile.exists());
+    }
+
+    @Test
+    public void repeatedSlipsAreKeptOnce() {
+        server.enqueue(slip(1));
+        server.enqueue(slip(1));
+        server.enqueue(slip(2));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        AdviceQuotePool pool = new AdviceQuotePool(service, poolFile, io);
+
+        io.runAll();
+
+        assertEquals(2, pool.size());
+        assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    public void serverErrorKeepsSavedQuotes() throws Exception {
+        writePool("0\t10\tSaved one", "0\t11\tSaved two", "1\t12\tAlready shown");
+        server.enqueue(new MockResponse().setResponseCode(500));
+        AdviceQuotePool pool = new AdviceQuotePool(service, poolFile, io);
+
+        io.runAll();
+
+        assertEquals("One failed request ends the refill", 1, server.getRequestCount());
+        assertEquals(3, pool.size());
+        assertEquals(quoted("Saved one"), pool.next());
+        assertEquals(quoted("Saved two"), pool.next());
+        assertEquals("Once everything is seen, the oldest shown quote comes back",
+                quoted("Already shown"), pool.next());
+    }
+
+    @Test
+    public void offlineServesSavedQuotesAndThenTheFallback() throws Exception {
+        server.shutdown();
+        writePool("0\t10\tSaved one");
+        AdviceQuotePool pool = new AdviceQuotePool(service, poolFile, io);
+        io.runAll();
+        assertEquals(quoted("Saved one"), pool.next());
+
+        AdviceQuotePool empty = new AdviceQuotePool(service, new File(tmp.getRoot(), "none.txt"), io);
+        io.runAll();
+        assertEquals(quoted(AdviceQuotePool.FALLBACK), empty.next());
+    }
+
+    @Test
+    public void shownStateSurvivesARestart() throws Exception {
+        writePool("0\t10\tFirst", "0\t11\tSecond");
+        server.shutdown();
+        AdviceQuotePool pool = new AdviceQuotePool(service, poolFile, io);
+        io.runAll();
+        assertEquals(quoted("First"), pool.next());
+        io.runAll(); // save
+
+        AdviceQuotePool restarted = new AdviceQuotePool(service, poolFile, io);
+        io.runAll();
+        assertEquals(1, restarted.unseenCount());
+        assertEquals(quoted("Second"), restarted.next());
+    }
+
+    @Test
+    public void slowServerDoesNotDelayNext() throws Exception {
+        writePool("0\t10\tSaved one");
+        server.enqueue(slip(1).setHeadersDelay(2, TimeUnit.SECONDS));
+        ExecutorService thread = Executors.newSingleThreadExecutor();
+        try {
+            AdviceQuotePool pool = new AdviceQuotePool(service, poolFile, thread);
+            assertTrue(pool.awaitLoaded(5, TimeUnit.SECONDS));
+            // The refill is now stuck waiting for the server.
+            assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            String quote = pool.next();
+            long micros = (System.nanoTime() - start) / 1_000;
+
+            assertEquals(quoted("Saved one"), quote);
+            assertTrue("next() took " + micros + "us behind a slow refill", micros < 50_000);
+        } finally {
+            thread.shutdownNow();
+        }
+    }
+
+    @Test
+    public void httpCacheAnswersRepeatRequestsWithoutTheServer() throws Exception {
+        OkHttpClient client = RetrofitClient.newHttpClient(new Cache(tmp.newFolder("http"), 64 * 1024));
+        assertEquals(TimeUnit.SECONDS.toMillis(RetrofitClient.READ_TIMEOUT_SECONDS), client.readTimeoutMillis());
+        AdviceService cached = serviceFor(client);
+        server.enqueue(slip(7).addHeader("Cache-Control", "max-age=60"));
+
+        Response<AdviceResponse> first = cached.getAdvice().execute();
+        server.shutdown();
+        Response<AdviceResponse> second = cached.getAdvice().execute();
+
+        assertEquals("Advice 7", first.body().getSlip().getAdvice());
+        assertEquals("Advice 7", second.body().getSlip().getAdvice());
+        assertNotNull("Second response should come from the cache", second.raw().cacheResponse());
+    }
+
+    private AdviceService serviceFor(OkHttpClient client) {
+        return RetrofitClient.newRetrofit(server.url("/").toString(), client).create(AdviceService.class);
+    }
+
+    private static MockResponse slip(int id) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"slip\":{\"slip_id\":\"" + id + "\",\"advice\":\"Advice " + id + "\"}}");
+    }
+
+    private void writePool(String... lines) throws IOException {
+        Files.write(poolFile.toPath(), (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String quoted(String s) {
+        return "“" + s + "”";
+    }
+
+    /** Collects tasks until the test decides to run them, on the test thread. */
+    private static final class QueuedExecutor implements Executor {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable r) {
+            tasks.add(r);
+        }
+
+        void runAll() {
+            Runnable r;
+            while ((r = tasks.poll()) != null) r.run();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Throughput of the old {@code ZonedDateTime}-based date handling against {@link EpochTime}, over
+ * timestamps that step through a few years like a real log. Prints results through
+ * {@link MicroBench}; only asserts that both sides agree.
+ */
+public class EpochTimeBenchmark {
+
+    private static final int OPS_PER_ROUND = 100_000;
+    private static final long START = 1_735_689_600_000L; // 2025-01-01T00:00Z
+    private static final long STEP = 3_600_000L * 7;       // seven hours, so days and months roll over
+    private static final int SPAN = 4096;                  // ~3 years of steps, then wrap like a real log
+    private static final DateTimeFormatter UI_FMT = DateTimeFormatter.ofPattern("MM/dd/yyyy h:mm a", Locale.US);
+
+    /** What {@code LocalDateTypeConverter} used to do for every row read. */
+    private static LocalDateTime legacyRead(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /** What {@code LocalDateTypeConverter} used to do for every row written. */
+    private static long legacyWrite(LocalDateTime ldt) {
+        return ZonedDateTime.of(ldt, ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Test
+    public void readRow() {
+        for (int i = 0; i < 1_000; i++) {
+            long t = START + i * STEP;
+            assertEquals(legacyRead(t), EpochTime.toLocalDateTime(t));
+        }
+        MicroBench.report("read", opsPerMs(t -> legacyRead(t).getNano()),
+                opsPerMs(t -> EpochTime.toLocalDateTime(t).getNano()));
+    }
+
+    @Test
+    public void writeRow() {
+        LocalDateTime[] inputs = new LocalDateTime[1024];
+        for (int i = 0; i < inputs.length; i++) inputs[i] = legacyRead(START + i * STEP);
+        for (LocalDateTime ldt : inputs) assertEquals(legacyWrite(ldt), EpochTime.toEpochMillis(ldt));
+        MicroBench.report("write", opsPerMs(t -> legacyWrite(inputs[(int) (t % inputs.length)])),
+                opsPerMs(t -> EpochTime.toEpochMillis(inputs[(int) (t % inputs.length)])));
+    }
+
+    @Test
+    public void dayBucket() {
+        for (int i = 0; i < 1_000; i++) {
+            long t = START + i * STEP;
+            assertEquals(legacyRead(t).toLocalDate().toEpochDay(), EpochTime.epochDay(t));
+        }
+        MicroBench.report("epochDay", opsPerMs(t -> legacyRead(t).toLocalDate().toEpochDay()),
+                opsPerMs(EpochTime::epochDay));
+    }
+
+    @Test
+    public void formatRow() {
+        for (int i = 0; i < 1_000; i++) {
+            long t = START + i * STEP;
+            assertEquals(legacyRead(t).format(UI_FMT), EpochTime.formatDateTime(t));
+        }
+        MicroBench.report("format", opsPerMs(t -> legacyRead(t).format(UI_FMT).length()),
+                opsPerMs(t -> EpochTime.formatDateTime(t).length()));
+    }
+
+    /** Runs {@code op} on the stepped timestamps. */
+    private static double opsPerMs(LongUnaryOperator op) {
+        return MicroBench.opsPerMs(OPS_PER_ROUND, i -> op.applyAsLong(START + (i % SPAN) * STEP));
+    }
+}
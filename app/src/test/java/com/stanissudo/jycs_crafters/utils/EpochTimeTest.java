@@ -0,0 +1,116 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * {@link EpochTime} must agree with {@code java.time} everywhere, including across DST gaps and
+ * overlaps, in zones with odd offsets, and outside its offset table.
+ */
+public class EpochTimeTest {
+
+    private static final String[] ZONES = {
+            "UTC", "America/New_York", "Europe/Berlin", "Australia/Lord_Howe", "Asia/Kolkata",
+            "America/St_Johns", "Pacific/Chatham",
+    };
+    private static final DateTimeFormatter UI_FMT = DateTimeFormatter.ofPattern("MM/dd/yyyy h:mm a", Locale.US);
+
+    @After
+    public void tearDown() {
+        EpochTime.resetZone();
+    }
+
+    @Test
+    public void utcToLocalMatchesJavaTime() {
+        Random rnd = new Random(42);
+        for (String id : ZONES) {
+            ZoneId zone = ZoneId.of(id);
+            EpochTime.setZone(zone);
+            for (int i = 0; i < 20_000; i++) {
+                long utc = randomMillis(rnd);
+                LocalDateTime expected = LocalDateTime.ofInstant(Instant.ofEpochMilli(utc), zone);
+                assertEquals(id + " @" + utc, expected, EpochTime.toLocalDateTime(utc));
+            }
+        }
+    }
+
+    @Test
+    public void localToUtcMatchesJavaTimeAcrossTransitions() {
+        for (String id : ZONES) {
+            ZoneId zone = ZoneId.of(id);
+            EpochTime.setZone(zone);
+            // Every 15 minutes through two years covers each spring gap and autumn overlap twice.
+            LocalDateTime t = LocalDateTime.of(2024, 1, 1, 0, 0);
+            LocalDateTime end = LocalDateTime.of(2026, 1, 1, 0, 0);
+            for (; t.isBefore(end); t = t.plusMinutes(15)) {
+                long expected = ZonedDateTime.of(t, zone).toInstant().toEpochMilli();
+                assertEquals(id + " " + t, expected, EpochTime.toEpochMillis(t));
+            }
+        }
+    }
+
+    @Test
+    public void bucketsMatchLocalCalendar() {
+        Random rnd = new Random(7);
+        for (String id : ZONES) {
+            ZoneId zone = ZoneId.of(id);
+            EpochTime.setZone(zone);
+            for (int i = 0; i < 20_000; i++) {
+                long utc = randomMillis(rnd);
+                LocalDate day = LocalDateTime.ofInstant(Instant.ofEpochMilli(utc), zone).toLocalDate();
+                assertEquals(day.toEpochDay(), EpochTime.epochDay(utc));
+                int month = (day.getYear() - 1970) * 12 + day.getMonthValue() - 1;
+                assertEquals(month, EpochTime.epochMonth(utc));
+
+                long dayStart = day.atStartOfDay(zone).toInstant().toEpochMilli();
+                assertEquals(dayStart, EpochTime.startOfDay(day.toEpochDay()));
+                long monthStart = day.withDayOfMonth(1).atStartOfDay(zone).toInstant().toEpochMilli();
+                assertEquals(monthStart, EpochTime.startOfMonth(month));
+            }
+        }
+    }
+
+    @Test
+    public void formatsLikeTheOldFormatter() {
+        Random rnd = new Random(3);
+        for (String id : ZONES) {
+            ZoneId zone = ZoneId.of(id);
+            EpochTime.setZone(zone);
+            for (int i = 0; i < 5_000; i++) {
+                long utc = randomMillis(rnd);
+                String expected = LocalDateTime.ofInstant(Instant.ofEpochMilli(utc), zone).format(UI_FMT);
+                assertEquals(expected, EpochTime.formatDateTime(utc));
+            }
+        }
+    }
+
+    @Test
+    public void civilArithmeticRoundTrips() {
+        for (long d = -800_000; d <= 800_000; d += 37) {
+            LocalDate expected = LocalDate.ofEpochDay(d);
+            int civil = EpochTime.civilFromDays(d);
+            assertEquals(expected.getYear(), EpochTime.civilYear(civil));
+            assertEquals(expected.getMonthValue(), EpochTime.civilMonth(civil));
+            assertEquals(expected.getDayOfMonth(), EpochTime.civilDay(civil));
+            assertEquals(d, EpochTime.daysFromCivil(expected.getYear(), expected.getMonthValue(), expected.getDayOfMonth()));
+        }
+    }
+
+    /** 1950..2090, jumping around so the segment hint keeps missing and some instants fall outside the table. */
+    private static long randomMillis(Random rnd) {
+        long from = -631_152_000_000L;
+        long to = 3_786_912_000_000L;
+        return from + (long) (rnd.nextDouble() * (to - from));
+    }
+}
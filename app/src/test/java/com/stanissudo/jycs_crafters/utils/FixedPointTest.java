@@ -0,0 +1,94 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Parsing, arithmetic and formatting of {@link FixedPoint} values.
+ */
+public class FixedPointTest {
+
+    @Test
+    public void parsesWithoutDoubleRoundTrip() {
+        assertEquals(12_345, FixedPoint.parse("12.345", FixedPoint.GALLONS_SCALE));
+        assertEquals(12_000, FixedPoint.parse("12", FixedPoint.GALLONS_SCALE));
+        assertEquals(250, FixedPoint.parse(".25", FixedPoint.GALLONS_SCALE));
+        assertEquals(-150, FixedPoint.parse("-1.5", FixedPoint.COST_SCALE));
+        // Digits beyond the scale round half up.
+        assertEquals(1_235, FixedPoint.parse("1.2345", FixedPoint.GALLONS_SCALE));
+        assertEquals(1_234, FixedPoint.parse("1.2344999", FixedPoint.GALLONS_SCALE));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectsNonNumbers() {
+        FixedPoint.parse("1.2.3", FixedPoint.COST_SCALE);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectsBareDot() {
+        FixedPoint.parse(".", FixedPoint.COST_SCALE);
+    }
+
+    @Test
+    public void totalIsRoundedToTheCent() {
+        // 11.5 gal * $3.25 = $37.375
+        assertEquals(3_738, FixedPoint.totalCents(11_500, 3_250));
+        // 12.345 gal * $6.479 = $79.983255
+        assertEquals(7_998, FixedPoint.totalCents(12_345, 6_479));
+    }
+
+    @Test
+    public void dividesBackToOtherUnits() {
+        // $50.00 at $4.000/gal = 12.500 gal
+        assertEquals(12_500, FixedPoint.divide(5_000, FixedPoint.COST_SCALE,
+                4_000, FixedPoint.PRICE_SCALE, FixedPoint.GALLONS_SCALE));
+        // $10.00 over 3 gal = $3.333/gal
+        assertEquals(3_333, FixedPoint.divide(1_000, FixedPoint.COST_SCALE,
+                3_000, FixedPoint.GALLONS_SCALE, FixedPoint.PRICE_SCALE));
+    }
+
+    @Test
+    public void mpgIsRoundedToTheThousandth() {
+        // 350 mi on 12.000 gal = 29.1666.. MPG
+        assertEquals(29_167, FixedPoint.mpgMilli(350, 12_000));
+        assertEquals(30_000, FixedPoint.mpgMilli(300, 10_000));
+        assertEquals(-2_500, FixedPoint.mpgMilli(-25, 10_000));
+        assertEquals("29.2", FixedPoint.format(29_167, FixedPoint.MPG_SCALE, 1, false));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void divisionByZeroThrows() {
+        FixedPoint.divide(1, FixedPoint.COST_SCALE, 0, FixedPoint.PRICE_SCALE, FixedPoint.GALLONS_SCALE);
+    }
+
+    @Test
+    public void sumsAreExact() {
+        long cents = 0;
+        double dollars = 0;
+        for (int i = 0; i < 1_000; i++) {
+            cents += FixedPoint.parse("0.10", FixedPoint.COST_SCALE);
+            dollars += 0.10;
+        }
+        assertEquals(10_000, cents);
+        assertNotEquals(100.0, dollars, 0.0); // what the old REAL column would have summed to
+    }
+
+    @Test
+    public void formatsLikeNumberFormatter() {
+        assertEquals("2", FixedPoint.upTo2(200, FixedPoint.COST_SCALE));
+        assertEquals("2.5", FixedPoint.upTo2(250, FixedPoint.COST_SCALE));
+        assertEquals("12.345", FixedPoint.upTo3(12_345, FixedPoint.GALLONS_SCALE));
+        assertEquals("2.50", FixedPoint.fixed2(250, FixedPoint.COST_SCALE));
+        assertEquals("0.05", FixedPoint.fixed2(50, FixedPoint.PRICE_SCALE));
+        assertEquals("4.40", FixedPoint.fixed2(4_399, FixedPoint.PRICE_SCALE));
+        assertEquals("-1.05", FixedPoint.fixed2(-105, FixedPoint.COST_SCALE));
+    }
+
+    @Test
+    public void priceKeepsItsThirdDecimalThroughTheEditForm() {
+        String shown = FixedPoint.upTo3(4_399, FixedPoint.PRICE_SCALE);
+        assertEquals("4.399", shown);
+        assertEquals(4_399, FixedPoint.parse(shown, FixedPoint.PRICE_SCALE));
+    }
+}
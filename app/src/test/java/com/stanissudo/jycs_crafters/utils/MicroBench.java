@@ -0,0 +1,49 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import java.util.Locale;
+
+/**
+ * Minimal JMH-style throughput harness for the JVM benchmarks: a few warm-up rounds, then timed
+ * measurement rounds, keeping the best round in ops/ms.
+ */
+final class MicroBench {
+
+    static final int WARMUP_ROUNDS = 5;
+    static final int MEASURE_ROUNDS = 5;
+
+    /** One operation; returns something derived from its result. */
+    interface Op {
+        long run(int i);
+    }
+
+    // Keeps results reachable so the JIT cannot drop the work.
+    private static volatile long sink;
+
+    private MicroBench() {
+    }
+
+    /** Best throughput over the measurement rounds of {@code opsPerRound} calls to {@code op}. */
+    static double opsPerMs(int opsPerRound, Op op) {
+        for (int r = 0; r < WARMUP_ROUNDS; r++) round(opsPerRound, op);
+        double best = 0;
+        for (int r = 0; r < MEASURE_ROUNDS; r++) {
+            long start = System.nanoTime();
+            round(opsPerRound, op);
+            double ms = (System.nanoTime() - start) / 1_000_000.0;
+            best = Math.max(best, opsPerRound / ms);
+        }
+        return best;
+    }
+
+    private static void round(int ops, Op op) {
+        long h = 0;
+        for (int i = 0; i < ops; i++) h += op.run(i);
+        sink += h;
+    }
+
+    /** Prints one before/after line with the speed-up. */
+    static void report(String name, double before, double after) {
+        System.out.println(String.format(Locale.US, "%-8s before=%10.1f ops/ms  after=%10.1f ops/ms  (%.1fx)",
+                name, before, after, after / before));
+    }
+}
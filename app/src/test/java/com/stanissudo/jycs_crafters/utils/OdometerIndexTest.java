@@ -0,0 +1,121 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Neighbour lookups of {@link OdometerIndex}, checked against the rules of
+ * {@code FuelEntryDAO.validateAndSave}: strictly earlier and strictly later dates, with the entry
+ * being edited left out.
+ */
+public class OdometerIndexTest {
+
+    private static final long DAY = EpochTime.MILLIS_PER_DAY;
+
+    /** Car 1: ids 1..4 on days 1, 2, 2, 5 with readings 100, 200, 250, 500. */
+    private static OdometerIndex sample() {
+        return new OdometerIndex.Builder(1, 4)
+                .add(1, DAY, 100, 3_000)
+                .add(2, 2 * DAY, 200, 3_100)
+                .add(3, 2 * DAY, 250, 3_200)
+                .add(4, 5 * DAY, 500, 3_300)
+                .build();
+    }
+
+    @Test
+    public void findsNeighboursByDate() {
+        OdometerIndex index = sample();
+        assertEquals(250, (int) index.previousOdometer(3 * DAY, 0));
+        assertEquals(500, (int) index.nextOdometer(3 * DAY, 0));
+        assertNull(index.previousOdometer(DAY / 2, 0));
+        assertNull(index.nextOdometer(6 * DAY, 0));
+    }
+
+    @Test
+    public void sameDateIsNeitherBeforeNorAfter() {
+        OdometerIndex index = sample();
+        assertEquals(100, (int) index.previousOdometer(2 * DAY, 0));
+        assertEquals(500, (int) index.nextOdometer(2 * DAY, 0));
+    }
+
+    @Test
+    public void skipsTheEntryBeingEdited() {
+        OdometerIndex index = sample();
+        assertEquals(200, (int) index.previousOdometer(3 * DAY, 3));
+        assertNull(index.nextOdometer(3 * DAY, 4));
+        assertTrue(index.accepts(450, 5 * DAY + 1, 4));
+        assertFalse(index.accepts(450, 5 * DAY + 1, 0));
+    }
+
+    @Test
+    public void acceptsOnlyStrictlyBetween() {
+        OdometerIndex index = sample();
+        assertTrue(index.accepts(300, 3 * DAY, 0));
+        assertFalse(index.accepts(250, 3 * DAY, 0));
+        assertFalse(index.accepts(500, 3 * DAY, 0));
+        assertTrue(OdometerIndex.EMPTY.accepts(0, 0, 0));
+    }
+
+    @Test
+    public void suggestsFromLatestEntry() {
+        OdometerIndex index = sample();
+        assertEquals(500, (int) index.latestOdometer());
+        assertEquals(3_300L, (long) index.latestPriceTenthCents());
+        // 400 miles over 3 intervals, rounded: 133
+        assertEquals(633, (int) index.suggestedOdometer());
+        assertNull(OdometerIndex.EMPTY.suggestedOdometer());
+        assertNull(OdometerIndex.EMPTY.latestPriceTenthCents());
+    }
+
+    @Test
+    public void entriesWithoutOdometerOnlySetThePrice() {
+        OdometerIndex index = new OdometerIndex.Builder(1, 0)
+                .add(1, DAY, 100, 3_000)
+                .add(2, 2 * DAY, null, 3_500)
+                .build();
+        assertEquals(1, index.size());
+        assertEquals(3_500L, (long) index.latestPriceTenthCents());
+        assertEquals(100, (int) index.previousOdometer(3 * DAY, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnsortedInput() {
+        new OdometerIndex.Builder(1, 2).add(2, 2 * DAY, 200, 0).add(1, DAY, 100, 0);
+    }
+
+    @Test
+    public void matchesLinearScanOnRandomLogs() {
+        Random random = new Random(42);
+        int n = 500;
+        long[] ids = new long[n];
+        long[] dates = new long[n];
+        int[] odos = new int[n];
+        OdometerIndex.Builder builder = new OdometerIndex.Builder(7, 16); // forces growth
+        long date = 0;
+        for (int i = 0; i < n; i++) {
+            date += random.nextInt(3) * DAY; // repeated dates included
+            ids[i] = i + 1;
+            dates[i] = date;
+            odos[i] = i * 10;
+            builder.add(ids[i], dates[i], odos[i], 0);
+        }
+        OdometerIndex index = builder.build();
+
+        for (int q = 0; q < 2_000; q++) {
+            long at = random.nextInt((int) (date / DAY) + 2) * DAY - (random.nextBoolean() ? 0 : 1);
+            long exclude = random.nextInt(n + 1);
+            Integer prev = null;
+            Integer next = null;
+            for (int i = 0; i < n; i++) {
+                if (ids[i] == exclude) continue;
+                if (dates[i] < at) prev = odos[i];
+                if (dates[i] > at && next == null) next = odos[i];
+            }
+            assertEquals(prev, index.previousOdometer(at, exclude));
+            assertEquals(next, index.nextOdometer(at, exclude));
+        }
+    }
+}
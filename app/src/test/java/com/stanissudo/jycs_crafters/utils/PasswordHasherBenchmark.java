@@ -0,0 +1,70 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Throughput comparison of the old inline password helpers against
+ * {@link PasswordHasher}, run through {@link MicroBench}. Prints results; only asserts that both
+ * sides agree.
+ */
+public class PasswordHasherBenchmark {
+
+    private static final int OPS_PER_ROUND = 20_000;
+
+    private static final String[] INPUTS = {
+            "password",
+            "5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8",
+            "correct horse battery staple",
+            "E3B0C44298FC1C149AFBF4C8996FB92427AE41E4649B934CA495991B7852B855",
+    };
+
+    /** The check that used to be pasted around the repository and LoginActivity. */
+    private static boolean legacyIsHash(String s) {
+        return s.matches("(?i)^[0-9a-f]{64}$");
+    }
+
+    /** The helper that used to live in the repository and LoginActivity. */
+    private static String legacySha256(String s) {
+        try {
+            java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
+            byte[] bytes = md.digest(s.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void hashCheck() {
+        for (String s : INPUTS) assertEquals(legacyIsHash(s), PasswordHasher.isSha256Hex(s));
+        MicroBench.report("isHash", checkOpsPerMs(PasswordHasherBenchmark::legacyIsHash),
+                checkOpsPerMs(PasswordHasher::isSha256Hex));
+    }
+
+    @Test
+    public void sha256Hex() {
+        for (String s : INPUTS) assertEquals(legacySha256(s), PasswordHasher.sha256Hex(s));
+        MicroBench.report("sha256", opsPerMs(PasswordHasherBenchmark::legacySha256),
+                opsPerMs(PasswordHasher::sha256Hex));
+    }
+
+    private static double checkOpsPerMs(Predicate<String> op) {
+        UnaryOperator<String> asOp = s -> op.test(s) ? s : null;
+        return opsPerMs(asOp);
+    }
+
+    /** Cycles {@code op} through {@link #INPUTS}, scoring each result by its length. */
+    private static double opsPerMs(UnaryOperator<String> op) {
+        return MicroBench.opsPerMs(OPS_PER_ROUND, i -> {
+            String out = op.apply(INPUTS[i & (INPUTS.length - 1)]);
+            return out == null ? 0 : out.length();
+        });
+    }
+}
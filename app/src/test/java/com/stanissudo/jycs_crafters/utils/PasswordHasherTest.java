@@ -0,0 +1,100 @@
+package com.stanissudo.jycs_crafters.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Hashing, recognition and verification rules of {@link PasswordHasher}.
+ */
+public class PasswordHasherTest {
+
+    // sha256("password")
+    private static final String PASSWORD_HEX =
+            "5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8";
+
+    @After
+    public void tearDown() {
+        PasswordHasher.setStorageKdf(PasswordHasher.SHA256_HEX_KDF);
+    }
+
+    @Test
+    public void sha256HexMatchesKnownVector() {
+        assertEquals(PASSWORD_HEX, PasswordHasher.sha256Hex("password"));
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                PasswordHasher.sha256Hex(""));
+    }
+
+    @Test
+    public void recognizesHexHashesOnly() {
+        assertTrue(PasswordHasher.isSha256Hex(PASSWORD_HEX));
+        assertTrue(PasswordHasher.isSha256Hex(PASSWORD_HEX.toUpperCase()));
+        assertFalse(PasswordHasher.isSha256Hex(PASSWORD_HEX.substring(1)));
+        assertFalse(PasswordHasher.isSha256Hex(PASSWORD_HEX.replace('e', 'g')));
+        assertFalse(PasswordHasher.isSha256Hex(null));
+        assertFalse(PasswordHasher.isHashed("hunter2"));
+    }
+
+    @Test
+    public void hashIfNeededLeavesHashesAlone() {
+        assertEquals(PASSWORD_HEX, PasswordHasher.hashIfNeeded(PASSWORD_HEX));
+        assertEquals(PASSWORD_HEX, PasswordHasher.hashIfNeeded("password"));
+    }
+
+    @Test
+    public void verifiesAllStoredShapes() {
+        assertTrue(PasswordHasher.verify("password", PASSWORD_HEX));
+        assertTrue(PasswordHasher.verify("password", PASSWORD_HEX.toUpperCase()));
+        assertTrue(PasswordHasher.verify("password", "password"));
+        assertFalse(PasswordHasher.verify("Password", PASSWORD_HEX));
+        assertFalse(PasswordHasher.verify("Password", "password"));
+        assertFalse(PasswordHasher.verify("password", null));
+
+        PasswordHasher.PBKDF2.calibrate(5);
+        String pbkdf2 = PasswordHasher.PBKDF2.hash("password");
+        assertTrue(PasswordHasher.verify("password", pbkdf2));
+        assertFalse(PasswordHasher.verify("Password", pbkdf2));
+        assertFalse(PasswordHasher.verify("password", "pbkdf2-sha256$garbage"));
+    }
+
+    @Test
+    public void noPasswordAccountsNeverVerify() {
+        assertTrue(PasswordHasher.isNoPassword(PasswordHasher.NO_PASSWORD));
+        assertFalse(PasswordHasher.isNoPassword(PASSWORD_HEX));
+        assertFalse(PasswordHasher.verify(PasswordHasher.NO_PASSWORD, PasswordHasher.NO_PASSWORD));
+        assertFalse(PasswordHasher.verify("oauth_dummy", PasswordHasher.NO_PASSWORD));
+        assertFalse(PasswordHasher.verify("", PasswordHasher.NO_PASSWORD));
+    }
+
+    @Test
+    public void pbkdf2SaltsEachHash() {
+        PasswordHasher.PBKDF2.calibrate(5);
+        String a = PasswordHasher.PBKDF2.hash("password");
+        String b = PasswordHasher.PBKDF2.hash("password");
+        assertNotEquals(a, b);
+        assertTrue(PasswordHasher.isHashed(a));
+    }
+
+    @Test
+    public void calibrationStaysWithinBounds() {
+        int low = PasswordHasher.PBKDF2.calibrate(0);
+        assertEquals(PasswordHasher.Pbkdf2.MIN_ITERATIONS, low);
+        int high = PasswordHasher.PBKDF2.calibrate(60_000);
+        assertEquals(PasswordHasher.Pbkdf2.MAX_ITERATIONS, high);
+    }
+
+    @Test
+    public void switchingStorageSchemeFlagsOldHashesForUpgrade() {
+        assertFalse(PasswordHasher.needsUpgrade(PASSWORD_HEX));
+        assertTrue(PasswordHasher.needsUpgrade("password"));
+
+        PasswordHasher.PBKDF2.calibrate(5);
+        PasswordHasher.setStorageKdf(PasswordHasher.PBKDF2);
+        assertTrue(PasswordHasher.needsUpgrade(PASSWORD_HEX));
+        String stored = PasswordHasher.hashForStorage("password");
+        assertFalse(PasswordHasher.needsUpgrade(stored));
+        // Already-hashed values are not hashed twice, whatever the storage scheme.
+        assertEquals(PASSWORD_HEX, PasswordHasher.hashIfNeeded(PASSWORD_HEX));
+    }
+}